@@ -0,0 +1,26 @@
+package com.softwaremind.invoicedocbackend.common;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Runs cache invalidations once the surrounding transaction has committed. Evicting earlier lets a concurrent
+// reader load the old row again and keep it until the TTL; after a rollback nothing is evicted.
+// Without an active transaction the action runs right away.
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
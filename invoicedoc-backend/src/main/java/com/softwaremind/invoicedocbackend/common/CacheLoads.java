@@ -0,0 +1,48 @@
+package com.softwaremind.invoicedocbackend.common;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Read-through for caches whose loader blocks on the database.
+// Cache.get(key, loader) runs the loader inside ConcurrentHashMap.compute, i.e. in a synchronized block, which on
+// Java 21 pins a virtual thread to its carrier for the whole query. Here only an empty future is published under
+// the lock; the caller loads outside it and completes the future, so concurrent callers for the same key still
+// wait for one load. Caffeine drops the entry when the load fails or returns null.
+public final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> existing = cache.getIfPresent(key);
+        if (existing == null) {
+            CompletableFuture<V> pending = new CompletableFuture<>();
+            existing = cache.asMap().putIfAbsent(key, pending);
+            if (existing == null) {
+                return load(pending, key, loader);
+            }
+        }
+        try {
+            return existing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private static <K, V> V load(CompletableFuture<V> pending, K key, Function<K, V> loader) {
+        try {
+            V value = loader.apply(key);
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
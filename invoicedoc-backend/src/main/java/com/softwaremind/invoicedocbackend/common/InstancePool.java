@@ -0,0 +1,60 @@
+package com.softwaremind.invoicedocbackend.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+// Bounded, lock-free pool for stateful JCA objects (Cipher, Mac, MessageDigest) that are costly to look up but not
+// thread-safe. A ThreadLocal does not help with virtual threads: every request runs on a new thread, so each one
+// paid for a fresh instance and left it behind. Callers take an instance, re-init it and release it in finally;
+// when every slot is busy take() creates a new one and release() drops whatever does not fit.
+public final class InstancePool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+
+    public InstancePool(int capacity, Supplier<T> factory) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.factory = factory;
+    }
+
+    public InstancePool(Supplier<T> factory) {
+        this(2 * Runtime.getRuntime().availableProcessors(), factory);
+    }
+
+    public T take() {
+        int length = slots.length();
+        int start = ThreadLocalRandom.current().nextInt(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (slots.getPlain(index) != null) {
+                T instance = slots.getAndSet(index, null);
+                if (instance != null) {
+                    return instance;
+                }
+            }
+        }
+        return factory.get();
+    }
+
+    public void release(T instance) {
+        int length = slots.length();
+        int start = ThreadLocalRandom.current().nextInt(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (slots.getPlain(index) == null && slots.compareAndSet(index, null, instance)) {
+                return;
+            }
+        }
+    }
+
+    int idle() {
+        int idle = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+}
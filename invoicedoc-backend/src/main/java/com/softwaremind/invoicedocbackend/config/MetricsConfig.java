@@ -0,0 +1,31 @@
+package com.softwaremind.invoicedocbackend.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+// Meters tagged with an organization use ORG_TAG; OrgTagLimitFilter keeps the number of its values bounded.
+// The endpoint dimension is the `uri` template of http.server.requests, which Boot already caps.
+@Configuration
+public class MetricsConfig {
+
+    public static final String ORG_TAG = "org";
+    public static final String NO_ORG = "none";
+
+    @Bean
+    public MeterFilter orgTagLimitFilter(@Value("${app.metrics.max-org-tags:100}") int maxOrgTags) {
+        return new OrgTagLimitFilter(maxOrgTags);
+    }
+
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new OrgServerRequestObservationConvention();
+    }
+
+    public static String orgTag(Long organizationId) {
+        return organizationId != null ? organizationId.toString() : NO_ORG;
+    }
+}
@@ -0,0 +1,20 @@
+package com.softwaremind.invoicedocbackend.config;
+
+import io.micrometer.common.KeyValues;
+
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import com.softwaremind.invoicedocbackend.security.jwt.JwtAuthenticationFilter;
+
+// Adds the caller's organization to http.server.requests. The security context is already cleared when
+// the observation stops, so the organization comes from the request attribute JwtAuthenticationFilter sets.
+public class OrgServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object organizationId = context.getCarrier().getAttribute(JwtAuthenticationFilter.ORGANIZATION_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context).and(MetricsConfig.ORG_TAG,
+                organizationId != null ? organizationId.toString() : MetricsConfig.NO_ORG);
+    }
+}
@@ -0,0 +1,35 @@
+package com.softwaremind.invoicedocbackend.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The first maxOrgs organizations seen keep their own series; later ones are reported together as "other".
+// The check is not atomic, so a few extra organizations may get through under concurrent first registrations.
+public class OrgTagLimitFilter implements MeterFilter {
+
+    static final String OVERFLOW = "other";
+
+    private final int maxOrgs;
+    private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+
+    public OrgTagLimitFilter(int maxOrgs) {
+        this.maxOrgs = maxOrgs;
+    }
+
+    @Override
+    public Meter.Id map(Meter.Id id) {
+        String org = id.getTag(MetricsConfig.ORG_TAG);
+        if (org == null || MetricsConfig.NO_ORG.equals(org) || admitted.contains(org)) {
+            return id;
+        }
+        if (admitted.size() < maxOrgs) {
+            admitted.add(org);
+            return id;
+        }
+        return id.replaceTags(Tags.of(id.getTagsAsIterable()).and(MetricsConfig.ORG_TAG, OVERFLOW));
+    }
+}
@@ -0,0 +1,106 @@
+package com.softwaremind.invoicedocbackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Guard for virtual-thread mode: a virtual thread that blocks inside a synchronized block (or a native frame)
+// keeps its carrier thread, and enough of them stall every request. The JVM reports those as
+// jdk.VirtualThreadPinned JFR events; they are counted in jvm.threads.virtual.pinned and each distinct
+// stack is logged once, so the offending lock shows up in the log instead of as unexplained p99 latency.
+// The innermost frames of a pin are always the same park internals (VirtualThread, LockSupport, ...), so those are
+// skipped and the stack is logged, and deduplicated, from the first frame that made the blocking call.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 32;
+    private static final List<String> INTERNAL_PREFIXES = List.of(
+            "java.lang.VirtualThread", "java.lang.Continuation", "java.lang.System$", "jdk.internal.",
+            "java.util.concurrent.locks.", "java.lang.Object.wait", "java.lang.Thread.sleep");
+    private static final int MAX_LOGGED_STACKS = 100;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.virtual-threads.pinned-threshold:20ms}")
+    private Duration threshold = Duration.ofMillis(20);
+
+    private final Set<String> loggedStacks = ConcurrentHashMap.newKeySet();
+    private Timer pinned;
+    private RecordingStream stream;
+
+    @PostConstruct
+    void init() {
+        pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        String stack = topFrames(event.getStackTrace());
+        if (loggedStacks.size() < MAX_LOGGED_STACKS && loggedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms at:\n{}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        return topFrames(stackTrace.getFrames().stream()
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .toList());
+    }
+
+    static String topFrames(List<String> frames) {
+        int first = 0;
+        while (first < frames.size() - 1 && isInternal(frames.get(first))) {
+            first++;
+        }
+        return frames.stream()
+                .skip(first)
+                .limit(LOGGED_FRAMES)
+                .map(f -> "\tat " + f)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static boolean isInternal(String frame) {
+        for (String prefix : INTERNAL_PREFIXES) {
+            if (frame.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,19 @@
+package com.softwaremind.invoicedocbackend.config;
+
+import java.util.concurrent.ThreadFactory;
+
+// Thread factories for the services' own worker pools (PDF archive, import jobs, bulk load).
+// With spring.threads.virtual.enabled the workers are virtual threads like Tomcat's request threads; the pools
+// keep their fixed size either way, so app.*.threads still caps how much of the CPU and the JDBC pool they use.
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix + "-", 1).factory();
+        }
+        return Thread.ofPlatform().name(prefix + "-", 1).daemon(true).factory();
+    }
+}
@@ -0,0 +1,156 @@
+package com.softwaremind.invoicedocbackend.contractor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.softwaremind.invoicedocbackend.config.WorkerThreads;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
+import com.softwaremind.invoicedocbackend.crypto.CryptoService;
+
+// Fills nip/pesel blind indexes for contractors stored before V5; one transaction per batch,
+// so a restart continues where the previous run stopped. Runs on its own thread after startup, so readiness does not
+// wait for it, and under a session-level PostgreSQL advisory lock: when several replicas start together one does the
+// work and the others skip instead of racing over the same rows.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContractorBlindIndexBackfill {
+
+    private final ContractorRepository contractorRepository;
+    private final CryptoService cryptoService;
+    private final BlindIndexService blindIndexService;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    // arbitrary, only has to be unique among the application's advisory locks
+    static final long LOCK_KEY = 0x626c696e64L;
+
+    @Value("${app.crypto.blind-index-backfill.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.crypto.blind-index-backfill.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+
+    private record BatchResult(int read, int updated, Long lastId) {}
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(WorkerThreads.factory("blind-index-backfill", virtualThreads));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            executor.execute(() -> {
+                try {
+                    backfillOnce();
+                } catch (RuntimeException e) {
+                    log.error("Blind index backfill failed, it is retried on the next start", e);
+                }
+            });
+        }
+    }
+
+    // the lock lives as long as the connection holding it, so it is released even if this node dies mid-run
+    public int backfillOnce() {
+        Integer updated = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                log.info("Blind index backfill is running on another node, skipping");
+                return 0;
+            }
+            try {
+                return backfill();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        });
+        return updated != null ? updated : 0;
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("select " + function + "(?)")) {
+            ps.setLong(1, LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    public int backfill() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int updated = 0;
+
+        while (true) {
+            long from = afterId;
+            BatchResult result = tx.execute(status -> backfillBatch(from));
+            if (result == null || result.read() == 0) {
+                break;
+            }
+            updated += result.updated();
+            afterId = result.lastId();
+        }
+
+        if (updated > 0) {
+            log.info("Blind index backfill updated {} contractors", updated);
+        }
+        return updated;
+    }
+
+    private BatchResult backfillBatch(long afterId) {
+        List<ContractorEntity> batch =
+                contractorRepository.findMissingBlindIndex(afterId, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return new BatchResult(0, 0, afterId);
+        }
+
+        List<ContractorEntity> changed = new ArrayList<>(batch.size());
+        for (ContractorEntity c : batch) {
+            try {
+                if (c.getNipEncrypted() != null && c.getNipBlindIndex() == null) {
+                    c.setNipBlindIndex(blindIndexService.index(cryptoService.decrypt(c.getNipEncrypted())));
+                }
+                if (c.getPeselEncrypted() != null && c.getPeselBlindIndex() == null) {
+                    c.setPeselBlindIndex(blindIndexService.index(cryptoService.decrypt(c.getPeselEncrypted())));
+                }
+                changed.add(c);
+            } catch (IllegalStateException e) {
+                log.warn("Cannot compute blind index for contractor {}", c.getId(), e);
+            }
+        }
+        contractorRepository.saveAll(changed);
+
+        return new BatchResult(batch.size(), changed.size(), batch.getLast().getId());
+    }
+}
@@ -3,6 +3,7 @@ package com.softwaremind.invoicedocbackend.contractor;
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +19,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorResponse;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSuggestion;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorUpdateRequest;
 
 @RestController
@@ -33,6 +36,24 @@ public class ContractorController {
         return contractorService.list(query);
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public Page<ContractorSummaryResponse> page(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NAME") ContractorSort sort,
+            @RequestParam(defaultValue = "false") boolean includeIdentifiers
+    ) {
+        return contractorService.listPage(page, size, sort, includeIdentifiers);
+    }
+
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public List<ContractorSuggestion> suggest(@RequestParam(name = "q", required = false) String query,
+                                              @RequestParam(name = "limit", required = false) Integer limit) {
+        return contractorService.suggest(query, limit);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
     public ContractorResponse get(@PathVariable Long id) {
@@ -9,8 +9,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import lombok.AllArgsConstructor;
@@ -28,11 +30,20 @@ import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "contractors")
+@Table(
+        name = "contractors",
+        indexes = {
+                @Index(name = "idx_contractors_org", columnList = "organization_id"),
+                @Index(name = "idx_contractors_org_name_id", columnList = "organization_id, name, id"),
+                @Index(name = "idx_contractors_org_nip_bidx", columnList = "organization_id, nip_blind_index"),
+                @Index(name = "idx_contractors_org_pesel_bidx", columnList = "organization_id, pesel_blind_index")
+        }
+)
 public class ContractorEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contractors_id_seq")
+    @SequenceGenerator(name = "contractors_id_seq", sequenceName = "contractors_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -52,6 +63,12 @@ public class ContractorEntity {
     @Column(name = "pesel_encrypted")
     private String peselEncrypted;
 
+    @Column(name = "nip_blind_index", length = 64)
+    private String nipBlindIndex;
+
+    @Column(name = "pesel_blind_index", length = 64)
+    private String peselBlindIndex;
+
     @Embedded
     private AddressEmbeddable address;
 
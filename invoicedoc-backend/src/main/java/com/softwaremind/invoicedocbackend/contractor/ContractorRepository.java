@@ -1,15 +1,70 @@
 package com.softwaremind.invoicedocbackend.contractor;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorLookupKey;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSuggestion;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
+
 public interface ContractorRepository extends JpaRepository<ContractorEntity, Long> {
 
     List<ContractorEntity> findByOrganizationId(Long organizationId);
 
+    Page<ContractorEntity> findByOrganizationId(Long organizationId, Pageable pageable);
+
+    // list-view rows without the encrypted identifiers, sorted by the Pageable
+    @Query(value = "select new com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse(" +
+            "c.id, c.type, c.name, c.address.city, c.email, c.phone, c.favorite) " +
+            "from ContractorEntity c " +
+            "where c.organization.id = :orgId",
+            countQuery = "select count(c) from ContractorEntity c where c.organization.id = :orgId")
+    Page<ContractorSummaryResponse> findSummaries(@Param("orgId") Long organizationId, Pageable pageable);
+
     Optional<ContractorEntity> findByOrganizationIdAndId(Long organizationId, Long id);
 
     List<ContractorEntity> findByOrganizationIdAndNameContainingIgnoreCase(Long organizationId, String namePart);
-}
\ No newline at end of file
+
+    Optional<ContractorEntity> findFirstByOrganizationIdAndNipBlindIndexOrderByIdAsc(Long organizationId,
+                                                                                     String nipBlindIndex);
+
+    Optional<ContractorEntity> findFirstByOrganizationIdAndPeselBlindIndexOrderByIdAsc(Long organizationId,
+                                                                                       String peselBlindIndex);
+
+    // only what bulk import needs to match buyers, so a large org does not hydrate full entities
+    @Query("select new com.softwaremind.invoicedocbackend.contractor.dto.ContractorLookupKey(" +
+            "c.id, c.name, c.nipBlindIndex, c.peselBlindIndex) " +
+            "from ContractorEntity c " +
+            "where c.organization.id = :orgId " +
+            "order by c.id")
+    List<ContractorLookupKey> findLookupKeysByOrganizationId(@Param("orgId") Long organizationId);
+
+    // autocomplete: :pattern / :prefix are lower-cased LIKE patterns with wildcards escaped by '\';
+    // served by idx_contractors_org_name_trgm (V7), favorites first, then names starting with the query
+    @Query("select new com.softwaremind.invoicedocbackend.contractor.dto.ContractorSuggestion(" +
+            "c.id, c.name, c.type, c.favorite) " +
+            "from ContractorEntity c " +
+            "where c.organization.id = :orgId " +
+            "and lower(c.name) like :pattern escape '\\' " +
+            "order by c.favorite desc, " +
+            "case when lower(c.name) like :prefix escape '\\' then 0 else 1 end, " +
+            "c.name, c.id")
+    List<ContractorSuggestion> suggest(@Param("orgId") Long organizationId,
+                                       @Param("pattern") String pattern,
+                                       @Param("prefix") String prefix,
+                                       Pageable pageable);
+
+    // keyset over id so rows that cannot be indexed (e.g. undecryptable) are skipped instead of re-read
+    @Query("select c from ContractorEntity c " +
+            "where c.id > :afterId " +
+            "and ((c.nipEncrypted is not null and c.nipBlindIndex is null) " +
+            "or (c.peselEncrypted is not null and c.peselBlindIndex is null)) " +
+            "order by c.id")
+    List<ContractorEntity> findMissingBlindIndex(@Param("afterId") Long afterId, Pageable pageable);
+}
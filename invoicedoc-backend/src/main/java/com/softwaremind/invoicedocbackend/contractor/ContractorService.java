@@ -2,6 +2,8 @@ package com.softwaremind.invoicedocbackend.contractor;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,24 +13,34 @@ import java.util.List;
 
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorResponse;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSuggestion;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorUpdateRequest;
 import com.softwaremind.invoicedocbackend.contractor.mapper.ContractorMapper;
 import com.softwaremind.invoicedocbackend.invoice.InvoiceRepository;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
 import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.security.UserRole;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
-import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
 
 @Service
 @RequiredArgsConstructor
 public class ContractorService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int DEFAULT_SUGGEST_LIMIT = 10;
+    static final int MAX_SUGGEST_LIMIT = 50;
+    // shorter queries have no inner trigram to search by, they are matched as a name prefix
+    static final int SUGGEST_CONTAINS_MIN_LENGTH = 3;
+
     private final ContractorRepository contractorRepository;
-    private final OrganizationRepository organizationRepository;
+    private final TenantCache tenantCache;
     private final ContractorMapper mapper;
     private final CurrentUserProvider currentUserProvider;
     private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfCache invoicePdfCache;
 
     private void assertCanModify() {
         CurrentUser cu = currentUserProvider.getCurrentUser();
@@ -56,6 +68,41 @@ public class ContractorService {
                 .toList();
     }
 
+    // identifiers are decrypted only on request and only for the rows of the page
+    @Transactional(readOnly = true)
+    public Page<ContractorSummaryResponse> listPage(int page, int size, ContractorSort sort,
+                                                    boolean includeIdentifiers) {
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE),
+                (sort != null ? sort : ContractorSort.NAME).sort());
+
+        if (includeIdentifiers) {
+            return contractorRepository.findByOrganizationId(cu.organizationId(), pageable)
+                    .map(mapper::toSummaryWithIdentifiers);
+        }
+        return contractorRepository.findSummaries(cu.organizationId(), pageable);
+    }
+
+    public List<ContractorSuggestion> suggest(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+
+        String q = escapeLike(query.trim().toLowerCase());
+        String prefix = q + "%";
+        String pattern = query.trim().length() < SUGGEST_CONTAINS_MIN_LENGTH ? prefix : "%" + prefix;
+        int size = limit == null ? DEFAULT_SUGGEST_LIMIT : Math.clamp(limit, 1, MAX_SUGGEST_LIMIT);
+
+        return contractorRepository.suggest(cu.organizationId(), pattern, prefix, PageRequest.of(0, size));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
     public ContractorResponse get(Long id) {
         CurrentUser cu = currentUserProvider.getCurrentUser();
 
@@ -73,7 +120,7 @@ public class ContractorService {
 
         CurrentUser cu = currentUserProvider.getCurrentUser();
 
-        OrganizationEntity org = organizationRepository.findById(cu.organizationId())
+        OrganizationEntity org = tenantCache.organization(cu.organizationId())
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "ORG_NOT_FOUND"));
 
@@ -97,6 +144,7 @@ public class ContractorService {
         mapper.updateEntity(entity, req);
 
         ContractorEntity saved = contractorRepository.save(entity);
+        invoicePdfCache.evictForContractor(saved.getId());
         return mapper.toResponse(saved);
     }
 
@@ -111,6 +159,7 @@ public class ContractorService {
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "CONTRACTOR_NOT_FOUND"));
 
+        invoicePdfCache.evictForContractor(entity.getId());
         invoiceRepository.clearContractorForInvoices(entity.getId());
         contractorRepository.delete(entity);
     }
@@ -0,0 +1,19 @@
+package com.softwaremind.invoicedocbackend.contractor;
+
+import org.springframework.data.domain.Sort;
+
+public enum ContractorSort {
+    NAME(Sort.by("name", "id")),
+    FAVORITE(Sort.by(Sort.Order.desc("favorite"), Sort.Order.asc("name"), Sort.Order.asc("id"))),
+    NEWEST(Sort.by(Sort.Direction.DESC, "id"));
+
+    private final Sort sort;
+
+    ContractorSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public Sort sort() {
+        return sort;
+    }
+}
@@ -0,0 +1,8 @@
+package com.softwaremind.invoicedocbackend.contractor.dto;
+
+public record ContractorLookupKey(
+        Long id,
+        String name,
+        String nipBlindIndex,
+        String peselBlindIndex
+) {}
@@ -0,0 +1,10 @@
+package com.softwaremind.invoicedocbackend.contractor.dto;
+
+import com.softwaremind.invoicedocbackend.contractor.ContractorType;
+
+public record ContractorSuggestion(
+        Long id,
+        String name,
+        ContractorType type,
+        Boolean favorite
+) {}
@@ -0,0 +1,23 @@
+package com.softwaremind.invoicedocbackend.contractor.dto;
+
+import com.softwaremind.invoicedocbackend.contractor.ContractorType;
+
+// list-view row; nip / pesel are filled only when the caller asks for decrypted identifiers
+public record ContractorSummaryResponse(
+        Long id,
+        ContractorType type,
+        String name,
+        String nip,
+        String pesel,
+        String city,
+        String email,
+        String phone,
+        Boolean favorite
+) {
+
+    // used by the JPQL projection, which never reads the encrypted columns
+    public ContractorSummaryResponse(Long id, ContractorType type, String name, String city,
+                                     String email, String phone, Boolean favorite) {
+        this(id, type, name, null, null, city, email, phone, favorite);
+    }
+}
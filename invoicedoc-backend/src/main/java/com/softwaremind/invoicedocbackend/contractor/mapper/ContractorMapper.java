@@ -7,7 +7,9 @@ import com.softwaremind.invoicedocbackend.common.mapper.AddressMapper;
 import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorResponse;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorUpdateRequest;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
 import com.softwaremind.invoicedocbackend.crypto.CryptoService;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 
@@ -17,6 +19,7 @@ public class ContractorMapper {
 
     private final AddressMapper addressMapper;
     private final CryptoService cryptoService;
+    private final BlindIndexService blindIndexService;
 
     public ContractorEntity fromCreateRequest(ContractorCreateRequest req, OrganizationEntity org) {
         return ContractorEntity.builder()
@@ -25,6 +28,8 @@ public class ContractorMapper {
                 .name(req.name())
                 .nipEncrypted(req.nip() != null ? cryptoService.encrypt(req.nip()) : null)
                 .peselEncrypted(req.pesel() != null ? cryptoService.encrypt(req.pesel()) : null)
+                .nipBlindIndex(blindIndexService.index(req.nip()))
+                .peselBlindIndex(blindIndexService.index(req.pesel()))
                 .address(addressMapper.toEmbeddable(req.address()))
                 .email(req.email())
                 .phone(req.phone())
@@ -45,6 +50,8 @@ public class ContractorMapper {
         } else {
             entity.setPeselEncrypted(null);
         }
+        entity.setNipBlindIndex(blindIndexService.index(req.nip()));
+        entity.setPeselBlindIndex(blindIndexService.index(req.pesel()));
         entity.setAddress(addressMapper.toEmbeddable(req.address()));
         entity.setEmail(req.email());
         entity.setPhone(req.phone());
@@ -64,4 +71,18 @@ public class ContractorMapper {
                 entity.getFavorite()
         );
     }
+
+    public ContractorSummaryResponse toSummaryWithIdentifiers(ContractorEntity entity) {
+        return new ContractorSummaryResponse(
+                entity.getId(),
+                entity.getType(),
+                entity.getName(),
+                entity.getNipEncrypted() != null ? cryptoService.decrypt(entity.getNipEncrypted()) : null,
+                entity.getPeselEncrypted() != null ? cryptoService.decrypt(entity.getPeselEncrypted()) : null,
+                entity.getAddress() != null ? entity.getAddress().getCity() : null,
+                entity.getEmail(),
+                entity.getPhone(),
+                entity.getFavorite()
+        );
+    }
 }
@@ -1,20 +1,33 @@
 package com.softwaremind.invoicedocbackend.crypto;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.softwaremind.invoicedocbackend.common.InstancePool;
+
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 
+// Wire format: Base64(iv || ciphertext || tag).
+// Cipher instances are expensive to look up, so they are pooled and re-initialized per call (a ThreadLocal would
+// not survive virtual threads); a fresh random IV per encryption keeps re-init with the same key safe.
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class AesCryptoService implements CryptoService {
 
@@ -22,61 +35,129 @@ public class AesCryptoService implements CryptoService {
     private static final String TRANSFORMATION = "AES/GCM/NoPadding";
     private static final int IV_LENGTH = 12;
     private static final int TAG_LENGTH_BIT = 128;
+    private static final int TAG_LENGTH = TAG_LENGTH_BIT / 8;
+
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.crypto.secret:change-me-secret}")
     private String secret;
 
     private SecretKeySpec secretKeySpec;
     private final SecureRandom secureRandom = new SecureRandom();
+    private final InstancePool<Cipher> ciphers = new InstancePool<>(AesCryptoService::newCipher);
+    private Counter encryptions;
+    private Counter decryptions;
 
     @PostConstruct
     void init() {
         byte[] keyBytes = Arrays.copyOf(secret.getBytes(StandardCharsets.UTF_8), 16);
         this.secretKeySpec = new SecretKeySpec(keyBytes, ALGO);
+
+        encryptions = operationCounter("encrypt");
+        decryptions = operationCounter("decrypt");
+    }
+
+    private Counter operationCounter(String operation) {
+        return Counter.builder("crypto.operations")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException(TRANSFORMATION + " not available", e);
+        }
     }
 
     @Override
     public String encrypt(String plain) {
+        Cipher cipher = ciphers.take();
+        try {
+            return encrypt(cipher, plain);
+        } finally {
+            ciphers.release(cipher);
+        }
+    }
+
+    @Override
+    public String decrypt(String cipherText) {
+        Cipher cipher = ciphers.take();
+        try {
+            return decrypt(cipher, cipherText);
+        } finally {
+            ciphers.release(cipher);
+        }
+    }
+
+    @Override
+    public List<String> encryptAll(List<String> plaintexts) {
+        Cipher cipher = ciphers.take();
+        try {
+            List<String> result = new ArrayList<>(plaintexts.size());
+            for (String plain : plaintexts) {
+                result.add(encrypt(cipher, plain));
+            }
+            return result;
+        } finally {
+            ciphers.release(cipher);
+        }
+    }
+
+    @Override
+    public List<String> decryptAll(List<String> cipherTexts) {
+        Cipher cipher = ciphers.take();
+        try {
+            List<String> result = new ArrayList<>(cipherTexts.size());
+            for (String cipherText : cipherTexts) {
+                result.add(decrypt(cipher, cipherText));
+            }
+            return result;
+        } finally {
+            ciphers.release(cipher);
+        }
+    }
+
+    private String encrypt(Cipher cipher, String plain) {
         if (plain == null) return null;
+        encryptions.increment();
         try {
             byte[] iv = new byte[IV_LENGTH];
             secureRandom.nextBytes(iv);
+            byte[] plainBytes = plain.getBytes(StandardCharsets.UTF_8);
 
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(TAG_LENGTH_BIT, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, gcmSpec);
-
-            byte[] cipherBytes = cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8));
+            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, new GCMParameterSpec(TAG_LENGTH_BIT, iv));
 
-            ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + cipherBytes.length);
-            byteBuffer.put(iv);
-            byteBuffer.put(cipherBytes);
-            byte[] cipherWithIv = byteBuffer.array();
+            // iv and ciphertext share one buffer, so there is nothing to concatenate before encoding
+            byte[] cipherWithIv = new byte[IV_LENGTH + cipher.getOutputSize(plainBytes.length)];
+            System.arraycopy(iv, 0, cipherWithIv, 0, IV_LENGTH);
+            int written = cipher.doFinal(plainBytes, 0, plainBytes.length, cipherWithIv, IV_LENGTH);
 
-            return Base64.getEncoder().encodeToString(cipherWithIv);
+            return Base64.getEncoder().encodeToString(
+                    written == cipherWithIv.length - IV_LENGTH
+                            ? cipherWithIv
+                            : Arrays.copyOf(cipherWithIv, IV_LENGTH + written));
         } catch (Exception e) {
             log.error("Cannot encrypt", e);
             throw new IllegalStateException("Cannot encrypt", e);
         }
     }
 
-    @Override
-    public String decrypt(String cipherText) {
+    private String decrypt(Cipher cipher, String cipherText) {
         if (cipherText == null) return null;
+        decryptions.increment();
         try {
             byte[] cipherWithIv = Base64.getDecoder().decode(cipherText);
-            ByteBuffer byteBuffer = ByteBuffer.wrap(cipherWithIv);
-
-            byte[] iv = new byte[IV_LENGTH];
-            byteBuffer.get(iv);
-            byte[] cipherBytes = new byte[byteBuffer.remaining()];
-            byteBuffer.get(cipherBytes);
+            if (cipherWithIv.length < IV_LENGTH + TAG_LENGTH) {
+                throw new IllegalArgumentException("Ciphertext too short");
+            }
 
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(TAG_LENGTH_BIT, iv);
-            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, gcmSpec);
+            // iv and ciphertext are read in place from the decoded buffer
+            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec,
+                    new GCMParameterSpec(TAG_LENGTH_BIT, cipherWithIv, 0, IV_LENGTH));
+            byte[] dec = cipher.doFinal(cipherWithIv, IV_LENGTH, cipherWithIv.length - IV_LENGTH);
 
-            byte[] dec = cipher.doFinal(cipherBytes);
             return new String(dec, StandardCharsets.UTF_8);
         } catch (Exception e) {
             log.error("Cannot decrypt", e);
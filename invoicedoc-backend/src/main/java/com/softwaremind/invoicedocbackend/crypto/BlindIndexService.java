@@ -0,0 +1,79 @@
+package com.softwaremind.invoicedocbackend.crypto;
+
+import com.softwaremind.invoicedocbackend.common.InstancePool;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Deterministic keyed hash (HMAC-SHA256) of a tax identifier, stored next to the randomized
+// AES-GCM ciphertext so equality lookups can use a plain B-tree index without decrypting rows.
+@Service
+public class BlindIndexService {
+
+    private static final String ALGO = "HmacSHA256";
+    // separates the HMAC key from the AES key when both come from the same secret
+    private static final byte[] KEY_CONTEXT = "invoicedoc-blind-index-v1".getBytes(StandardCharsets.UTF_8);
+
+    @Value("${app.crypto.blind-index-secret:${app.crypto.secret:change-me-secret}}")
+    private String secret;
+
+    private SecretKeySpec keySpec;
+    private final InstancePool<Mac> macs = new InstancePool<>(BlindIndexService::newMac);
+
+    @PostConstruct
+    void init() {
+        try {
+            Mac kdf = Mac.getInstance(ALGO);
+            kdf.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGO));
+            this.keySpec = new SecretKeySpec(kdf.doFinal(KEY_CONTEXT), ALGO);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot init blind index key", e);
+        }
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(ALGO);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGO + " not available", e);
+        }
+    }
+
+    // "PL 123-456-32-18", "1234563218" and "pl1234563218" all produce the same index
+    public String index(String identifier) {
+        String normalized = normalize(identifier);
+        if (normalized == null) return null;
+        Mac mac = macs.take();
+        try {
+            mac.init(keySpec);
+            return HexFormat.of().formatHex(mac.doFinal(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot compute blind index", e);
+        } finally {
+            macs.release(mac);
+        }
+    }
+
+    static String normalize(String identifier) {
+        if (identifier == null) return null;
+        StringBuilder sb = new StringBuilder(identifier.length());
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        if (sb.length() == 12 && sb.charAt(0) == 'P' && sb.charAt(1) == 'L') {
+            sb.delete(0, 2);
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+}
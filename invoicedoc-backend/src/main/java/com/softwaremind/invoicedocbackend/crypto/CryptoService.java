@@ -1,6 +1,26 @@
 package com.softwaremind.invoicedocbackend.crypto;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface CryptoService {
     String encrypt(String plaintext);
     String decrypt(String ciphertext);
+
+    // null elements stay null, order is preserved
+    default List<String> encryptAll(List<String> plaintexts) {
+        List<String> result = new ArrayList<>(plaintexts.size());
+        for (String plaintext : plaintexts) {
+            result.add(encrypt(plaintext));
+        }
+        return result;
+    }
+
+    default List<String> decryptAll(List<String> ciphertexts) {
+        List<String> result = new ArrayList<>(ciphertexts.size());
+        for (String ciphertext : ciphertexts) {
+            result.add(decrypt(ciphertext));
+        }
+        return result;
+    }
 }
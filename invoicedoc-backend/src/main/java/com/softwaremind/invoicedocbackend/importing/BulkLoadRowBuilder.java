@@ -0,0 +1,228 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
+import com.softwaremind.invoicedocbackend.common.dto.AddressDto;
+import com.softwaremind.invoicedocbackend.crypto.CryptoService;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportInvoiceItemDto;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportInvoiceMetaDto;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportPartyDto;
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportMapper;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceAmounts;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceStatus;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+
+// Turns one imported invoice into COPY ... WITH (FORMAT csv) lines for invoices and invoice_items.
+// Stateless apart from the seller columns, so workers can share one instance.
+class BulkLoadRowBuilder {
+
+    static final String INVOICE_COLUMNS = "id, organization_id, seller_profile_id, contractor_id, " +
+            "seller_name, seller_nip_encrypted, seller_street, seller_building_number, seller_apartment_number, " +
+            "seller_postal_code, seller_city, seller_country, seller_bank_account, " +
+            "buyer_name, buyer_nip_encrypted, buyer_pesel_encrypted, buyer_street, buyer_building_number, " +
+            "buyer_apartment_number, buyer_postal_code, buyer_city, buyer_country, " +
+            "number, issue_date, sale_date, due_date, payment_method, currency, status, " +
+            "total_net, total_vat, total_gross, notes, reverse_charge, split_payment";
+
+    static final String ITEM_COLUMNS = "id, invoice_id, description, quantity, unit, net_unit_price, vat_rate, " +
+            "net_total, vat_amount, gross_total";
+
+    private static final int MAX_TEXT = 255;
+
+    record Row(long invoiceId, String number, byte[] invoice, byte[] items) {}
+
+    private final CryptoService cryptoService;
+    private final InvoiceImportMapper importMapper;
+    private final Long sellerProfileId;
+    private final String invoicePrefix;
+    private final String sellerColumns;
+
+    BulkLoadRowBuilder(CryptoService cryptoService, InvoiceImportMapper importMapper, SellerProfileEntity seller) {
+        this.cryptoService = cryptoService;
+        this.importMapper = importMapper;
+        this.sellerProfileId = seller.getId();
+
+        StringBuilder sb = new StringBuilder(256);
+        field(sb, seller.getOrganization().getId());
+        field(sb, seller.getId());
+        this.invoicePrefix = sb.toString();
+        this.sellerColumns = sellerColumns(seller);
+    }
+
+    // itemIds must hold at least items().size() ids; throws IllegalArgumentException with an error code
+    Row build(InvoiceImportDto dto, Long contractorId, long invoiceId, long[] itemIds) {
+        ImportInvoiceMetaDto meta = dto.invoice();
+        if (meta == null || isBlank(meta.number())) {
+            throw new IllegalArgumentException("NUMBER_REQUIRED");
+        }
+        requireText(meta.number(), MAX_TEXT, "INVALID_NUMBER");
+        if (meta.issueDate() == null || meta.saleDate() == null || meta.dueDate() == null) {
+            throw new IllegalArgumentException("DATES_REQUIRED");
+        }
+        if (isBlank(meta.currency()) || meta.currency().length() > 3) {
+            throw new IllegalArgumentException("INVALID_CURRENCY");
+        }
+        if (dto.items() == null || dto.items().isEmpty()) {
+            throw new IllegalArgumentException("ITEMS_REQUIRED");
+        }
+        for (ImportInvoiceItemDto item : dto.items()) {
+            if (item == null || item.quantity() == null || item.netUnitPrice() == null
+                    || isBlank(item.description()) || item.description().length() > MAX_TEXT
+                    || item.vatRate() == null || item.vatRate().length() > 10
+                    || (item.unit() != null && item.unit().length() > MAX_TEXT)) {
+                throw new IllegalArgumentException("INVALID_ITEM");
+            }
+        }
+        ImportPartyDto buyer = dto.buyer();
+        requireText(buyer.name(), MAX_TEXT, "INVALID_BUYER_NAME");
+        AddressDto buyerAddress = importMapper.toAddressDto(buyer);
+        if (!fits(buyerAddress)) {
+            throw new IllegalArgumentException("INVALID_BUYER_ADDRESS");
+        }
+
+        InvoiceCreateRequest req = importMapper.toCreateRequest(dto, sellerProfileId, contractorId);
+
+        StringBuilder items = new StringBuilder(128 * req.items().size());
+        BigDecimal totalNet = BigDecimal.ZERO;
+        BigDecimal totalVat = BigDecimal.ZERO;
+        BigDecimal totalGross = BigDecimal.ZERO;
+        List<ImportInvoiceItemDto> source = dto.items();
+        for (int i = 0; i < source.size(); i++) {
+            ImportInvoiceItemDto item = source.get(i);
+            BigDecimal netTotal = InvoiceAmounts.netTotal(item.netUnitPrice(), item.quantity());
+            BigDecimal vatAmount = InvoiceAmounts.vat(netTotal, item.vatRate());
+            BigDecimal grossTotal = netTotal.add(vatAmount);
+            totalNet = totalNet.add(netTotal);
+            totalVat = totalVat.add(vatAmount);
+            totalGross = totalGross.add(grossTotal);
+
+            field(items, itemIds[i]);
+            field(items, invoiceId);
+            field(items, item.description());
+            field(items, item.quantity());
+            field(items, item.unit());
+            field(items, item.netUnitPrice());
+            field(items, item.vatRate());
+            field(items, netTotal);
+            field(items, vatAmount);
+            last(items, grossTotal);
+        }
+
+        StringBuilder invoice = new StringBuilder(1024);
+        field(invoice, invoiceId);
+        invoice.append(invoicePrefix);
+        field(invoice, contractorId);
+        invoice.append(sellerColumns);
+        field(invoice, buyer.name());
+        field(invoice, encryptOrNull(buyer.nip()));
+        field(invoice, encryptOrNull(buyer.pesel()));
+        address(invoice, buyerAddress);
+        field(invoice, meta.number());
+        field(invoice, meta.issueDate());
+        field(invoice, meta.saleDate());
+        field(invoice, meta.dueDate());
+        field(invoice, req.paymentMethod());
+        field(invoice, meta.currency());
+        // historical invoices were issued in the source system
+        field(invoice, InvoiceStatus.ISSUED);
+        field(invoice, totalNet);
+        field(invoice, totalVat);
+        field(invoice, totalGross);
+        field(invoice, req.notes());
+        field(invoice, Boolean.TRUE.equals(req.reverseCharge()));
+        last(invoice, Boolean.TRUE.equals(req.splitPayment()));
+
+        return new Row(invoiceId, meta.number(),
+                invoice.toString().getBytes(StandardCharsets.UTF_8),
+                items.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sellerColumns(SellerProfileEntity seller) {
+        StringBuilder sb = new StringBuilder(256);
+        field(sb, seller.getName());
+        field(sb, seller.getNipEncrypted());
+        AddressEmbeddable a = seller.getAddress();
+        if (a == null) {
+            sb.append(",,,,,,");
+        } else {
+            field(sb, a.getStreet());
+            field(sb, a.getBuildingNumber());
+            field(sb, a.getApartmentNumber());
+            field(sb, a.getPostalCode());
+            field(sb, a.getCity());
+            field(sb, a.getCountry());
+        }
+        field(sb, seller.getBankAccount());
+        return sb.toString();
+    }
+
+    private void address(StringBuilder sb, AddressDto a) {
+        if (a == null) {
+            sb.append(",,,,,,");
+            return;
+        }
+        field(sb, a.street());
+        field(sb, a.buildingNumber());
+        field(sb, a.apartmentNumber());
+        field(sb, a.postalCode());
+        field(sb, a.city());
+        field(sb, a.country());
+    }
+
+    // column sizes from V1__init_schema.sql; a too long value would fail the whole COPY batch
+    private static boolean fits(AddressDto a) {
+        return a == null || (fits(a.street(), MAX_TEXT) && fits(a.buildingNumber(), MAX_TEXT)
+                && fits(a.apartmentNumber(), MAX_TEXT) && fits(a.postalCode(), 50)
+                && fits(a.city(), MAX_TEXT) && fits(a.country(), 100));
+    }
+
+    private static boolean fits(String value, int maxLength) {
+        return value == null || value.length() <= maxLength;
+    }
+
+    private String encryptOrNull(String plain) {
+        return isBlank(plain) ? null : cryptoService.encrypt(plain);
+    }
+
+    private static void requireText(String value, int maxLength, String error) {
+        if (isBlank(value) || value.length() > maxLength) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static void field(StringBuilder sb, Object value) {
+        value(sb, value);
+        sb.append(',');
+    }
+
+    private static void last(StringBuilder sb, Object value) {
+        value(sb, value);
+        sb.append('\n');
+    }
+
+    // CSV COPY: unquoted empty is NULL, everything else is quoted so empty strings and newlines survive
+    static void value(StringBuilder sb, Object value) {
+        if (value == null) {
+            return;
+        }
+        String s = value instanceof BigDecimal d ? d.toPlainString() : value.toString();
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
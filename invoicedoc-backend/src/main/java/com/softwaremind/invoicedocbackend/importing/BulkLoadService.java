@@ -0,0 +1,286 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import com.softwaremind.invoicedocbackend.config.WorkerThreads;
+import com.softwaremind.invoicedocbackend.crypto.CryptoService;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportReport;
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportMapper;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceNumberCounterRepository;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceNumberGeneratorService;
+import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+
+// Historical invoice migration. Rows (totals, encrypted buyer ids, CSV encoding) are prepared on a worker pool
+// and written with COPY, one transaction per batch. Invoice numbers are taken from the source system as they are.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkLoadService {
+
+    private final ImportService importService;
+    private final InvoiceCopyLoader copyLoader;
+    private final InvoiceNumberCounterRepository counterRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final CryptoService cryptoService;
+    private final InvoiceImportMapper importMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final JsonMapper jsonMapper;
+    private final XmlMapper xmlMapper;
+
+    @Value("${app.import.bulk.batch-size:5000}")
+    private int batchSize = 5000;
+
+    @Value("${app.import.bulk.threads:4}")
+    private int threads = 4;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+
+    private record Context(Long organizationId, ImportContractorResolver contractors, BulkLoadRowBuilder rows,
+                           Set<String> loadedNumbers) {}
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(threads, WorkerThreads.factory("bulk-load", virtualThreads));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ImportReport load(ImportFormat format, MultipartFile file, Long sellerProfileId) throws IOException {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "IMPORT_FILE_EMPTY");
+        }
+        try (ImportRecordReader reader = open(format, file.getInputStream())) {
+            return load(reader, sellerProfileId);
+        }
+    }
+
+    public ImportReport load(Iterator<ImportRecord> records, Long sellerProfileId) {
+        SellerProfileEntity seller = importService.assertSellerProfileInOrg(sellerProfileId);
+        Long organizationId = currentUserProvider.getCurrentUser().organizationId();
+        Context ctx = new Context(organizationId,
+                importService.contractorResolver(organizationId),
+                new BulkLoadRowBuilder(cryptoService, importMapper, seller),
+                new HashSet<>());
+
+        ImportReportCollector report = new ImportReportCollector(maxReportedErrors);
+        List<ImportRecord> batch = new ArrayList<>(batchSize);
+        while (records.hasNext()) {
+            batch.add(records.next());
+            if (batch.size() == batchSize) {
+                loadBatch(batch, ctx).forEach(report::add);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            loadBatch(batch, ctx).forEach(report::add);
+        }
+        return report.build();
+    }
+
+    private List<ImportOutcome> loadBatch(List<ImportRecord> batch, Context ctx) {
+        ImportOutcome[] outcomes = new ImportOutcome[batch.size()];
+        Long[] contractorIds = importService.resolveContractors(batch, outcomes, ctx.contractors());
+
+        List<Integer> candidates = uniqueNumbers(batch, contractorIds, outcomes, ctx);
+
+        int itemCount = 0;
+        for (int i : candidates) {
+            InvoiceImportDto dto = batch.get(i).invoice();
+            itemCount += dto.items() != null ? dto.items().size() : 0;
+        }
+        long[] invoiceIds = copyLoader.reserveIds(InvoiceCopyLoader.INVOICES_SEQUENCE, candidates.size());
+        long[] itemIds = copyLoader.reserveIds(InvoiceCopyLoader.INVOICE_ITEMS_SEQUENCE, itemCount);
+
+        BulkLoadRowBuilder.Row[] rows = buildRows(batch, candidates, contractorIds, invoiceIds, itemIds, outcomes, ctx);
+
+        List<byte[]> invoiceLines = new ArrayList<>(candidates.size());
+        List<byte[]> itemLines = new ArrayList<>(candidates.size());
+        for (BulkLoadRowBuilder.Row row : rows) {
+            if (row != null) {
+                invoiceLines.add(row.invoice());
+                itemLines.add(row.items());
+            }
+        }
+        if (invoiceLines.isEmpty()) {
+            return Arrays.asList(outcomes);
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                copyLoader.copy("invoices", BulkLoadRowBuilder.INVOICE_COLUMNS, invoiceLines);
+                copyLoader.copy("invoice_items", BulkLoadRowBuilder.ITEM_COLUMNS, itemLines);
+                advanceNumberCounters(rows, ctx.organizationId());
+            });
+        } catch (RuntimeException e) {
+            log.warn("Bulk load batch of {} invoices failed", invoiceLines.size(), e);
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] != null) {
+                    outcomes[i] = ImportOutcome.failed(batch.get(i), "BULK_LOAD_FAILED");
+                }
+            }
+            return Arrays.asList(outcomes);
+        }
+
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != null) {
+                outcomes[i] = ImportOutcome.created(batch.get(i), rows[i].invoiceId(), rows[i].number());
+                ctx.loadedNumbers().add(rows[i].number());
+            }
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    // loaded numbers in the generator's format move the (organization, day) counter past them, in the same
+    // transaction, so createInvoice on a loaded day continues after the highest loaded number
+    private void advanceNumberCounters(BulkLoadRowBuilder.Row[] rows, Long organizationId) {
+        Map<LocalDate, Long> highest = new HashMap<>();
+        for (BulkLoadRowBuilder.Row row : rows) {
+            if (row != null) {
+                InvoiceNumberGeneratorService.parse(row.number())
+                        .ifPresent(n -> highest.merge(n.date(), n.sequence(), Math::max));
+            }
+        }
+        highest.forEach((date, sequence) -> counterRepository.advanceTo(organizationId, date, sequence));
+    }
+
+    // numbers stay unique per organization: against earlier batches, within this batch and against the database
+    private List<Integer> uniqueNumbers(List<ImportRecord> batch, Long[] contractorIds, ImportOutcome[] outcomes,
+                                        Context ctx) {
+        List<Integer> candidates = new ArrayList<>(batch.size());
+        Set<String> batchNumbers = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (contractorIds[i] == null) {
+                continue;
+            }
+            String number = number(batch.get(i));
+            if (number != null && (ctx.loadedNumbers().contains(number) || !batchNumbers.add(number))) {
+                outcomes[i] = ImportOutcome.failed(batch.get(i), "DUPLICATE_NUMBER");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existing = copyLoader.existingNumbers(ctx.organizationId(), batchNumbers);
+        if (existing.isEmpty()) {
+            return candidates;
+        }
+        List<Integer> unique = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            if (existing.contains(number(batch.get(i)))) {
+                outcomes[i] = ImportOutcome.failed(batch.get(i), "DUPLICATE_NUMBER");
+            } else {
+                unique.add(i);
+            }
+        }
+        return unique;
+    }
+
+    private String number(ImportRecord record) {
+        InvoiceImportDto dto = record.invoice();
+        return dto.invoice() != null ? dto.invoice().number() : null;
+    }
+
+    // candidates are split into one slice per worker; ids were reserved in candidate order
+    private BulkLoadRowBuilder.Row[] buildRows(List<ImportRecord> batch, List<Integer> candidates,
+                                               Long[] contractorIds, long[] invoiceIds, long[] itemIds,
+                                               ImportOutcome[] outcomes, Context ctx) {
+        BulkLoadRowBuilder.Row[] rows = new BulkLoadRowBuilder.Row[batch.size()];
+        int[] itemOffsets = new int[candidates.size()];
+        int offset = 0;
+        for (int c = 0; c < candidates.size(); c++) {
+            itemOffsets[c] = offset;
+            InvoiceImportDto dto = batch.get(candidates.get(c)).invoice();
+            offset += dto.items() != null ? dto.items().size() : 0;
+        }
+
+        int sliceSize = Math.max(1, (candidates.size() + threads - 1) / threads);
+        List<Future<?>> slices = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, candidates.size());
+            slices.add(executor.submit(() -> {
+                for (int c = start; c < end; c++) {
+                    int i = candidates.get(c);
+                    ImportRecord record = batch.get(i);
+                    int itemsInInvoice = record.invoice().items() != null ? record.invoice().items().size() : 0;
+                    long[] ids = Arrays.copyOfRange(itemIds, itemOffsets[c], itemOffsets[c] + itemsInInvoice);
+                    try {
+                        rows[i] = ctx.rows().build(record.invoice(), contractorIds[i], invoiceIds[c], ids);
+                    } catch (RuntimeException e) {
+                        outcomes[i] = ImportOutcome.failed(record, ImportService.errorMessage(e));
+                    }
+                }
+            }));
+        }
+        for (Future<?> slice : slices) {
+            await(slice);
+        }
+        return rows;
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk load interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Bulk load worker failed", e.getCause());
+        }
+    }
+
+    private ImportRecordReader open(ImportFormat format, InputStream in) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvInvoiceReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            case JSON -> new JsonInvoiceReader(jsonMapper, in);
+            case XML -> new XmlInvoiceReader(xmlMapper, in);
+        };
+    }
+}
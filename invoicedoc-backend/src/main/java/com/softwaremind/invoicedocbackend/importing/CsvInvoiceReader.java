@@ -0,0 +1,201 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.softwaremind.invoicedocbackend.common.dto.AddressDto;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportExtraDto;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportInvoiceItemDto;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportInvoiceMetaDto;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportPartyDto;
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+
+// Reads a CSV export with one row per invoice item and groups consecutive rows with the same
+// invoiceNumber into one invoice. Rows are pulled from the stream on demand, so only the rows of
+// the current invoice are held in memory. Rows of one invoice must be contiguous.
+public class CsvInvoiceReader implements ImportRecordReader {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "sellerName", "sellerNip", "sellerStreet", "sellerBuildingNumber", "sellerPostalCode", "sellerCity",
+            "buyerName", "buyerNip", "buyerStreet", "buyerBuildingNumber", "buyerPostalCode", "buyerCity",
+            "invoiceNumber", "issueDate", "saleDate", "dueDate", "paymentMethod", "currency",
+            "itemDescription", "itemQuantity", "itemUnit", "itemNetUnitPrice", "itemVatRate"
+    );
+
+    private final CSVParser parser;
+    private final Iterator<CSVRecord> records;
+    private CSVRecord pending;
+
+    public CsvInvoiceReader(Reader reader) throws IOException {
+        this.parser = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setTrim(true)
+                .build()
+                .parse(reader);
+
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(c -> !parser.getHeaderMap().containsKey(c))
+                .toList();
+        if (!missing.isEmpty()) {
+            parser.close();
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV_MISSING_COLUMNS " + missing);
+        }
+
+        this.records = parser.iterator();
+        this.pending = records.hasNext() ? records.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null;
+    }
+
+    @Override
+    public ImportRecord next() {
+        return read(false);
+    }
+
+    // every remaining row as an item of one invoice, header fields from the first row (the single-invoice /csv upload)
+    public ImportRecord readAll() {
+        return read(true);
+    }
+
+    private ImportRecord read(boolean wholeFile) {
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+
+        CSVRecord first = pending;
+        String number = invoiceNumber(first);
+        List<ImportInvoiceItemDto> items = new ArrayList<>();
+        String error = null;
+        long errorRow = first.getRecordNumber();
+
+        CSVRecord row = first;
+        while (true) {
+            if (error == null) {
+                try {
+                    items.add(toItem(row));
+                } catch (RuntimeException e) {
+                    error = rowError(e);
+                    errorRow = row.getRecordNumber();
+                }
+            }
+            pending = records.hasNext() ? records.next() : null;
+            if (pending == null || (!wholeFile && !Objects.equals(number, invoiceNumber(pending)))) {
+                break;
+            }
+            row = pending;
+        }
+
+        if (error != null) {
+            return ImportRecord.failed(errorRow, number, error);
+        }
+        try {
+            return ImportRecord.ok(first.getRecordNumber(), number, toDto(first, items));
+        } catch (RuntimeException e) {
+            return ImportRecord.failed(first.getRecordNumber(), number, rowError(e));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private InvoiceImportDto toDto(CSVRecord first, List<ImportInvoiceItemDto> items) {
+        ImportPartyDto sellerParty = new ImportPartyDto(
+                "COMPANY",
+                first.get("sellerName"),
+                first.get("sellerNip"),
+                null,
+                new AddressDto(
+                        first.get("sellerStreet"),
+                        first.get("sellerBuildingNumber"),
+                        null,
+                        first.get("sellerPostalCode"),
+                        first.get("sellerCity"),
+                        "PL"
+                ),
+                optional(first, "sellerBankAccount")
+        );
+
+        ImportPartyDto buyerParty = new ImportPartyDto(
+                "COMPANY",
+                first.get("buyerName"),
+                first.get("buyerNip"),
+                null,
+                new AddressDto(
+                        first.get("buyerStreet"),
+                        first.get("buyerBuildingNumber"),
+                        null,
+                        first.get("buyerPostalCode"),
+                        first.get("buyerCity"),
+                        "PL"
+                ),
+                null
+        );
+
+        ImportInvoiceMetaDto meta = new ImportInvoiceMetaDto(
+                first.get("invoiceNumber"),
+                LocalDate.parse(first.get("issueDate")),
+                LocalDate.parse(first.get("saleDate")),
+                LocalDate.parse(first.get("dueDate")),
+                first.get("paymentMethod"),
+                first.get("currency"),
+                "PL"
+        );
+
+        ImportExtraDto extra = new ImportExtraDto(
+                optional(first, "notes"),
+                Boolean.valueOf(optional(first, "reverseCharge")),
+                Boolean.valueOf(optional(first, "splitPayment"))
+        );
+
+        return new InvoiceImportDto(sellerParty, buyerParty, meta, items, extra);
+    }
+
+    private ImportInvoiceItemDto toItem(CSVRecord r) {
+        return new ImportInvoiceItemDto(
+                r.get("itemDescription"),
+                new BigDecimal(r.get("itemQuantity")),
+                r.get("itemUnit"),
+                new BigDecimal(r.get("itemNetUnitPrice")),
+                r.get("itemVatRate")
+        );
+    }
+
+    private String invoiceNumber(CSVRecord r) {
+        return r.isSet("invoiceNumber") ? r.get("invoiceNumber") : null;
+    }
+
+    private String optional(CSVRecord r, String column) {
+        return r.isMapped(column) && r.isSet(column) ? r.get(column) : null;
+    }
+
+    private String rowError(RuntimeException e) {
+        if (e instanceof NumberFormatException) {
+            return "INVALID_NUMBER";
+        }
+        if (e instanceof DateTimeParseException) {
+            return "INVALID_DATE";
+        }
+        return e.getMessage();
+    }
+}
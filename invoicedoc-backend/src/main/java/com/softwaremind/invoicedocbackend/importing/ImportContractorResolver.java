@@ -0,0 +1,139 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorLookupKey;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportPartyDto;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
+
+// Buyer -> contractor lookup for one import. The org's contractors are loaded once (id, name, blind indexes)
+// and every invoice is matched in memory; buyers not seen before are created per chunk with one saveAll.
+// A buyer with a tax id matches only on its blind index, otherwise on the normalized name. Single-invoice imports
+// go through here too, so every import path matches buyers the same way.
+class ImportContractorResolver {
+
+    private final Long organizationId;
+    private final ContractorRepository contractorRepository;
+    private final TenantCache tenantCache;
+    private final BlindIndexService blindIndexService;
+    private final BiFunction<ImportPartyDto, OrganizationEntity, ContractorEntity> contractorFactory;
+
+    private Map<String, Long> contractorIds;
+    private OrganizationEntity organization;
+
+    ImportContractorResolver(Long organizationId,
+                             ContractorRepository contractorRepository,
+                             TenantCache tenantCache,
+                             BlindIndexService blindIndexService,
+                             BiFunction<ImportPartyDto, OrganizationEntity, ContractorEntity> contractorFactory) {
+        this.organizationId = organizationId;
+        this.contractorRepository = contractorRepository;
+        this.tenantCache = tenantCache;
+        this.blindIndexService = blindIndexService;
+        this.contractorFactory = contractorFactory;
+    }
+
+    // null when the buyer is not a contractor of the org yet
+    Long find(ImportPartyDto buyer) {
+        String key = key(buyer);
+        return contractorIds().get(key);
+    }
+
+    // ids in the order of buyers; a buyer repeated in the list is created once
+    List<Long> createAll(List<ImportPartyDto> buyers) {
+        Map<String, ContractorEntity> toCreate = new LinkedHashMap<>();
+        List<ContractorEntity> perBuyer = new ArrayList<>(buyers.size());
+        for (ImportPartyDto buyer : buyers) {
+            perBuyer.add(toCreate.computeIfAbsent(key(buyer), k -> contractorFactory.apply(buyer, organization())));
+        }
+
+        contractorRepository.saveAll(toCreate.values());
+
+        for (ContractorEntity entity : toCreate.values()) {
+            register(entity.getId(), entity.getName(), entity.getNipBlindIndex(), entity.getPeselBlindIndex());
+        }
+        return perBuyer.stream().map(ContractorEntity::getId).toList();
+    }
+
+    private Map<String, Long> contractorIds() {
+        if (contractorIds == null) {
+            contractorIds = new HashMap<>();
+            // ordered by id, so the oldest contractor wins like in the single-invoice lookup
+            for (ContractorLookupKey c : contractorRepository.findLookupKeysByOrganizationId(organizationId)) {
+                register(c.id(), c.name(), c.nipBlindIndex(), c.peselBlindIndex());
+            }
+        }
+        return contractorIds;
+    }
+
+    private void register(Long id, String name, String nipBlindIndex, String peselBlindIndex) {
+        Map<String, Long> ids = contractorIds();
+        if (nipBlindIndex != null) {
+            ids.putIfAbsent("nip:" + nipBlindIndex, id);
+        }
+        if (peselBlindIndex != null) {
+            ids.putIfAbsent("pesel:" + peselBlindIndex, id);
+        }
+        String normalizedName = normalizeName(name);
+        if (normalizedName != null) {
+            ids.putIfAbsent("name:" + normalizedName, id);
+        }
+    }
+
+    private OrganizationEntity organization() {
+        if (organization == null) {
+            organization = tenantCache.organization(organizationId)
+                    .orElseThrow(() -> new IllegalStateException("Organization not found"));
+        }
+        return organization;
+    }
+
+    private String key(ImportPartyDto buyer) {
+        if (buyer == null) {
+            throw new IllegalArgumentException("Buyer data missing");
+        }
+        String nipIndex = blindIndexService.index(buyer.nip());
+        if (nipIndex != null) {
+            return "nip:" + nipIndex;
+        }
+        String peselIndex = blindIndexService.index(buyer.pesel());
+        if (peselIndex != null) {
+            return "pesel:" + peselIndex;
+        }
+        String normalizedName = normalizeName(buyer.name());
+        if (normalizedName == null) {
+            throw new IllegalArgumentException("Buyer name missing");
+        }
+        return "name:" + normalizedName;
+    }
+
+    // "  ACME  sp. z o.o." and "acme sp. z o.o." are the same buyer
+    static String normalizeName(String name) {
+        if (name == null) return null;
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = !sb.isEmpty();
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.isEmpty() ? null : sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,6 +1,7 @@
 package com.softwaremind.invoicedocbackend.importing;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import lombok.RequiredArgsConstructor;
 
@@ -8,6 +9,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -15,9 +18,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
+import com.softwaremind.invoicedocbackend.importing.dto.ImportJobResponse;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportReport;
 import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
 
@@ -27,6 +33,9 @@ import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
 public class ImportController {
 
     private final ImportService importService;
+    private final ImportJobService importJobService;
+    private final NdjsonImportService ndjsonImportService;
+    private final BulkLoadService bulkLoadService;
     private final XmlMapper xmlMapper;
 
 
@@ -45,13 +54,25 @@ public class ImportController {
     @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
     public ResponseEntity<InvoiceResponse> importXml(
             @RequestParam("sellerProfileId") Long sellerProfileId,
-            @RequestBody String xmlBody
+            InputStream xmlBody
     ) throws IOException {
         InvoiceImportDto dto = xmlMapper.readValue(xmlBody, InvoiceImportDto.class);
         InvoiceResponse response = importService.importFromDto(dto, sellerProfileId);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // <invoices> with many <invoice> elements, bound and imported one by one straight from the request stream
+    @PostMapping(value = "/xml/batch", consumes = MediaType.APPLICATION_XML_VALUE)
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public ResponseEntity<ImportReport> importXmlBatch(
+            @RequestParam("sellerProfileId") Long sellerProfileId,
+            InputStream xmlBody
+    ) throws IOException {
+        try (XmlInvoiceReader reader = new XmlInvoiceReader(xmlMapper, xmlBody)) {
+            return ResponseEntity.ok(importService.importRecords(reader, sellerProfileId));
+        }
+    }
+
     @PostMapping(value = "/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
     public ResponseEntity<InvoiceResponse> importCsv(
@@ -61,4 +82,56 @@ public class ImportController {
         InvoiceResponse response = importService.importFromCsv(file, sellerProfileId);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    // many invoices in one file, consecutive rows with the same invoiceNumber form one invoice
+    @PostMapping(value = "/csv/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public ResponseEntity<ImportReport> importCsvBatch(
+            @RequestParam("sellerProfileId") Long sellerProfileId,
+            @RequestPart("file") MultipartFile file
+    ) throws IOException {
+        return ResponseEntity.ok(importService.importBatchFromCsv(file, sellerProfileId));
+    }
+
+    // one InvoiceImportDto per line in, one ImportLineResult per line out while the upload is still running
+    @PostMapping(value = "/ndjson", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importNdjson(
+            @RequestParam("sellerProfileId") Long sellerProfileId,
+            InputStream body
+    ) {
+        StreamingResponseBody results = ndjsonImportService.importNdjson(body, sellerProfileId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(results);
+    }
+
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public ResponseEntity<ImportJobResponse> submitJob(
+            @RequestParam("sellerProfileId") Long sellerProfileId,
+            @RequestParam("format") ImportFormat format,
+            @RequestPart("file") MultipartFile file
+    ) throws IOException {
+        ImportJobResponse response = importJobService.submit(format, file, sellerProfileId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    // historical migration: COPY-based, keeps the source invoice numbers
+    @PostMapping(value = "/bulk-load", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportReport> bulkLoad(
+            @RequestParam("sellerProfileId") Long sellerProfileId,
+            @RequestParam("format") ImportFormat format,
+            @RequestPart("file") MultipartFile file
+    ) throws IOException {
+        return ResponseEntity.ok(bulkLoadService.load(format, file, sellerProfileId));
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public ResponseEntity<ImportJobResponse> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(importJobService.getJob(id));
+    }
 }
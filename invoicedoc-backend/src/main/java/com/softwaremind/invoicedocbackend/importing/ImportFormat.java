@@ -0,0 +1,7 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+public enum ImportFormat {
+    JSON,
+    XML,
+    CSV
+}
@@ -0,0 +1,45 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "import_job_errors",
+        indexes = @Index(name = "idx_import_job_errors_job", columnList = "job_id, record_position")
+)
+public class ImportJobErrorEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_job_errors_id_seq")
+    @SequenceGenerator(name = "import_job_errors_id_seq", sequenceName = "import_job_errors_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "record_position", nullable = false)
+    private long position;
+
+    private String reference;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -0,0 +1,10 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImportJobErrorRepository extends JpaRepository<ImportJobErrorEntity, Long> {
+
+    List<ImportJobErrorEntity> findByJobIdOrderByPositionAsc(Long jobId);
+}
@@ -0,0 +1,27 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ImportJobRepository extends JpaRepository<ImportJobEntity, Long> {
+
+    List<ImportJobEntity> findByStatusInOrderByIdAsc(Collection<ImportJobStatus> statuses);
+
+    @Modifying
+    @Query("update ImportJobEntity j set j.recordsRead = j.recordsRead + :read, " +
+            "j.createdCount = j.createdCount + :created, j.failedCount = j.failedCount + :failed, " +
+            "j.bytesRead = :bytesRead, j.updatedAt = :now " +
+            "where j.id = :id")
+    void addProgress(@Param("id") Long id,
+                     @Param("read") long read,
+                     @Param("created") long created,
+                     @Param("failed") long failed,
+                     @Param("bytesRead") long bytesRead,
+                     @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,382 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import com.softwaremind.invoicedocbackend.config.WorkerThreads;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportJobResponse;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportRowError;
+import com.softwaremind.invoicedocbackend.security.CurrentUser;
+import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
+import com.softwaremind.invoicedocbackend.security.CustomUserDetails;
+import com.softwaremind.invoicedocbackend.security.PrincipalCache;
+
+// Imports uploaded files in the background. The upload is staged to local disk and processed on a bounded pool;
+// progress is committed with every chunk, so after a restart the job skips the records it already imported.
+// A worker claims its job with a PostgreSQL advisory lock first, so replicas resuming at the same time never run
+// the same job twice; the lock goes away with its connection if the node dies.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobService {
+
+    private static final List<ImportJobStatus> UNFINISHED = List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING);
+
+    // first key of the two-key advisory locks, the job id is the second; unique among the application's locks
+    static final int LOCK_NAMESPACE = 0x696d7074;
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobErrorRepository importJobErrorRepository;
+    private final ImportService importService;
+    private final CurrentUserProvider currentUserProvider;
+    private final PrincipalCache principalCache;
+    private final JsonMapper jsonMapper;
+    private final XmlMapper xmlMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.import.jobs.threads:2}")
+    private int threads = 2;
+
+    @Value("${app.import.jobs.queue-capacity:10}")
+    private int queueCapacity = 10;
+
+    @Value("${app.import.jobs.dir:${java.io.tmpdir}/invoicedoc-import-jobs}")
+    private Path directory;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), WorkerThreads.factory("import-job", virtualThreads));
+    }
+
+    // running jobs stay RUNNING and are picked up again on the next start
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ImportJobResponse submit(ImportFormat format, MultipartFile file, Long sellerProfileId) throws IOException {
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "IMPORT_FILE_EMPTY");
+        }
+
+        Path staged = Files.createTempFile(directory, "import-", "." + format.name().toLowerCase());
+        file.transferTo(staged);
+
+        LocalDateTime now = LocalDateTime.now();
+        ImportJobEntity job = importJobRepository.save(ImportJobEntity.builder()
+                .organizationId(cu.organizationId())
+                .userId(cu.userId())
+                .sellerProfileId(sellerProfileId)
+                .format(format)
+                .status(ImportJobStatus.QUEUED)
+                .fileName(truncate(file.getOriginalFilename(), 255))
+                .stagedPath(staged.toString())
+                .totalBytes(Files.size(staged))
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        try {
+            executor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            importJobRepository.delete(job);
+            Files.deleteIfExists(staged);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "IMPORT_QUEUE_FULL");
+        }
+        return toResponse(job, List.of());
+    }
+
+    public ImportJobResponse getJob(Long jobId) {
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+
+        ImportJobEntity job = importJobRepository.findById(jobId)
+                .filter(j -> j.getOrganizationId().equals(cu.organizationId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "IMPORT_JOB_NOT_FOUND"));
+
+        return toResponse(job, importJobErrorRepository.findByJobIdOrderByPositionAsc(jobId));
+    }
+
+    // Every node sees every unfinished job: one whose staged file is not on this node is left to the node that has it,
+    // and a job another node is still running (or resumes first) fails the claim in run() and is skipped there.
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        for (ImportJobEntity job : importJobRepository.findByStatusInOrderByIdAsc(UNFINISHED)) {
+            if (!Files.isReadable(Path.of(job.getStagedPath()))) {
+                log.info("Import job {} has no staged file on this node, not resuming", job.getId());
+                continue;
+            }
+            try {
+                executor.execute(() -> run(job.getId()));
+                log.info("Resuming import job {} after {} records", job.getId(), job.getRecordsRead());
+            } catch (RejectedExecutionException e) {
+                log.warn("Import queue full, remaining unfinished jobs wait for the next start");
+                return;
+            }
+        }
+    }
+
+    void run(Long jobId) {
+        Boolean claimed = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!jobLock(connection, "pg_try_advisory_lock", jobId)) {
+                return false;
+            }
+            try {
+                process(jobId);
+            } finally {
+                jobLock(connection, "pg_advisory_unlock", jobId);
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(claimed)) {
+            log.info("Import job {} is claimed by another worker, skipping", jobId);
+        }
+    }
+
+    private static boolean jobLock(Connection connection, String function, Long jobId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("select " + function + "(?, ?)")) {
+            ps.setInt(1, LOCK_NAMESPACE);
+            ps.setInt(2, Long.hashCode(jobId));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    // status is read only once the job is claimed, so a job another node just completed is not run again
+    private void process(Long jobId) {
+        ImportJobEntity job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null || !UNFINISHED.contains(job.getStatus())) {
+            return;
+        }
+        Path staged = Path.of(job.getStagedPath());
+        if (!Files.exists(staged)) {
+            finish(jobId, ImportJobStatus.FAILED, "IMPORT_FILE_MISSING");
+            return;
+        }
+        Optional<CustomUserDetails> user = principalCache.get(job.getUserId());
+        if (user.isEmpty()) {
+            finish(jobId, ImportJobStatus.FAILED, "USER_NOT_FOUND");
+            return;
+        }
+
+        // ImportService / InvoiceService read the organization and user from the security context
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                user.get(), null, user.get().getAuthorities()));
+        SecurityContextHolder.setContext(context);
+        try {
+            job.setStatus(ImportJobStatus.RUNNING);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+            importJobRepository.save(job);
+
+            AtomicLong errorsStored = new AtomicLong(Math.min(job.getFailedCount(), maxReportedErrors));
+            try (CountingInputStream in = new CountingInputStream(Files.newInputStream(staged));
+                 ImportRecordReader reader = open(job.getFormat(), in)) {
+                for (long i = 0; i < job.getRecordsRead() && reader.hasNext(); i++) {
+                    reader.next();
+                }
+                importService.importRecords(reader, job.getSellerProfileId(),
+                        outcomes -> recordProgress(jobId, outcomes, in.count(), errorsStored));
+            }
+            finish(jobId, ImportJobStatus.COMPLETED, null);
+            Files.deleteIfExists(staged);
+        } catch (Exception e) {
+            if (executor.isShutdown()) {
+                log.info("Import job {} stopped by shutdown, it will resume on next start", jobId);
+                return;
+            }
+            log.warn("Import job {} failed", jobId, e);
+            finish(jobId, ImportJobStatus.FAILED, errorMessage(e));
+            try {
+                Files.deleteIfExists(staged);
+            } catch (IOException ignored) {
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // runs inside the chunk's transaction
+    private void recordProgress(Long jobId, List<ImportOutcome> outcomes, long bytesRead, AtomicLong errorsStored) {
+        long created = outcomes.stream().filter(ImportOutcome::success).count();
+        importJobRepository.addProgress(jobId, outcomes.size(), created, outcomes.size() - created,
+                bytesRead, LocalDateTime.now());
+
+        List<ImportJobErrorEntity> errors = new ArrayList<>();
+        for (ImportOutcome o : outcomes) {
+            if (!o.success() && errorsStored.get() < maxReportedErrors) {
+                errorsStored.incrementAndGet();
+                errors.add(ImportJobErrorEntity.builder()
+                        .jobId(jobId)
+                        .position(o.record().position())
+                        .reference(truncate(o.record().reference(), 255))
+                        .error(truncate(o.error(), 1000))
+                        .build());
+            }
+        }
+        if (!errors.isEmpty()) {
+            importJobErrorRepository.saveAll(errors);
+        }
+    }
+
+    private void finish(Long jobId, ImportJobStatus status, String error) {
+        importJobRepository.findById(jobId).ifPresent(job -> {
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(status);
+            job.setErrorMessage(truncate(error, 1000));
+            job.setUpdatedAt(now);
+            job.setFinishedAt(now);
+            if (status == ImportJobStatus.COMPLETED) {
+                job.setBytesRead(job.getTotalBytes());
+            }
+            importJobRepository.save(job);
+        });
+    }
+
+    private ImportRecordReader open(ImportFormat format, InputStream in) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvInvoiceReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            case JSON -> new JsonInvoiceReader(jsonMapper, in);
+            case XML -> new XmlInvoiceReader(xmlMapper, in);
+        };
+    }
+
+    private ImportJobResponse toResponse(ImportJobEntity job, List<ImportJobErrorEntity> errors) {
+        int progress = job.getStatus() == ImportJobStatus.COMPLETED ? 100
+                : job.getTotalBytes() > 0 ? (int) Math.min(99, job.getBytesRead() * 100 / job.getTotalBytes()) : 0;
+
+        double perSecond = 0;
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt()
+                    : job.getUpdatedAt() != null ? job.getUpdatedAt() : LocalDateTime.now();
+            long millis = Duration.between(job.getStartedAt(), end).toMillis();
+            if (millis > 0) {
+                perSecond = job.getRecordsRead() * 1000.0 / millis;
+            }
+        }
+
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getFileName(),
+                job.getTotalBytes(),
+                job.getBytesRead(),
+                progress,
+                job.getRecordsRead(),
+                job.getCreatedCount(),
+                job.getFailedCount(),
+                perSecond,
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getErrorMessage(),
+                errors.stream()
+                        .map(e -> new ImportRowError(e.getPosition(), e.getReference(), e.getError()))
+                        .toList()
+        );
+    }
+
+    private String errorMessage(Exception e) {
+        if (e instanceof ResponseStatusException rse && rse.getReason() != null) {
+            return rse.getReason();
+        }
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
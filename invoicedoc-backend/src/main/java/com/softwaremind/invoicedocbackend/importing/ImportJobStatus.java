@@ -0,0 +1,8 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
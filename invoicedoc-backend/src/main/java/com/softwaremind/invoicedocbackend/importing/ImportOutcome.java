@@ -0,0 +1,17 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+// Result of writing one ImportRecord: invoiceId/number when created, error otherwise.
+public record ImportOutcome(ImportRecord record, Long invoiceId, String number, String error) {
+
+    public boolean success() {
+        return error == null;
+    }
+
+    static ImportOutcome created(ImportRecord record, Long invoiceId, String number) {
+        return new ImportOutcome(record, invoiceId, number, null);
+    }
+
+    static ImportOutcome failed(ImportRecord record, String error) {
+        return new ImportOutcome(record, null, null, error);
+    }
+}
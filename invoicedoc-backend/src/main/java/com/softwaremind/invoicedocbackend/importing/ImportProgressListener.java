@@ -0,0 +1,12 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.util.List;
+
+// Called by ImportService inside the transaction that commits a chunk, with that chunk's outcomes in source order.
+@FunctionalInterface
+public interface ImportProgressListener {
+
+    ImportProgressListener NONE = outcomes -> {};
+
+    void committed(List<ImportOutcome> outcomes);
+}
@@ -0,0 +1,16 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+
+// One invoice read from an import source. position is the source row / line / element number,
+// error is set instead of invoice when the source data could not be turned into a dto.
+public record ImportRecord(long position, String reference, InvoiceImportDto invoice, String error) {
+
+    public static ImportRecord ok(long position, String reference, InvoiceImportDto invoice) {
+        return new ImportRecord(position, reference, invoice, null);
+    }
+
+    public static ImportRecord failed(long position, String reference, String error) {
+        return new ImportRecord(position, reference, null, error);
+    }
+}
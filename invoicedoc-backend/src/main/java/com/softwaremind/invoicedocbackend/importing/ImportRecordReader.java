@@ -0,0 +1,8 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+// Source of ImportRecords pulled one invoice at a time from an underlying stream.
+public interface ImportRecordReader extends Iterator<ImportRecord>, Closeable {
+}
@@ -0,0 +1,41 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.softwaremind.invoicedocbackend.importing.dto.ImportReport;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportRowError;
+
+// Counters plus the first maxErrors errors; memory does not grow with the number of failed rows.
+class ImportReportCollector {
+
+    private final int maxErrors;
+    private final List<ImportRowError> errors = new ArrayList<>();
+    private int read;
+    private int created;
+    private int failed;
+    private boolean errorsTruncated;
+
+    ImportReportCollector(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void add(ImportOutcome outcome) {
+        read++;
+        if (outcome.success()) {
+            created++;
+            return;
+        }
+        failed++;
+        if (errors.size() < maxErrors) {
+            ImportRecord r = outcome.record();
+            errors.add(new ImportRowError(r.position(), r.reference(), outcome.error()));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    ImportReport build() {
+        return new ImportReport(read, created, failed, List.copyOf(errors), errorsTruncated);
+    }
+}
@@ -2,63 +2,68 @@ package com.softwaremind.invoicedocbackend.importing;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
-import com.softwaremind.invoicedocbackend.common.dto.AddressDto;
+import com.softwaremind.invoicedocbackend.config.MetricsConfig;
 import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
 import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
 import com.softwaremind.invoicedocbackend.contractor.mapper.ContractorMapper;
-import com.softwaremind.invoicedocbackend.importing.dto.ImportExtraDto;
-import com.softwaremind.invoicedocbackend.importing.dto.ImportInvoiceItemDto;
-import com.softwaremind.invoicedocbackend.importing.dto.ImportInvoiceMetaDto;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportReport;
 import com.softwaremind.invoicedocbackend.importing.dto.ImportPartyDto;
 import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
 import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportMapper;
 import com.softwaremind.invoicedocbackend.invoice.InvoiceService;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchItemResult;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
 import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
-import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
-import com.softwaremind.invoicedocbackend.tenant.SellerProfileRepository;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
 
 @Service
 @RequiredArgsConstructor
 public class ImportService {
 
     private final CurrentUserProvider currentUserProvider;
-    private final SellerProfileRepository sellerProfileRepository;
+    private final TenantCache tenantCache;
     private final ContractorRepository contractorRepository;
     private final ContractorMapper contractorMapper;
-    private final OrganizationRepository organizationRepository;
     private final InvoiceImportMapper importMapper;
     private final InvoiceService invoiceService;
+    private final BlindIndexService blindIndexService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
 
-    public InvoiceResponse importFromDto(InvoiceImportDto dto, Long sellerProfileId) {
-        CurrentUser cu = currentUserProvider.getCurrentUser();
+    @Value("${app.import.chunk-size:100}")
+    private int chunkSize = 100;
 
-        SellerProfileEntity seller = sellerProfileRepository.findById(sellerProfileId)
-                .orElseThrow(() -> new IllegalStateException("Seller profile not found"));
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
 
-        if (!seller.getOrganization().getId().equals(cu.organizationId())) {
-            throw new IllegalStateException("Seller profile not in your org");
-        }
+    public InvoiceResponse importFromDto(InvoiceImportDto dto, Long sellerProfileId) {
+        assertSellerProfileInOrg(sellerProfileId);
 
         Long contractorId = ensureContractor(dto);
 
@@ -68,84 +73,244 @@ public class ImportService {
         return invoiceService.createInvoice(createReq);
     }
 
+    // the whole file is one invoice: one row per item, invoice and party fields taken from the first row
     public InvoiceResponse importFromCsv(MultipartFile file, Long sellerProfileId) throws IOException {
-        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
-            CSVParser parser = CSVFormat.DEFAULT
-                    .withFirstRecordAsHeader()
-                    .parse(reader);
-
-            List<CSVRecord> records = parser.getRecords();
-            if (records.isEmpty()) {
-                throw new IllegalArgumentException("CSV is empty");
+        try (CsvInvoiceReader reader = new CsvInvoiceReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            if (!reader.hasNext()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV_EMPTY");
             }
+            ImportRecord record = reader.readAll();
+            if (record.error() != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, record.error());
+            }
+            return importFromDto(record.invoice(), sellerProfileId);
+        }
+    }
 
-            CSVRecord first = records.get(0);
-
-            ImportPartyDto sellerParty = new ImportPartyDto(
-                    "COMPANY",
-                    first.get("sellerName"),
-                    first.get("sellerNip"),
-                    null,
-                    new AddressDto(
-                            first.get("sellerStreet"),
-                            first.get("sellerBuildingNumber"),
-                            null,
-                            first.get("sellerPostalCode"),
-                            first.get("sellerCity"),
-                            "PL"
-                    ),
-                    first.isMapped("sellerBankAccount") ? first.get("sellerBankAccount") : null
-            );
-
-            ImportPartyDto buyerParty = new ImportPartyDto(
-                    "COMPANY",
-                    first.get("buyerName"),
-                    first.get("buyerNip"),
-                    null,
-                    new AddressDto(
-                            first.get("buyerStreet"),
-                            first.get("buyerBuildingNumber"),
-                            null,
-                            first.get("buyerPostalCode"),
-                            first.get("buyerCity"),
-                            "PL"
-                    ),
-                    null
-            );
-
-            ImportInvoiceMetaDto meta = new ImportInvoiceMetaDto(
-                    first.get("invoiceNumber"),
-                    LocalDate.parse(first.get("issueDate")),
-                    LocalDate.parse(first.get("saleDate")),
-                    LocalDate.parse(first.get("dueDate")),
-                    first.get("paymentMethod"),
-                    first.get("currency"),
-                    "PL"
-            );
-
-            List<ImportInvoiceItemDto> items = new ArrayList<>();
-            for (CSVRecord r : records) {
-                items.add(new ImportInvoiceItemDto(
-                        r.get("itemDescription"),
-                        new java.math.BigDecimal(r.get("itemQuantity")),
-                        r.get("itemUnit"),
-                        new java.math.BigDecimal(r.get("itemNetUnitPrice")),
-                        r.get("itemVatRate")
-                ));
+    public ImportReport importBatchFromCsv(MultipartFile file, Long sellerProfileId) throws IOException {
+        try (CsvInvoiceReader reader = new CsvInvoiceReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            if (!reader.hasNext()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV_EMPTY");
             }
+            return importRecords(reader, sellerProfileId);
+        }
+    }
 
-            ImportExtraDto extra = new ImportExtraDto(
-                    first.isMapped("notes") ? first.get("notes") : null,
-                    first.isMapped("reverseCharge") ? Boolean.valueOf(first.get("reverseCharge")) : false,
-                    first.isMapped("splitPayment") ? Boolean.valueOf(first.get("splitPayment")) : false
-            );
+    // Pulls records from the source and writes them chunkSize at a time, so memory is bounded by one chunk.
+    public ImportReport importRecords(Iterator<ImportRecord> records, Long sellerProfileId) {
+        return importRecords(records, sellerProfileId, ImportProgressListener.NONE);
+    }
+
+    public ImportReport importRecords(Iterator<ImportRecord> records, Long sellerProfileId,
+                                      ImportProgressListener listener) {
+        ImportReportCollector report = new ImportReportCollector(maxReportedErrors);
+        importChunks(records, sellerProfileId, listener, outcomes -> outcomes.forEach(report::add));
+        return report.build();
+    }
 
-            InvoiceImportDto dto = new InvoiceImportDto(sellerParty, buyerParty, meta, items, extra);
-            return importFromDto(dto, sellerProfileId);
+    // Hands each chunk's outcomes to onChunkWritten after the chunk is committed, instead of building a report.
+    public void streamRecords(Iterator<ImportRecord> records, Long sellerProfileId,
+                              Consumer<List<ImportOutcome>> onChunkWritten) {
+        importChunks(records, sellerProfileId, ImportProgressListener.NONE, onChunkWritten);
+    }
+
+    private void importChunks(Iterator<ImportRecord> records, Long sellerProfileId,
+                              ImportProgressListener listener, Consumer<List<ImportOutcome>> onChunkWritten) {
+        assertSellerProfileInOrg(sellerProfileId);
+        Long organizationId = currentUserProvider.getCurrentUser().organizationId();
+        ImportContractorResolver contractors = contractorResolver(organizationId);
+        Counter created = rowCounter(organizationId, "created");
+        Counter failed = rowCounter(organizationId, "failed");
+
+        List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+        while (records.hasNext()) {
+            chunk.add(records.next());
+            if (chunk.size() == chunkSize) {
+                countRows(writeChunk(chunk, sellerProfileId, contractors, listener), created, failed, onChunkWritten);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            countRows(writeChunk(chunk, sellerProfileId, contractors, listener), created, failed, onChunkWritten);
         }
     }
 
+    // rows per second is rate(import_rows_total) in Prometheus
+    private Counter rowCounter(Long organizationId, String result) {
+        return Counter.builder("import.rows")
+                .tag(MetricsConfig.ORG_TAG, MetricsConfig.orgTag(organizationId))
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 
+    private void countRows(List<ImportOutcome> outcomes, Counter created, Counter failed,
+                           Consumer<List<ImportOutcome>> onChunkWritten) {
+        long succeeded = outcomes.stream().filter(ImportOutcome::success).count();
+        created.increment(succeeded);
+        failed.increment(outcomes.size() - succeeded);
+        onChunkWritten.accept(outcomes);
+    }
+
+    // One transaction per chunk; the listener runs inside it, so progress is committed together with the invoices.
+    // If the chunk fails as a whole it is retried invoice by invoice so one bad invoice does not drop its neighbours.
+    // Outcomes are always passed to the listener in source order.
+    private List<ImportOutcome> writeChunk(List<ImportRecord> chunk, Long sellerProfileId,
+                                           ImportContractorResolver contractors, ImportProgressListener listener) {
+        ImportOutcome[] outcomes = new ImportOutcome[chunk.size()];
+        Long[] contractorIds = resolveContractors(chunk, outcomes, contractors);
+
+        List<Integer> ready = new ArrayList<>(chunk.size());
+        List<InvoiceCreateRequest> requests = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (contractorIds[i] == null) {
+                continue;
+            }
+            try {
+                requests.add(importMapper.toCreateRequest(chunk.get(i).invoice(), sellerProfileId, contractorIds[i]));
+                ready.add(i);
+            } catch (RuntimeException e) {
+                outcomes[i] = ImportOutcome.failed(chunk.get(i), errorMessage(e));
+            }
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> {
+                if (!requests.isEmpty()) {
+                    for (InvoiceBatchItemResult result : invoiceService.createInvoices(requests).results()) {
+                        int index = ready.get(result.index());
+                        outcomes[index] = toOutcome(chunk.get(index), result);
+                    }
+                }
+                listener.committed(Arrays.asList(outcomes));
+            });
+            return Arrays.asList(outcomes);
+        } catch (RuntimeException chunkFailure) {
+            return writeOneByOne(chunk, outcomes, ready, requests, listener, tx);
+        }
+    }
+
+    private List<ImportOutcome> writeOneByOne(List<ImportRecord> chunk, ImportOutcome[] outcomes,
+                                              List<Integer> ready, List<InvoiceCreateRequest> requests,
+                                              ImportProgressListener listener, TransactionTemplate tx) {
+        List<ImportOutcome> result = new ArrayList<>(chunk.size());
+        List<ImportOutcome> pending = new ArrayList<>();
+        int next = 0;
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (next < ready.size() && ready.get(next) == i) {
+                ImportRecord record = chunk.get(i);
+                InvoiceCreateRequest request = requests.get(next++);
+                try {
+                    ImportOutcome outcome = tx.execute(status -> {
+                        InvoiceBatchItemResult single =
+                                invoiceService.createInvoices(List.of(request)).results().getFirst();
+                        ImportOutcome o = toOutcome(record, single);
+                        List<ImportOutcome> batch = new ArrayList<>(pending);
+                        batch.add(o);
+                        listener.committed(batch);
+                        return o;
+                    });
+                    result.addAll(pending);
+                    result.add(outcome);
+                    pending.clear();
+                } catch (RuntimeException e) {
+                    pending.add(ImportOutcome.failed(record, errorMessage(e)));
+                }
+            } else {
+                pending.add(outcomes[i]);
+            }
+        }
+        if (!pending.isEmpty()) {
+            tx.executeWithoutResult(status -> listener.committed(pending));
+            result.addAll(pending);
+        }
+        return result;
+    }
+
+    ImportContractorResolver contractorResolver(Long organizationId) {
+        return new ImportContractorResolver(organizationId,
+                contractorRepository, tenantCache, blindIndexService, this::newContractor);
+    }
+
+    // Contractor id per record, null where the record already failed; read and resolve errors go to outcomes.
+    Long[] resolveContractors(List<ImportRecord> chunk, ImportOutcome[] outcomes,
+                              ImportContractorResolver contractors) {
+        Long[] contractorIds = new Long[chunk.size()];
+        List<Integer> newBuyers = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRecord record = chunk.get(i);
+            if (record.error() != null) {
+                outcomes[i] = ImportOutcome.failed(record, record.error());
+                continue;
+            }
+            try {
+                contractorIds[i] = contractors.find(record.invoice().buyer());
+                if (contractorIds[i] == null) {
+                    newBuyers.add(i);
+                }
+            } catch (RuntimeException e) {
+                outcomes[i] = ImportOutcome.failed(record, errorMessage(e));
+            }
+        }
+        if (!newBuyers.isEmpty()) {
+            createContractors(chunk, newBuyers, contractorIds, outcomes, contractors);
+        }
+        return contractorIds;
+    }
+
+    // all new buyers of the chunk in one saveAll; if that fails, one by one so only the bad buyer's invoices fail
+    private void createContractors(List<ImportRecord> chunk, List<Integer> newBuyers, Long[] contractorIds,
+                                   ImportOutcome[] outcomes, ImportContractorResolver contractors) {
+        try {
+            List<Long> ids = contractors.createAll(newBuyers.stream()
+                    .map(i -> chunk.get(i).invoice().buyer())
+                    .toList());
+            for (int n = 0; n < newBuyers.size(); n++) {
+                contractorIds[newBuyers.get(n)] = ids.get(n);
+            }
+        } catch (RuntimeException batchFailure) {
+            for (int i : newBuyers) {
+                ImportPartyDto buyer = chunk.get(i).invoice().buyer();
+                try {
+                    Long existing = contractors.find(buyer);
+                    contractorIds[i] = existing != null ? existing : contractors.createAll(List.of(buyer)).getFirst();
+                } catch (RuntimeException e) {
+                    outcomes[i] = ImportOutcome.failed(chunk.get(i), errorMessage(e));
+                }
+            }
+        }
+    }
+
+    private ImportOutcome toOutcome(ImportRecord record, InvoiceBatchItemResult result) {
+        return result.success()
+                ? ImportOutcome.created(record, result.invoiceId(), result.number())
+                : ImportOutcome.failed(record, result.error());
+    }
+
+    static String errorMessage(RuntimeException e) {
+        if (e instanceof ResponseStatusException rse && rse.getReason() != null) {
+            return rse.getReason();
+        }
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    SellerProfileEntity assertSellerProfileInOrg(Long sellerProfileId) {
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+
+        SellerProfileEntity seller = tenantCache.sellerProfile(sellerProfileId)
+                .orElseThrow(() -> new IllegalStateException("Seller profile not found"));
+
+        if (!seller.getOrganization().getId().equals(cu.organizationId())) {
+            throw new IllegalStateException("Seller profile not in your org");
+        }
+        return seller;
+    }
+
+    // same matching rule as the chunked imports: tax id blind index, otherwise the normalized name
     private Long ensureContractor(InvoiceImportDto dto) {
         CurrentUser cu = currentUserProvider.getCurrentUser();
         ImportPartyDto buyer = dto.buyer();
@@ -154,28 +319,22 @@ public class ImportService {
             throw new IllegalArgumentException("Buyer data missing");
         }
 
-        return contractorRepository
-                .findByOrganizationIdAndNameContainingIgnoreCase(cu.organizationId(), buyer.name())
-                .stream()
-                .findFirst()
-                .map(ContractorEntity::getId)
-                .orElseGet(() -> {
-                    OrganizationEntity org = organizationRepository.findById(cu.organizationId())
-                            .orElseThrow(() -> new IllegalStateException("Organization not found"));
-
-                    ContractorCreateRequest cReq = new ContractorCreateRequest(
-                            importMapper.mapBuyerType(buyer),
-                            buyer.name(),
-                            buyer.nip(),
-                            buyer.pesel(),
-                            importMapper.toAddressDto(buyer),
-                            null,
-                            null,
-                            false
-                    );
-                    ContractorEntity entity = contractorMapper.fromCreateRequest(cReq, org);
-                    contractorRepository.save(entity);
-                    return entity.getId();
-                });
+        ImportContractorResolver contractors = contractorResolver(cu.organizationId());
+        Long existing = contractors.find(buyer);
+        return existing != null ? existing : contractors.createAll(List.of(buyer)).getFirst();
+    }
+
+    private ContractorEntity newContractor(ImportPartyDto buyer, OrganizationEntity org) {
+        ContractorCreateRequest cReq = new ContractorCreateRequest(
+                importMapper.mapBuyerType(buyer),
+                buyer.name(),
+                buyer.nip(),
+                buyer.pesel(),
+                importMapper.toAddressDto(buyer),
+                null,
+                null,
+                false
+        );
+        return contractorMapper.fromCreateRequest(cReq, org);
     }
 }
@@ -0,0 +1,83 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// PostgreSQL side of the bulk loader: id blocks from the pooled sequences, number lookups and COPY FROM STDIN.
+// Runs on the connection of the surrounding transaction.
+@Component
+@RequiredArgsConstructor
+public class InvoiceCopyLoader {
+
+    static final String INVOICES_SEQUENCE = "invoices_id_seq";
+    static final String INVOICE_ITEMS_SEQUENCE = "invoice_items_id_seq";
+
+    // allocationSize of the entity sequences / INCREMENT BY in V3__pooled_id_sequences.sql
+    static final int ID_BLOCK = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Whole blocks are taken from the sequence, so ids reserved here never collide with the ones JPA hands out
+    // (hibernate.id.optimizer.pooled.preferred = pooled-lo in application.yml).
+    public long[] reserveIds(String sequence, int count) {
+        long[] ids = new long[count];
+        int n = 0;
+        while (n < count) {
+            int blocks = (count - n + ID_BLOCK - 1) / ID_BLOCK;
+            List<Long> lows = jdbcTemplate.queryForList(
+                    "select nextval('" + sequence + "') from generate_series(1, ?)", Long.class, blocks);
+            // pooled-lo: nextval is the first id of its block
+            for (long low : lows) {
+                for (long id = low; id < low + ID_BLOCK && n < count; id++) {
+                    ids[n++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    public Set<String> existingNumbers(Long organizationId, Collection<String> numbers) {
+        if (numbers.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(
+                "select number from invoices where organization_id = ? and number = any(?)",
+                ps -> {
+                    ps.setLong(1, organizationId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", numbers.toArray()));
+                },
+                (rs, rowNum) -> rs.getString(1)));
+    }
+
+    // rows are complete CSV lines (see BulkLoadRowBuilder); returns the number of rows written
+    public long copy(String table, String columns, List<byte[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Long written = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+            try {
+                for (byte[] row : rows) {
+                    copy.writeToCopy(row, 0, row.length);
+                }
+                return copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+        return written != null ? written : 0;
+    }
+}
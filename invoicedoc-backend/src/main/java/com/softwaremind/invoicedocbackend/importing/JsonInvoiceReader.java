@@ -0,0 +1,110 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+
+// Reads a JSON document holding one InvoiceImportDto or an array of them. Array elements are read as
+// trees one at a time, so a binding error fails only that element; broken JSON syntax fails the rest.
+public class JsonInvoiceReader implements ImportRecordReader {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader nodeReader;
+    private final JsonParser parser;
+    private final boolean array;
+    private long position;
+    private boolean done;
+    private boolean broken;
+
+    public JsonInvoiceReader(ObjectMapper objectMapper, InputStream in) {
+        this.objectMapper = objectMapper;
+        // the parser is left inside the array after each element
+        this.nodeReader = objectMapper.readerFor(JsonNode.class)
+                .without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        this.parser = objectMapper.createParser(in);
+
+        JsonToken first;
+        try {
+            first = parser.nextToken();
+        } catch (JacksonException e) {
+            first = null;
+        }
+        if (first == JsonToken.START_ARRAY) {
+            array = true;
+            advance();
+        } else if (first == JsonToken.START_OBJECT) {
+            array = false;
+        } else {
+            parser.close();
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "INVALID_JSON");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public ImportRecord next() {
+        if (done) {
+            throw new NoSuchElementException();
+        }
+        position++;
+
+        JsonNode node = null;
+        if (!broken) {
+            try {
+                node = nodeReader.readValue(parser);
+            } catch (JacksonException e) {
+                broken = true;
+            }
+        }
+        if (broken) {
+            done = true;
+            return ImportRecord.failed(position, null, "INVALID_JSON");
+        }
+
+        JsonNode number = node.at("/invoice/number");
+        String reference = number.isString() ? number.stringValue() : null;
+        if (array) {
+            advance();
+        } else {
+            done = true;
+        }
+
+        try {
+            return ImportRecord.ok(position, reference, objectMapper.treeToValue(node, InvoiceImportDto.class));
+        } catch (JacksonException e) {
+            return ImportRecord.failed(position, reference, "INVALID_INVOICE " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+
+    // moves to the next array element; anything but an object or the closing bracket means the rest is unreadable
+    private void advance() {
+        try {
+            JsonToken token = parser.nextToken();
+            done = token == JsonToken.END_ARRAY;
+            broken = !done && token != JsonToken.START_OBJECT;
+        } catch (JacksonException e) {
+            broken = true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import com.softwaremind.invoicedocbackend.importing.dto.ImportLineResult;
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+
+// NDJSON in, NDJSON out: invoices are imported in chunks while the request is still being read,
+// and the result line of every input line is written as soon as its chunk is committed.
+@Service
+@RequiredArgsConstructor
+public class NdjsonImportService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final ImportService importService;
+    private final JsonMapper jsonMapper;
+
+    // readers / writers are immutable and thread-safe, built once instead of per line
+    private ObjectReader invoiceReader;
+    private ObjectWriter resultWriter;
+
+    @PostConstruct
+    void init() {
+        invoiceReader = jsonMapper.readerFor(InvoiceImportDto.class);
+        // the response stream stays open between lines
+        resultWriter = jsonMapper.writerFor(ImportLineResult.class)
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+    }
+
+    // seller profile is checked here, on the request thread, so a wrong id is answered before streaming starts;
+    // the body runs on an async thread, which gets the caller's security context for the org checks
+    public StreamingResponseBody importNdjson(InputStream body, Long sellerProfileId) {
+        importService.assertSellerProfileInOrg(sellerProfileId);
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        return out -> {
+            SecurityContextHolder.setContext(securityContext);
+            BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            try (NdjsonInvoiceReader reader = new NdjsonInvoiceReader(invoiceReader, lines)) {
+                importService.streamRecords(reader, sellerProfileId, outcomes -> writeResults(outcomes, out));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    private void writeResults(List<ImportOutcome> outcomes, OutputStream out) {
+        try {
+            for (ImportOutcome o : outcomes) {
+                resultWriter.writeValue(out, new ImportLineResult(
+                        o.record().position(), o.success(), o.invoiceId(), o.number(), o.error()));
+                out.write(NEWLINE);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+
+// One InvoiceImportDto per line; blank lines are skipped and a bad line fails only itself.
+// position is the 1-based line number.
+public class NdjsonInvoiceReader implements ImportRecordReader {
+
+    private final ObjectReader invoiceReader;
+    private final BufferedReader lines;
+    private long lineNumber;
+    private String pending;
+
+    public NdjsonInvoiceReader(ObjectReader invoiceReader, BufferedReader lines) {
+        this.invoiceReader = invoiceReader;
+        this.lines = lines;
+        readAhead();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null;
+    }
+
+    @Override
+    public ImportRecord next() {
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+        String line = pending;
+        long position = lineNumber;
+        readAhead();
+
+        try {
+            InvoiceImportDto invoice = invoiceReader.readValue(line);
+            String reference = invoice.invoice() != null ? invoice.invoice().number() : null;
+            return ImportRecord.ok(position, reference, invoice);
+        } catch (JacksonException e) {
+            return ImportRecord.failed(position, null, "INVALID_JSON " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lines.close();
+    }
+
+    private void readAhead() {
+        try {
+            String line;
+            do {
+                line = lines.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            pending = line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+import org.codehaus.stax2.XMLStreamReader2;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
+
+// Reads <invoices><invoice>...</invoice>...</invoices> with StAX and binds one <invoice> element at a time,
+// so memory does not depend on the document size. Any other root element is read as a single invoice
+// (the /api/import/xml format). A binding error fails only its element; broken XML fails the rest.
+public class XmlInvoiceReader implements ImportRecordReader {
+
+    private static final String MULTI_ROOT = "invoices";
+
+    private final XmlMapper xmlMapper;
+    private final XMLStreamReader2 xml;
+    // depth of the elements bound as invoices: 2 under <invoices>, 1 for a single-invoice document
+    private final int invoiceDepth;
+    private long position;
+    private boolean done;
+    private boolean broken;
+
+    public XmlInvoiceReader(XmlMapper xmlMapper, InputStream in) {
+        this.xmlMapper = xmlMapper;
+        try {
+            // Jackson's XmlFactory is backed by Woodstox, which exposes element depth
+            this.xml = (XMLStreamReader2) xmlMapper.getFactory().getXMLInputFactory().createXMLStreamReader(in);
+            xml.nextTag();
+        } catch (XMLStreamException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "INVALID_XML");
+        }
+
+        if (MULTI_ROOT.equals(xml.getLocalName())) {
+            invoiceDepth = 2;
+            advance();
+        } else {
+            invoiceDepth = 1;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public ImportRecord next() {
+        if (done) {
+            throw new NoSuchElementException();
+        }
+        position++;
+        if (broken) {
+            done = true;
+            return ImportRecord.failed(position, null, "INVALID_XML");
+        }
+
+        ImportRecord record;
+        try {
+            InvoiceImportDto invoice = xmlMapper.readValue(xml, InvoiceImportDto.class);
+            String reference = invoice.invoice() != null ? invoice.invoice().number() : null;
+            record = ImportRecord.ok(position, reference, invoice);
+        } catch (IOException e) {
+            record = ImportRecord.failed(position, null, "INVALID_INVOICE " + e.getMessage());
+            skipRestOfInvoice();
+        }
+
+        if (invoiceDepth == 1 || broken) {
+            done = true;
+        } else {
+            advance();
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // moves to the next <invoice> start tag or to the end of <invoices>
+    private void advance() {
+        try {
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && xml.getDepth() == invoiceDepth) {
+                    return;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT && xml.getDepth() < invoiceDepth) {
+                    done = true;
+                    return;
+                }
+            }
+            done = true;
+        } catch (XMLStreamException e) {
+            broken = true;
+        }
+    }
+
+    private void skipRestOfInvoice() {
+        try {
+            while (!(xml.getEventType() == XMLStreamConstants.END_ELEMENT && xml.getDepth() == invoiceDepth)
+                    && xml.hasNext()) {
+                xml.next();
+            }
+        } catch (XMLStreamException e) {
+            broken = true;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.softwaremind.invoicedocbackend.importing.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.softwaremind.invoicedocbackend.importing.ImportFormat;
+import com.softwaremind.invoicedocbackend.importing.ImportJobStatus;
+
+public record ImportJobResponse(
+        Long id,
+        ImportFormat format,
+        ImportJobStatus status,
+        String fileName,
+        long totalBytes,
+        long bytesRead,
+        int progressPercent,
+        long invoicesRead,
+        long created,
+        long failed,
+        double invoicesPerSecond,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error,
+        List<ImportRowError> errors
+) {}
@@ -0,0 +1,9 @@
+package com.softwaremind.invoicedocbackend.importing.dto;
+
+public record ImportLineResult(
+        long line,
+        boolean success,
+        Long invoiceId,
+        String number,
+        String error
+) {}
@@ -0,0 +1,11 @@
+package com.softwaremind.invoicedocbackend.importing.dto;
+
+import java.util.List;
+
+public record ImportReport(
+        int invoicesRead,
+        int created,
+        int failed,
+        List<ImportRowError> errors,
+        boolean errorsTruncated
+) {}
@@ -0,0 +1,7 @@
+package com.softwaremind.invoicedocbackend.importing.dto;
+
+public record ImportRowError(
+        long position,
+        String invoiceNumber,
+        String error
+) {}
@@ -0,0 +1,31 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Item amounts as stored on invoices; shared with the bulk loader so both paths round the same way.
+public final class InvoiceAmounts {
+
+    private InvoiceAmounts() {
+    }
+
+    public static BigDecimal netTotal(BigDecimal netUnitPrice, BigDecimal quantity) {
+        return netUnitPrice
+                .multiply(quantity)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public static BigDecimal vat(BigDecimal netTotal, String vatRateStr) {
+        if (vatRateStr == null || vatRateStr.isBlank()) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            BigDecimal rate = new BigDecimal(vatRateStr);
+            return netTotal
+                    .multiply(rate)
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,12 +19,19 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.List;
 
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchResponse;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCursorPage;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
-import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfService;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfArchiveService;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfSource;
 
 @RestController
 @RequestMapping("/v1/api/invoices")
@@ -30,7 +39,8 @@ import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfService;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
-    private final InvoicePdfService invoicePdfService;
+    private final InvoicePdfCache invoicePdfCache;
+    private final InvoicePdfArchiveService invoicePdfArchiveService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
@@ -39,6 +49,12 @@ public class InvoiceController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('OWNER','ADMIN')")
+    public InvoiceBatchResponse createBatch(@RequestBody List<InvoiceCreateRequest> requests) {
+        return invoiceService.createInvoices(requests);
+    }
+
     @GetMapping
     @PreAuthorize("hasAnyRole('OWNER','ACCOUNTANT','ADMIN')")
     public Page<InvoiceResponse> list(
@@ -50,27 +66,70 @@ public class InvoiceController {
         return invoiceService.listInvoices(from, to, page, size);
     }
 
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('OWNER','ACCOUNTANT','ADMIN')")
+    public Page<InvoiceSummaryResponse> listSummaries(
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return invoiceService.listInvoiceSummaries(from, to, page, size);
+    }
+
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('OWNER','ACCOUNTANT','ADMIN')")
+    public InvoiceCursorPage<InvoiceResponse> listByCursor(
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return invoiceService.listInvoicesAfter(from, to, cursor, size);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('OWNER','ACCOUNTANT','ADMIN')")
     public InvoiceResponse get(@PathVariable Long id) {
         return invoiceService.getInvoice(id);
     }
 
+    @GetMapping("/pdf-archive")
+    @PreAuthorize("hasAnyRole('OWNER','ACCOUNTANT','ADMIN')")
+    public ResponseEntity<StreamingResponseBody> pdfArchive(
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to
+    ) {
+        Iterable<Long> ids = invoiceService.listInvoiceIdsForArchive(from, to);
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        StreamingResponseBody body = out -> invoicePdfArchiveService.writeArchive(ids, securityContext, out);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(
+                ContentDisposition.attachment()
+                        .filename("invoices-" + from + "_" + to + ".zip")
+                        .build()
+        );
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
     @GetMapping("/{id}/pdf")
     @PreAuthorize("hasAnyRole('OWNER','ACCOUNTANT','ADMIN')")
-    public ResponseEntity<byte[]> pdf(@PathVariable Long id) {
-        InvoiceEntity invoice = invoiceService.getInvoiceEntityForPdf(id);
-        byte[] pdfBytes = invoicePdfService.generateInvoicePdf(invoice);
+    public ResponseEntity<StreamingResponseBody> pdf(@PathVariable Long id) {
+        InvoicePdfSource source = invoiceService.getInvoiceForPdf(id);
+        StreamingResponseBody body = out -> invoicePdfCache.writeTo(source, out);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDisposition(
                 ContentDisposition.attachment()
-                        .filename(("invoice-" + invoice.getNumber() + ".pdf").replace(" ", "_"))
+                        .filename(("invoice-" + source.invoice().getNumber() + ".pdf").replace(" ", "_"))
                         .build()
         );
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
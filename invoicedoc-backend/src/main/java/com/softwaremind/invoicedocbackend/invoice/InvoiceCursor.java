@@ -0,0 +1,41 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// opaque keyset position: last seen (issueDate, id) of a page ordered by both descending
+// (the PDF archive walks the same key ascending)
+public record InvoiceCursor(LocalDate issueDate, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static InvoiceCursor of(InvoiceEntity invoice) {
+        return new InvoiceCursor(invoice.getIssueDate(), invoice.getId());
+    }
+
+    public String encode() {
+        String raw = issueDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static InvoiceCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            if (sep < 0) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            return new InvoiceCursor(
+                    LocalDate.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "INVALID_CURSOR");
+        }
+    }
+}
@@ -12,9 +12,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import lombok.AllArgsConstructor;
@@ -39,11 +41,20 @@ import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "invoices")
+@Table(
+        name = "invoices",
+        indexes = {
+                @Index(name = "idx_invoices_org_issue_date_id", columnList = "organization_id, issue_date desc, id desc"),
+                @Index(name = "idx_invoices_org_number", columnList = "organization_id, number"),
+                @Index(name = "idx_invoices_contractor", columnList = "contractor_id"),
+                @Index(name = "idx_invoices_seller_profile", columnList = "seller_profile_id")
+        }
+)
 public class InvoiceEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_id_seq")
+    @SequenceGenerator(name = "invoices_id_seq", sequenceName = "invoices_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -0,0 +1,28 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "invoice_number_counters")
+public class InvoiceNumberCounterEntity {
+
+    @EmbeddedId
+    private InvoiceNumberCounterId id;
+
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue;
+}
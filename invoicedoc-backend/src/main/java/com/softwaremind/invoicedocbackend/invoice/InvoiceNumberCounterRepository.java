@@ -0,0 +1,50 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface InvoiceNumberCounterRepository
+        extends JpaRepository<InvoiceNumberCounterEntity, InvoiceNumberCounterId> {
+
+    // bumps the (organization, period) counter by :count and returns the new last value
+    String ALLOCATE_SQL = """
+            INSERT INTO invoice_number_counters (organization_id, period_start, last_value)
+            VALUES (:organizationId, :periodStart, :count)
+            ON CONFLICT (organization_id, period_start)
+            DO UPDATE SET last_value = invoice_number_counters.last_value + EXCLUDED.last_value
+            RETURNING last_value
+            """;
+
+    // runs in the invoice transaction - a rollback also rolls back the counter
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = ALLOCATE_SQL, nativeQuery = true)
+    long allocate(@Param("organizationId") Long organizationId,
+                  @Param("periodStart") LocalDate periodStart,
+                  @Param("count") long count);
+
+    // commits right away - the row lock is short, numbers of rolled back invoices are lost
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = ALLOCATE_SQL, nativeQuery = true)
+    long reserve(@Param("organizationId") Long organizationId,
+                 @Param("periodStart") LocalDate periodStart,
+                 @Param("count") long count);
+
+    // numbers written without the generator (bulk load keeps source numbers): the counter must not fall behind them
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = """
+            INSERT INTO invoice_number_counters (organization_id, period_start, last_value)
+            VALUES (:organizationId, :periodStart, :lastValue)
+            ON CONFLICT (organization_id, period_start)
+            DO UPDATE SET last_value = GREATEST(invoice_number_counters.last_value, EXCLUDED.last_value)
+            """, nativeQuery = true)
+    void advanceTo(@Param("organizationId") Long organizationId,
+                   @Param("periodStart") LocalDate periodStart,
+                   @Param("lastValue") long lastValue);
+}
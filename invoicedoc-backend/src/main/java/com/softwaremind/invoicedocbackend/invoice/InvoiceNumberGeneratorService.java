@@ -1,8 +1,21 @@
 package com.softwaremind.invoicedocbackend.invoice;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
@@ -11,36 +24,109 @@ import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
 @RequiredArgsConstructor
 public class InvoiceNumberGeneratorService {
 
-    private final InvoiceRepository invoiceRepository;
+    private static final String PATTERN = "FV/{YYYY}/{MM}/{DD}/{NNN}";
+    private static final Pattern GENERATED = Pattern.compile("FV/(\\d{4})/(\\d{2})/(\\d{2})/(\\d{3,18})");
+    private static final int MAX_CACHED_BLOCKS = 10_000;
 
-    public String generateNumberFor(SellerProfileEntity sellerProfile, LocalDate issueDate) {
-        final String pattern = "FV/{YYYY}/{MM}/{DD}/{NNN}";
+    private final InvoiceNumberCounterRepository counterRepository;
+    private final MeterRegistry meterRegistry;
+
+    public record GeneratedNumber(LocalDate date, long sequence) {}
+
+    private final ConcurrentMap<InvoiceNumberCounterId, NumberBlock> blocks = new ConcurrentHashMap<>();
+
+    @Value("${app.invoice-number.mode:GAP_FREE}")
+    private InvoiceNumberingMode mode = InvoiceNumberingMode.GAP_FREE;
+
+    @Value("${app.invoice-number.block-size:20}")
+    private int blockSize = 20;
 
+    public String generateNumberFor(SellerProfileEntity sellerProfile, LocalDate issueDate) {
         LocalDate date = (issueDate != null) ? issueDate : LocalDate.now();
+        Long orgId = sellerProfile.getOrganization().getId();
 
-        int year = date.getYear();
-        int month = date.getMonthValue();
-        int day = date.getDayOfMonth();
+        long sequence = allocationTimer("single").record(() -> (mode == InvoiceNumberingMode.GAP_TOLERANT)
+                ? nextFromBlock(orgId, date)
+                : counterRepository.allocate(orgId, date, 1));
 
+        return format(date, sequence);
+    }
+
+    public List<String> generateNumbersFor(SellerProfileEntity sellerProfile, LocalDate issueDate, int count) {
+        LocalDate date = (issueDate != null) ? issueDate : LocalDate.now();
         Long orgId = sellerProfile.getOrganization().getId();
 
-        long countForDay = invoiceRepository.countByOrganizationIdAndIssueDateBetween(
-                orgId,
-                date,
-                date
-        );
+        long last = allocationTimer("batch").record(() -> (mode == InvoiceNumberingMode.GAP_TOLERANT)
+                ? counterRepository.reserve(orgId, date, count)
+                : counterRepository.allocate(orgId, date, count));
 
-        long sequence = countForDay + 1;
+        return LongStream.rangeClosed(last - count + 1, last)
+                .mapToObj(sequence -> format(date, sequence))
+                .toList();
+    }
+
+    // GAP_FREE time includes waiting on the counter row lock, which is what grows under contention
+    private Timer allocationTimer(String call) {
+        return meterRegistry.timer("invoice.number.allocate", "mode", mode.name(), "call", call);
+    }
 
-        String yearStr = String.valueOf(year);
-        String monthStr = String.format("%02d", month);
-        String dayStr = String.format("%02d", day);
+    private long nextFromBlock(Long orgId, LocalDate date) {
+        if (blocks.size() > MAX_CACHED_BLOCKS) {
+            // unused numbers of dropped blocks become gaps, which this mode tolerates
+            blocks.clear();
+        }
+
+        NumberBlock block = blocks.computeIfAbsent(
+                new InvoiceNumberCounterId(orgId, date), key -> new NumberBlock());
+
+        block.lock.lock();
+        try {
+            if (block.next > block.last) {
+                long last = counterRepository.reserve(orgId, date, blockSize);
+                block.next = last - blockSize + 1;
+                block.last = last;
+            }
+            return block.next++;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    private String format(LocalDate date, long sequence) {
+        String yearStr = String.valueOf(date.getYear());
+        String monthStr = String.format("%02d", date.getMonthValue());
+        String dayStr = String.format("%02d", date.getDayOfMonth());
         String seqStr = String.format("%03d", sequence);
 
-        return pattern
+        return PATTERN
                 .replace("{YYYY}", yearStr)
                 .replace("{MM}", monthStr)
                 .replace("{DD}", dayStr)
                 .replace("{NNN}", seqStr);
     }
+
+    // date and sequence of a number in the generator's format, e.g. from an import that keeps source numbers;
+    // the counter of that date has to be at least the sequence or the generator would issue the number again
+    public static Optional<GeneratedNumber> parse(String number) {
+        if (number == null) {
+            return Optional.empty();
+        }
+        Matcher m = GENERATED.matcher(number);
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+        try {
+            LocalDate date = LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                    Integer.parseInt(m.group(3)));
+            return Optional.of(new GeneratedNumber(date, Long.parseLong(m.group(4))));
+        } catch (DateTimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static final class NumberBlock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next = 1;
+        private long last = 0;
+    }
 }
@@ -0,0 +1,6 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+public enum InvoiceNumberingMode {
+    GAP_FREE,
+    GAP_TOLERANT
+}
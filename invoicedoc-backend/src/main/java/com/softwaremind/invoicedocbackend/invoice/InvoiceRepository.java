@@ -1,6 +1,7 @@
 package com.softwaremind.invoicedocbackend.invoice;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +10,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse;
+
 public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long> {
 
     Page<InvoiceEntity> findByOrganizationId(Long organizationId, Pageable pageable);
@@ -20,6 +23,25 @@ public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long> {
     boolean existsByOrganizationIdAndNumber(Long organizationId, String number);
     boolean existsByContractorId(Long contractorId);
 
+    // PDF archive ids in issue date order, one keyset page after another while the ZIP streams
+    @Query("select new com.softwaremind.invoicedocbackend.invoice.InvoiceCursor(i.issueDate, i.id) " +
+            "from InvoiceEntity i " +
+            "where i.organization.id = :orgId and i.issueDate between :from and :to " +
+            "and (i.issueDate, i.id) > (:afterDate, :afterId) " +
+            "order by i.issueDate, i.id")
+    List<InvoiceCursor> findArchiveKeysAfter(@Param("orgId") Long organizationId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to,
+                                             @Param("afterDate") LocalDate afterDate,
+                                             @Param("afterId") Long afterId,
+                                             Pageable limit);
+
+    @Query("select i.id from InvoiceEntity i where i.contractor.id = :contractorId")
+    List<Long> findIdsByContractorId(@Param("contractorId") Long contractorId);
+
+    @Query("select i.id from InvoiceEntity i where i.sellerProfile.id = :sellerProfileId")
+    List<Long> findIdsBySellerProfileId(@Param("sellerProfileId") Long sellerProfileId);
+
     @Modifying
     @Query("update InvoiceEntity i set i.contractor = null where i.contractor.id = :contractorId")
     void clearContractorForInvoices(@Param("contractorId") Long contractorId);
@@ -34,4 +56,36 @@ public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long> {
             LocalDate from,
             LocalDate to
     );
+
+    @Query("select i from InvoiceEntity i " +
+            "where i.organization.id = :orgId and i.issueDate between :from and :to " +
+            "order by i.issueDate desc, i.id desc")
+    List<InvoiceEntity> findFirstKeysetPage(@Param("orgId") Long organizationId,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            Pageable limit);
+
+    @Query("select i from InvoiceEntity i " +
+            "where i.organization.id = :orgId and i.issueDate between :from and :to " +
+            "and (i.issueDate, i.id) < (:afterDate, :afterId) " +
+            "order by i.issueDate desc, i.id desc")
+    List<InvoiceEntity> findKeysetPageAfter(@Param("orgId") Long organizationId,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("afterDate") LocalDate afterDate,
+                                            @Param("afterId") Long afterId,
+                                            Pageable limit);
+
+    @Query(value = "select new com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse(" +
+            "i.id, i.number, i.status, i.issueDate, i.dueDate, i.buyerName, i.currency, " +
+            "i.totalNet, i.totalVat, i.totalGross) " +
+            "from InvoiceEntity i " +
+            "where i.organization.id = :orgId and i.issueDate between :from and :to " +
+            "order by i.issueDate desc, i.id desc",
+            countQuery = "select count(i) from InvoiceEntity i " +
+                    "where i.organization.id = :orgId and i.issueDate between :from and :to")
+    Page<InvoiceSummaryResponse> findSummaries(@Param("orgId") Long organizationId,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to,
+                                               Pageable pageable);
 }
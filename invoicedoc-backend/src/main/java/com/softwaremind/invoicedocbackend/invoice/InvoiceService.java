@@ -1,30 +1,59 @@
 package com.softwaremind.invoicedocbackend.invoice;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.persistence.EntityManager;
 
 import lombok.RequiredArgsConstructor;
 
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.softwaremind.invoicedocbackend.config.MetricsConfig;
 import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
 import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchItemResult;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchResponse;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCursorPage;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceItemCreateRequest;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse;
 import com.softwaremind.invoicedocbackend.invoice.mapper.InvoiceMapper;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfSource;
 import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileRepository;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
 
 @Service
 @RequiredArgsConstructor
@@ -36,12 +65,48 @@ public class InvoiceService {
     private final InvoiceNumberGeneratorService numberGenerator;
     private final InvoiceMapper invoiceMapper;
     private final CurrentUserProvider currentUserProvider;
+    private final EntityManager entityManager;
+    private final InvoicePdfCache invoicePdfCache;
+    private final TenantCache tenantCache;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.invoice.batch.chunk-size:50}")
+    private int batchChunkSize = 50;
+
+    @Value("${app.invoice.batch.max-size:5000}")
+    private int batchMaxSize = 5000;
+
+    private static final LocalDate MIN_ISSUE_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_ISSUE_DATE = LocalDate.of(9999, 12, 31);
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private static final int ARCHIVE_ID_PAGE_SIZE = 500;
+
+    // optional guard, 0 = no limit
+    @Value("${app.pdf-archive.max-invoices:0}")
+    private int archiveMaxInvoices = 0;
 
     @Transactional
     public InvoiceResponse createInvoice(InvoiceCreateRequest req) {
         CurrentUser cu = currentUserProvider.getCurrentUser();
 
-        SellerProfileEntity sellerProfile = sellerProfileRepository.findById(req.sellerProfileId())
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            InvoiceResponse response = createInvoice(req, cu);
+            outcome = "success";
+            return response;
+        } finally {
+            // commit happens after return, so this is the time spent inside the transaction
+            sample.stop(meterRegistry.timer("invoice.create",
+                    MetricsConfig.ORG_TAG, MetricsConfig.orgTag(cu.organizationId()),
+                    "outcome", outcome));
+        }
+    }
+
+    private InvoiceResponse createInvoice(InvoiceCreateRequest req, CurrentUser cu) {
+        SellerProfileEntity sellerProfile = tenantCache.sellerProfile(req.sellerProfileId())
                 .orElseThrow(() -> new IllegalStateException("Seller profile not found"));
 
         if (!sellerProfile.getOrganization().getId().equals(cu.organizationId())) {
@@ -57,6 +122,155 @@ public class InvoiceService {
 
         String number = numberGenerator.generateNumberFor(sellerProfile, req.issueDate());
 
+        InvoiceEntity invoice = buildInvoice(invoiceMapper, req, sellerProfile, contractor, number);
+
+        InvoiceEntity saved = invoiceRepository.save(invoice);
+        return invoiceMapper.toResponse(saved);
+    }
+
+    // Each chunk of up to batchChunkSize invoices (same issue date) is written and flushed in its own transaction, and
+    // an item is reported as created only after its chunk flushed. A chunk that fails is retried invoice by invoice,
+    // so one bad invoice fails alone instead of turning the whole batch into a 500. Inside a caller's transaction
+    // (ImportService) chunks join it and a failure propagates: the caller rolls back and does its own retry.
+    public InvoiceBatchResponse createInvoices(List<InvoiceCreateRequest> requests) {
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "BATCH_EMPTY");
+        }
+        if (requests.size() > batchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "BATCH_TOO_LARGE");
+        }
+
+        Map<Long, SellerProfileEntity> sellerProfiles = sellerProfileRepository.findAllById(
+                        requests.stream().map(InvoiceCreateRequest::sellerProfileId)
+                                .filter(Objects::nonNull).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(SellerProfileEntity::getId, Function.identity()));
+
+        Map<Long, ContractorEntity> contractors = contractorRepository.findAllById(
+                        requests.stream().map(InvoiceCreateRequest::contractorId)
+                                .filter(Objects::nonNull).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(ContractorEntity::getId, Function.identity()));
+
+        InvoiceBatchItemResult[] results = new InvoiceBatchItemResult[requests.size()];
+        Map<LocalDate, List<Integer>> validByIssueDate = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            InvoiceCreateRequest req = requests.get(i);
+            String error = validateBatchItem(req, sellerProfiles, contractors, cu.organizationId());
+            if (error != null) {
+                results[i] = new InvoiceBatchItemResult(i, false, null, null, error);
+            } else {
+                LocalDate date = req.issueDate() != null ? req.issueDate() : LocalDate.now();
+                validByIssueDate.computeIfAbsent(date, d -> new ArrayList<>()).add(i);
+            }
+        }
+
+        boolean isolated = !TransactionSynchronizationManager.isActualTransactionActive();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        for (Map.Entry<LocalDate, List<Integer>> entry : validByIssueDate.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            for (int from = 0; from < indexes.size(); from += batchChunkSize) {
+                List<Integer> chunk = indexes.subList(from, Math.min(from + batchChunkSize, indexes.size()));
+                if (!isolated) {
+                    putResults(writeChunk(entry.getKey(), chunk, requests, sellerProfiles, contractors), results);
+                    continue;
+                }
+                try {
+                    putResults(tx.execute(status ->
+                            writeChunk(entry.getKey(), chunk, requests, sellerProfiles, contractors)), results);
+                } catch (RuntimeException chunkFailure) {
+                    for (int index : chunk) {
+                        try {
+                            putResults(tx.execute(status -> writeChunk(
+                                    entry.getKey(), List.of(index), requests, sellerProfiles, contractors)), results);
+                        } catch (RuntimeException e) {
+                            results[index] = new InvoiceBatchItemResult(index, false, null, null, "SAVE_FAILED");
+                        }
+                    }
+                }
+            }
+        }
+
+        int created = (int) Arrays.stream(results).filter(InvoiceBatchItemResult::success).count();
+        return new InvoiceBatchResponse(requests.size(), created, requests.size() - created, Arrays.asList(results));
+    }
+
+    // numbers are allocated in the chunk's transaction, so a rolled back chunk does not leave gaps in GAP_FREE mode
+    private List<InvoiceBatchItemResult> writeChunk(LocalDate issueDate, List<Integer> chunk,
+                                                    List<InvoiceCreateRequest> requests,
+                                                    Map<Long, SellerProfileEntity> sellerProfiles,
+                                                    Map<Long, ContractorEntity> contractors) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchChunkSize);
+        SellerProfileEntity anyProfile = sellerProfiles.get(requests.get(chunk.get(0)).sellerProfileId());
+        List<String> numbers = numberGenerator.generateNumbersFor(anyProfile, issueDate, chunk.size());
+
+        List<InvoiceBatchItemResult> written = new ArrayList<>(chunk.size());
+        for (int k = 0; k < chunk.size(); k++) {
+            int index = chunk.get(k);
+            InvoiceCreateRequest req = requests.get(index);
+            InvoiceEntity invoice = buildInvoice(
+                    invoiceMapper,
+                    req,
+                    sellerProfiles.get(req.sellerProfileId()),
+                    contractors.get(req.contractorId()),
+                    numbers.get(k)
+            );
+            InvoiceEntity saved = invoiceRepository.save(invoice);
+            written.add(new InvoiceBatchItemResult(index, true, saved.getId(), saved.getNumber(), null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return written;
+    }
+
+    // only called once the chunk flushed (and, when isolated, committed)
+    private static void putResults(List<InvoiceBatchItemResult> written, InvoiceBatchItemResult[] results) {
+        for (InvoiceBatchItemResult result : written) {
+            results[result.index()] = result;
+        }
+    }
+
+    private String validateBatchItem(InvoiceCreateRequest req,
+                                     Map<Long, SellerProfileEntity> sellerProfiles,
+                                     Map<Long, ContractorEntity> contractors,
+                                     Long organizationId) {
+        SellerProfileEntity sellerProfile = sellerProfiles.get(req.sellerProfileId());
+        if (sellerProfile == null) {
+            return "SELLER_PROFILE_NOT_FOUND";
+        }
+        if (!sellerProfile.getOrganization().getId().equals(organizationId)) {
+            return "SELLER_PROFILE_NOT_IN_ORG";
+        }
+
+        ContractorEntity contractor = contractors.get(req.contractorId());
+        if (contractor == null) {
+            return "CONTRACTOR_NOT_FOUND";
+        }
+        if (!contractor.getOrganization().getId().equals(organizationId)) {
+            return "CONTRACTOR_NOT_IN_ORG";
+        }
+
+        if (req.items() == null || req.items().isEmpty()) {
+            return "ITEMS_REQUIRED";
+        }
+        for (InvoiceItemCreateRequest item : req.items()) {
+            if (item == null || item.quantity() == null || item.netUnitPrice() == null) {
+                return "INVALID_ITEM";
+            }
+        }
+        return null;
+    }
+
+    // static and package-private so InvoiceTotalsBenchmark needs only the mapper, not the service's collaborators
+    static InvoiceEntity buildInvoice(InvoiceMapper invoiceMapper,
+                                      InvoiceCreateRequest req,
+                                      SellerProfileEntity sellerProfile,
+                                      ContractorEntity contractor,
+                                      String number) {
         InvoiceEntity invoice = invoiceMapper.createEmptyInvoiceEntity(req, sellerProfile, contractor, number);
 
         BigDecimal totalNet = BigDecimal.ZERO;
@@ -64,11 +278,8 @@ public class InvoiceService {
         BigDecimal totalGross = BigDecimal.ZERO;
 
         for (InvoiceItemCreateRequest itemReq : req.items()) {
-            BigDecimal netTotal = itemReq.netUnitPrice()
-                    .multiply(itemReq.quantity())
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            BigDecimal vatAmount = calculateVat(netTotal, itemReq.vatRate());
+            BigDecimal netTotal = InvoiceAmounts.netTotal(itemReq.netUnitPrice(), itemReq.quantity());
+            BigDecimal vatAmount = InvoiceAmounts.vat(netTotal, itemReq.vatRate());
             BigDecimal grossTotal = netTotal.add(vatAmount);
 
             totalNet = totalNet.add(netTotal);
@@ -85,22 +296,7 @@ public class InvoiceService {
         invoice.setTotalVat(totalVat);
         invoice.setTotalGross(totalGross);
 
-        InvoiceEntity saved = invoiceRepository.save(invoice);
-        return invoiceMapper.toResponse(saved);
-    }
-
-    private BigDecimal calculateVat(BigDecimal netTotal, String vatRateStr) {
-        if (vatRateStr == null || vatRateStr.isBlank()) {
-            return BigDecimal.ZERO;
-        }
-        try {
-            BigDecimal rate = new BigDecimal(vatRateStr);
-            return netTotal
-                    .multiply(rate)
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        } catch (NumberFormatException e) {
-            return BigDecimal.ZERO;
-        }
+        return invoice;
     }
 
     @Transactional(readOnly = true)
@@ -120,6 +316,49 @@ public class InvoiceService {
         return result.map(invoiceMapper::toResponse);
     }
 
+    // list-view rows straight from the invoices table: no items, no NIP decryption
+    @Transactional(readOnly = true)
+    public Page<InvoiceSummaryResponse> listInvoiceSummaries(LocalDate from, LocalDate to, int page, int size) {
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+        return invoiceRepository.findSummaries(
+                cu.organizationId(),
+                from != null ? from : MIN_ISSUE_DATE,
+                to != null ? to : MAX_ISSUE_DATE,
+                PageRequest.of(page, size)
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public InvoiceCursorPage<InvoiceResponse> listInvoicesAfter(LocalDate from, LocalDate to,
+                                                                String cursor, int size) {
+        CurrentUser cu = currentUserProvider.getCurrentUser();
+        int pageSize = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
+        LocalDate lower = from != null ? from : MIN_ISSUE_DATE;
+        LocalDate upper = to != null ? to : MAX_ISSUE_DATE;
+        // one extra row tells whether another page exists without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<InvoiceEntity> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = invoiceRepository.findFirstKeysetPage(cu.organizationId(), lower, upper, limit);
+        } else {
+            InvoiceCursor after = InvoiceCursor.decode(cursor);
+            rows = invoiceRepository.findKeysetPageAfter(
+                    cu.organizationId(), lower, upper, after.issueDate(), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<InvoiceEntity> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? InvoiceCursor.of(pageRows.getLast()).encode() : null;
+
+        return new InvoiceCursorPage<>(
+                pageRows.stream().map(invoiceMapper::toResponse).toList(),
+                pageSize,
+                hasNext,
+                nextCursor
+        );
+    }
+
     @Transactional(readOnly = true)
     public InvoiceResponse getInvoice(Long id) {
         CurrentUser cu = currentUserProvider.getCurrentUser();
@@ -134,8 +373,64 @@ public class InvoiceService {
         return invoiceMapper.toResponse(entity);
     }
 
+    // validated and scoped to the caller's organization now, read lazily a keyset page at a time as the archive streams
+    @Transactional(readOnly = true)
+    public Iterable<Long> listInvoiceIdsForArchive(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "INVALID_DATE_RANGE");
+        }
+        Long organizationId = currentUserProvider.getCurrentUser().organizationId();
+
+        if (archiveMaxInvoices > 0
+                && invoiceRepository.countByOrganizationIdAndIssueDateBetween(organizationId, from, to)
+                > archiveMaxInvoices) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ARCHIVE_TOO_LARGE");
+        }
+        return () -> new ArchiveIds(organizationId, from, to);
+    }
+
+    private final class ArchiveIds implements Iterator<Long> {
+
+        private final Long organizationId;
+        private final LocalDate from;
+        private final LocalDate to;
+        // ids are positive, so (from, 0) sorts before every invoice in range
+        private InvoiceCursor after;
+        private Iterator<InvoiceCursor> page = Collections.emptyIterator();
+        private boolean lastPage;
+
+        private ArchiveIds(Long organizationId, LocalDate from, LocalDate to) {
+            this.organizationId = organizationId;
+            this.from = from;
+            this.to = to;
+            this.after = new InvoiceCursor(from, 0L);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                List<InvoiceCursor> keys = invoiceRepository.findArchiveKeysAfter(organizationId, from, to,
+                        after.issueDate(), after.id(), PageRequest.of(0, ARCHIVE_ID_PAGE_SIZE));
+                lastPage = keys.size() < ARCHIVE_ID_PAGE_SIZE;
+                if (!keys.isEmpty()) {
+                    after = keys.getLast();
+                }
+                page = keys.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next().id();
+        }
+    }
+
     @Transactional(readOnly = true)
-    public InvoiceEntity getInvoiceEntityForPdf(Long id) {
+    public InvoicePdfSource getInvoiceForPdf(Long id) {
         CurrentUser cu = currentUserProvider.getCurrentUser();
 
         InvoiceEntity entity = invoiceRepository.findById(id)
@@ -146,8 +441,14 @@ public class InvoiceService {
             throw new IllegalStateException("No access to this invoice");
         }
 
+        // the PDF is rendered after the transaction ends, so everything it reads must be loaded here
         entity.getItems().size();
-        return entity;
+        Hibernate.initialize(entity.getContractor());
+        // the cached profile saves its select on every render; it is shared, so it is never set on the entity
+        SellerProfileEntity sellerProfile = entity.getSellerProfile() == null ? null
+                : tenantCache.sellerProfile(entity.getSellerProfile().getId())
+                        .orElseGet(() -> Hibernate.unproxy(entity.getSellerProfile(), SellerProfileEntity.class));
+        return new InvoicePdfSource(entity, sellerProfile);
     }
 
     @Transactional
@@ -167,5 +468,6 @@ public class InvoiceService {
         }
 
         invoiceRepository.delete(entity);
+        invoicePdfCache.evict(entity.getId());
     }
 }
@@ -0,0 +1,9 @@
+package com.softwaremind.invoicedocbackend.invoice.dto;
+
+public record InvoiceBatchItemResult(
+        int index,
+        boolean success,
+        Long invoiceId,
+        String number,
+        String error
+) {}
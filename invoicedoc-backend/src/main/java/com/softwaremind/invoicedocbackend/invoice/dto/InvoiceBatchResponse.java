@@ -0,0 +1,10 @@
+package com.softwaremind.invoicedocbackend.invoice.dto;
+
+import java.util.List;
+
+public record InvoiceBatchResponse(
+        int total,
+        int created,
+        int failed,
+        List<InvoiceBatchItemResult> results
+) {}
@@ -0,0 +1,10 @@
+package com.softwaremind.invoicedocbackend.invoice.dto;
+
+import java.util.List;
+
+public record InvoiceCursorPage<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {}
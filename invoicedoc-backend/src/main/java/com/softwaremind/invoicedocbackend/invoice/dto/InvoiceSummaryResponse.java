@@ -0,0 +1,19 @@
+package com.softwaremind.invoicedocbackend.invoice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.softwaremind.invoicedocbackend.invoice.InvoiceStatus;
+
+public record InvoiceSummaryResponse(
+        Long id,
+        String number,
+        InvoiceStatus status,
+        LocalDate issueDate,
+        LocalDate dueDate,
+        String buyerName,
+        String currency,
+        BigDecimal totalNet,
+        BigDecimal totalVat,
+        BigDecimal totalGross
+) {}
@@ -0,0 +1,129 @@
+package com.softwaremind.invoicedocbackend.invoice.pdf;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.softwaremind.invoicedocbackend.config.WorkerThreads;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceService;
+
+// Renders many invoices on a small fixed pool and writes them to a ZIP in the given order.
+// At most `window` PDFs are rendered or waiting at any time, so memory does not grow with the range size;
+// invoiceIds may be lazy (InvoiceService pages them by keyset) and is only advanced as entries are written.
+@Service
+@RequiredArgsConstructor
+public class InvoicePdfArchiveService {
+
+    private final InvoiceService invoiceService;
+    private final InvoicePdfCache invoicePdfCache;
+
+    @Value("${app.pdf-archive.threads:4}")
+    private int threads = 4;
+
+    @Value("${app.pdf-archive.window:8}")
+    private int window = 8;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+
+    private record RenderedPdf(String number, Long id, byte[] bytes) {}
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(threads, WorkerThreads.factory("pdf-archive", virtualThreads));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // securityContext is the caller's, workers need it for the org checks in getInvoiceForPdf
+    public void writeArchive(Iterable<Long> invoiceIds, SecurityContext securityContext, OutputStream out)
+            throws IOException {
+        Deque<Future<RenderedPdf>> inFlight = new ArrayDeque<>(window);
+        Iterator<Long> ids = invoiceIds.iterator();
+        Set<String> entryNames = new HashSet<>();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.BEST_SPEED);
+        try {
+            while (ids.hasNext() && inFlight.size() < window) {
+                inFlight.add(submit(ids.next(), securityContext));
+            }
+            while (!inFlight.isEmpty()) {
+                RenderedPdf pdf = await(inFlight.poll());
+                // refill happens only from this loop, so a slow client (blocking zip.write) stalls rendering too
+                if (ids.hasNext()) {
+                    inFlight.add(submit(ids.next(), securityContext));
+                }
+
+                zip.putNextEntry(new ZipEntry(entryName(pdf, entryNames)));
+                zip.write(pdf.bytes());
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private Future<RenderedPdf> submit(Long id, SecurityContext securityContext) {
+        return executor.submit(new DelegatingSecurityContextCallable<>(() -> {
+            InvoicePdfSource source = invoiceService.getInvoiceForPdf(id);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+            invoicePdfCache.writeTo(source, buffer);
+            InvoiceEntity invoice = source.invoice();
+            return new RenderedPdf(invoice.getNumber(), invoice.getId(), buffer.toByteArray());
+        }, securityContext));
+    }
+
+    private RenderedPdf await(Future<RenderedPdf> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("PDF archive interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Failed to render PDF for archive", e.getCause());
+        }
+    }
+
+    private String entryName(RenderedPdf pdf, Set<String> used) {
+        String base = "invoice-" + (pdf.number() != null ? pdf.number() : String.valueOf(pdf.id()));
+        base = base.replace('/', '_').replace('\\', '_').replace(' ', '_');
+        String name = base + ".pdf";
+        if (!used.add(name)) {
+            name = base + "-" + pdf.id() + ".pdf";
+            used.add(name);
+        }
+        return name;
+    }
+}
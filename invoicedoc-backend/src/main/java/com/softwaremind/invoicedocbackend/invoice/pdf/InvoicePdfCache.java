@@ -0,0 +1,365 @@
+package com.softwaremind.invoicedocbackend.invoice.pdf;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
+import com.softwaremind.invoicedocbackend.common.AfterCommit;
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceItemEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceRepository;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+
+// Rendered PDFs keyed by invoice id + hash of everything the layout reads.
+// Memory tier: byte-bounded LRU of small documents. Disk tier: one file per invoice, indexed in memory and bounded
+// by total bytes and time since last access; a file is deleted when its index entry goes. The files contain
+// decrypted NIPs, so the directory is owner-only.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoicePdfCache {
+
+    // bump when InvoicePdfService layout changes so old renders are not served
+    private static final String LAYOUT_VERSION = "1";
+    private static final String FILE_SUFFIX = ".pdf";
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private final InvoicePdfService invoicePdfService;
+    private final InvoiceRepository invoiceRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.pdf-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.pdf-cache.memory-max-bytes:33554432}")
+    private long memoryMaxBytes = 32L * 1024 * 1024;
+
+    @Value("${app.pdf-cache.memory-max-entry-bytes:524288}")
+    private long memoryMaxEntryBytes = 512L * 1024;
+
+    @Value("${app.pdf-cache.disk-max-bytes:1073741824}")
+    private long diskMaxBytes = 1024L * 1024 * 1024;
+
+    @Value("${app.pdf-cache.disk-max-idle:7d}")
+    private Duration diskMaxIdle = Duration.ofDays(7);
+
+    @Value("${app.pdf-cache.dir:${java.io.tmpdir}/invoicedoc-pdf-cache}")
+    private Path directory;
+
+    private Cache<Long, CachedPdf> memory;
+    private Cache<Long, DiskPdf> disk;
+    private Counter memoryHits;
+    private Counter diskHits;
+    private Counter misses;
+
+    private record CachedPdf(String version, byte[] bytes) {}
+
+    private record DiskPdf(String version, int size) {}
+
+    @PostConstruct
+    void init() throws IOException {
+        memory = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxBytes)
+                .weigher((Long id, CachedPdf pdf) -> pdf.bytes().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "invoicePdf");
+
+        memoryHits = lookupCounter("memory_hit");
+        diskHits = lookupCounter("disk_hit");
+        misses = lookupCounter("miss");
+
+        disk = Caffeine.newBuilder()
+                .maximumWeight(diskMaxBytes)
+                .weigher((Long id, DiskPdf pdf) -> pdf.size())
+                .expireAfterAccess(diskMaxIdle)
+                .scheduler(Scheduler.systemScheduler())
+                .executor(Runnable::run)
+                .removalListener(this::onDiskRemoval)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, disk, "invoicePdfDisk");
+
+        if (enabled) {
+            createOwnerOnlyDirectory();
+            loadDiskIndex();
+        }
+    }
+
+    private void createOwnerOnlyDirectory() throws IOException {
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory);
+            return;
+        }
+        if (Files.notExists(directory)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        }
+        // an existing directory (or one narrowed by the umask) gets the same permissions
+        Files.setPosixFilePermissions(directory, OWNER_ONLY);
+    }
+
+    // files from the previous run are kept, least recently written first so they are evicted first;
+    // half-written temp files and older versions of the same invoice are removed
+    private void loadDiskIndex() throws IOException {
+        record Found(Path file, Long id, String version, long size, FileTime modified) {}
+        List<Found> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                int dash = name.indexOf('-');
+                if (!name.endsWith(FILE_SUFFIX) || dash <= 0) {
+                    Files.deleteIfExists(f);
+                    continue;
+                }
+                try {
+                    Long id = Long.valueOf(name.substring(0, dash));
+                    String version = name.substring(dash + 1, name.length() - FILE_SUFFIX.length());
+                    found.add(new Found(f, id, version, Files.size(f), Files.getLastModifiedTime(f)));
+                } catch (NumberFormatException e) {
+                    Files.deleteIfExists(f);
+                }
+            }
+        }
+        found.sort(Comparator.comparing(Found::modified));
+        for (Found f : found) {
+            disk.put(f.id(), new DiskPdf(f.version(), (int) f.size()));
+        }
+    }
+
+    private void onDiskRemoval(Long id, DiskPdf pdf, RemovalCause cause) {
+        if (id == null || pdf == null) {
+            return;
+        }
+        // two concurrent renders of the same version replace the entry with an identical one
+        DiskPdf current = disk.asMap().get(id);
+        if (cause == RemovalCause.REPLACED && current != null && current.version().equals(pdf.version())) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(fileFor(id, pdf.version()));
+        } catch (IOException e) {
+            log.warn("Cannot delete cached PDF of invoice {}", id, e);
+        }
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder("invoice.pdf.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public void writeTo(InvoicePdfSource source, OutputStream out) throws IOException {
+        if (!enabled) {
+            invoicePdfService.writeInvoicePdf(source.invoice(), source.sellerProfile(), out);
+            return;
+        }
+
+        Long id = source.invoice().getId();
+        String version = contentVersion(source);
+
+        CachedPdf cached = memory.getIfPresent(id);
+        if (cached != null && cached.version().equals(version)) {
+            memoryHits.increment();
+            out.write(cached.bytes());
+            out.flush();
+            return;
+        }
+
+        // the channel is opened before anything can evict the file, so a concurrent eviction cannot break the download
+        Path file = fileFor(id, version);
+        DiskPdf onDisk = disk.getIfPresent(id);
+        FileChannel channel = onDisk != null && onDisk.version().equals(version) ? openIfExists(file) : null;
+        if (channel != null) {
+            diskHits.increment();
+        } else {
+            misses.increment();
+            render(source, file);
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            // replacing an older version deletes its file (onDiskRemoval)
+            disk.put(id, new DiskPdf(version, (int) channel.size()));
+        }
+
+        try (FileChannel in = channel) {
+            long size = transfer(in, out);
+            if (size <= memoryMaxEntryBytes) {
+                memory.put(id, new CachedPdf(version, readAll(in, (int) size)));
+            }
+        }
+    }
+
+    // the ids are looked up now, while the invoices still reference the profile or contractor being changed;
+    // the entries are dropped after commit so a render running meanwhile cannot put the old content back
+    public void evict(Long invoiceId) {
+        Set<Long> ids = Set.of(invoiceId);
+        AfterCommit.run(() -> evictAll(ids));
+    }
+
+    public void evictForSellerProfile(Long sellerProfileId) {
+        Collection<Long> ids = invoiceRepository.findIdsBySellerProfileId(sellerProfileId);
+        AfterCommit.run(() -> evictAll(ids));
+    }
+
+    public void evictForContractor(Long contractorId) {
+        Collection<Long> ids = invoiceRepository.findIdsByContractorId(contractorId);
+        AfterCommit.run(() -> evictAll(ids));
+    }
+
+    // files go through the index's removal listener, so nothing scans the directory
+    private void evictAll(Collection<Long> invoiceIds) {
+        if (invoiceIds.isEmpty()) {
+            return;
+        }
+        memory.invalidateAll(invoiceIds);
+        disk.invalidateAll(invoiceIds);
+    }
+
+    private void render(InvoicePdfSource source, Path target) throws IOException {
+        Path tmp = Files.createTempFile(directory, source.invoice().getId() + "-", ".tmp");
+        try {
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                invoicePdfService.writeInvoicePdf(source.invoice(), source.sellerProfile(), fileOut);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private FileChannel openIfExists(Path file) throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private long transfer(FileChannel channel, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+        out.flush();
+        return size;
+    }
+
+    private byte[] readAll(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("Cached PDF shorter than " + size + " bytes");
+            }
+        }
+        return buffer.array();
+    }
+
+    private Path fileFor(Long id, String version) {
+        return directory.resolve(id + "-" + version + FILE_SUFFIX);
+    }
+
+    // hash of every field InvoicePdfService prints; encrypted NIPs are hashed as ciphertext
+    String contentVersion(InvoicePdfSource source) {
+        InvoiceEntity invoice = source.invoice();
+        StringBuilder sb = new StringBuilder(512)
+                .append(LAYOUT_VERSION).append('|')
+                .append(invoice.getNumber()).append('|')
+                .append(invoice.getIssueDate()).append('|')
+                .append(invoice.getSaleDate()).append('|')
+                .append(invoice.getDueDate()).append('|')
+                .append(invoice.getCurrency()).append('|')
+                .append(invoice.getSellerName()).append('|')
+                .append(invoice.getSellerNipEncrypted()).append('|')
+                .append(invoice.getSellerBankAccount()).append('|')
+                .append(invoice.getBuyerName()).append('|')
+                .append(invoice.getBuyerNipEncrypted()).append('|')
+                .append(invoice.getTotalNet()).append('|')
+                .append(invoice.getTotalVat()).append('|')
+                .append(invoice.getTotalGross()).append('|')
+                .append(invoice.getNotes()).append('|');
+        appendAddress(sb, invoice.getSellerAddress());
+        appendAddress(sb, invoice.getBuyerAddress());
+
+        SellerProfileEntity seller = source.sellerProfile();
+        if (seller != null) {
+            sb.append(seller.getRegon()).append('|')
+                    .append(seller.getKrs()).append('|')
+                    .append(seller.getBankName()).append('|')
+                    .append(seller.getBankAccount()).append('|');
+        }
+        ContractorEntity contractor = invoice.getContractor();
+        if (contractor != null) {
+            sb.append(contractor.getEmail()).append('|')
+                    .append(contractor.getPhone()).append('|');
+        }
+        for (InvoiceItemEntity item : invoice.getItems()) {
+            sb.append(item.getDescription()).append('|')
+                    .append(item.getQuantity()).append('|')
+                    .append(item.getNetTotal()).append('|')
+                    .append(item.getVatRate()).append('|')
+                    .append(item.getGrossTotal()).append('|');
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void appendAddress(StringBuilder sb, AddressEmbeddable addr) {
+        if (addr == null) {
+            sb.append("-|");
+            return;
+        }
+        sb.append(addr.getStreet()).append('|')
+                .append(addr.getBuildingNumber()).append('|')
+                .append(addr.getApartmentNumber()).append('|')
+                .append(addr.getPostalCode()).append('|')
+                .append(addr.getCity()).append('|')
+                .append(addr.getCountry()).append('|');
+    }
+}
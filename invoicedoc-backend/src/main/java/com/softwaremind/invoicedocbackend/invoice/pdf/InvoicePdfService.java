@@ -11,10 +11,17 @@ import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 
 import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
@@ -29,13 +36,47 @@ import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
 public class InvoicePdfService {
 
     private final CryptoService cryptoService;
+    private final MeterRegistry meterRegistry;
+
+    // item rows are handed to the writer in slices so long tables never sit in memory as a whole
+    private static final int ITEM_ROWS_PER_FLUSH = 100;
 
     public byte[] generateInvoicePdf(InvoiceEntity invoice) {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeInvoicePdf(invoice, invoice.getSellerProfile(), baos);
+        return baos.toByteArray();
+    }
+
+    // renders straight into the given stream; the stream is flushed but left open for the caller.
+    // sellerProfile is read instead of invoice.getSellerProfile(), so a cached copy never has to be set on the entity
+    public void writeInvoicePdf(InvoiceEntity invoice, SellerProfileEntity sellerProfile, OutputStream out) {
+        String items = itemCountBucket(invoice.getItems() != null ? invoice.getItems().size() : 0);
+        CountingOutputStream counted = new CountingOutputStream(out);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        render(invoice, sellerProfile, counted);
+        sample.stop(meterRegistry.timer("invoice.pdf.render", "items", items));
+
+        DistributionSummary.builder("invoice.pdf.size")
+                .baseUnit("bytes")
+                .tag("items", items)
+                .register(meterRegistry)
+                .record(counted.count);
+    }
+
+    // item counts are bucketed so the tag has a fixed set of values
+    static String itemCountBucket(int items) {
+        if (items <= 10) return "0-10";
+        if (items <= 100) return "11-100";
+        if (items <= 1000) return "101-1000";
+        return "1000+";
+    }
 
+    private void render(InvoiceEntity invoice, SellerProfileEntity sellerProfile, OutputStream out) {
+        try {
             Document document = new Document(PageSize.A4, 36, 36, 36, 36);
-            PdfWriter.getInstance(document, baos);
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
 
             document.open();
 
@@ -65,7 +106,6 @@ public class InvoicePdfService {
                 sellerCell.addElement(new Paragraph("NIP: " + sellerNip));
             }
 
-            SellerProfileEntity sellerProfile = invoice.getSellerProfile();
             if (sellerProfile != null) {
                 String sellerRegon = sellerProfile.getRegon();
                 if (isPresent(sellerRegon)) {
@@ -141,6 +181,8 @@ public class InvoicePdfService {
             table.setWidthPercentage(100);
             table.setSpacingBefore(10f);
             table.setSpacingAfter(10f);
+            table.setHeaderRows(1);
+            table.setComplete(false);
 
             addHeaderCell(table, "Description");
             addHeaderCell(table, "Qty");
@@ -148,7 +190,12 @@ public class InvoicePdfService {
             addHeaderCell(table, "VAT rate");
             addHeaderCell(table, "Gross amount");
 
+            int rows = 0;
             for (InvoiceItemEntity item : invoice.getItems()) {
+                if (rows > 0 && rows % ITEM_ROWS_PER_FLUSH == 0) {
+                    document.add(table);
+                }
+                rows++;
                 table.addCell(normalCell(item.getDescription()));
                 table.addCell(rightCell(item.getQuantity().toPlainString()));
                 table.addCell(rightCell(formatMoney(item.getNetTotal())));
@@ -161,6 +208,7 @@ public class InvoicePdfService {
                 table.addCell(rightCell(formatMoney(item.getGrossTotal())));
             }
 
+            table.setComplete(true);
             document.add(table);
 
             // ===== SUMMARY =====
@@ -229,7 +277,7 @@ public class InvoicePdfService {
             document.add(signTable);
 
             document.close();
-            return baos.toByteArray();
+            out.flush();
 
         } catch (Exception e) {
             throw new IllegalStateException("Failed to generate invoice PDF", e);
@@ -315,4 +363,25 @@ public class InvoicePdfService {
         cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         return cell;
     }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
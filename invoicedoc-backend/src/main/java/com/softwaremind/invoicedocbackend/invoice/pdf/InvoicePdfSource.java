@@ -0,0 +1,8 @@
+package com.softwaremind.invoicedocbackend.invoice.pdf;
+
+import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+
+// everything a PDF render reads; the seller profile may be the shared TenantCache copy, so it travels next to the
+// invoice instead of being set on it
+public record InvoicePdfSource(InvoiceEntity invoice, SellerProfileEntity sellerProfile) {}
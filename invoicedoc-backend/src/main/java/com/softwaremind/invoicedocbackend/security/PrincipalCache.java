@@ -0,0 +1,68 @@
+package com.softwaremind.invoicedocbackend.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.softwaremind.invoicedocbackend.common.AfterCommit;
+import com.softwaremind.invoicedocbackend.common.CacheLoads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Authenticated principals by user id, so JwtAuthenticationFilter does not hit the users table on every request.
+// Local changes evict once their transaction commits. Other nodes are not notified: the TTL is the bound on how long
+// they keep serving a deactivated or unapproved user.
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.principal-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.security.principal-cache.ttl:60s}")
+    private Duration ttl = Duration.ofSeconds(60);
+
+    @Value("${app.security.principal-cache.max-size:10000}")
+    private long maxSize = 10_000;
+
+    private AsyncCache<Long, CustomUserDetails> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principal");
+    }
+
+    // unknown users are not cached, so a later registration is seen right away;
+    // loaded outside the cache's lock so a virtual thread is not pinned during the query (see CacheLoads)
+    public Optional<CustomUserDetails> get(Long userId) {
+        if (!enabled) {
+            return load(userId);
+        }
+        return Optional.ofNullable(CacheLoads.getOrLoad(cache, userId, id -> load(id).orElse(null)));
+    }
+
+    // the entry is dropped after the caller's transaction commits, or right away without one
+    public void evict(Long userId) {
+        AfterCommit.run(() -> cache.synchronous().invalidate(userId));
+    }
+
+    private Optional<CustomUserDetails> load(Long userId) {
+        return userRepository.findById(userId).map(CustomUserDetails::new);
+    }
+}
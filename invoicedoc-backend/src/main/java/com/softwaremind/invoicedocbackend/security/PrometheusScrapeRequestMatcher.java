@@ -0,0 +1,27 @@
+package com.softwaremind.invoicedocbackend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+// /actuator/prometheus without a JWT, but only when it arrives on the separate management port.
+// The metrics carry per-organization volumes, so on the API port (or when both ports are the same)
+// the endpoint falls through to the normal authenticated rules.
+class PrometheusScrapeRequestMatcher implements RequestMatcher {
+
+    static final String PATH = "/actuator/prometheus";
+
+    private final int serverPort;
+    private final int managementPort;
+
+    PrometheusScrapeRequestMatcher(int serverPort, int managementPort) {
+        this.serverPort = serverPort;
+        this.managementPort = managementPort;
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && PATH.equals(request.getRequestURI());
+    }
+}
@@ -14,6 +14,7 @@ import com.softwaremind.invoicedocbackend.security.dto.UserSummaryDto;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     public List<UserSummaryDto> listUsersForOrg(Long orgId) {
         return userRepository.findAllByOrganizationId(orgId).stream()
@@ -71,5 +72,6 @@ public class UserService {
 
         user.setApprovedByOwner(approved);
         userRepository.save(user);
+        principalCache.evict(user.getId());
     }
 }
@@ -1,5 +1,9 @@
 package com.softwaremind.invoicedocbackend.security.jwt;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,10 +15,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import com.softwaremind.invoicedocbackend.security.CustomUserDetails;
-import com.softwaremind.invoicedocbackend.security.UserEntity;
-import com.softwaremind.invoicedocbackend.security.UserRepository;
+import com.softwaremind.invoicedocbackend.security.PrincipalCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 
@@ -22,8 +26,27 @@ import io.jsonwebtoken.Jws;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // read by OrgServerRequestObservationConvention to tag request metrics with the caller's organization
+    public static final String ORGANIZATION_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".organizationId";
+
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final MeterRegistry meterRegistry;
+
+    private Timer authenticatedTimer;
+    private Timer rejectedTimer;
+
+    @PostConstruct
+    void init() {
+        authenticatedTimer = authenticationTimer("authenticated");
+        rejectedTimer = authenticationTimer("rejected");
+    }
+
+    private Timer authenticationTimer(String result) {
+        return Timer.builder("security.jwt.authentication")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -46,6 +69,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = header.substring(7);
 
+        // covers token parsing and principal lookup only, not the rest of the chain
+        long start = System.nanoTime();
         try {
             Jws<Claims> jws = jwtService.parseToken(token);
             Claims claims = jws.getBody();
@@ -53,11 +78,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             Long userId = claims.get("uid", Long.class);
             String username = claims.getSubject();
 
-            UserEntity user = userRepository.findById(userId)
+            CustomUserDetails principal = principalCache.get(userId)
                     .orElseThrow();
 
-            CustomUserDetails principal = new CustomUserDetails(user);
-
             UsernamePasswordAuthenticationToken auth =
                     new UsernamePasswordAuthenticationToken(
                             principal,
@@ -66,8 +89,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     );
 
             SecurityContextHolder.getContext().setAuthentication(auth);
+            request.setAttribute(ORGANIZATION_ATTRIBUTE, principal.getOrganizationId());
+            authenticatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         } catch (Exception ex) {
             SecurityContextHolder.clearContext();
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         filterChain.doFilter(request, response);
@@ -1,29 +1,62 @@
 package com.softwaremind.invoicedocbackend.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.softwaremind.invoicedocbackend.common.InstancePool;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
+import java.util.HexFormat;
 
 @Service
 public class JwtService {
 
+    private static final long DEFAULT_VERIFIED_CACHE_SIZE = 10_000;
+
     private final Key key;
     private final long expirationMillis;
+    // JwtParser is immutable and thread-safe, building it per call only costs allocations
+    private final JwtParser parser;
+    // tokens whose signature was already checked, keyed by SHA-256 of the token; null when disabled
+    private final Cache<String, Jws<Claims>> verifiedTokens;
+    private final InstancePool<MessageDigest> digests = new InstancePool<>(JwtService::newDigest);
+
+    public JwtService(String secret, long expirationSeconds) {
+        this(secret, expirationSeconds, DEFAULT_VERIFIED_CACHE_SIZE);
+    }
 
+    @Autowired
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expirationSeconds:3600}") long expirationSeconds
+            @Value("${app.jwt.expirationSeconds:3600}") long expirationSeconds,
+            @Value("${app.jwt.verified-cache-size:10000}") long verifiedCacheSize
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMillis = expirationSeconds * 1000;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheSize)
+                        .expireAfter(Expiry.creating((String digest, Jws<Claims> jws) -> untilExpiration(jws)))
+                        .build()
+                : null;
     }
 
     public String generateToken(String username, Long userId, Long organizationId, String role) {
@@ -42,9 +75,43 @@ public class JwtService {
     }
 
     public Jws<Claims> parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
+        if (verifiedTokens == null) {
+            return parser.parseClaimsJws(token);
+        }
+
+        String digest = digest(token);
+        Jws<Claims> cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        // invalid or expired tokens throw here and are never cached
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        if (jws.getBody().getExpiration() != null) {
+            verifiedTokens.put(digest, jws);
+        }
+        return jws;
+    }
+
+    private static Duration untilExpiration(Jws<Claims> jws) {
+        long millis = jws.getBody().getExpiration().getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(millis, 0));
+    }
+
+    private String digest(String token) {
+        MessageDigest sha256 = digests.take();
+        try {
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } finally {
+            digests.release(sha256);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
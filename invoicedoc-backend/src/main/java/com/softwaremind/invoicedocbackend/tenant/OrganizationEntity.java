@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -31,7 +32,8 @@ import java.time.LocalDateTime;
 public class OrganizationEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "organizations_id_seq")
+    @SequenceGenerator(name = "organizations_id_seq", sequenceName = "organizations_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255, unique = true)
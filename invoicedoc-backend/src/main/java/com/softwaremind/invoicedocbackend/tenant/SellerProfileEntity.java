@@ -7,8 +7,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import lombok.AllArgsConstructor;
@@ -25,11 +27,15 @@ import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "seller_profiles")
+@Table(
+        name = "seller_profiles",
+        indexes = @Index(name = "idx_seller_profiles_org", columnList = "organization_id")
+)
 public class SellerProfileEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seller_profiles_id_seq")
+    @SequenceGenerator(name = "seller_profiles_id_seq", sequenceName = "seller_profiles_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
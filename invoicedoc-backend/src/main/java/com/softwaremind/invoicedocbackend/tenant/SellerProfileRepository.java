@@ -1,6 +1,8 @@
 package com.softwaremind.invoicedocbackend.tenant;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,4 +11,8 @@ public interface SellerProfileRepository extends JpaRepository<SellerProfileEnti
 
     List<SellerProfileEntity> findByOrganizationId(Long organizationId);
     Optional<SellerProfileEntity> findByOrganizationIdAndId(Long organizationId, Long id);
+
+    // organization fetched too, TenantCache hands the entity out detached
+    @Query("select s from SellerProfileEntity s join fetch s.organization where s.id = :id")
+    Optional<SellerProfileEntity> findWithOrganizationById(@Param("id") Long id);
 }
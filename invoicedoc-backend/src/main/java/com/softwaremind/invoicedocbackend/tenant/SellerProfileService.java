@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.softwaremind.invoicedocbackend.invoice.InvoiceRepository;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
 import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.security.UserRole;
@@ -23,10 +24,11 @@ import com.softwaremind.invoicedocbackend.tenant.mapper.SellerProfileMapper;
 public class SellerProfileService {
 
     private final SellerProfileRepository sellerProfileRepository;
-    private final OrganizationRepository organizationRepository;
+    private final TenantCache tenantCache;
     private final SellerProfileMapper mapper;
     private final CurrentUserProvider currentUserProvider;
     private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfCache invoicePdfCache;
 
     private void assertCanModify() {
         CurrentUser cu = currentUserProvider.getCurrentUser();
@@ -54,7 +56,7 @@ public class SellerProfileService {
         assertCanModify();
 
         CurrentUser cu = currentUserProvider.getCurrentUser();
-        OrganizationEntity org = organizationRepository.findById(cu.organizationId())
+        OrganizationEntity org = tenantCache.organization(cu.organizationId())
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "ORG_NOT_FOUND"));
 
@@ -76,6 +78,8 @@ public class SellerProfileService {
 
         mapper.updateEntity(entity, req);
         SellerProfileEntity saved = sellerProfileRepository.save(entity);
+        tenantCache.evictSellerProfile(saved.getId());
+        invoicePdfCache.evictForSellerProfile(saved.getId());
 
         return mapper.toResponse(saved);
     }
@@ -91,6 +95,8 @@ public class SellerProfileService {
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "SELLER_PROFILE_NOT_FOUND"));
 
+        tenantCache.evictSellerProfile(profile.getId());
+        invoicePdfCache.evictForSellerProfile(profile.getId());
         invoiceRepository.clearSellerProfileForInvoices(profile.getId());
         sellerProfileRepository.delete(profile);
     }
@@ -0,0 +1,83 @@
+package com.softwaremind.invoicedocbackend.tenant;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.softwaremind.invoicedocbackend.common.AfterCommit;
+import com.softwaremind.invoicedocbackend.common.CacheLoads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Seller profiles (with their organization) and organizations by id, for the per-request ownership checks
+// and invoice snapshots. Entries are detached entities: read them, never modify them.
+// Loads run outside the cache's lock (see CacheLoads), so virtual threads are not pinned during the query.
+// Local changes evict once their transaction commits. Other nodes are not notified: they see a changed seller profile
+// once their entry expires, so the TTL bounds how stale a profile can be there.
+@Component
+@RequiredArgsConstructor
+public class TenantCache {
+
+    private final SellerProfileRepository sellerProfileRepository;
+    private final OrganizationRepository organizationRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.tenant-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.tenant-cache.ttl:5m}")
+    private Duration ttl = Duration.ofMinutes(5);
+
+    @Value("${app.tenant-cache.max-size:10000}")
+    private long maxSize = 10_000;
+
+    private AsyncCache<Long, SellerProfileEntity> sellerProfiles;
+    private AsyncCache<Long, OrganizationEntity> organizations;
+
+    @PostConstruct
+    void init() {
+        sellerProfiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        organizations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, sellerProfiles, "sellerProfile");
+        CaffeineCacheMetrics.monitor(meterRegistry, organizations, "organization");
+    }
+
+    // missing rows are not cached, so a profile created a moment later is found right away
+    public Optional<SellerProfileEntity> sellerProfile(Long id) {
+        if (!enabled) {
+            return sellerProfileRepository.findWithOrganizationById(id);
+        }
+        return Optional.ofNullable(CacheLoads.getOrLoad(sellerProfiles, id,
+                key -> sellerProfileRepository.findWithOrganizationById(key).orElse(null)));
+    }
+
+    // organizations are never renamed or deleted through the API, the TTL only bounds memory
+    public Optional<OrganizationEntity> organization(Long id) {
+        if (!enabled) {
+            return organizationRepository.findById(id);
+        }
+        return Optional.ofNullable(CacheLoads.getOrLoad(organizations, id,
+                key -> organizationRepository.findById(key).orElse(null)));
+    }
+
+    // the entry is dropped after the caller's transaction commits, or right away without one
+    public void evictSellerProfile(Long sellerProfileId) {
+        AfterCommit.run(() -> sellerProfiles.synchronous().invalidate(sellerProfileId));
+    }
+}
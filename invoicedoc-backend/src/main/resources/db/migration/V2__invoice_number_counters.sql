@@ -0,0 +1,28 @@
+-- INVOICE_NUMBER_COUNTERS
+CREATE TABLE invoice_number_counters (
+                                         organization_id BIGINT NOT NULL,
+                                         period_start DATE NOT NULL,
+                                         last_value BIGINT NOT NULL,
+                                         CONSTRAINT pk_invoice_number_counters PRIMARY KEY (organization_id, period_start)
+);
+
+ALTER TABLE invoice_number_counters
+    ADD CONSTRAINT fk_invoice_number_counters_org
+        FOREIGN KEY (organization_id) REFERENCES organizations(id);
+
+-- continue numbering after invoices issued before the counters existed: the highest sequence of numbers in the
+-- generator's format (FV/YYYY/MM/DD/NNN), so a deleted invoice or a skipped number is not reissued;
+-- days whose numbers do not parse fall back to COUNT(*)
+WITH parsed AS (
+    SELECT organization_id,
+           issue_date,
+           CASE
+               WHEN number ~ '^FV/[0-9]{4}/[0-9]{2}/[0-9]{2}/[0-9]{3,18}$'
+                   THEN CAST(substring(number FROM '([0-9]+)$') AS BIGINT)
+               END AS sequence
+    FROM invoices
+)
+INSERT INTO invoice_number_counters (organization_id, period_start, last_value)
+SELECT organization_id, issue_date, GREATEST(COALESCE(MAX(sequence), 0), COUNT(*))
+FROM parsed
+GROUP BY organization_id, issue_date;
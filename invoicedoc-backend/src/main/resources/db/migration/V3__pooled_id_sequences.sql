@@ -0,0 +1,8 @@
+-- Hibernate allocates ids in blocks of 50 (pooled-lo), so inserts can be JDBC-batched.
+-- The BIGSERIAL sequences are reused; column defaults keep working for manual inserts.
+ALTER SEQUENCE organizations_id_seq INCREMENT BY 50;
+ALTER SEQUENCE seller_profiles_id_seq INCREMENT BY 50;
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE contractors_id_seq INCREMENT BY 50;
+ALTER SEQUENCE invoices_id_seq INCREMENT BY 50;
+ALTER SEQUENCE invoice_items_id_seq INCREMENT BY 50;
@@ -0,0 +1,29 @@
+-- INVOICES
+-- list / keyset / summary / count queries: organisation + newest first
+CREATE INDEX IF NOT EXISTS idx_invoices_org_issue_date_id
+    ON invoices (organization_id, issue_date DESC, id DESC);
+
+-- duplicate number check
+CREATE INDEX IF NOT EXISTS idx_invoices_org_number
+    ON invoices (organization_id, number);
+
+-- contractor / seller profile deletion checks and detaching
+CREATE INDEX IF NOT EXISTS idx_invoices_contractor
+    ON invoices (contractor_id);
+
+CREATE INDEX IF NOT EXISTS idx_invoices_seller_profile
+    ON invoices (seller_profile_id);
+
+-- INVOICE_ITEMS
+CREATE INDEX IF NOT EXISTS idx_invoice_items_invoice
+    ON invoice_items (invoice_id);
+
+-- TENANT-SCOPED LOOKUPS
+CREATE INDEX IF NOT EXISTS idx_contractors_org
+    ON contractors (organization_id);
+
+CREATE INDEX IF NOT EXISTS idx_seller_profiles_org
+    ON seller_profiles (organization_id);
+
+CREATE INDEX IF NOT EXISTS idx_users_org_role
+    ON users (organization_id, role);
@@ -0,0 +1,11 @@
+-- keyed HMAC of normalized NIP / PESEL, filled by the application (BlindIndexService);
+-- rows created before this migration are backfilled by ContractorBlindIndexBackfill, once, in the background after
+-- startup and under a PostgreSQL advisory lock so only one replica does it
+ALTER TABLE contractors ADD COLUMN IF NOT EXISTS nip_blind_index VARCHAR(64);
+ALTER TABLE contractors ADD COLUMN IF NOT EXISTS pesel_blind_index VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_contractors_org_nip_bidx
+    ON contractors (organization_id, nip_blind_index);
+
+CREATE INDEX IF NOT EXISTS idx_contractors_org_pesel_bidx
+    ON contractors (organization_id, pesel_blind_index);
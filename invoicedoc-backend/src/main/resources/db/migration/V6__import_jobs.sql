@@ -0,0 +1,37 @@
+-- background imports (ImportJobService); records_read is only advanced in the transaction that
+-- commits a chunk, so a restarted node skips exactly the records that are already imported
+CREATE TABLE import_jobs (
+                             id BIGSERIAL PRIMARY KEY,
+                             organization_id BIGINT NOT NULL REFERENCES organizations(id),
+                             user_id BIGINT NOT NULL REFERENCES users(id),
+                             seller_profile_id BIGINT NOT NULL,
+                             format VARCHAR(10) NOT NULL,
+                             status VARCHAR(20) NOT NULL,
+                             file_name VARCHAR(255),
+                             staged_path VARCHAR(1024) NOT NULL,
+                             total_bytes BIGINT NOT NULL,
+                             bytes_read BIGINT NOT NULL DEFAULT 0,
+                             records_read BIGINT NOT NULL DEFAULT 0,
+                             created_count BIGINT NOT NULL DEFAULT 0,
+                             failed_count BIGINT NOT NULL DEFAULT 0,
+                             error_message VARCHAR(1000),
+                             created_at TIMESTAMP NOT NULL,
+                             started_at TIMESTAMP,
+                             updated_at TIMESTAMP,
+                             finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_import_jobs_status ON import_jobs (status);
+
+CREATE TABLE import_job_errors (
+                                   id BIGSERIAL PRIMARY KEY,
+                                   job_id BIGINT NOT NULL REFERENCES import_jobs(id) ON DELETE CASCADE,
+                                   record_position BIGINT NOT NULL,
+                                   reference VARCHAR(255),
+                                   error VARCHAR(1000)
+);
+
+CREATE INDEX idx_import_job_errors_job ON import_job_errors (job_id, record_position);
+
+ALTER SEQUENCE import_jobs_id_seq INCREMENT BY 50;
+ALTER SEQUENCE import_job_errors_id_seq INCREMENT BY 50;
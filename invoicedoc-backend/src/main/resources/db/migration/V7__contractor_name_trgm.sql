@@ -0,0 +1,7 @@
+-- contractor autocomplete (ContractorRepository.suggest): LIKE '%q%' / 'q%' on lower(name) within one organisation.
+-- btree_gin lets organization_id live in the same GIN index as the name trigrams.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_contractors_org_name_trgm
+    ON contractors USING gin (organization_id, lower(name) gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- contractor list pages (ContractorRepository.findSummaries) sorted by name within one organisation
+CREATE INDEX IF NOT EXISTS idx_contractors_org_name_id
+    ON contractors (organization_id, name, id);
@@ -0,0 +1,320 @@
+package com.softwaremind.invoicedocbackend;
+
+import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
+import com.softwaremind.invoicedocbackend.contractor.ContractorSort;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceRepository;
+import com.softwaremind.invoicedocbackend.security.UserRepository;
+import com.softwaremind.invoicedocbackend.security.UserRole;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileRepository;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jpa.autoconfigure.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Seeds a multi-tenant dataset on the Flyway schema (ddl-auto=validate, so the entities must match the migrations)
+// and checks that the SQL Hibernate generates for the hot repository methods is served by the indexes from
+// V4__performance_indexes.sql and later migrations. Statements are captured by SqlRecorder and explained with
+// EXPLAIN (GENERIC_PLAN), i.e. the plan a prepared statement settles on regardless of the bound values.
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIndexTest {
+
+    private static final int ORGS = 200;
+    private static final int INVOICES_PER_ORG = 1000;
+    private static final int ITEMS_PER_INVOICE = 2;
+    private static final int CONTRACTORS_PER_ORG = 100;
+    private static final int SELLERS_PER_ORG = 25;
+    private static final int USERS_PER_ORG = 20;
+    private static final long ORG_ID = 42;
+
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("invoicedoc")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("app.jwt.secret", () -> "SuperTajnyKluczJWTDoTestowMusibycdlugijakszalony");
+        registry.add("app.crypto.secret", () -> "NajwazniejszySekretKryptoDoTestowJestDlugiiBezpieczny");
+    }
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private ContractorRepository contractorRepository;
+    @Autowired
+    private SellerProfileRepository sellerProfileRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO organizations (id, name, created_at)
+                SELECT g, 'Org ' || g, now() FROM generate_series(1, ?) g
+                """, ORGS);
+
+        jdbcTemplate.update("""
+                INSERT INTO seller_profiles (id, organization_id, name, nip_encrypted,
+                                             default_currency, default_payment_term_days)
+                SELECT g, (g % ?) + 1, 'Seller ' || g, 'enc', 'PLN', 14
+                FROM generate_series(1, ?) g
+                """, ORGS, ORGS * SELLERS_PER_ORG);
+
+        jdbcTemplate.update("""
+                INSERT INTO users (id, username, email, password_hash, full_name, role,
+                                   organization_id, approved_by_owner)
+                SELECT g, 'user' || g, 'user' || g || '@example.com', 'hash', 'User ' || g,
+                       CASE WHEN g % ? = 0 THEN 'OWNER' ELSE 'ACCOUNTANT' END, (g % ?) + 1, true
+                FROM generate_series(1, ?) g
+                """, USERS_PER_ORG, ORGS, ORGS * USERS_PER_ORG);
+
+        jdbcTemplate.update("""
+                INSERT INTO contractors (id, organization_id, type, name, favorite)
+                SELECT g, (g % ?) + 1, 'COMPANY', 'Contractor ' || g, false
+                FROM generate_series(1, ?) g
+                """, ORGS, ORGS * CONTRACTORS_PER_ORG);
+
+        jdbcTemplate.update("""
+                INSERT INTO invoices (id, organization_id, seller_profile_id, contractor_id,
+                                      seller_name, seller_nip_encrypted, buyer_name, number,
+                                      issue_date, sale_date, due_date, payment_method, currency, status,
+                                      total_net, total_vat, total_gross, reverse_charge, split_payment)
+                SELECT g, (g % ?) + 1, (g % ?) + 1, (g % ?) + 1,
+                       'Seller', 'enc', 'Buyer', 'FV/' || g,
+                       DATE '2020-01-01' + (g % 1500), DATE '2020-01-01' + (g % 1500),
+                       DATE '2020-01-15' + (g % 1500), 'BANK_TRANSFER', 'PLN', 'ISSUED',
+                       100, 23, 123, false, false
+                FROM generate_series(1, ?) g
+                """, ORGS, ORGS * SELLERS_PER_ORG, ORGS * CONTRACTORS_PER_ORG, ORGS * INVOICES_PER_ORG);
+
+        jdbcTemplate.update("""
+                INSERT INTO invoice_items (id, invoice_id, description, quantity, unit, net_unit_price,
+                                           vat_rate, net_total, vat_amount, gross_total)
+                SELECT g, (g % ?) + 1, 'Line ' || g, 1, 'szt', 50, '23', 50, 11.5, 61.5
+                FROM generate_series(1, ?) g
+                """, ORGS * INVOICES_PER_ORG, ORGS * INVOICES_PER_ORG * ITEMS_PER_INVOICE);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TestConfiguration
+    static class FlywaySchemaConfig {
+
+        // FlywayConfig is off in the test profile; migrate here, before Hibernate validates the entities
+        @Bean(initMethod = "migrate")
+        Flyway flyway(DataSource dataSource) {
+            return Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration")
+                    .load();
+        }
+
+        @Bean
+        static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnFlyway() {
+            return new EntityManagerFactoryDependsOnPostProcessor("flyway");
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlRecorder());
+        }
+    }
+
+    static class SqlRecorder implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new ArrayList<>();
+        private static volatile boolean recording;
+
+        @Override
+        public String inspect(String sql) {
+            if (recording) {
+                synchronized (STATEMENTS) {
+                    STATEMENTS.add(sql);
+                }
+            }
+            return sql;
+        }
+
+        static List<String> record(Runnable call) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.clear();
+            }
+            recording = true;
+            try {
+                call.run();
+            } finally {
+                recording = false;
+            }
+            synchronized (STATEMENTS) {
+                return List.copyOf(STATEMENTS);
+            }
+        }
+    }
+
+    // Hibernate binds with '?'; GENERIC_PLAN needs numbered parameters and infers their types from the columns
+    private String genericPlan(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int index = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, "\\$" + ++index);
+        }
+        matcher.appendTail(numbered);
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class);
+        return String.join("\n", lines);
+    }
+
+    // every statement (page and count) must avoid a sequential scan, and one of them must use the index
+    private void assertServedBy(List<String> statements, String indexName) {
+        assertThat(statements).as("statements issued").isNotEmpty();
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = genericPlan(sql);
+            assertThat(plan).as("plan for: %s", sql).doesNotContain("Seq Scan");
+            plans.add(plan);
+        }
+        assertThat(String.join("\n", plans)).as("plans for: %s", statements).contains(indexName);
+    }
+
+    private void assertServedBy(Runnable call, String indexName) {
+        assertServedBy(SqlRecorder.record(call), indexName);
+    }
+
+    @Test
+    @DisplayName("InvoiceRepository.findByOrganizationId page and count use org/issue_date index")
+    void invoiceListUsesOrgIssueDateIndex() {
+        assertServedBy(() -> invoiceRepository.findByOrganizationId(ORG_ID,
+                        PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "issueDate"))),
+                "idx_invoices_org_issue_date_id");
+    }
+
+    @Test
+    @DisplayName("InvoiceRepository date range page, count and summaries use org/issue_date index")
+    void invoiceRangeAndCountUseOrgIssueDateIndex() {
+        LocalDate from = LocalDate.of(2021, 1, 1);
+        LocalDate to = LocalDate.of(2021, 1, 31);
+
+        assertServedBy(() -> invoiceRepository.findByOrganizationIdAndIssueDateBetween(ORG_ID, from, to,
+                        PageRequest.of(1, 20, Sort.by(Sort.Direction.DESC, "issueDate"))),
+                "idx_invoices_org_issue_date_id");
+        assertServedBy(() -> invoiceRepository.countByOrganizationIdAndIssueDateBetween(ORG_ID, from, to),
+                "idx_invoices_org_issue_date_id");
+        assertServedBy(() -> invoiceRepository.findSummaries(ORG_ID, from, to, PageRequest.of(1, 20)),
+                "idx_invoices_org_issue_date_id");
+        assertServedBy(() -> invoiceRepository.findArchiveKeysAfter(ORG_ID, from, to, from, 0L,
+                PageRequest.of(0, 500)), "idx_invoices_org_issue_date_id");
+    }
+
+    @Test
+    @DisplayName("InvoiceRepository keyset pages seek on org/issue_date index")
+    void invoiceKeysetPageUsesOrgIssueDateIndex() {
+        LocalDate from = LocalDate.of(1, 1, 1);
+        LocalDate to = LocalDate.of(9999, 12, 31);
+
+        assertServedBy(() -> invoiceRepository.findFirstKeysetPage(ORG_ID, from, to, PageRequest.of(0, 21)),
+                "idx_invoices_org_issue_date_id");
+        assertServedBy(() -> invoiceRepository.findKeysetPageAfter(ORG_ID, from, to,
+                        LocalDate.of(2022, 6, 1), 150_000L, PageRequest.of(0, 21)),
+                "idx_invoices_org_issue_date_id");
+    }
+
+    @Test
+    @DisplayName("InvoiceRepository.existsByOrganizationIdAndNumber uses org/number index")
+    void invoiceNumberCheckUsesOrgNumberIndex() {
+        assertServedBy(() -> invoiceRepository.existsByOrganizationIdAndNumber(ORG_ID, "FV/242"),
+                "idx_invoices_org_number");
+    }
+
+    @Test
+    @DisplayName("InvoiceRepository contractor / seller profile lookups use FK indexes")
+    void invoiceForeignKeyLookupsUseIndexes() {
+        assertServedBy(() -> invoiceRepository.existsByContractorId(77L), "idx_invoices_contractor");
+        assertServedBy(() -> invoiceRepository.findIdsByContractorId(77L), "idx_invoices_contractor");
+        assertServedBy(() -> invoiceRepository.findIdsBySellerProfileId(77L), "idx_invoices_seller_profile");
+    }
+
+    @Test
+    @DisplayName("loading invoice items by invoice uses invoice_id index")
+    void invoiceItemsUseInvoiceIndex() {
+        List<String> statements = SqlRecorder.record(() -> transactionTemplate.executeWithoutResult(status ->
+                invoiceRepository.findById(1234L).orElseThrow().getItems().size()));
+
+        assertServedBy(statements.stream().filter(sql -> sql.contains("invoice_items")).toList(),
+                "idx_invoice_items_invoice");
+    }
+
+    @Test
+    @DisplayName("ContractorRepository organization lookups use org indexes")
+    void contractorsByOrgUseIndex() {
+        // several contractor indexes lead with organization_id; any of them is fine
+        assertServedBy(() -> contractorRepository.findByOrganizationId(ORG_ID), "idx_contractors_org");
+        assertServedBy(() -> contractorRepository.findLookupKeysByOrganizationId(ORG_ID), "idx_contractors_org");
+        assertServedBy(() -> contractorRepository.findFirstByOrganizationIdAndNipBlindIndexOrderByIdAsc(
+                ORG_ID, "0".repeat(64)), "idx_contractors_org_nip_bidx");
+    }
+
+    @Test
+    @DisplayName("ContractorRepository.findSummaries sorted by name uses org/name index")
+    void contractorSummariesUseOrgNameIndex() {
+        assertServedBy(() -> contractorRepository.findSummaries(ORG_ID,
+                PageRequest.of(2, 20, ContractorSort.NAME.sort())), "idx_contractors_org_name_id");
+    }
+
+    @Test
+    @DisplayName("SellerProfileRepository.findByOrganizationId uses org index")
+    void sellerProfilesByOrgUseIndex() {
+        assertServedBy(() -> sellerProfileRepository.findByOrganizationId(ORG_ID), "idx_seller_profiles_org");
+    }
+
+    @Test
+    @DisplayName("UserRepository organization lookups use org/role index")
+    void usersByOrgUseIndex() {
+        assertServedBy(() -> userRepository.findAllByOrganizationId(ORG_ID), "idx_users_org_role");
+        assertServedBy(() -> userRepository.existsByOrganizationIdAndRole(ORG_ID, UserRole.OWNER),
+                "idx_users_org_role");
+    }
+}
@@ -0,0 +1,68 @@
+package com.softwaremind.invoicedocbackend.common;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class CacheLoadsTest {
+
+    private final AsyncCache<Long, String> cache = Caffeine.newBuilder().buildAsync();
+
+    @Test
+    @DisplayName("concurrent callers for the same key should share one load")
+    void shouldLoadOncePerKey() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread first = Thread.ofVirtual().start(() -> CacheLoads.getOrLoad(cache, 1L, id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "one";
+        }));
+        loading.await();
+        String[] second = new String[1];
+        Thread waiter = Thread.ofVirtual().start(() ->
+                second[0] = CacheLoads.getOrLoad(cache, 1L, id -> "loaded twice"));
+        release.countDown();
+        first.join();
+        waiter.join();
+
+        assertAll(
+                () -> assertThat(loads).hasValue(1),
+                () -> assertThat(second[0]).isEqualTo("one"),
+                () -> assertThat(CacheLoads.getOrLoad(cache, 1L, id -> "loaded again")).isEqualTo("one")
+        );
+    }
+
+    @Test
+    @DisplayName("failed and empty loads should not be cached")
+    void shouldNotCacheFailedOrEmptyLoads() {
+        assertThatThrownBy(() -> CacheLoads.getOrLoad(cache, 1L, id -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertAll(
+                () -> assertThat(CacheLoads.getOrLoad(cache, 1L, id -> "recovered")).isEqualTo("recovered"),
+                () -> assertThat(CacheLoads.getOrLoad(cache, 2L, id -> null)).isNull(),
+                () -> assertThat(CacheLoads.getOrLoad(cache, 2L, id -> "created")).isEqualTo("created")
+        );
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.softwaremind.invoicedocbackend.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class InstancePoolTest {
+
+    @Test
+    @DisplayName("released instances should be reused by later virtual threads")
+    void shouldReuseAcrossVirtualThreads() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        InstancePool<Object> pool = new InstancePool<>(4, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                executor.submit(() -> {
+                    Object instance = pool.take();
+                    pool.release(instance);
+                }).get();
+            }
+        }
+
+        assertAll(
+                () -> assertThat(created).hasValue(1),
+                () -> assertThat(pool.idle()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    @DisplayName("take should create beyond capacity and release should drop the surplus")
+    void shouldStayWithinCapacity() {
+        AtomicInteger created = new AtomicInteger();
+        InstancePool<Object> pool = new InstancePool<>(2, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        List<Object> taken = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            taken.add(pool.take());
+        }
+        taken.forEach(pool::release);
+
+        assertAll(
+                () -> assertThat(created).hasValue(5),
+                () -> assertThat(taken).doesNotHaveDuplicates(),
+                () -> assertThat(pool.idle()).isEqualTo(2),
+                () -> assertThat(pool.take()).isIn(taken)
+        );
+    }
+}
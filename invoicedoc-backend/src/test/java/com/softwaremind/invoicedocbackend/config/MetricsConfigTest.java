@@ -0,0 +1,57 @@
+package com.softwaremind.invoicedocbackend.config;
+
+import com.softwaremind.invoicedocbackend.security.jwt.JwtAuthenticationFilter;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MetricsConfigTest {
+
+    private final MetricsConfig config = new MetricsConfig();
+
+    @Test
+    @DisplayName("org tag filter should keep the first organizations and report the rest as other")
+    void orgTagFilterShouldCapDistinctOrganizations() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(config.orgTagLimitFilter(2));
+
+        for (String org : new String[]{"1", "2", "3", "4", "1", "none"}) {
+            registry.counter("invoice.test", "org", org, "result", "ok").increment();
+        }
+
+        assertAll(
+                () -> assertThat(registry.get("invoice.test").counters()).hasSize(4),
+                () -> assertThat(registry.get("invoice.test").tag("org", "1").counter().count()).isEqualTo(2.0),
+                () -> assertThat(registry.get("invoice.test").tag("org", "other").tag("result", "ok").counter().count())
+                        .isEqualTo(2.0),
+                () -> assertThat(registry.get("invoice.test").tag("org", "none").counter().count()).isEqualTo(1.0)
+        );
+    }
+
+    @Test
+    @DisplayName("request convention should tag http.server.requests with the organization set by the JWT filter")
+    void requestConventionShouldAddOrganization() {
+        MockHttpServletRequest authenticated = new MockHttpServletRequest("GET", "/v1/api/invoices");
+        authenticated.setAttribute(JwtAuthenticationFilter.ORGANIZATION_ATTRIBUTE, 7L);
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("POST", "/v1/api/auth/login");
+
+        KeyValues withOrg = config.serverRequestObservationConvention()
+                .getLowCardinalityKeyValues(new ServerRequestObservationContext(authenticated, new MockHttpServletResponse()));
+        KeyValues withoutOrg = config.serverRequestObservationConvention()
+                .getLowCardinalityKeyValues(new ServerRequestObservationContext(anonymous, new MockHttpServletResponse()));
+
+        assertAll(
+                () -> assertThat(withOrg).contains(KeyValue.of("org", "7")),
+                () -> assertThat(withOrg.stream().map(KeyValue::getKey)).contains("uri", "method", "status"),
+                () -> assertThat(withoutOrg).contains(KeyValue.of("org", "none"))
+        );
+    }
+}
@@ -0,0 +1,78 @@
+package com.softwaremind.invoicedocbackend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry);
+
+    @AfterEach
+    void tearDown() {
+        monitor.shutdown();
+    }
+
+    @Test
+    @DisplayName("should count a virtual thread that sleeps inside a synchronized block")
+    void shouldCountPinnedVirtualThread() throws Exception {
+        monitor.init();
+        Object lock = new Object();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR hands events to the stream about once a second
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.get("jvm.threads.virtual.pinned").timer().count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertThat(registry.get("jvm.threads.virtual.pinned").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("logged stack should start at the caller, not at the park internals")
+    void topFramesShouldSkipJdkInternals() {
+        List<String> parkedInService = List.of(
+                "java.lang.VirtualThread.parkOnCarrierThread:675",
+                "java.lang.VirtualThread.park:604",
+                "java.lang.System$2.parkVirtualThread:2643",
+                "jdk.internal.misc.VirtualThreads.park:54",
+                "java.util.concurrent.locks.LockSupport.park:219",
+                "com.example.SlowService.load:42",
+                "com.example.Controller.get:17");
+        List<String> parkedInOtherService = List.of(
+                "java.lang.VirtualThread.parkOnCarrierThread:675",
+                "java.lang.VirtualThread.park:604",
+                "java.lang.System$2.parkVirtualThread:2643",
+                "jdk.internal.misc.VirtualThreads.park:54",
+                "java.util.concurrent.locks.LockSupport.park:219",
+                "com.example.OtherService.load:10",
+                "com.example.Controller.get:17");
+
+        assertAll(
+                () -> assertThat(VirtualThreadPinningMonitor.topFrames(parkedInService))
+                        .isEqualTo("\tat com.example.SlowService.load:42\n\tat com.example.Controller.get:17"),
+                () -> assertThat(VirtualThreadPinningMonitor.topFrames(parkedInService))
+                        .isNotEqualTo(VirtualThreadPinningMonitor.topFrames(parkedInOtherService)),
+                () -> assertThat(VirtualThreadPinningMonitor.topFrames(List.of("java.lang.VirtualThread.park:604")))
+                        .isEqualTo("\tat java.lang.VirtualThread.park:604")
+        );
+    }
+}
@@ -0,0 +1,179 @@
+package com.softwaremind.invoicedocbackend.contractor;
+
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
+import com.softwaremind.invoicedocbackend.crypto.CryptoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContractorBlindIndexBackfillTest {
+
+    private ContractorRepository contractorRepository;
+    private CryptoService cryptoService;
+    private BlindIndexService blindIndexService;
+    private JdbcTemplate jdbcTemplate;
+    private PreparedStatement tryLock;
+    private PreparedStatement unlock;
+    private ContractorBlindIndexBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        contractorRepository = mock(ContractorRepository.class);
+        cryptoService = mock(CryptoService.class);
+        blindIndexService = mock(BlindIndexService.class);
+
+        when(cryptoService.decrypt(anyString())).thenAnswer(inv -> inv.<String>getArgument(0).replace("enc-", ""));
+        when(blindIndexService.index(anyString())).thenAnswer(inv -> "bidx-" + inv.getArgument(0));
+
+        jdbcTemplate = mock(JdbcTemplate.class);
+        backfill = new ContractorBlindIndexBackfill(contractorRepository, cryptoService, blindIndexService,
+                mock(PlatformTransactionManager.class), jdbcTemplate);
+        ReflectionTestUtils.setField(backfill, "batchSize", 2);
+    }
+
+    // jdbcTemplate.execute hands the callback a connection on which pg_try_advisory_lock returns `acquired`
+    private void advisoryLock(boolean acquired) throws Exception {
+        Connection connection = mock(Connection.class);
+        tryLock = statementReturning(acquired);
+        unlock = statementReturning(true);
+        when(connection.prepareStatement("select pg_try_advisory_lock(?)")).thenReturn(tryLock);
+        when(connection.prepareStatement("select pg_advisory_unlock(?)")).thenReturn(unlock);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<Integer>>any()))
+                .thenAnswer(inv -> inv.<ConnectionCallback<Integer>>getArgument(0).doInConnection(connection));
+    }
+
+    private static PreparedStatement statementReturning(boolean value) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getBoolean(1)).thenReturn(value);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        return ps;
+    }
+
+    private ContractorEntity contractor(Long id, String nipEnc, String peselEnc) {
+        return ContractorEntity.builder().id(id).nipEncrypted(nipEnc).peselEncrypted(peselEnc).build();
+    }
+
+    @Test
+    @DisplayName("backfill should index NIP and PESEL batch by batch, continuing after the last id")
+    void backfillShouldProcessAllBatches() {
+        ContractorEntity c1 = contractor(1L, "enc-111", null);
+        ContractorEntity c2 = contractor(2L, null, "enc-222");
+        ContractorEntity c3 = contractor(5L, "enc-555", "enc-556");
+        when(contractorRepository.findMissingBlindIndex(eq(0L), any(Pageable.class))).thenReturn(List.of(c1, c2));
+        when(contractorRepository.findMissingBlindIndex(eq(2L), any(Pageable.class))).thenReturn(List.of(c3));
+        when(contractorRepository.findMissingBlindIndex(eq(5L), any(Pageable.class))).thenReturn(List.of());
+
+        int updated = backfill.backfill();
+
+        assertAll(
+                () -> assertThat(updated).isEqualTo(3),
+                () -> assertThat(c1.getNipBlindIndex()).isEqualTo("bidx-111"),
+                () -> assertThat(c1.getPeselBlindIndex()).isNull(),
+                () -> assertThat(c2.getPeselBlindIndex()).isEqualTo("bidx-222"),
+                () -> assertThat(c3.getNipBlindIndex()).isEqualTo("bidx-555"),
+                () -> assertThat(c3.getPeselBlindIndex()).isEqualTo("bidx-556")
+        );
+        verify(contractorRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("a row that cannot be decrypted should be skipped without stopping the backfill")
+    void undecryptableRowShouldBeSkipped() {
+        ContractorEntity broken = contractor(1L, "broken", null);
+        ContractorEntity ok = contractor(2L, "enc-222", null);
+        when(cryptoService.decrypt("broken")).thenThrow(new IllegalStateException("Cannot decrypt"));
+        when(contractorRepository.findMissingBlindIndex(eq(0L), any(Pageable.class))).thenReturn(List.of(broken, ok));
+        when(contractorRepository.findMissingBlindIndex(eq(2L), any(Pageable.class))).thenReturn(List.of());
+
+        int updated = backfill.backfill();
+
+        assertAll(
+                () -> assertThat(updated).isEqualTo(1),
+                () -> assertThat(broken.getNipBlindIndex()).isNull(),
+                () -> assertThat(ok.getNipBlindIndex()).isEqualTo("bidx-222")
+        );
+        verify(contractorRepository).saveAll(List.of(ok));
+    }
+
+    @Test
+    @DisplayName("disabled backfill should not query the repository on startup")
+    void disabledBackfillShouldDoNothing() {
+        ReflectionTestUtils.setField(backfill, "enabled", false);
+
+        backfill.onApplicationReady();
+
+        verifyNoInteractions(contractorRepository);
+    }
+
+    @Test
+    @DisplayName("backfillOnce should run under the advisory lock and release it afterwards")
+    void backfillOnceShouldHoldAdvisoryLock() throws Exception {
+        advisoryLock(true);
+        ContractorEntity c1 = contractor(1L, "enc-111", null);
+        when(contractorRepository.findMissingBlindIndex(eq(0L), any(Pageable.class))).thenReturn(List.of(c1));
+        when(contractorRepository.findMissingBlindIndex(eq(1L), any(Pageable.class))).thenReturn(List.of());
+
+        int updated = backfill.backfillOnce();
+
+        assertAll(
+                () -> assertThat(updated).isEqualTo(1),
+                () -> assertThat(c1.getNipBlindIndex()).isEqualTo("bidx-111")
+        );
+        verify(tryLock).setLong(1, ContractorBlindIndexBackfill.LOCK_KEY);
+        verify(unlock).setLong(1, ContractorBlindIndexBackfill.LOCK_KEY);
+        verify(unlock).executeQuery();
+    }
+
+    @Test
+    @DisplayName("backfillOnce should skip when another node holds the advisory lock")
+    void backfillOnceShouldSkipWhenLockIsTaken() throws Exception {
+        advisoryLock(false);
+
+        int updated = backfill.backfillOnce();
+
+        assertThat(updated).isZero();
+        verifyNoInteractions(contractorRepository, unlock);
+    }
+
+    @Test
+    @DisplayName("startup should hand the backfill to the worker thread instead of blocking readiness")
+    void startupShouldNotWaitForBackfill() throws Exception {
+        advisoryLock(true);
+        CountDownLatch release = new CountDownLatch(1);
+        when(contractorRepository.findMissingBlindIndex(eq(0L), any(Pageable.class))).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        backfill.init();
+        try {
+            backfill.onApplicationReady();
+            verify(contractorRepository, timeout(1000)).findMissingBlindIndex(eq(0L), any(Pageable.class));
+            release.countDown();
+            verify(unlock, timeout(1000)).executeQuery();
+        } finally {
+            backfill.shutdown();
+        }
+    }
+}
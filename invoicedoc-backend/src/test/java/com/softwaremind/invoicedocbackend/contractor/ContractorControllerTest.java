@@ -2,6 +2,8 @@ package com.softwaremind.invoicedocbackend.contractor;
 
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorResponse;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSuggestion;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorUpdateRequest;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -74,6 +78,31 @@ class ContractorControllerTest {
         verify(contractorService).list(query);
     }
 
+    @Test
+    @DisplayName("page should delegate paging, sort and identifier opt-in to service")
+    void pageShouldDelegateToService() {
+        Page<ContractorSummaryResponse> page = new PageImpl<>(List.of(new ContractorSummaryResponse(
+                1L, ContractorType.COMPANY, "ACME", "Warsaw", null, null, false)));
+        when(contractorService.listPage(1, 50, ContractorSort.NEWEST, false)).thenReturn(page);
+
+        Page<ContractorSummaryResponse> result = controller.page(1, 50, ContractorSort.NEWEST, false);
+
+        assertThat(result).isSameAs(page);
+        verify(contractorService).listPage(1, 50, ContractorSort.NEWEST, false);
+    }
+
+    @Test
+    @DisplayName("suggest should delegate query and limit to service")
+    void suggestShouldDelegateToService() {
+        ContractorSuggestion s = new ContractorSuggestion(1L, "ACME", ContractorType.COMPANY, true);
+        when(contractorService.suggest("ac", 5)).thenReturn(List.of(s));
+
+        List<ContractorSuggestion> result = controller.suggest("ac", 5);
+
+        assertThat(result).containsExactly(s);
+        verify(contractorService).suggest("ac", 5);
+    }
+
     @Test
     @DisplayName("get should delegate to service and return contractor response")
     void getShouldDelegateToServiceAndReturnResponse() {
@@ -1,10 +1,15 @@
 package com.softwaremind.invoicedocbackend.contractor;
 
 import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorLookupKey;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSuggestion;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -230,4 +235,141 @@ class ContractorRepositoryTest {
 
         assertThat(result).isEmpty();
     }
+
+    @Test
+    @DisplayName("findFirstByOrganizationIdAndNipBlindIndex should match only within the organization")
+    void findByNipBlindIndexShouldMatchWithinOrganization() {
+        contractorRepository.deleteAll();
+        organizationRepository.deleteAll();
+
+        OrganizationEntity org1 = createAndSaveOrganization("Org One");
+        OrganizationEntity org2 = createAndSaveOrganization("Org Two");
+
+        ContractorEntity c1 = createContractor(org1, ContractorType.COMPANY, "ACME", "enc-nip-1", null, false);
+        c1.setNipBlindIndex("bidx-1");
+        ContractorEntity c2 = createContractor(org2, ContractorType.COMPANY, "ACME Other", "enc-nip-2", null, false);
+        c2.setNipBlindIndex("bidx-1");
+        contractorRepository.saveAllAndFlush(List.of(c1, c2));
+
+        Optional<ContractorEntity> found =
+                contractorRepository.findFirstByOrganizationIdAndNipBlindIndexOrderByIdAsc(org1.getId(), "bidx-1");
+        Optional<ContractorEntity> missing =
+                contractorRepository.findFirstByOrganizationIdAndNipBlindIndexOrderByIdAsc(org1.getId(), "bidx-2");
+
+        assertAll(
+                () -> assertThat(found).map(ContractorEntity::getId).contains(c1.getId()),
+                () -> assertThat(missing).isEmpty()
+        );
+    }
+
+    @Test
+    @DisplayName("findLookupKeysByOrganizationId should return id, name and blind indexes of the org in id order")
+    void findLookupKeysShouldReturnOrgKeysInIdOrder() {
+        contractorRepository.deleteAll();
+        organizationRepository.deleteAll();
+
+        OrganizationEntity org1 = createAndSaveOrganization("Org One");
+        OrganizationEntity org2 = createAndSaveOrganization("Org Two");
+
+        ContractorEntity c1 = createContractor(org1, ContractorType.COMPANY, "ACME", "enc-nip-1", null, false);
+        c1.setNipBlindIndex("bidx-1");
+        ContractorEntity c2 = createContractor(org1, ContractorType.PERSON, "Jan Kowalski", null, "enc-pesel", false);
+        c2.setPeselBlindIndex("bidx-p");
+        ContractorEntity other = createContractor(org2, ContractorType.COMPANY, "Other", null, null, false);
+        contractorRepository.saveAllAndFlush(List.of(c1, c2, other));
+
+        List<ContractorLookupKey> keys = contractorRepository.findLookupKeysByOrganizationId(org1.getId());
+
+        assertThat(keys).containsExactly(
+                new ContractorLookupKey(c1.getId(), "ACME", "bidx-1", null),
+                new ContractorLookupKey(c2.getId(), "Jan Kowalski", null, "bidx-p"));
+    }
+
+    @Test
+    @DisplayName("findSummaries should page org contractors in requested order without identifiers")
+    void findSummariesShouldPageProjectedRows() {
+        contractorRepository.deleteAll();
+        organizationRepository.deleteAll();
+
+        OrganizationEntity org1 = createAndSaveOrganization("Org One");
+        OrganizationEntity org2 = createAndSaveOrganization("Org Two");
+
+        ContractorEntity b = createContractor(org1, ContractorType.COMPANY, "Beta", "enc-nip-1", null, false);
+        ContractorEntity a = createContractor(org1, ContractorType.PERSON, "Alpha", null, "enc-pesel-2", false);
+        ContractorEntity c = createContractor(org1, ContractorType.COMPANY, "Gamma", null, null, true);
+        ContractorEntity other = createContractor(org2, ContractorType.COMPANY, "Aaa Other", null, null, true);
+        contractorRepository.saveAllAndFlush(List.of(b, a, c, other));
+
+        Page<ContractorSummaryResponse> byName =
+                contractorRepository.findSummaries(org1.getId(), PageRequest.of(0, 2, ContractorSort.NAME.sort()));
+        Page<ContractorSummaryResponse> byFavorite =
+                contractorRepository.findSummaries(org1.getId(), PageRequest.of(0, 10, ContractorSort.FAVORITE.sort()));
+
+        assertAll(
+                () -> assertThat(byName.getTotalElements()).isEqualTo(3),
+                () -> assertThat(byName.getContent()).extracting(ContractorSummaryResponse::name)
+                        .containsExactly("Alpha", "Beta"),
+                () -> assertThat(byName.getContent().get(1)).isEqualTo(new ContractorSummaryResponse(
+                        b.getId(), ContractorType.COMPANY, "Beta", "City Beta", b.getEmail(), b.getPhone(), false)),
+                () -> assertThat(byFavorite.getContent()).extracting(ContractorSummaryResponse::name)
+                        .containsExactly("Gamma", "Alpha", "Beta")
+        );
+    }
+
+    @Test
+    @DisplayName("suggest should rank favorites first, then name prefix matches, and treat wildcards literally")
+    void suggestShouldRankFavoritesAndPrefixMatches() {
+        contractorRepository.deleteAll();
+        organizationRepository.deleteAll();
+
+        OrganizationEntity org1 = createAndSaveOrganization("Org One");
+        OrganizationEntity org2 = createAndSaveOrganization("Org Two");
+
+        ContractorEntity inner = createContractor(org1, ContractorType.COMPANY, "Big Acme", null, null, false);
+        ContractorEntity prefix = createContractor(org1, ContractorType.COMPANY, "ACME Sp. z o.o.", null, null, false);
+        ContractorEntity favorite = createContractor(org1, ContractorType.COMPANY, "Zeta Acme", null, null, true);
+        ContractorEntity wildcard = createContractor(org1, ContractorType.COMPANY, "100% Acme_", null, null, false);
+        ContractorEntity other = createContractor(org2, ContractorType.COMPANY, "Acme External", null, null, true);
+        contractorRepository.saveAllAndFlush(List.of(inner, prefix, favorite, wildcard, other));
+
+        List<ContractorSuggestion> acme =
+                contractorRepository.suggest(org1.getId(), "%acme%", "acme%", PageRequest.of(0, 10));
+        List<ContractorSuggestion> limited =
+                contractorRepository.suggest(org1.getId(), "%acme%", "acme%", PageRequest.of(0, 2));
+        List<ContractorSuggestion> percent =
+                contractorRepository.suggest(org1.getId(), "%0\\%%", "0\\%%", PageRequest.of(0, 10));
+
+        assertAll(
+                () -> assertThat(acme).extracting(ContractorSuggestion::name)
+                        .containsExactly("Zeta Acme", "ACME Sp. z o.o.", "100% Acme_", "Big Acme"),
+                () -> assertThat(acme.getFirst())
+                        .isEqualTo(new ContractorSuggestion(favorite.getId(), "Zeta Acme", ContractorType.COMPANY, true)),
+                () -> assertThat(limited).hasSize(2),
+                () -> assertThat(percent).extracting(ContractorSuggestion::name).containsExactly("100% Acme_")
+        );
+    }
+
+    @Test
+    @DisplayName("findMissingBlindIndex should return rows without index after given id in id order")
+    void findMissingBlindIndexShouldReturnRowsToBackfill() {
+        contractorRepository.deleteAll();
+        organizationRepository.deleteAll();
+
+        OrganizationEntity org = createAndSaveOrganization("Org");
+        ContractorEntity pending1 = createContractor(org, ContractorType.COMPANY, "A", "enc-nip-1", null, false);
+        ContractorEntity done = createContractor(org, ContractorType.COMPANY, "B", "enc-nip-2", null, false);
+        done.setNipBlindIndex("bidx-2");
+        ContractorEntity noIds = createContractor(org, ContractorType.COMPANY, "C", null, null, false);
+        ContractorEntity pending2 = createContractor(org, ContractorType.PERSON, "D", null, "enc-pesel-4", false);
+        contractorRepository.saveAllAndFlush(List.of(pending1, done, noIds, pending2));
+
+        List<ContractorEntity> all = contractorRepository.findMissingBlindIndex(0L, PageRequest.of(0, 10));
+        List<ContractorEntity> afterFirst =
+                contractorRepository.findMissingBlindIndex(pending1.getId(), PageRequest.of(0, 10));
+
+        assertAll(
+                () -> assertThat(all).extracting(ContractorEntity::getName).containsExactly("A", "D"),
+                () -> assertThat(afterFirst).extracting(ContractorEntity::getName).containsExactly("D")
+        );
+    }
 }
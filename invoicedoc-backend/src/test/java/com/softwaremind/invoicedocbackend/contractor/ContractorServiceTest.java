@@ -2,20 +2,25 @@ package com.softwaremind.invoicedocbackend.contractor;
 
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorResponse;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSuggestion;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorUpdateRequest;
 import com.softwaremind.invoicedocbackend.contractor.mapper.ContractorMapper;
 import com.softwaremind.invoicedocbackend.invoice.InvoiceRepository;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
 import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.security.UserRole;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
-import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -35,7 +40,7 @@ class ContractorServiceTest {
     private ContractorRepository contractorRepository;
 
     @Mock
-    private OrganizationRepository organizationRepository;
+    private TenantCache tenantCache;
 
     @Mock
     private ContractorMapper mapper;
@@ -46,6 +51,9 @@ class ContractorServiceTest {
     @Mock
     private InvoiceRepository invoiceRepository;
 
+    @Mock
+    private InvoicePdfCache invoicePdfCache;
+
     @InjectMocks
     private ContractorService service;
 
@@ -128,6 +136,81 @@ class ContractorServiceTest {
                 .findByOrganizationIdAndNameContainingIgnoreCase(anyLong(), anyString());
     }
 
+    @Test
+    @DisplayName("listPage should return projected rows without decrypting identifiers by default")
+    void listPageShouldReturnProjectionByDefault() {
+        CurrentUser cu = mockUserWithOrgOnly(ORG_ID);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+        ContractorSummaryResponse row = new ContractorSummaryResponse(
+                1L, ContractorType.COMPANY, "ACME", "Warsaw", null, null, true);
+        PageRequest expected = PageRequest.of(2, ContractorService.MAX_PAGE_SIZE, ContractorSort.FAVORITE.sort());
+        when(contractorRepository.findSummaries(ORG_ID, expected)).thenReturn(new PageImpl<>(List.of(row)));
+
+        List<ContractorSummaryResponse> result = service.listPage(2, 1000, ContractorSort.FAVORITE, false).getContent();
+
+        assertAll(
+                () -> assertThat(result).containsExactly(row),
+                () -> assertThat(result.getFirst().nip()).isNull()
+        );
+        verify(contractorRepository, never()).findByOrganizationId(anyLong(), any(PageRequest.class));
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    @DisplayName("listPage should decrypt identifiers of the page rows only when requested")
+    void listPageShouldDecryptIdentifiersWhenRequested() {
+        CurrentUser cu = mockUserWithOrgOnly(ORG_ID);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+        ContractorEntity entity = ContractorEntity.builder().id(1L).name("ACME").build();
+        ContractorSummaryResponse row = new ContractorSummaryResponse(
+                1L, ContractorType.COMPANY, "ACME", "1234567890", null, null, null, null, false);
+        when(contractorRepository.findByOrganizationId(ORG_ID, PageRequest.of(0, 20, ContractorSort.NAME.sort())))
+                .thenReturn(new PageImpl<>(List.of(entity)));
+        when(mapper.toSummaryWithIdentifiers(entity)).thenReturn(row);
+
+        List<ContractorSummaryResponse> result = service.listPage(0, 20, null, true).getContent();
+
+        assertThat(result).containsExactly(row);
+        verify(contractorRepository, never()).findSummaries(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("suggest should search names containing the lower-cased query with escaped wildcards")
+    void suggestShouldUseContainsPatternWithEscapedWildcards() {
+        CurrentUser cu = mockUserWithOrgOnly(ORG_ID);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+        ContractorSuggestion s = new ContractorSuggestion(1L, "ACME_100%", ContractorType.COMPANY, true);
+        when(contractorRepository.suggest(ORG_ID, "%acme\\_100\\%%", "acme\\_100\\%%", PageRequest.of(0, 10)))
+                .thenReturn(List.of(s));
+
+        List<ContractorSuggestion> result = service.suggest("  ACME_100% ", null);
+
+        assertThat(result).containsExactly(s);
+    }
+
+    @Test
+    @DisplayName("suggest should match short queries as a name prefix and clamp the limit")
+    void suggestShouldUsePrefixForShortQueriesAndClampLimit() {
+        CurrentUser cu = mockUserWithOrgOnly(ORG_ID);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+
+        service.suggest("Ac", 500);
+        service.suggest("Ac", 0);
+
+        verify(contractorRepository).suggest(ORG_ID, "ac%", "ac%", PageRequest.of(0, ContractorService.MAX_SUGGEST_LIMIT));
+        verify(contractorRepository).suggest(ORG_ID, "ac%", "ac%", PageRequest.of(0, 1));
+    }
+
+    @Test
+    @DisplayName("suggest should return empty list without querying when query is blank")
+    void suggestShouldReturnEmptyForBlankQuery() {
+        assertAll(
+                () -> assertThat(service.suggest(null, 10)).isEmpty(),
+                () -> assertThat(service.suggest("  ", 10)).isEmpty()
+        );
+        verifyNoInteractions(contractorRepository, currentUserProvider);
+    }
+
     @Test
     @DisplayName("list should use search and trim it when not blank")
     void listShouldFilterBySearchWhenNotBlank() {
@@ -263,7 +346,7 @@ class ContractorServiceTest {
                 true
         );
 
-        when(organizationRepository.findById(ORG_ID))
+        when(tenantCache.organization(ORG_ID))
                 .thenReturn(Optional.of(org));
         when(mapper.fromCreateRequest(req, org)).thenReturn(entity);
         when(contractorRepository.save(entity)).thenReturn(saved);
@@ -274,7 +357,7 @@ class ContractorServiceTest {
         assertThat(result).isSameAs(response);
 
         verify(currentUserProvider, times(2)).getCurrentUser(); // assertCanModify + body
-        verify(organizationRepository).findById(ORG_ID);
+        verify(tenantCache).organization(ORG_ID);
         verify(mapper).fromCreateRequest(req, org);
         verify(contractorRepository).save(entity);
         verify(mapper).toResponse(saved);
@@ -298,7 +381,7 @@ class ContractorServiceTest {
                 () -> assertThat(ex.getReason()).isEqualTo("ONLY_OWNER_OR_ADMIN")
         );
 
-        verify(organizationRepository, never()).findById(anyLong());
+        verify(tenantCache, never()).organization(anyLong());
         verify(contractorRepository, never()).save(any());
         verify(mapper, never()).fromCreateRequest(any(), any());
     }
@@ -311,7 +394,7 @@ class ContractorServiceTest {
 
         ContractorCreateRequest req = mock(ContractorCreateRequest.class);
 
-        when(organizationRepository.findById(ORG_ID))
+        when(tenantCache.organization(ORG_ID))
                 .thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(
@@ -324,7 +407,7 @@ class ContractorServiceTest {
                 () -> assertThat(ex.getReason()).isEqualTo("ORG_NOT_FOUND")
         );
 
-        verify(organizationRepository).findById(ORG_ID);
+        verify(tenantCache).organization(ORG_ID);
         verify(mapper, never()).fromCreateRequest(any(), any());
         verify(contractorRepository, never()).save(any());
     }
@@ -382,6 +465,7 @@ class ContractorServiceTest {
         verify(contractorRepository).findByOrganizationIdAndId(ORG_ID, CONTRACTOR_ID);
         verify(mapper).updateEntity(entity, req);
         verify(contractorRepository).save(entity);
+        verify(invoicePdfCache).evictForContractor(CONTRACTOR_ID);
         verify(mapper).toResponse(saved);
     }
 
@@ -452,6 +536,7 @@ class ContractorServiceTest {
 
         verify(currentUserProvider, times(2)).getCurrentUser(); // assertCanModify + body
         verify(contractorRepository).findByOrganizationIdAndId(ORG_ID, CONTRACTOR_ID);
+        verify(invoicePdfCache).evictForContractor(CONTRACTOR_ID);
         verify(invoiceRepository).clearContractorForInvoices(CONTRACTOR_ID);
         verify(contractorRepository).delete(entity);
     }
@@ -7,7 +7,9 @@ import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
 import com.softwaremind.invoicedocbackend.contractor.ContractorType;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorResponse;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorSummaryResponse;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorUpdateRequest;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
 import com.softwaremind.invoicedocbackend.crypto.CryptoService;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 import org.junit.jupiter.api.DisplayName;
@@ -30,6 +32,9 @@ class ContractorMapperTest {
     @Mock
     private CryptoService cryptoService;
 
+    @Mock
+    private BlindIndexService blindIndexService;
+
     @InjectMocks
     private ContractorMapper mapper;
 
@@ -79,6 +84,8 @@ class ContractorMapperTest {
         when(addressMapper.toEmbeddable(ADDRESS_DTO)).thenReturn(ADDRESS_EMBEDDABLE);
         when(cryptoService.encrypt(NIP)).thenReturn(ENCRYPTED_NIP);
         when(cryptoService.encrypt(PESEL)).thenReturn(ENCRYPTED_PESEL);
+        when(blindIndexService.index(NIP)).thenReturn("bidx-nip");
+        when(blindIndexService.index(PESEL)).thenReturn("bidx-pesel");
 
         ContractorEntity result = mapper.fromCreateRequest(request, organization);
 
@@ -88,6 +95,8 @@ class ContractorMapperTest {
                 () -> assertThat(result.getName()).isEqualTo(NAME),
                 () -> assertThat(result.getNipEncrypted()).isEqualTo(ENCRYPTED_NIP),
                 () -> assertThat(result.getPeselEncrypted()).isEqualTo(ENCRYPTED_PESEL),
+                () -> assertThat(result.getNipBlindIndex()).isEqualTo("bidx-nip"),
+                () -> assertThat(result.getPeselBlindIndex()).isEqualTo("bidx-pesel"),
                 () -> assertThat(result.getAddress()).isEqualTo(ADDRESS_EMBEDDABLE),
                 () -> assertThat(result.getEmail()).isEqualTo(EMAIL),
                 () -> assertThat(result.getPhone()).isEqualTo(PHONE),
@@ -173,6 +182,8 @@ class ContractorMapperTest {
         when(addressMapper.toEmbeddable(newAddressDto)).thenReturn(newEmbeddable);
         when(cryptoService.encrypt(NIP)).thenReturn(ENCRYPTED_NIP);
         when(cryptoService.encrypt(PESEL)).thenReturn(ENCRYPTED_PESEL);
+        when(blindIndexService.index(NIP)).thenReturn("bidx-nip");
+        when(blindIndexService.index(PESEL)).thenReturn("bidx-pesel");
 
         mapper.updateEntity(entity, request);
 
@@ -181,6 +192,8 @@ class ContractorMapperTest {
                 () -> assertThat(entity.getName()).isEqualTo(NAME),
                 () -> assertThat(entity.getNipEncrypted()).isEqualTo(ENCRYPTED_NIP),
                 () -> assertThat(entity.getPeselEncrypted()).isEqualTo(ENCRYPTED_PESEL),
+                () -> assertThat(entity.getNipBlindIndex()).isEqualTo("bidx-nip"),
+                () -> assertThat(entity.getPeselBlindIndex()).isEqualTo("bidx-pesel"),
                 () -> assertThat(entity.getAddress()).isEqualTo(newEmbeddable),
                 () -> assertThat(entity.getEmail()).isEqualTo(EMAIL),
                 () -> assertThat(entity.getPhone()).isEqualTo(PHONE),
@@ -298,4 +311,26 @@ class ContractorMapperTest {
         verify(cryptoService, never()).decrypt(anyString());
         verify(addressMapper).toDto(null);
     }
+
+    @Test
+    @DisplayName("toSummaryWithIdentifiers should decrypt NIP/PESEL and keep only the city of the address")
+    void toSummaryWithIdentifiersShouldDecryptAndFlattenAddress() {
+        ContractorEntity entity = ContractorEntity.builder()
+                .id(3L)
+                .type(TYPE)
+                .name(NAME)
+                .nipEncrypted(ENCRYPTED_NIP)
+                .address(ADDRESS_EMBEDDABLE)
+                .email(EMAIL)
+                .favorite(true)
+                .build();
+        when(cryptoService.decrypt(ENCRYPTED_NIP)).thenReturn(NIP);
+
+        ContractorSummaryResponse summary = mapper.toSummaryWithIdentifiers(entity);
+
+        assertThat(summary).isEqualTo(
+                new ContractorSummaryResponse(3L, TYPE, NAME, NIP, null, "Warsaw", EMAIL, null, true));
+        verify(cryptoService, never()).decrypt(ENCRYPTED_PESEL);
+        verifyNoInteractions(addressMapper);
+    }
 }
@@ -1,9 +1,24 @@
 package com.softwaremind.invoicedocbackend.crypto;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -14,8 +29,10 @@ class AesCryptoServiceTest {
     private static final String SECRET_1 = "SuperTajnySekretDoTestow123";
     private static final String SECRET_2 = "InnySekretDoTestowJwtService";
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private AesCryptoService createServiceWithSecret(String secret) throws Exception {
-        AesCryptoService service = new AesCryptoService();
+        AesCryptoService service = new AesCryptoService(meterRegistry);
 
         Field secretField = AesCryptoService.class.getDeclaredField("secret");
         secretField.setAccessible(true);
@@ -133,4 +150,89 @@ class AesCryptoServiceTest {
 
         assertThrows(IllegalStateException.class, () -> service2.decrypt(cipherFromService1));
     }
+
+    // same steps the service used before ciphers were cached per thread
+    private String legacyEncrypt(String secret, String plain) throws Exception {
+        byte[] iv = new byte[12];
+        new SecureRandom().nextBytes(iv);
+        SecretKeySpec key = new SecretKeySpec(Arrays.copyOf(secret.getBytes(StandardCharsets.UTF_8), 16), "AES");
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        byte[] cipherBytes = cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(
+                ByteBuffer.allocate(iv.length + cipherBytes.length).put(iv).put(cipherBytes).array());
+    }
+
+    @Test
+    @DisplayName("decrypt should read ciphertexts stored by the previous implementation")
+    void decryptShouldReadLegacyCiphertexts() throws Exception {
+        AesCryptoService service = createServiceWithSecret(SECRET_1);
+        String plain = "PL1234567890 Zażółć";
+
+        String legacy = legacyEncrypt(SECRET_1, plain);
+
+        assertThat(service.decrypt(legacy)).isEqualTo(plain);
+    }
+
+    @Test
+    @DisplayName("decrypt should throw IllegalStateException for input shorter than IV and tag")
+    void decryptShouldThrowForTooShortInput() throws Exception {
+        AesCryptoService service = createServiceWithSecret(SECRET_1);
+        String tooShort = Base64.getEncoder().encodeToString(new byte[20]);
+
+        assertThrows(IllegalStateException.class, () -> service.decrypt(tooShort));
+    }
+
+    @Test
+    @DisplayName("encryptAll and decryptAll should round-trip a batch keeping order and nulls")
+    void batchShouldRoundTripKeepingOrderAndNulls() throws Exception {
+        AesCryptoService service = createServiceWithSecret(SECRET_1);
+        List<String> plain = Arrays.asList("1111111111", null, "", "Zażółć");
+
+        List<String> encrypted = service.encryptAll(plain);
+        List<String> decrypted = service.decryptAll(encrypted);
+
+        assertAll(
+                () -> assertThat(encrypted).hasSize(4),
+                () -> assertThat(encrypted.get(1)).isNull(),
+                () -> assertThat(decrypted).containsExactlyElementsOf(plain),
+                () -> assertThat(meterRegistry.counter("crypto.operations", "operation", "encrypt").count())
+                        .isEqualTo(3.0),
+                () -> assertThat(meterRegistry.counter("crypto.operations", "operation", "decrypt").count())
+                        .isEqualTo(3.0)
+        );
+    }
+
+    @Test
+    @DisplayName("a failing element should not break the cached cipher for the next calls")
+    void failedDecryptShouldNotBreakNextCalls() throws Exception {
+        AesCryptoService service1 = createServiceWithSecret(SECRET_1);
+        AesCryptoService service2 = createServiceWithSecret(SECRET_2);
+        String foreign = service2.encrypt("foreign");
+
+        assertThrows(IllegalStateException.class, () -> service1.decryptAll(List.of(foreign)));
+
+        assertThat(service1.decrypt(service1.encrypt("after failure"))).isEqualTo("after failure");
+    }
+
+    @Test
+    @DisplayName("concurrent encrypt and decrypt from many threads should not mix up cipher state")
+    void concurrentUseShouldBeSafe() throws Exception {
+        AesCryptoService service = createServiceWithSecret(SECRET_1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> IntStream.range(0, 500)
+                        .mapToObj(i -> "nip-" + thread + "-" + i)
+                        .allMatch(p -> p.equals(service.decrypt(service.encrypt(p))))));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 }
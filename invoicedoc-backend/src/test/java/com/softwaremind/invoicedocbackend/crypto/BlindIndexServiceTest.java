@@ -0,0 +1,68 @@
+package com.softwaremind.invoicedocbackend.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class BlindIndexServiceTest {
+
+    private BlindIndexService createService(String secret) {
+        BlindIndexService service = new BlindIndexService();
+        ReflectionTestUtils.setField(service, "secret", secret);
+        service.init();
+        return service;
+    }
+
+    @Test
+    @DisplayName("index should be deterministic and 64 hex chars long")
+    void indexShouldBeDeterministic() {
+        BlindIndexService service = createService("SuperTajnySekretDoTestow123");
+
+        String first = service.index("1234563218");
+        String second = service.index("1234563218");
+
+        assertAll(
+                () -> assertThat(first).isEqualTo(second),
+                () -> assertThat(first).hasSize(64).matches("[0-9a-f]+"),
+                () -> assertThat(first).doesNotContain("1234563218")
+        );
+    }
+
+    @Test
+    @DisplayName("index should ignore formatting and the PL prefix of a NIP")
+    void indexShouldNormalizeFormatting() {
+        BlindIndexService service = createService("SuperTajnySekretDoTestow123");
+        String expected = service.index("1234563218");
+
+        assertAll(
+                () -> assertThat(service.index("123-456-32-18")).isEqualTo(expected),
+                () -> assertThat(service.index(" PL 123 456 32 18 ")).isEqualTo(expected),
+                () -> assertThat(service.index("pl1234563218")).isEqualTo(expected),
+                () -> assertThat(service.index("1234563219")).isNotEqualTo(expected)
+        );
+    }
+
+    @Test
+    @DisplayName("index should depend on the secret")
+    void indexShouldDependOnSecret() {
+        BlindIndexService service1 = createService("SuperTajnySekretDoTestow123");
+        BlindIndexService service2 = createService("InnySekretDoTestowJwtService");
+
+        assertThat(service1.index("1234563218")).isNotEqualTo(service2.index("1234563218"));
+    }
+
+    @Test
+    @DisplayName("index should return null for null or blank input")
+    void indexShouldReturnNullForMissingValue() {
+        BlindIndexService service = createService("SuperTajnySekretDoTestow123");
+
+        assertAll(
+                () -> assertThat(service.index(null)).isNull(),
+                () -> assertThat(service.index("")).isNull(),
+                () -> assertThat(service.index(" - ")).isNull()
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
+import com.softwaremind.invoicedocbackend.common.dto.AddressDto;
+import com.softwaremind.invoicedocbackend.crypto.CryptoService;
+import com.softwaremind.invoicedocbackend.importing.dto.*;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkLoadRowBuilderTest {
+
+    private BulkLoadRowBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        CryptoService cryptoService = mock(CryptoService.class);
+        when(cryptoService.encrypt(anyString())).thenAnswer(inv -> "enc(" + inv.getArgument(0) + ")");
+
+        SellerProfileEntity seller = SellerProfileEntity.builder()
+                .id(100L)
+                .organization(OrganizationEntity.builder().id(10L).name("Org").build())
+                .name("Seller \"Best\" Sp. z o.o.")
+                .nipEncrypted("enc-seller-nip")
+                .address(AddressEmbeddable.builder().street("Long").buildingNumber("1").postalCode("00-001")
+                        .city("Warszawa").country("PL").build())
+                .bankAccount("PL61109010140000071219812874")
+                .build();
+        builder = new BulkLoadRowBuilder(cryptoService, new InvoiceImportMapper(), seller);
+    }
+
+    private InvoiceImportDto invoice(String number, String postalCode, List<ImportInvoiceItemDto> items) {
+        return new InvoiceImportDto(
+                null,
+                new ImportPartyDto("COMPANY", "Buyer", "2222222222", null,
+                        new AddressDto("Short", "2", null, postalCode, "Kraków", "PL"), null),
+                new ImportInvoiceMetaDto(number, LocalDate.of(2019, 3, 1), LocalDate.of(2019, 3, 1),
+                        LocalDate.of(2019, 3, 15), "CASH", "PLN", null),
+                items,
+                new ImportExtraDto("first line\nsecond, line", false, true));
+    }
+
+    private ImportInvoiceItemDto item(String description, String quantity, String price, String vatRate) {
+        return new ImportInvoiceItemDto(description, new BigDecimal(quantity), "pcs", new BigDecimal(price), vatRate);
+    }
+
+    @Test
+    @DisplayName("build should produce quoted CSV lines with totals, encrypted buyer NIP and the source number")
+    void buildShouldProduceCopyLines() {
+        BulkLoadRowBuilder.Row row = builder.build(
+                invoice("2019/03/0001", "30-001", List.of(item("Service", "2", "100.00", "23"), item("Book", "1", "10.00", "5"))),
+                300L, 5000L, new long[]{7001L, 7002L});
+
+        String invoiceLine = new String(row.invoice(), StandardCharsets.UTF_8);
+        String itemLines = new String(row.items(), StandardCharsets.UTF_8);
+
+        assertAll(
+                () -> assertThat(row.invoiceId()).isEqualTo(5000L),
+                () -> assertThat(row.number()).isEqualTo("2019/03/0001"),
+                () -> assertThat(invoiceLine).startsWith("\"5000\",\"10\",\"100\",\"300\",\"Seller \"\"Best\"\" Sp. z o.o.\","
+                        + "\"enc-seller-nip\",\"Long\",\"1\",,\"00-001\",\"Warszawa\",\"PL\",\"PL61109010140000071219812874\","
+                        + "\"Buyer\",\"enc(2222222222)\",,\"Short\",\"2\",,\"30-001\",\"Kraków\",\"PL\","),
+                () -> assertThat(invoiceLine).endsWith("\"2019/03/0001\",\"2019-03-01\",\"2019-03-01\",\"2019-03-15\","
+                        + "\"CASH\",\"PLN\",\"ISSUED\",\"210.00\",\"46.50\",\"256.50\",\"first line\nsecond, line\","
+                        + "\"false\",\"true\"\n"),
+                () -> assertThat(itemLines).isEqualTo(
+                        "\"7001\",\"5000\",\"Service\",\"2\",\"pcs\",\"100.00\",\"23\",\"200.00\",\"46.00\",\"246.00\"\n"
+                                + "\"7002\",\"5000\",\"Book\",\"1\",\"pcs\",\"10.00\",\"5\",\"10.00\",\"0.50\",\"10.50\"\n")
+        );
+    }
+
+    @Test
+    @DisplayName("build should reject rows that the invoices table would not accept")
+    void buildShouldRejectInvalidRows() {
+        List<ImportInvoiceItemDto> items = List.of(item("Service", "1", "10.00", "23"));
+
+        IllegalArgumentException noNumber = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(invoice(" ", "30-001", items), 300L, 1L, new long[]{1L}));
+        IllegalArgumentException noItems = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(invoice("FV/1", "30-001", List.of()), 300L, 1L, new long[0]));
+        IllegalArgumentException longPostalCode = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(invoice("FV/1", "9".repeat(51), items), 300L, 1L, new long[]{1L}));
+
+        assertAll(
+                () -> assertThat(noNumber.getMessage()).isEqualTo("NUMBER_REQUIRED"),
+                () -> assertThat(noItems.getMessage()).isEqualTo("ITEMS_REQUIRED"),
+                () -> assertThat(longPostalCode.getMessage()).isEqualTo("INVALID_BUYER_ADDRESS")
+        );
+    }
+}
@@ -0,0 +1,182 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import com.softwaremind.invoicedocbackend.common.dto.AddressDto;
+import com.softwaremind.invoicedocbackend.crypto.CryptoService;
+import com.softwaremind.invoicedocbackend.importing.dto.*;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceNumberCounterRepository;
+import com.softwaremind.invoicedocbackend.security.CurrentUser;
+import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
+import com.softwaremind.invoicedocbackend.security.UserRole;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkLoadServiceTest {
+
+    private static final Long ORG_ID = 10L;
+    private static final Long SELLER_PROFILE_ID = 100L;
+    private static final Long CONTRACTOR_ID = 300L;
+
+    private ImportService importService;
+    private InvoiceCopyLoader copyLoader;
+    private InvoiceNumberCounterRepository counterRepository;
+    private PlatformTransactionManager transactionManager;
+    private BulkLoadService bulkLoadService;
+    private final List<String> copiedInvoices = new ArrayList<>();
+    private final List<String> copiedItems = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importService = mock(ImportService.class);
+        copyLoader = mock(InvoiceCopyLoader.class);
+        counterRepository = mock(InvoiceNumberCounterRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        CurrentUserProvider currentUserProvider = mock(CurrentUserProvider.class);
+        CryptoService cryptoService = mock(CryptoService.class);
+
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(1L, ORG_ID, UserRole.ADMIN));
+        when(importService.assertSellerProfileInOrg(SELLER_PROFILE_ID)).thenReturn(SellerProfileEntity.builder()
+                .id(SELLER_PROFILE_ID)
+                .organization(OrganizationEntity.builder().id(ORG_ID).name("Org").build())
+                .name("Seller")
+                .nipEncrypted("enc-seller-nip")
+                .build());
+        // every readable record gets the same contractor
+        when(importService.resolveContractors(anyList(), any(ImportOutcome[].class), any())).thenAnswer(inv -> {
+            List<ImportRecord> chunk = inv.getArgument(0);
+            ImportOutcome[] outcomes = inv.getArgument(1);
+            Long[] ids = new Long[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunk.get(i).error() != null) {
+                    outcomes[i] = ImportOutcome.failed(chunk.get(i), chunk.get(i).error());
+                } else {
+                    ids[i] = CONTRACTOR_ID;
+                }
+            }
+            return ids;
+        });
+        when(copyLoader.reserveIds(anyString(), anyInt())).thenAnswer(inv -> {
+            long base = InvoiceCopyLoader.INVOICES_SEQUENCE.equals(inv.getArgument(0)) ? 1000 : 5000;
+            return LongStream.range(base, base + inv.<Integer>getArgument(1)).toArray();
+        });
+        when(copyLoader.existingNumbers(eq(ORG_ID), anyCollection())).thenReturn(Set.of());
+        when(copyLoader.copy(anyString(), anyString(), anyList())).thenAnswer(inv -> {
+            List<byte[]> rows = inv.getArgument(2);
+            List<String> target = "invoices".equals(inv.getArgument(0)) ? copiedInvoices : copiedItems;
+            rows.forEach(r -> target.add(new String(r, StandardCharsets.UTF_8)));
+            return (long) rows.size();
+        });
+
+        bulkLoadService = new BulkLoadService(importService, copyLoader, counterRepository, currentUserProvider, cryptoService,
+                new InvoiceImportMapper(), transactionManager, null, null);
+        ReflectionTestUtils.setField(bulkLoadService, "batchSize", 2);
+        ReflectionTestUtils.setField(bulkLoadService, "threads", 2);
+        bulkLoadService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkLoadService.shutdown();
+    }
+
+    private ImportRecord record(long position, String number) {
+        InvoiceImportDto dto = new InvoiceImportDto(
+                null,
+                new ImportPartyDto("COMPANY", "Buyer", null, null, new AddressDto(null, null, null, null, "City", "PL"), null),
+                new ImportInvoiceMetaDto(number, LocalDate.of(2020, 1, 2), LocalDate.of(2020, 1, 2),
+                        LocalDate.of(2020, 1, 16), "BANK_TRANSFER", "PLN", null),
+                List.of(new ImportInvoiceItemDto("Item", BigDecimal.ONE, "pcs", new BigDecimal("10.00"), "23")),
+                null);
+        return ImportRecord.ok(position, number, dto);
+    }
+
+    @Test
+    @DisplayName("load should COPY invoices and items batch by batch and keep the source numbers")
+    void loadShouldCopyBatches() {
+        ImportReport report = bulkLoadService.load(
+                List.of(record(1, "HIST/1"), record(2, "HIST/2"), record(3, "HIST/3")).iterator(), SELLER_PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(report.created()).isEqualTo(3),
+                () -> assertThat(report.failed()).isZero(),
+                () -> assertThat(copiedInvoices).hasSize(3),
+                () -> assertThat(copiedInvoices.get(0)).startsWith("\"1000\",\"10\",\"100\",\"300\",").contains("\"HIST/1\""),
+                () -> assertThat(copiedInvoices.get(2)).startsWith("\"1000\",").contains("\"HIST/3\""),
+                () -> assertThat(copiedItems.get(1)).startsWith("\"5001\",\"1001\",\"Item\",")
+        );
+        verify(copyLoader, times(2)).copy(eq("invoices"), eq(BulkLoadRowBuilder.INVOICE_COLUMNS), anyList());
+        verify(copyLoader, times(2)).copy(eq("invoice_items"), eq(BulkLoadRowBuilder.ITEM_COLUMNS), anyList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("loaded numbers in the generator format should advance the counter of their day to the highest one")
+    void loadShouldAdvanceNumberCounters() {
+        bulkLoadService.load(List.of(
+                record(1, "FV/2020/01/02/007"), record(2, "FV/2020/01/02/003"),
+                record(3, "FV/2020/01/03/1200"), record(4, "HIST/9")).iterator(), SELLER_PROFILE_ID);
+
+        verify(counterRepository).advanceTo(ORG_ID, LocalDate.of(2020, 1, 2), 7L);
+        verify(counterRepository).advanceTo(ORG_ID, LocalDate.of(2020, 1, 3), 1200L);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    @DisplayName("numbers already in the organization or repeated in the file should fail as DUPLICATE_NUMBER")
+    void duplicateNumbersShouldFail() {
+        when(copyLoader.existingNumbers(eq(ORG_ID), anyCollection())).thenAnswer(inv ->
+                inv.<java.util.Collection<String>>getArgument(1).contains("OLD/1") ? Set.of("OLD/1") : Set.of());
+
+        ImportReport report = bulkLoadService.load(List.of(
+                record(1, "OLD/1"), record(2, "NEW/1"),
+                record(3, "NEW/1"), ImportRecord.failed(4, "X", "INVALID_DATE")).iterator(), SELLER_PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(report.created()).isEqualTo(1),
+                () -> assertThat(report.errors()).containsExactly(
+                        new ImportRowError(1, "OLD/1", "DUPLICATE_NUMBER"),
+                        new ImportRowError(3, "NEW/1", "DUPLICATE_NUMBER"),
+                        new ImportRowError(4, "X", "INVALID_DATE")),
+                () -> assertThat(copiedInvoices).singleElement().asString().contains("\"NEW/1\"")
+        );
+    }
+
+    @Test
+    @DisplayName("a failing COPY should roll back and fail only the invoices of its batch")
+    void failingCopyShouldFailItsBatch() {
+        when(copyLoader.copy(eq("invoice_items"), anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(1L);
+
+        ImportReport report = bulkLoadService.load(
+                List.of(record(1, "A/1"), record(2, "A/2"), record(3, "A/3")).iterator(), SELLER_PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(report.created()).isEqualTo(1),
+                () -> assertThat(report.errors()).extracting(ImportRowError::error)
+                        .containsExactly("BULK_LOAD_FAILED", "BULK_LOAD_FAILED")
+        );
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,105 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import com.softwaremind.invoicedocbackend.importing.dto.ImportInvoiceItemDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvInvoiceReaderTest {
+
+    private static final String HEADER =
+            "sellerName,sellerNip,sellerStreet,sellerBuildingNumber,sellerPostalCode,sellerCity," +
+                    "buyerName,buyerNip,buyerStreet,buyerBuildingNumber,buyerPostalCode,buyerCity," +
+                    "invoiceNumber,issueDate,saleDate,dueDate,paymentMethod,currency,itemDescription," +
+                    "itemQuantity,itemUnit,itemNetUnitPrice,itemVatRate,notes";
+
+    private String row(String number, String issueDate, String description, String quantity) {
+        return "Seller,1111111111,Street,1,00-000,City,Buyer,2222222222,Street,1,00-000,City," +
+                number + "," + issueDate + ",2024-01-05,2024-02-10,BANK_TRANSFER,PLN," +
+                description + "," + quantity + ",pcs,100.00,23,Note " + number;
+    }
+
+    private List<ImportRecord> readAll(String... lines) throws Exception {
+        List<ImportRecord> records = new ArrayList<>();
+        try (CsvInvoiceReader reader = new CsvInvoiceReader(new StringReader(String.join("\n", lines)))) {
+            reader.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("consecutive rows with the same invoiceNumber should become one invoice with all items")
+    void shouldGroupRowsByInvoiceNumber() throws Exception {
+        List<ImportRecord> records = readAll(HEADER,
+                row("INV-1", "2024-01-10", "A", "1"),
+                row("INV-1", "2024-01-10", "B", "2"),
+                row("INV-2", "2024-01-11", "C", "3"));
+
+        assertAll(
+                () -> assertThat(records).hasSize(2),
+                () -> assertThat(records.get(0).reference()).isEqualTo("INV-1"),
+                () -> assertThat(records.get(0).invoice().items()).hasSize(2),
+                () -> assertThat(records.get(0).invoice().items().get(1).quantity()).isEqualByComparingTo(BigDecimal.TWO),
+                () -> assertThat(records.get(0).invoice().extra().notes()).isEqualTo("Note INV-1"),
+                () -> assertThat(records.get(1).reference()).isEqualTo("INV-2"),
+                () -> assertThat(records.get(1).position()).isEqualTo(3),
+                () -> assertThat(records.get(1).invoice().items()).hasSize(1)
+        );
+    }
+
+    @Test
+    @DisplayName("a bad row should fail only its own invoice and the reader should continue")
+    void badRowShouldFailOnlyItsInvoice() throws Exception {
+        List<ImportRecord> records = readAll(HEADER,
+                row("INV-1", "2024-01-10", "A", "1"),
+                row("INV-1", "2024-01-10", "B", "abc"),
+                row("INV-2", "not-a-date", "C", "1"),
+                row("INV-3", "2024-01-12", "D", "1"));
+
+        assertAll(
+                () -> assertThat(records).extracting(ImportRecord::error)
+                        .containsExactly("INVALID_NUMBER", "INVALID_DATE", null),
+                () -> assertThat(records.get(0).position()).isEqualTo(2),
+                () -> assertThat(records.get(0).invoice()).isNull(),
+                () -> assertThat(records.get(2).invoice().items()).hasSize(1)
+        );
+    }
+
+    @Test
+    @DisplayName("readAll should make every row an item of one invoice whatever its invoiceNumber")
+    void readAllShouldReturnOneInvoice() throws Exception {
+        try (CsvInvoiceReader reader = new CsvInvoiceReader(new StringReader(String.join("\n", HEADER,
+                row("INV-1", "2024-01-10", "A", "1"),
+                row("", "2024-01-10", "B", "2"),
+                row("INV-2", "2024-01-11", "C", "3"))))) {
+            ImportRecord record = reader.readAll();
+
+            assertAll(
+                    () -> assertThat(record.reference()).isEqualTo("INV-1"),
+                    () -> assertThat(record.invoice().invoice().issueDate()).isEqualTo(LocalDate.of(2024, 1, 10)),
+                    () -> assertThat(record.invoice().items()).extracting(ImportInvoiceItemDto::description)
+                            .containsExactly("A", "B", "C"),
+                    () -> assertThat(reader.hasNext()).isFalse()
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("a header without required columns should be rejected before any row is read")
+    void missingColumnsShouldBeRejected() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> new CsvInvoiceReader(new StringReader("sellerName,buyerName\nA,B")));
+
+        assertThat(ex.getReason()).startsWith("CSV_MISSING_COLUMNS").contains("invoiceNumber");
+    }
+}
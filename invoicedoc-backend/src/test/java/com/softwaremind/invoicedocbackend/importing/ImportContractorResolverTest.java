@@ -0,0 +1,114 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorLookupKey;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportPartyDto;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class ImportContractorResolverTest {
+
+    private static final Long ORG_ID = 10L;
+
+    private ContractorRepository contractorRepository;
+    private TenantCache tenantCache;
+    private ImportContractorResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        contractorRepository = mock(ContractorRepository.class);
+        tenantCache = mock(TenantCache.class);
+        BlindIndexService blindIndexService = mock(BlindIndexService.class);
+        when(blindIndexService.index(any())).thenAnswer(inv -> {
+            String id = inv.getArgument(0);
+            return id != null ? "bidx-" + id : null;
+        });
+
+        OrganizationEntity org = OrganizationEntity.builder().id(ORG_ID).name("Org").build();
+        when(tenantCache.organization(ORG_ID)).thenReturn(Optional.of(org));
+
+        AtomicLong sequence = new AtomicLong(500);
+        when(contractorRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            Iterable<ContractorEntity> entities = inv.getArgument(0);
+            entities.forEach(e -> e.setId(sequence.incrementAndGet()));
+            return List.copyOf((java.util.Collection<ContractorEntity>) entities);
+        });
+
+        resolver = new ImportContractorResolver(ORG_ID, contractorRepository, tenantCache,
+                blindIndexService, (buyer, organization) -> ContractorEntity.builder()
+                .organization(organization)
+                .name(buyer.name())
+                .nipBlindIndex(blindIndexService.index(buyer.nip()))
+                .peselBlindIndex(blindIndexService.index(buyer.pesel()))
+                .build());
+    }
+
+    private ImportPartyDto buyer(String name, String nip) {
+        return new ImportPartyDto("COMPANY", name, nip, null, null, null);
+    }
+
+    @Test
+    @DisplayName("contractors should be loaded once and matched by blind index or normalized name in memory")
+    void shouldMatchPreloadedContractors() {
+        when(contractorRepository.findLookupKeysByOrganizationId(ORG_ID)).thenReturn(List.of(
+                new ContractorLookupKey(1L, "Acme Sp. z o.o.", "bidx-1111111111", null),
+                new ContractorLookupKey(2L, "Kowalski  Jan", null, null),
+                new ContractorLookupKey(3L, "Acme Sp. z o.o.", "bidx-1111111111", null)));
+
+        assertAll(
+                () -> assertThat(resolver.find(buyer("Other name", "1111111111"))).isEqualTo(1L),
+                () -> assertThat(resolver.find(buyer("  kowalski jan ", null))).isEqualTo(2L),
+                () -> assertThat(resolver.find(buyer("ACME SP. Z O.O.", null))).isEqualTo(1L),
+                () -> assertThat(resolver.find(buyer("Acme Sp. z o.o.", "9999999999"))).isNull()
+        );
+        verify(contractorRepository, times(1)).findLookupKeysByOrganizationId(ORG_ID);
+    }
+
+    @Test
+    @DisplayName("createAll should save each new buyer once and later lookups should find it without a query")
+    void createAllShouldDeduplicateAndRemember() {
+        when(contractorRepository.findLookupKeysByOrganizationId(ORG_ID)).thenReturn(List.of());
+
+        List<Long> ids = resolver.createAll(List.of(
+                buyer("New A", "3333333333"), buyer("New B", null), buyer("New A", "3333333333")));
+
+        assertAll(
+                () -> assertThat(ids).containsExactly(501L, 502L, 501L),
+                () -> assertThat(resolver.find(buyer("New A", "3333333333"))).isEqualTo(501L),
+                () -> assertThat(resolver.find(buyer("new b", null))).isEqualTo(502L)
+        );
+        verify(contractorRepository, times(1)).saveAll(anyIterable());
+        verify(contractorRepository, times(1)).findLookupKeysByOrganizationId(ORG_ID);
+        verify(tenantCache, times(1)).organization(ORG_ID);
+    }
+
+    @Test
+    @DisplayName("a buyer without data or without a name and tax id should be rejected")
+    void missingBuyerDataShouldBeRejected() {
+        IllegalArgumentException noBuyer = assertThrows(IllegalArgumentException.class, () -> resolver.find(null));
+        IllegalArgumentException noName = assertThrows(IllegalArgumentException.class,
+                () -> resolver.find(buyer("  ", null)));
+
+        assertAll(
+                () -> assertThat(noBuyer.getMessage()).isEqualTo("Buyer data missing"),
+                () -> assertThat(noName.getMessage()).isEqualTo("Buyer name missing")
+        );
+        verify(contractorRepository, never()).findLookupKeysByOrganizationId(any());
+    }
+}
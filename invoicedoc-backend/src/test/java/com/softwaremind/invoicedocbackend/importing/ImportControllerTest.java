@@ -1,6 +1,9 @@
 package com.softwaremind.invoicedocbackend.importing;
 
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportJobResponse;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportReport;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportRowError;
 import com.softwaremind.invoicedocbackend.importing.dto.InvoiceImportDto;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
 import org.junit.jupiter.api.DisplayName;
@@ -10,14 +13,21 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +36,15 @@ class ImportControllerTest {
     @Mock
     private ImportService importService;
 
+    @Mock
+    private ImportJobService importJobService;
+
+    @Mock
+    private NdjsonImportService ndjsonImportService;
+
+    @Mock
+    private BulkLoadService bulkLoadService;
+
     @Mock
     private XmlMapper xmlMapper;
 
@@ -58,7 +77,7 @@ class ImportControllerTest {
     @Test
     @DisplayName("importXml powinien zdeserializować XML do DTO, wywołać ImportService i zwrócić 201 CREATED")
     void importXmlShouldDeserializeAndDelegate() throws Exception {
-        String xmlBody = "<invoiceImportDto>...</invoiceImportDto>";
+        InputStream xmlBody = new ByteArrayInputStream("<invoiceImportDto>...</invoiceImportDto>".getBytes());
         InvoiceImportDto dto = mock(InvoiceImportDto.class);
         InvoiceResponse serviceResponse = mock(InvoiceResponse.class);
 
@@ -83,7 +102,7 @@ class ImportControllerTest {
     @Test
     @DisplayName("importXml powinien propagować wyjątek gdy XmlMapper rzuci błąd przy parsowaniu")
     void importXmlShouldPropagateExceptionFromXmlMapper() throws Exception {
-        String xmlBody = "<badXml>";
+        InputStream xmlBody = new ByteArrayInputStream("<badXml>".getBytes());
         RuntimeException parseError = new RuntimeException("bad xml");
 
         when(xmlMapper.readValue(xmlBody, InvoiceImportDto.class))
@@ -120,4 +139,119 @@ class ImportControllerTest {
         verifyNoMoreInteractions(importService);
         verifyNoInteractions(xmlMapper);
     }
+
+    @Test
+    @DisplayName("importCsvBatch powinien delegować do ImportService.importBatchFromCsv i zwrócić raport z 200 OK")
+    void importCsvBatchShouldDelegateAndReturnReport() throws IOException {
+        MultipartFile file = mock(MultipartFile.class);
+        ImportReport serviceResponse = new ImportReport(2, 1, 1,
+                List.of(new ImportRowError(3, "INV-2", "INVALID_DATE")), false);
+
+        when(importService.importBatchFromCsv(file, SELLER_PROFILE_ID))
+                .thenReturn(serviceResponse);
+
+        ResponseEntity<ImportReport> response =
+                controller.importCsvBatch(SELLER_PROFILE_ID, file);
+
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(response.getBody()).isSameAs(serviceResponse)
+        );
+
+        verify(importService).importBatchFromCsv(file, SELLER_PROFILE_ID);
+        verifyNoMoreInteractions(importService);
+        verifyNoInteractions(xmlMapper);
+    }
+
+    @Test
+    @DisplayName("submitJob powinien przekazać plik do ImportJobService i zwrócić 202 ACCEPTED")
+    void submitJobShouldDelegateAndReturnAccepted() throws IOException {
+        MultipartFile file = mock(MultipartFile.class);
+        ImportJobResponse job = mock(ImportJobResponse.class);
+
+        when(importJobService.submit(ImportFormat.CSV, file, SELLER_PROFILE_ID)).thenReturn(job);
+
+        ResponseEntity<ImportJobResponse> response =
+                controller.submitJob(SELLER_PROFILE_ID, ImportFormat.CSV, file);
+
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED),
+                () -> assertThat(response.getBody()).isSameAs(job)
+        );
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    @DisplayName("getJob powinien zwrócić status zadania importu")
+    void getJobShouldReturnJobStatus() {
+        ImportJobResponse job = mock(ImportJobResponse.class);
+        when(importJobService.getJob(5L)).thenReturn(job);
+
+        ResponseEntity<ImportJobResponse> response = controller.getJob(5L);
+
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(response.getBody()).isSameAs(job)
+        );
+    }
+
+    @Test
+    @DisplayName("importXmlBatch powinien importować kolejne elementy <invoice> i zwrócić raport z 200 OK")
+    void importXmlBatchShouldStreamInvoicesToService() throws IOException {
+        ImportController streamingController =
+                new ImportController(importService, importJobService, ndjsonImportService, bulkLoadService,
+                        XmlMapper.builder().findAndAddModules().build());
+        InputStream xmlBody = new ByteArrayInputStream(("<invoices>"
+                + "<invoice><invoice><number>INV-1</number></invoice></invoice>"
+                + "<invoice><invoice><number>INV-2</number></invoice></invoice>"
+                + "</invoices>").getBytes());
+        List<String> numbers = new java.util.ArrayList<>();
+        ImportReport report = new ImportReport(2, 2, 0, List.of(), false);
+
+        when(importService.importRecords(any(), eq(SELLER_PROFILE_ID))).thenAnswer(inv -> {
+            inv.<java.util.Iterator<ImportRecord>>getArgument(0).forEachRemaining(r -> numbers.add(r.reference()));
+            return report;
+        });
+
+        ResponseEntity<ImportReport> response = streamingController.importXmlBatch(SELLER_PROFILE_ID, xmlBody);
+
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(response.getBody()).isSameAs(report),
+                () -> assertThat(numbers).containsExactly("INV-1", "INV-2")
+        );
+    }
+
+    @Test
+    @DisplayName("importNdjson powinien zwrócić strumień wyników z typem application/x-ndjson")
+    void importNdjsonShouldReturnResultStream() {
+        InputStream body = new ByteArrayInputStream("{}\n".getBytes());
+        StreamingResponseBody results = out -> {};
+        when(ndjsonImportService.importNdjson(body, SELLER_PROFILE_ID)).thenReturn(results);
+
+        ResponseEntity<StreamingResponseBody> response = controller.importNdjson(SELLER_PROFILE_ID, body);
+
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON),
+                () -> assertThat(response.getBody()).isSameAs(results)
+        );
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    @DisplayName("bulkLoad powinien przekazać plik do BulkLoadService i zwrócić raport")
+    void bulkLoadShouldDelegateToBulkLoadService() throws IOException {
+        MultipartFile file = mock(MultipartFile.class);
+        ImportReport report = new ImportReport(3, 2, 1, List.of(new ImportRowError(2, "FV/2", "DUPLICATE_NUMBER")), false);
+        when(bulkLoadService.load(ImportFormat.JSON, file, SELLER_PROFILE_ID)).thenReturn(report);
+
+        ResponseEntity<ImportReport> response = controller.bulkLoad(SELLER_PROFILE_ID, ImportFormat.JSON, file);
+
+        assertAll(
+                () -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK),
+                () -> assertThat(response.getBody()).isSameAs(report)
+        );
+        verifyNoInteractions(importService);
+    }
 }
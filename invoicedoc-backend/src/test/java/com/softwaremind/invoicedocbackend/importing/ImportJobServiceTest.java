@@ -0,0 +1,354 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportJobResponse;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportReport;
+import com.softwaremind.invoicedocbackend.security.CurrentUser;
+import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
+import com.softwaremind.invoicedocbackend.security.CustomUserDetails;
+import com.softwaremind.invoicedocbackend.security.PrincipalCache;
+import com.softwaremind.invoicedocbackend.security.UserEntity;
+import com.softwaremind.invoicedocbackend.security.UserRole;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImportJobServiceTest {
+
+    private static final Long ORG_ID = 10L;
+    private static final Long USER_ID = 1L;
+    private static final Long SELLER_PROFILE_ID = 100L;
+
+    @TempDir
+    Path stagingDir;
+
+    private final Map<Long, ImportJobEntity> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private ImportJobRepository importJobRepository;
+    private ImportJobErrorRepository importJobErrorRepository;
+    private ImportService importService;
+    private CurrentUserProvider currentUserProvider;
+    private PrincipalCache principalCache;
+    private JdbcTemplate jdbcTemplate;
+    private PreparedStatement tryLock;
+    private ImportJobService jobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        importJobRepository = mock(ImportJobRepository.class);
+        importJobErrorRepository = mock(ImportJobErrorRepository.class);
+        importService = mock(ImportService.class);
+        currentUserProvider = mock(CurrentUserProvider.class);
+        principalCache = mock(PrincipalCache.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        jobLock(true);
+
+        when(importJobRepository.save(any(ImportJobEntity.class))).thenAnswer(inv -> {
+            ImportJobEntity job = inv.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(ids.incrementAndGet());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(importJobRepository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.<Long>getArgument(0))));
+        doAnswer(inv -> {
+            ImportJobEntity job = jobs.get(inv.<Long>getArgument(0));
+            job.setRecordsRead(job.getRecordsRead() + inv.<Long>getArgument(1));
+            job.setCreatedCount(job.getCreatedCount() + inv.<Long>getArgument(2));
+            job.setFailedCount(job.getFailedCount() + inv.<Long>getArgument(3));
+            job.setBytesRead(inv.getArgument(4));
+            return null;
+        }).when(importJobRepository).addProgress(anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), any());
+        doAnswer(inv -> jobs.remove(inv.<ImportJobEntity>getArgument(0).getId()))
+                .when(importJobRepository).delete(any(ImportJobEntity.class));
+
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(USER_ID, ORG_ID, UserRole.OWNER));
+        when(principalCache.get(USER_ID)).thenReturn(Optional.of(principal()));
+
+        jobService = new ImportJobService(importJobRepository, importJobErrorRepository, importService,
+                currentUserProvider, principalCache, JsonMapper.builder().build(), new XmlMapper(), jdbcTemplate);
+        ReflectionTestUtils.setField(jobService, "threads", 1);
+        ReflectionTestUtils.setField(jobService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(jobService, "directory", stagingDir);
+        jobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    // jdbcTemplate.execute hands the callback a connection on which pg_try_advisory_lock returns `acquired`
+    private void jobLock(boolean acquired) throws Exception {
+        Connection connection = mock(Connection.class);
+        tryLock = statementReturning(acquired);
+        PreparedStatement unlock = statementReturning(true);
+        when(connection.prepareStatement("select pg_try_advisory_lock(?, ?)")).thenReturn(tryLock);
+        when(connection.prepareStatement("select pg_advisory_unlock(?, ?)")).thenReturn(unlock);
+        doAnswer(inv -> inv.<ConnectionCallback<Boolean>>getArgument(0).doInConnection(connection))
+                .when(jdbcTemplate).execute(ArgumentMatchers.<ConnectionCallback<Boolean>>any());
+    }
+
+    private static PreparedStatement statementReturning(boolean value) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getBoolean(1)).thenReturn(value);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        return ps;
+    }
+
+    private ImportJobEntity unfinishedJob(Long id, Path staged) throws Exception {
+        ImportJobEntity job = ImportJobEntity.builder()
+                .id(id)
+                .organizationId(ORG_ID)
+                .userId(USER_ID)
+                .sellerProfileId(SELLER_PROFILE_ID)
+                .format(ImportFormat.JSON)
+                .status(ImportJobStatus.RUNNING)
+                .stagedPath(staged.toString())
+                .totalBytes(Files.exists(staged) ? Files.size(staged) : 0)
+                .createdAt(LocalDateTime.now())
+                .startedAt(LocalDateTime.now())
+                .build();
+        jobs.put(id, job);
+        return job;
+    }
+
+    private CustomUserDetails principal() {
+        return new CustomUserDetails(UserEntity.builder()
+                .id(USER_ID)
+                .username("owner")
+                .passwordHash("hash")
+                .role(UserRole.OWNER)
+                .organization(OrganizationEntity.builder().id(ORG_ID).name("Org").build())
+                .approvedByOwner(true)
+                .build());
+    }
+
+    private String invoices(int count) {
+        List<String> items = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            items.add("{\"buyer\":{\"name\":\"Buyer\"},\"invoice\":{\"number\":\"INV-" + i + "\"},\"items\":[]}");
+        }
+        return "[" + String.join(",", items) + "]";
+    }
+
+    private MockMultipartFile upload(String content) {
+        return new MockMultipartFile("file", "invoices.json", "application/json",
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // drains the records like ImportService would, reporting each one through the listener
+    private void importRecordsAnswer(List<ImportRecord> seen, boolean success) {
+        when(importService.importRecords(any(), eq(SELLER_PROFILE_ID), any())).thenAnswer(inv -> {
+            Iterator<ImportRecord> records = inv.getArgument(0);
+            ImportProgressListener listener = inv.getArgument(2);
+            List<ImportOutcome> outcomes = new ArrayList<>();
+            records.forEachRemaining(r -> {
+                seen.add(r);
+                outcomes.add(success ? ImportOutcome.created(r, r.position(), "FV/" + r.position())
+                        : ImportOutcome.failed(r, "CONTRACTOR_NOT_FOUND"));
+            });
+            listener.committed(outcomes);
+            return new ImportReport(outcomes.size(), 0, 0, List.of(), false);
+        });
+    }
+
+    private ImportJobEntity awaitFinished(Long jobId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ImportJobEntity job = jobs.get(jobId);
+            if (job.getStatus() == ImportJobStatus.COMPLETED || job.getStatus() == ImportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("job " + jobId + " did not finish");
+    }
+
+    @Test
+    @DisplayName("submitted job should run in background as the submitting user and report progress")
+    void submittedJobShouldRunInBackground() throws Exception {
+        AtomicReference<Object> workerPrincipal = new AtomicReference<>();
+        when(importService.importRecords(any(), eq(SELLER_PROFILE_ID), any())).thenAnswer(inv -> {
+            workerPrincipal.set(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            Iterator<ImportRecord> records = inv.getArgument(0);
+            List<ImportOutcome> outcomes = new ArrayList<>();
+            records.forEachRemaining(r -> outcomes.add(ImportOutcome.created(r, r.position(), "FV/" + r.position())));
+            inv.<ImportProgressListener>getArgument(2).committed(outcomes);
+            return new ImportReport(outcomes.size(), outcomes.size(), 0, List.of(), false);
+        });
+
+        ImportJobResponse submitted = jobService.submit(ImportFormat.JSON, upload(invoices(3)), SELLER_PROFILE_ID);
+        ImportJobEntity job = awaitFinished(submitted.id());
+        ImportJobResponse status = jobService.getJob(submitted.id());
+
+        assertAll(
+                () -> assertThat(submitted.status()).isEqualTo(ImportJobStatus.QUEUED),
+                () -> assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED),
+                () -> assertThat(status.invoicesRead()).isEqualTo(3),
+                () -> assertThat(status.created()).isEqualTo(3),
+                () -> assertThat(status.progressPercent()).isEqualTo(100),
+                () -> assertThat(((CustomUserDetails) workerPrincipal.get()).getUserId()).isEqualTo(USER_ID),
+                () -> assertThat(Files.list(stagingDir)).isEmpty()
+        );
+    }
+
+    @Test
+    @DisplayName("resumed job should skip the records committed before the restart")
+    void resumedJobShouldSkipCommittedRecords() throws Exception {
+        Path staged = Files.writeString(stagingDir.resolve("import-1.json"), invoices(5));
+        ImportJobEntity job = unfinishedJob(7L, staged);
+        job.setRecordsRead(2);
+        job.setCreatedCount(2);
+        List<ImportRecord> seen = new ArrayList<>();
+        importRecordsAnswer(seen, true);
+
+        jobService.run(7L);
+
+        assertAll(
+                () -> assertThat(seen).extracting(ImportRecord::reference).containsExactly("INV-3", "INV-4", "INV-5"),
+                () -> assertThat(jobs.get(7L).getStatus()).isEqualTo(ImportJobStatus.COMPLETED),
+                () -> assertThat(jobs.get(7L).getRecordsRead()).isEqualTo(5),
+                () -> assertThat(jobs.get(7L).getCreatedCount()).isEqualTo(5)
+        );
+    }
+
+    @Test
+    @DisplayName("a job claimed by another node should be left untouched")
+    void claimedJobShouldBeSkipped() throws Exception {
+        jobLock(false);
+        Path staged = Files.writeString(stagingDir.resolve("import-1.json"), invoices(2));
+        unfinishedJob(7L, staged);
+
+        jobService.run(7L);
+
+        assertAll(
+                () -> assertThat(jobs.get(7L).getStatus()).isEqualTo(ImportJobStatus.RUNNING),
+                () -> assertThat(staged).exists()
+        );
+        verify(tryLock).setInt(1, ImportJobService.LOCK_NAMESPACE);
+        verify(tryLock).setInt(2, 7);
+        verifyNoInteractions(importService, principalCache);
+        verify(importJobRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("resume should queue only unfinished jobs whose staged file is on this node")
+    void resumeShouldSkipJobsStagedElsewhere() throws Exception {
+        Path local = Files.writeString(stagingDir.resolve("import-1.json"), invoices(1));
+        unfinishedJob(7L, local);
+        unfinishedJob(8L, stagingDir.resolve("other-node.json"));
+        when(importJobRepository.findByStatusInOrderByIdAsc(anyList())).thenReturn(List.of(jobs.get(7L), jobs.get(8L)));
+        importRecordsAnswer(new ArrayList<>(), true);
+
+        jobService.resumeUnfinishedJobs();
+
+        assertAll(
+                () -> assertThat(awaitFinished(7L).getStatus()).isEqualTo(ImportJobStatus.COMPLETED),
+                () -> assertThat(jobs.get(8L).getStatus()).isEqualTo(ImportJobStatus.RUNNING)
+        );
+        verify(tryLock, never()).setInt(2, 8);
+    }
+
+    @Test
+    @DisplayName("failed invoices should be stored as job errors up to the configured limit")
+    void failedInvoicesShouldBeStoredUpToLimit() throws Exception {
+        ReflectionTestUtils.setField(jobService, "maxReportedErrors", 2);
+        importRecordsAnswer(new ArrayList<>(), false);
+
+        ImportJobResponse submitted = jobService.submit(ImportFormat.JSON, upload(invoices(3)), SELLER_PROFILE_ID);
+        ImportJobEntity job = awaitFinished(submitted.id());
+
+        assertAll(
+                () -> assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED),
+                () -> assertThat(job.getFailedCount()).isEqualTo(3)
+        );
+        verify(importJobErrorRepository).saveAll(argThat(errors -> ((List<?>) errors).size() == 2));
+    }
+
+    @Test
+    @DisplayName("submit should answer 503 IMPORT_QUEUE_FULL and drop the staged file when the queue is full")
+    void fullQueueShouldRejectSubmit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(principalCache.get(USER_ID)).thenAnswer(inv -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            return Optional.of(principal());
+        });
+        importRecordsAnswer(new ArrayList<>(), true);
+
+        try {
+            jobService.submit(ImportFormat.JSON, upload(invoices(1)), SELLER_PROFILE_ID);
+            Thread.sleep(100);
+            jobService.submit(ImportFormat.JSON, upload(invoices(1)), SELLER_PROFILE_ID);
+
+            ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                    () -> jobService.submit(ImportFormat.JSON, upload(invoices(1)), SELLER_PROFILE_ID));
+
+            assertAll(
+                    () -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE),
+                    () -> assertThat(ex.getReason()).isEqualTo("IMPORT_QUEUE_FULL"),
+                    () -> assertThat(jobs).hasSize(2),
+                    () -> assertThat(Files.list(stagingDir)).hasSize(2)
+            );
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("getJob should not reveal jobs of another organization")
+    void getJobOfOtherOrgShouldBeNotFound() {
+        jobs.put(9L, ImportJobEntity.builder()
+                .id(9L)
+                .organizationId(99L)
+                .status(ImportJobStatus.QUEUED)
+                .format(ImportFormat.CSV)
+                .build());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> jobService.getJob(9L));
+
+        assertThat(ex.getReason()).isEqualTo("IMPORT_JOB_NOT_FOUND");
+    }
+}
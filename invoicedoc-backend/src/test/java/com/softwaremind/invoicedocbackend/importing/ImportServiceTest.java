@@ -6,9 +6,13 @@ import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
 import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
 import com.softwaremind.invoicedocbackend.contractor.ContractorType;
 import com.softwaremind.invoicedocbackend.contractor.dto.ContractorCreateRequest;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorLookupKey;
 import com.softwaremind.invoicedocbackend.contractor.mapper.ContractorMapper;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
 import com.softwaremind.invoicedocbackend.importing.dto.*;
 import com.softwaremind.invoicedocbackend.invoice.InvoiceService;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchItemResult;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchResponse;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceItemCreateRequest;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
@@ -16,14 +20,17 @@ import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.security.UserRole;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
-import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
-import com.softwaremind.invoicedocbackend.tenant.SellerProfileRepository;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -45,17 +52,22 @@ class ImportServiceTest {
     @Mock
     private CurrentUserProvider currentUserProvider;
     @Mock
-    private SellerProfileRepository sellerProfileRepository;
+    private TenantCache tenantCache;
     @Mock
     private ContractorRepository contractorRepository;
     @Mock
     private ContractorMapper contractorMapper;
     @Mock
-    private OrganizationRepository organizationRepository;
-    @Mock
     private InvoiceImportMapper importMapper;
     @Mock
     private InvoiceService invoiceService;
+    @Mock
+    private BlindIndexService blindIndexService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private ImportService importService;
@@ -65,6 +77,7 @@ class ImportServiceTest {
     private static final Long SELLER_PROFILE_ID = 100L;
     private static final Long EXISTING_CONTRACTOR_ID = 200L;
     private static final Long NEW_CONTRACTOR_ID = 300L;
+    private static final String BUYER_NIP_INDEX = "bidx-2222222222";
 
     private CurrentUser mockCurrentUser() {
         CurrentUser cu = new CurrentUser(USER_ID, ORG_ID, UserRole.ADMIN);
@@ -98,7 +111,7 @@ class ImportServiceTest {
                 .address(addr)
                 .build();
 
-        when(sellerProfileRepository.findById(SELLER_PROFILE_ID))
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID))
                 .thenReturn(Optional.of(seller));
 
         return seller;
@@ -192,16 +205,7 @@ class ImportServiceTest {
         mockCurrentUser();
         mockSellerProfileInOrg();
         InvoiceImportDto dto = sampleImportDto();
-
-        ContractorEntity existing = ContractorEntity.builder()
-                .id(EXISTING_CONTRACTOR_ID)
-                .name(dto.buyer().name())
-                .type(ContractorType.COMPANY)
-                .build();
-
-        when(contractorRepository.findByOrganizationIdAndNameContainingIgnoreCase(
-                ORG_ID, dto.buyer().name()
-        )).thenReturn(List.of(existing));
+        mockExistingBuyer();
 
         InvoiceCreateRequest createReq = sampleCreateRequest(EXISTING_CONTRACTOR_ID);
         when(importMapper.toCreateRequest(dto, SELLER_PROFILE_ID, EXISTING_CONTRACTOR_ID))
@@ -214,13 +218,12 @@ class ImportServiceTest {
 
         assertThat(result).isSameAs(expectedResp);
 
-        verify(sellerProfileRepository).findById(SELLER_PROFILE_ID);
-        verify(contractorRepository)
-                .findByOrganizationIdAndNameContainingIgnoreCase(ORG_ID, dto.buyer().name());
+        verify(tenantCache).sellerProfile(SELLER_PROFILE_ID);
+        verify(contractorRepository).findLookupKeysByOrganizationId(ORG_ID);
         verify(importMapper).toCreateRequest(dto, SELLER_PROFILE_ID, EXISTING_CONTRACTOR_ID);
         verify(invoiceService).createInvoice(createReq);
-        verifyNoMoreInteractions(contractorMapper, organizationRepository, invoiceService,
-                importMapper, contractorRepository, sellerProfileRepository);
+        verifyNoMoreInteractions(contractorMapper, invoiceService,
+                importMapper, contractorRepository, tenantCache);
     }
 
     @Test
@@ -230,9 +233,8 @@ class ImportServiceTest {
         mockSellerProfileInOrg();
         InvoiceImportDto dto = sampleImportDto();
 
-        when(contractorRepository.findByOrganizationIdAndNameContainingIgnoreCase(
-                ORG_ID, dto.buyer().name()
-        )).thenReturn(List.of());
+        when(blindIndexService.index("2222222222")).thenReturn(BUYER_NIP_INDEX);
+        when(contractorRepository.findLookupKeysByOrganizationId(ORG_ID)).thenReturn(List.of());
 
         OrganizationEntity org = OrganizationEntity.builder()
                 .id(ORG_ID)
@@ -240,7 +242,7 @@ class ImportServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(organizationRepository.findById(ORG_ID))
+        when(tenantCache.organization(ORG_ID))
                 .thenReturn(Optional.of(org));
 
         when(importMapper.mapBuyerType(dto.buyer()))
@@ -260,7 +262,7 @@ class ImportServiceTest {
 
         when(contractorMapper.fromCreateRequest(any(ContractorCreateRequest.class), eq(org)))
                 .thenReturn(newContractor);
-        when(contractorRepository.save(newContractor)).thenReturn(newContractor);
+        when(contractorRepository.saveAll(anyIterable())).thenReturn(List.of(newContractor));
 
         InvoiceCreateRequest createReq = sampleCreateRequest(NEW_CONTRACTOR_ID);
         when(importMapper.toCreateRequest(dto, SELLER_PROFILE_ID, NEW_CONTRACTOR_ID))
@@ -273,13 +275,13 @@ class ImportServiceTest {
 
         assertThat(result).isSameAs(expectedResp);
 
-        verify(contractorRepository)
-                .findByOrganizationIdAndNameContainingIgnoreCase(ORG_ID, dto.buyer().name());
-        verify(organizationRepository).findById(ORG_ID);
+        verify(contractorRepository).findLookupKeysByOrganizationId(ORG_ID);
+        verify(contractorRepository, never()).findByOrganizationIdAndNameContainingIgnoreCase(any(), any());
+        verify(tenantCache).organization(ORG_ID);
         verify(importMapper).mapBuyerType(dto.buyer());
         verify(importMapper).toAddressDto(dto.buyer());
         verify(contractorMapper).fromCreateRequest(cReqCaptor.capture(), eq(org));
-        verify(contractorRepository).save(newContractor);
+        verify(contractorRepository).saveAll(argThat(c -> c.iterator().next() == newContractor));
         verify(importMapper).toCreateRequest(dto, SELLER_PROFILE_ID, NEW_CONTRACTOR_ID);
         verify(invoiceService).createInvoice(createReq);
 
@@ -291,13 +293,41 @@ class ImportServiceTest {
         );
     }
 
+    @Test
+    @DisplayName("importFromDto should match a buyer without NIP or PESEL on the exact normalized name only")
+    void importFromDtoShouldMatchByNameWhenBuyerHasNoTaxId() {
+        mockCurrentUser();
+        mockSellerProfileInOrg();
+        InvoiceImportDto sample = sampleImportDto();
+        ImportPartyDto buyer = new ImportPartyDto(
+                "PERSON", "  jan  KOWALSKI ", null, null, sample.buyer().address(), null);
+        InvoiceImportDto dto = new InvoiceImportDto(
+                sample.seller(), buyer, sample.invoice(), sample.items(), sample.extra());
+
+        // "Jan Kowalski Junior" contains the name but is a different contractor
+        when(contractorRepository.findLookupKeysByOrganizationId(ORG_ID)).thenReturn(List.of(
+                new ContractorLookupKey(NEW_CONTRACTOR_ID, "Jan Kowalski Junior", null, null),
+                new ContractorLookupKey(EXISTING_CONTRACTOR_ID, "Jan Kowalski", null, null)));
+
+        InvoiceCreateRequest createReq = sampleCreateRequest(EXISTING_CONTRACTOR_ID);
+        when(importMapper.toCreateRequest(dto, SELLER_PROFILE_ID, EXISTING_CONTRACTOR_ID))
+                .thenReturn(createReq);
+        when(invoiceService.createInvoice(createReq)).thenReturn(mock(InvoiceResponse.class));
+
+        importService.importFromDto(dto, SELLER_PROFILE_ID);
+
+        verify(contractorRepository, never()).findByOrganizationIdAndNameContainingIgnoreCase(any(), any());
+        verify(contractorRepository, never()).saveAll(anyIterable());
+        verify(importMapper).toCreateRequest(dto, SELLER_PROFILE_ID, EXISTING_CONTRACTOR_ID);
+    }
+
     @Test
     @DisplayName("importFromDto should throw when seller profile not found")
     void importFromDtoShouldThrowWhenSellerProfileNotFound() {
         mockCurrentUser();
         InvoiceImportDto dto = sampleImportDto();
 
-        when(sellerProfileRepository.findById(SELLER_PROFILE_ID))
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID))
                 .thenReturn(Optional.empty());
 
         IllegalStateException ex = assertThrows(
@@ -328,7 +358,7 @@ class ImportServiceTest {
                 .defaultPaymentTermDays(14)
                 .build();
 
-        when(sellerProfileRepository.findById(SELLER_PROFILE_ID))
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID))
                 .thenReturn(Optional.of(seller));
 
         InvoiceImportDto dto = sampleImportDto();
@@ -343,8 +373,8 @@ class ImportServiceTest {
     }
 
     @Test
-    @DisplayName("importFromCsv should parse CSV and delegate to createInvoice pipeline")
-    void importFromCsvShouldParseCsvAndCreateInvoice() throws IOException {
+    @DisplayName("importBatchFromCsv should group item rows into one invoice and write it through the batch pipeline")
+    void importBatchFromCsvShouldParseCsvAndCreateInvoice() throws IOException {
         mockCurrentUser();
         mockSellerProfileInOrg();
 
@@ -370,15 +400,7 @@ class ImportServiceTest {
                 csv.getBytes(StandardCharsets.UTF_8)
         );
 
-        ContractorEntity existing = ContractorEntity.builder()
-                .id(EXISTING_CONTRACTOR_ID)
-                .name("Buyer Sp. z o.o.")
-                .type(ContractorType.COMPANY)
-                .build();
-
-        when(contractorRepository.findByOrganizationIdAndNameContainingIgnoreCase(
-                ORG_ID, "Buyer Sp. z o.o."
-        )).thenReturn(List.of(existing));
+        mockExistingBuyer();
 
         InvoiceCreateRequest createReq = sampleCreateRequest(EXISTING_CONTRACTOR_ID);
         when(importMapper.toCreateRequest(any(InvoiceImportDto.class),
@@ -386,18 +408,251 @@ class ImportServiceTest {
                 eq(EXISTING_CONTRACTOR_ID)))
                 .thenReturn(createReq);
 
+        when(invoiceService.createInvoices(List.of(createReq))).thenReturn(new InvoiceBatchResponse(1, 1, 0,
+                List.of(new InvoiceBatchItemResult(0, true, 900L, "FV/2024/01/10/001", null))));
+
+        ImportReport report = importService.importBatchFromCsv(file, SELLER_PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(report.invoicesRead()).isEqualTo(1),
+                () -> assertThat(report.created()).isEqualTo(1),
+                () -> assertThat(report.failed()).isZero(),
+                () -> assertThat(report.errors()).isEmpty()
+        );
+
+        ArgumentCaptor<InvoiceImportDto> dtoCaptor = ArgumentCaptor.forClass(InvoiceImportDto.class);
+        verify(contractorRepository).findLookupKeysByOrganizationId(ORG_ID);
+        verify(importMapper).toCreateRequest(dtoCaptor.capture(),
+                eq(SELLER_PROFILE_ID),
+                eq(EXISTING_CONTRACTOR_ID));
+        assertThat(dtoCaptor.getValue().items()).hasSize(2);
+        verify(invoiceService, never()).createInvoice(any());
+    }
+
+    private ImportRecord record(long position) {
+        return ImportRecord.ok(position, "INV-" + position, sampleImportDto());
+    }
+
+    private void mockExistingBuyer() {
+        when(blindIndexService.index("2222222222")).thenReturn(BUYER_NIP_INDEX);
+        when(contractorRepository.findLookupKeysByOrganizationId(ORG_ID)).thenReturn(List.of(
+                new ContractorLookupKey(EXISTING_CONTRACTOR_ID, "Buyer Sp. z o.o.", BUYER_NIP_INDEX, null)));
+    }
+
+    private InvoiceBatchResponse allCreated(List<InvoiceCreateRequest> requests) {
+        List<InvoiceBatchItemResult> results = new java.util.ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new InvoiceBatchItemResult(i, true, (long) i + 1, "FV/" + i, null));
+        }
+        return new InvoiceBatchResponse(requests.size(), requests.size(), 0, results);
+    }
+
+    @Test
+    @DisplayName("importRecords should write invoices in chunks and report unreadable records without writing them")
+    void importRecordsShouldWriteInChunks() {
+        mockCurrentUser();
+        mockSellerProfileInOrg();
+        mockExistingBuyer();
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+
+        when(importMapper.toCreateRequest(any(InvoiceImportDto.class), eq(SELLER_PROFILE_ID), eq(EXISTING_CONTRACTOR_ID)))
+                .thenReturn(sampleCreateRequest(EXISTING_CONTRACTOR_ID));
+        when(invoiceService.createInvoices(anyList())).thenAnswer(inv -> allCreated(inv.getArgument(0)));
+
+        List<ImportRecord> records = List.of(
+                record(1), record(2), ImportRecord.failed(3, "INV-3", "INVALID_DATE"), record(4), record(5), record(6));
+
+        ImportReport report = importService.importRecords(records.iterator(), SELLER_PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(report.invoicesRead()).isEqualTo(6),
+                () -> assertThat(report.created()).isEqualTo(5),
+                () -> assertThat(report.failed()).isEqualTo(1),
+                () -> assertThat(report.errors()).containsExactly(new ImportRowError(3, "INV-3", "INVALID_DATE")),
+                () -> assertThat(meterRegistry.get("import.rows").tag("result", "created").counter().count())
+                        .isEqualTo(5.0),
+                () -> assertThat(meterRegistry.get("import.rows").tag("result", "failed").counter().count())
+                        .isEqualTo(1.0)
+        );
+        verify(invoiceService, times(3)).createInvoices(argThat(l -> l.size() <= 2));
+    }
+
+    @Test
+    @DisplayName("a failing chunk should be retried one invoice at a time so valid invoices are still created")
+    void failingChunkShouldFallBackToSingleInvoices() {
+        mockCurrentUser();
+        mockSellerProfileInOrg();
+        mockExistingBuyer();
+
+        InvoiceCreateRequest good = sampleCreateRequest(EXISTING_CONTRACTOR_ID);
+        InvoiceCreateRequest bad = sampleCreateRequest(NEW_CONTRACTOR_ID);
+        when(importMapper.toCreateRequest(any(InvoiceImportDto.class), eq(SELLER_PROFILE_ID), eq(EXISTING_CONTRACTOR_ID)))
+                .thenReturn(good, bad, good);
+        when(invoiceService.createInvoices(anyList())).thenAnswer(inv -> {
+            List<InvoiceCreateRequest> requests = inv.getArgument(0);
+            if (requests.contains(bad)) {
+                throw new IllegalStateException("Duplicate invoice number");
+            }
+            return allCreated(requests);
+        });
+
+        ImportReport report = importService.importRecords(
+                List.of(record(1), record(2), record(3)).iterator(), SELLER_PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(report.created()).isEqualTo(2),
+                () -> assertThat(report.failed()).isEqualTo(1),
+                () -> assertThat(report.errors())
+                        .containsExactly(new ImportRowError(2, "INV-2", "Duplicate invoice number"))
+        );
+        verify(invoiceService, times(4)).createInvoices(anyList());
+    }
+
+    @Test
+    @DisplayName("importRecords should keep only maxReportedErrors errors and flag the report as truncated")
+    void importRecordsShouldCapReportedErrors() {
+        mockCurrentUser();
+        mockSellerProfileInOrg();
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 2);
+
+        List<ImportRecord> records = List.of(
+                ImportRecord.failed(1, "A", "INVALID_NUMBER"),
+                ImportRecord.failed(2, "B", "INVALID_NUMBER"),
+                ImportRecord.failed(3, "C", "INVALID_NUMBER"));
+
+        ImportReport report = importService.importRecords(records.iterator(), SELLER_PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(report.failed()).isEqualTo(3),
+                () -> assertThat(report.errors()).hasSize(2),
+                () -> assertThat(report.errorsTruncated()).isTrue()
+        );
+        verifyNoInteractions(invoiceService);
+    }
+
+    @Test
+    @DisplayName("importFromCsv should turn every row into an item of one invoice and create it through createInvoice")
+    void importFromCsvShouldCreateOneInvoice() throws IOException {
+        mockCurrentUser();
+        mockSellerProfileInOrg();
+
+        String csv = String.join("\n",
+                "sellerName,sellerNip,sellerStreet,sellerBuildingNumber,sellerPostalCode,sellerCity," +
+                        "buyerName,buyerNip,buyerStreet,buyerBuildingNumber,buyerPostalCode,buyerCity," +
+                        "invoiceNumber,issueDate,saleDate,dueDate,paymentMethod,currency,itemDescription," +
+                        "itemQuantity,itemUnit,itemNetUnitPrice,itemVatRate",
+                "Seller Sp. z o.o.,1111111111,Street,1,00-000,City,Buyer Sp. z o.o.,2222222222,Street,1,00-000,City," +
+                        "INV-001,2024-01-10,2024-01-05,2024-02-10,BANK_TRANSFER,PLN,Item 1,2.00,pcs,100.00,23",
+                "Seller Sp. z o.o.,1111111111,Street,1,00-000,City,Buyer Sp. z o.o.,2222222222,Street,1,00-000,City," +
+                        ",2024-01-10,2024-01-05,2024-02-10,BANK_TRANSFER,PLN,Item 2,1.00,pcs,50.00,8"
+        );
+        MockMultipartFile file = new MockMultipartFile("file", "invoice.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        mockExistingBuyer();
+
+        InvoiceCreateRequest createReq = sampleCreateRequest(EXISTING_CONTRACTOR_ID);
+        when(importMapper.toCreateRequest(any(InvoiceImportDto.class),
+                eq(SELLER_PROFILE_ID),
+                eq(EXISTING_CONTRACTOR_ID)))
+                .thenReturn(createReq);
         InvoiceResponse expected = mock(InvoiceResponse.class);
         when(invoiceService.createInvoice(createReq)).thenReturn(expected);
 
         InvoiceResponse result = importService.importFromCsv(file, SELLER_PROFILE_ID);
 
-        assertThat(result).isSameAs(expected);
-
-        verify(contractorRepository)
-                .findByOrganizationIdAndNameContainingIgnoreCase(ORG_ID, "Buyer Sp. z o.o.");
-        verify(importMapper).toCreateRequest(any(InvoiceImportDto.class),
+        ArgumentCaptor<InvoiceImportDto> dtoCaptor = ArgumentCaptor.forClass(InvoiceImportDto.class);
+        verify(importMapper).toCreateRequest(dtoCaptor.capture(),
                 eq(SELLER_PROFILE_ID),
                 eq(EXISTING_CONTRACTOR_ID));
-        verify(invoiceService).createInvoice(createReq);
+        assertAll(
+                () -> assertThat(result).isSameAs(expected),
+                () -> assertThat(dtoCaptor.getValue().invoice().number()).isEqualTo("INV-001"),
+                () -> assertThat(dtoCaptor.getValue().items()).hasSize(2)
+        );
+        verify(invoiceService, never()).createInvoices(any());
+    }
+
+    @Test
+    @DisplayName("importFromCsv and importBatchFromCsv should reject a file with a header only")
+    void importFromCsvShouldRejectEmptyFile() {
+        MockMultipartFile file = new MockMultipartFile("file", "invoices.csv", "text/csv",
+                ("sellerName,sellerNip,sellerStreet,sellerBuildingNumber,sellerPostalCode,sellerCity," +
+                        "buyerName,buyerNip,buyerStreet,buyerBuildingNumber,buyerPostalCode,buyerCity," +
+                        "invoiceNumber,issueDate,saleDate,dueDate,paymentMethod,currency,itemDescription," +
+                        "itemQuantity,itemUnit,itemNetUnitPrice,itemVatRate\n").getBytes(StandardCharsets.UTF_8));
+
+        ResponseStatusException single = assertThrows(ResponseStatusException.class,
+                () -> importService.importFromCsv(file, SELLER_PROFILE_ID));
+        ResponseStatusException batch = assertThrows(ResponseStatusException.class,
+                () -> importService.importBatchFromCsv(file, SELLER_PROFILE_ID));
+
+        assertAll(
+                () -> assertThat(single.getReason()).isEqualTo("CSV_EMPTY"),
+                () -> assertThat(batch.getReason()).isEqualTo("CSV_EMPTY")
+        );
+        verifyNoInteractions(invoiceService);
+    }
+
+    @Test
+    @DisplayName("listener should get every outcome once, in source order, including after a chunk fallback")
+    void listenerShouldSeeOutcomesInSourceOrder() {
+        mockCurrentUser();
+        mockSellerProfileInOrg();
+        mockExistingBuyer();
+
+        InvoiceCreateRequest good = sampleCreateRequest(EXISTING_CONTRACTOR_ID);
+        InvoiceCreateRequest bad = sampleCreateRequest(NEW_CONTRACTOR_ID);
+        when(importMapper.toCreateRequest(any(InvoiceImportDto.class), eq(SELLER_PROFILE_ID), eq(EXISTING_CONTRACTOR_ID)))
+                .thenReturn(bad, good);
+        when(invoiceService.createInvoices(anyList())).thenAnswer(inv -> {
+            List<InvoiceCreateRequest> requests = inv.getArgument(0);
+            if (requests.contains(bad)) {
+                throw new IllegalStateException("Duplicate invoice number");
+            }
+            return allCreated(requests);
+        });
+
+        List<Long> committed = new java.util.ArrayList<>();
+        importService.importRecords(
+                List.of(ImportRecord.failed(1, "INV-1", "INVALID_DATE"), record(2), record(3)).iterator(),
+                SELLER_PROFILE_ID,
+                outcomes -> outcomes.forEach(o -> committed.add(o.record().position())));
+
+        assertThat(committed).containsExactly(1L, 2L, 3L);
+        verify(transactionManager).commit(any());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("a buyer repeated across chunks should be created once with saveAll and then resolved from memory")
+    void newBuyerShouldBeCreatedOncePerImport() {
+        mockCurrentUser();
+        mockSellerProfileInOrg();
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        OrganizationEntity org = OrganizationEntity.builder().id(ORG_ID).name("Org").build();
+        when(tenantCache.organization(ORG_ID)).thenReturn(Optional.of(org));
+        when(blindIndexService.index("2222222222")).thenReturn(BUYER_NIP_INDEX);
+        when(importMapper.mapBuyerType(any())).thenReturn(ContractorType.COMPANY);
+        when(contractorMapper.fromCreateRequest(any(ContractorCreateRequest.class), eq(org)))
+                .thenAnswer(inv -> ContractorEntity.builder().name("Buyer Sp. z o.o.").nipBlindIndex(BUYER_NIP_INDEX).build());
+        when(contractorRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            Iterable<ContractorEntity> saved = inv.getArgument(0);
+            saved.forEach(c -> c.setId(NEW_CONTRACTOR_ID));
+            return List.of();
+        });
+        when(importMapper.toCreateRequest(any(InvoiceImportDto.class), eq(SELLER_PROFILE_ID), eq(NEW_CONTRACTOR_ID)))
+                .thenReturn(sampleCreateRequest(NEW_CONTRACTOR_ID));
+        when(invoiceService.createInvoices(anyList())).thenAnswer(inv -> allCreated(inv.getArgument(0)));
+
+        ImportReport report = importService.importRecords(
+                List.of(record(1), record(2), record(3), record(4), record(5)).iterator(), SELLER_PROFILE_ID);
+
+        assertThat(report.created()).isEqualTo(5);
+        verify(contractorRepository, times(1)).findLookupKeysByOrganizationId(ORG_ID);
+        verify(contractorRepository, times(1)).saveAll(argThat(c -> c.iterator().hasNext()));
+        verify(contractorMapper, times(1)).fromCreateRequest(any(), any());
+        verify(contractorRepository, never()).findFirstByOrganizationIdAndNipBlindIndexOrderByIdAsc(any(), any());
+        verify(contractorRepository, never()).findByOrganizationIdAndNameContainingIgnoreCase(any(), any());
     }
 }
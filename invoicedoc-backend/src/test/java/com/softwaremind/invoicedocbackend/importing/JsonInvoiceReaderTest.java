@@ -0,0 +1,79 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonInvoiceReaderTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private String invoice(String number, String issueDate) {
+        return """
+                {"buyer":{"name":"Buyer","nip":"2222222222"},
+                 "invoice":{"number":"%s","issueDate":"%s","currency":"PLN"},
+                 "items":[{"description":"Item","quantity":1,"unit":"pcs","netUnitPrice":10,"vatRate":"23"}]}
+                """.formatted(number, issueDate);
+    }
+
+    private List<ImportRecord> readAll(String json) {
+        List<ImportRecord> records = new ArrayList<>();
+        try (JsonInvoiceReader reader = new JsonInvoiceReader(jsonMapper,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            reader.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("an array should be read element by element and a binding error should fail only that element")
+    void arrayShouldBeReadPerElement() {
+        List<ImportRecord> records = readAll("[" + invoice("INV-1", "2024-01-10") + ","
+                + invoice("INV-2", "not-a-date") + "," + invoice("INV-3", "2024-01-12") + "]");
+
+        assertAll(
+                () -> assertThat(records).extracting(ImportRecord::reference).containsExactly("INV-1", "INV-2", "INV-3"),
+                () -> assertThat(records).extracting(ImportRecord::position).containsExactly(1L, 2L, 3L),
+                () -> assertThat(records.get(0).invoice().invoice().issueDate()).isEqualTo(LocalDate.of(2024, 1, 10)),
+                () -> assertThat(records.get(1).error()).startsWith("INVALID_INVOICE"),
+                () -> assertThat(records.get(2).error()).isNull()
+        );
+    }
+
+    @Test
+    @DisplayName("a single object should be read as one invoice")
+    void singleObjectShouldBeOneRecord() {
+        List<ImportRecord> records = readAll(invoice("INV-1", "2024-01-10"));
+
+        assertThat(records).singleElement()
+                .satisfies(r -> assertThat(r.invoice().items()).hasSize(1));
+    }
+
+    @Test
+    @DisplayName("broken syntax should end the stream with one INVALID_JSON record")
+    void brokenSyntaxShouldEndStream() {
+        List<ImportRecord> records = readAll("[" + invoice("INV-1", "2024-01-10") + ", {\"buyer\": ");
+
+        assertThat(records).extracting(ImportRecord::error).containsExactly(null, "INVALID_JSON");
+    }
+
+    @Test
+    @DisplayName("a document that is neither an object nor an array should be rejected")
+    void scalarDocumentShouldBeRejected() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> new JsonInvoiceReader(jsonMapper, new ByteArrayInputStream("42".getBytes())));
+
+        assertThat(ex.getReason()).isEqualTo("INVALID_JSON");
+    }
+}
@@ -0,0 +1,110 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NdjsonImportServiceTest {
+
+    private static final Long SELLER_PROFILE_ID = 100L;
+
+    private ImportService importService;
+    private NdjsonImportService ndjsonImportService;
+
+    @BeforeEach
+    void setUp() {
+        importService = mock(ImportService.class);
+        ndjsonImportService = new NdjsonImportService(importService, JsonMapper.builder().build());
+        ndjsonImportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String line(String number) {
+        return "{\"buyer\":{\"name\":\"Buyer\"},\"invoice\":{\"number\":\"" + number + "\"},\"items\":[]}";
+    }
+
+    // writes chunks of two like ImportService.streamRecords; invoices numbered BAD fail
+    private void streamInChunksOfTwo(List<Object> principals) {
+        doAnswer(inv -> {
+            principals.add(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            Iterator<ImportRecord> records = inv.getArgument(0);
+            Consumer<List<ImportOutcome>> onChunk = inv.getArgument(2);
+            List<ImportOutcome> chunk = new ArrayList<>();
+            while (records.hasNext()) {
+                ImportRecord r = records.next();
+                chunk.add(r.error() != null ? ImportOutcome.failed(r, r.error())
+                        : "BAD".equals(r.reference()) ? ImportOutcome.failed(r, "CONTRACTOR_NOT_FOUND")
+                        : ImportOutcome.created(r, r.position() * 10, "FV/" + r.position()));
+                if (chunk.size() == 2 || !records.hasNext()) {
+                    onChunk.accept(List.copyOf(chunk));
+                    chunk.clear();
+                }
+            }
+            return null;
+        }).when(importService).streamRecords(any(), eq(SELLER_PROFILE_ID), any());
+    }
+
+    @Test
+    @DisplayName("every non-blank input line should get one result line with its line number")
+    void shouldWriteOneResultPerLine() throws Exception {
+        List<Object> principals = new ArrayList<>();
+        streamInChunksOfTwo(principals);
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("owner", null, List.of())));
+        String body = String.join("\n", line("INV-1"), "", "{not json", line("BAD"), line("INV-5")) + "\n";
+
+        StreamingResponseBody stream = ndjsonImportService.importNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), SELLER_PROFILE_ID);
+        SecurityContextHolder.clearContext();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream.writeTo(out);
+
+        List<String> results = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertAll(
+                () -> assertThat(results).hasSize(4),
+                () -> assertThat(results.get(0)).contains("\"line\":1", "\"success\":true", "\"invoiceId\":10"),
+                () -> assertThat(results.get(1)).contains("\"line\":3", "\"success\":false", "INVALID_JSON"),
+                () -> assertThat(results.get(2)).contains("\"line\":4", "CONTRACTOR_NOT_FOUND"),
+                () -> assertThat(results.get(3)).contains("\"line\":5", "\"number\":\"FV/5\""),
+                () -> assertThat(principals).containsExactly("owner")
+        );
+        verify(importService).assertSellerProfileInOrg(SELLER_PROFILE_ID);
+    }
+
+    @Test
+    @DisplayName("seller profile outside the org should be rejected before the stream starts")
+    void foreignSellerProfileShouldFailBeforeStreaming() {
+        doThrow(new IllegalStateException("Seller profile not in your org"))
+                .when(importService).assertSellerProfileInOrg(SELLER_PROFILE_ID);
+
+        assertThrows(IllegalStateException.class, () -> ndjsonImportService.importNdjson(
+                new ByteArrayInputStream(line("INV-1").getBytes(StandardCharsets.UTF_8)), SELLER_PROFILE_ID));
+
+        verify(importService, never()).streamRecords(any(), any(), any());
+    }
+}
@@ -0,0 +1,90 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XmlInvoiceReaderTest {
+
+    private final XmlMapper xmlMapper = XmlMapper.builder().findAndAddModules().build();
+
+    private String invoice(String element, String number, String issueDate) {
+        return """
+                <%1$s>
+                  <buyer><name>Buyer</name><nip>2222222222</nip></buyer>
+                  <invoice><number>%2$s</number><issueDate>%3$s</issueDate><currency>PLN</currency></invoice>
+                  <items>
+                    <items><description>A</description><quantity>1</quantity><netUnitPrice>10</netUnitPrice></items>
+                    <items><description>B</description><quantity>2</quantity><netUnitPrice>20</netUnitPrice></items>
+                  </items>
+                </%1$s>
+                """.formatted(element, number, issueDate);
+    }
+
+    private List<ImportRecord> readAll(String xml) throws Exception {
+        List<ImportRecord> records = new ArrayList<>();
+        try (XmlInvoiceReader reader = new XmlInvoiceReader(xmlMapper,
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))) {
+            reader.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("<invoices> should be read one <invoice> at a time and a binding error should fail only that invoice")
+    void multiInvoiceDocumentShouldBeReadPerElement() throws Exception {
+        List<ImportRecord> records = readAll("<?xml version=\"1.0\"?>\n<invoices>"
+                + invoice("invoice", "INV-1", "2024-01-10")
+                + invoice("invoice", "INV-2", "not-a-date")
+                + invoice("invoice", "INV-3", "2024-01-12")
+                + "</invoices>");
+
+        assertAll(
+                () -> assertThat(records).hasSize(3),
+                () -> assertThat(records).extracting(ImportRecord::position).containsExactly(1L, 2L, 3L),
+                () -> assertThat(records.get(0).reference()).isEqualTo("INV-1"),
+                () -> assertThat(records.get(0).invoice().items()).hasSize(2),
+                () -> assertThat(records.get(0).invoice().invoice().issueDate()).isEqualTo(LocalDate.of(2024, 1, 10)),
+                () -> assertThat(records.get(1).error()).startsWith("INVALID_INVOICE"),
+                () -> assertThat(records.get(2).reference()).isEqualTo("INV-3")
+        );
+    }
+
+    @Test
+    @DisplayName("a document with any other root should be read as a single invoice")
+    void singleInvoiceDocumentShouldBeOneRecord() throws Exception {
+        List<ImportRecord> records = readAll(invoice("invoiceImportDto", "INV-1", "2024-01-10"));
+
+        assertThat(records).singleElement()
+                .satisfies(r -> assertThat(r.reference()).isEqualTo("INV-1"));
+    }
+
+    @Test
+    @DisplayName("malformed XML after a valid invoice should end the stream with one INVALID_XML record")
+    void malformedXmlShouldEndStream() throws Exception {
+        List<ImportRecord> records = readAll("<invoices>" + invoice("invoice", "INV-1", "2024-01-10") + "<invoice><buyer>");
+
+        assertThat(records).extracting(ImportRecord::error).hasSize(2).first().isNull();
+        assertThat(records.get(1).error()).startsWith("INVALID_");
+    }
+
+    @Test
+    @DisplayName("an empty body should be rejected")
+    void emptyBodyShouldBeRejected() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> new XmlInvoiceReader(xmlMapper, new ByteArrayInputStream(new byte[0])));
+
+        assertThat(ex.getReason()).isEqualTo("INVALID_XML");
+    }
+}
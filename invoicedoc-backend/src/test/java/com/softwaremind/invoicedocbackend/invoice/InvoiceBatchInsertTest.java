@@ -0,0 +1,189 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
+import com.softwaremind.invoicedocbackend.contractor.ContractorType;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static com.softwaremind.invoicedocbackend.invoice.InvoiceStatus.DRAFT;
+import static com.softwaremind.invoicedocbackend.invoice.PaymentMethod.BANK_TRANSFER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class InvoiceBatchInsertTest {
+
+    private static final int ITEM_COUNT = 300;
+
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("invoicedoc")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("app.jwt.secret", () -> "SuperTajnyKluczJWTDoTestowMusibycdlugijakszalony");
+        registry.add("app.crypto.secret", () -> "NajwazniejszySekretKryptoDoTestowJestDlugiiBezpieczny");
+    }
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceItemRepository invoiceItemRepository;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private ContractorRepository contractorRepository;
+
+    @Autowired
+    private SellerProfileRepository sellerProfileRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private OrganizationEntity org;
+    private ContractorEntity contractor;
+    private SellerProfileEntity seller;
+
+    @BeforeEach
+    void setUp() {
+        invoiceItemRepository.deleteAll();
+        invoiceRepository.deleteAll();
+        contractorRepository.deleteAll();
+        sellerProfileRepository.deleteAll();
+        organizationRepository.deleteAll();
+
+        org = organizationRepository.save(
+                OrganizationEntity.builder()
+                        .name("Org Batch " + UUID.randomUUID())
+                        .createdAt(LocalDateTime.now())
+                        .build()
+        );
+
+        AddressEmbeddable addr = AddressEmbeddable.builder()
+                .street("Street")
+                .buildingNumber("1")
+                .postalCode("00-000")
+                .city("City")
+                .country("PL")
+                .build();
+
+        contractor = contractorRepository.save(
+                ContractorEntity.builder()
+                        .organization(org)
+                        .type(ContractorType.COMPANY)
+                        .name("Contractor Batch")
+                        .favorite(false)
+                        .address(addr)
+                        .build()
+        );
+
+        seller = sellerProfileRepository.save(
+                SellerProfileEntity.builder()
+                        .organization(org)
+                        .name("Seller Batch")
+                        .nipEncrypted("enc-nip-batch")
+                        .defaultCurrency("PLN")
+                        .defaultPaymentTermDays(14)
+                        .address(addr)
+                        .build()
+        );
+    }
+
+    @Test
+    @DisplayName("saving an invoice with 300 items should use batched inserts and pooled ids")
+    void largeInvoiceShouldBeWrittenInFewStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Long invoiceId = transactionTemplate.execute(status -> invoiceRepository.save(buildInvoice()).getId());
+
+        // 1 invoice + 6 item batches of 50, plus one nextval per 50 ids
+        assertAll(
+                () -> assertThat(statistics.getEntityInsertCount()).isEqualTo(ITEM_COUNT + 1),
+                () -> assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(20),
+                () -> assertThat(invoiceId).isNotNull(),
+                () -> assertThat(invoiceItemRepository.count()).isEqualTo(ITEM_COUNT)
+        );
+    }
+
+    private InvoiceEntity buildInvoice() {
+        InvoiceEntity invoice = new InvoiceEntity();
+        invoice.setOrganization(org);
+        invoice.setSellerProfile(seller);
+        invoice.setContractor(contractor);
+        invoice.setNumber("INV-BATCH-001");
+        invoice.setIssueDate(LocalDate.of(2024, 1, 10));
+        invoice.setSaleDate(LocalDate.of(2024, 1, 10));
+        invoice.setDueDate(LocalDate.of(2024, 1, 24));
+        invoice.setPaymentMethod(BANK_TRANSFER);
+        invoice.setCurrency("PLN");
+        invoice.setStatus(DRAFT);
+        invoice.setSellerName(seller.getName());
+        invoice.setSellerNipEncrypted("enc-nip");
+        invoice.setSellerAddress(seller.getAddress());
+        invoice.setBuyerName(contractor.getName());
+        invoice.setBuyerAddress(contractor.getAddress());
+        invoice.setTotalNet(BigDecimal.ZERO);
+        invoice.setTotalVat(BigDecimal.ZERO);
+        invoice.setTotalGross(BigDecimal.ZERO);
+        invoice.setReverseCharge(false);
+        invoice.setSplitPayment(false);
+        invoice.setItems(new ArrayList<>());
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            invoice.getItems().add(InvoiceItemEntity.builder()
+                    .invoice(invoice)
+                    .description("Line " + i)
+                    .quantity(BigDecimal.ONE)
+                    .unit("szt")
+                    .netUnitPrice(BigDecimal.TEN)
+                    .vatRate("23")
+                    .netTotal(BigDecimal.TEN)
+                    .vatAmount(new BigDecimal("2.30"))
+                    .grossTotal(new BigDecimal("12.30"))
+                    .build());
+        }
+        return invoice;
+    }
+}
@@ -1,11 +1,17 @@
 package com.softwaremind.invoicedocbackend.invoice;
 
 import com.softwaremind.invoicedocbackend.common.dto.AddressDto;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchItemResult;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchResponse;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCursorPage;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceItemCreateRequest;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceItemResponse;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
-import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfService;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfArchiveService;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfSource;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,7 +25,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -28,6 +37,8 @@ import static com.softwaremind.invoicedocbackend.invoice.InvoiceStatus.DRAFT;
 import static com.softwaremind.invoicedocbackend.invoice.PaymentMethod.BANK_TRANSFER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,7 +48,10 @@ class InvoiceControllerTest {
     private InvoiceService invoiceService;
 
     @Mock
-    private InvoicePdfService invoicePdfService;
+    private InvoicePdfCache invoicePdfCache;
+
+    @Mock
+    private InvoicePdfArchiveService invoicePdfArchiveService;
 
     @InjectMocks
     private InvoiceController controller;
@@ -144,7 +158,7 @@ class InvoiceControllerTest {
                 ArgumentCaptor.forClass(InvoiceCreateRequest.class);
 
         verify(invoiceService).createInvoice(captor.capture());
-        verifyNoMoreInteractions(invoiceService, invoicePdfService);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
 
         InvoiceCreateRequest passed = captor.getValue();
         assertThat(passed.sellerProfileId()).isEqualTo(req.sellerProfileId());
@@ -152,6 +166,27 @@ class InvoiceControllerTest {
         assertThat(passed.items()).hasSize(1);
     }
 
+    @Test
+    @DisplayName("createBatch should delegate whole list to service and return per-item results")
+    void createBatchShouldDelegateToService() {
+        List<InvoiceCreateRequest> requests = List.of(sampleCreateRequest(), sampleCreateRequest());
+        InvoiceBatchResponse serviceResp = new InvoiceBatchResponse(
+                2, 1, 1,
+                List.of(
+                        new InvoiceBatchItemResult(0, true, 1L, "FV/2024/01/05/001", null),
+                        new InvoiceBatchItemResult(1, false, null, null, "CONTRACTOR_NOT_FOUND")
+                )
+        );
+
+        when(invoiceService.createInvoices(requests)).thenReturn(serviceResp);
+
+        InvoiceBatchResponse result = controller.createBatch(requests);
+
+        assertThat(result).isEqualTo(serviceResp);
+        verify(invoiceService).createInvoices(requests);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
+    }
+
     @Test
     @DisplayName("list should delegate to service with parameters and return Page from service")
     void listShouldReturnPageFromService() {
@@ -173,7 +208,7 @@ class InvoiceControllerTest {
         );
 
         verify(invoiceService).listInvoices(from, to, page, size);
-        verifyNoMoreInteractions(invoiceService, invoicePdfService);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
     }
 
     @Test
@@ -192,7 +227,40 @@ class InvoiceControllerTest {
         assertThat(result.getContent()).containsExactly(resp);
 
         verify(invoiceService).listInvoices(null, null, page, size);
-        verifyNoMoreInteractions(invoiceService, invoicePdfService);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
+    }
+
+    @Test
+    @DisplayName("listSummaries should delegate to service and return summary page")
+    void listSummariesShouldReturnPageFromService() {
+        InvoiceSummaryResponse row = new InvoiceSummaryResponse(
+                1L, "FV/2024/01/10/001", InvoiceStatus.ISSUED, LocalDate.of(2024, 1, 10),
+                LocalDate.of(2024, 1, 24), "Buyer", "PLN",
+                new BigDecimal("100.00"), new BigDecimal("23.00"), new BigDecimal("123.00"));
+        Page<InvoiceSummaryResponse> pageResp = new PageImpl<>(List.of(row));
+
+        when(invoiceService.listInvoiceSummaries(null, null, 0, 20)).thenReturn(pageResp);
+
+        Page<InvoiceSummaryResponse> result = controller.listSummaries(null, null, 0, 20);
+
+        assertThat(result.getContent()).containsExactly(row);
+        verify(invoiceService).listInvoiceSummaries(null, null, 0, 20);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
+    }
+
+    @Test
+    @DisplayName("listByCursor should delegate cursor and size to service")
+    void listByCursorShouldDelegateToService() {
+        InvoiceResponse resp = sampleInvoiceResponse();
+        InvoiceCursorPage<InvoiceResponse> cursorPage = new InvoiceCursorPage<>(List.of(resp), 20, true, "abc");
+
+        when(invoiceService.listInvoicesAfter(null, null, "prev", 20)).thenReturn(cursorPage);
+
+        InvoiceCursorPage<InvoiceResponse> result = controller.listByCursor(null, null, "prev", 20);
+
+        assertThat(result).isEqualTo(cursorPage);
+        verify(invoiceService).listInvoicesAfter(null, null, "prev", 20);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
     }
 
     @Test
@@ -208,28 +276,58 @@ class InvoiceControllerTest {
         assertThat(result).isEqualTo(resp);
 
         verify(invoiceService).getInvoice(id);
-        verifyNoMoreInteractions(invoiceService, invoicePdfService);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
     }
 
     @Test
-    @DisplayName("pdf should ask service for entity, generate PDF and set headers")
-    void pdfShouldGeneratePdfAndSetHeaders() {
+    @DisplayName("pdfArchive should validate the range up front and stream the archive with caller's security context")
+    void pdfArchiveShouldStreamZip() throws Exception {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        List<Long> ids = List.of(1L, 2L);
+        when(invoiceService.listInvoiceIdsForArchive(from, to)).thenReturn(ids);
+
+        ResponseEntity<StreamingResponseBody> response = controller.pdfArchive(from, to);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        assertAll(
+                () -> assertThat(response.getHeaders().getContentType())
+                        .isEqualTo(MediaType.parseMediaType("application/zip")),
+                () -> assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                        .contains("invoices-2024-01-01_2024-01-31.zip")
+        );
+        verify(invoiceService).listInvoiceIdsForArchive(from, to);
+        verify(invoicePdfArchiveService).writeArchive(eq(ids), any(), any(OutputStream.class));
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache, invoicePdfArchiveService);
+    }
+
+    @Test
+    @DisplayName("pdf should ask service for entity, stream PDF into response body and set headers")
+    void pdfShouldGeneratePdfAndSetHeaders() throws Exception {
         long id = 42L;
 
         InvoiceEntity entity = new InvoiceEntity();
         entity.setId(id);
         entity.setNumber("FV 2024/01/05 001");
 
+        InvoicePdfSource source = new InvoicePdfSource(entity, null);
+
         byte[] pdfBytes = "PDF-DATA".getBytes();
 
-        when(invoiceService.getInvoiceEntityForPdf(id)).thenReturn(entity);
-        when(invoicePdfService.generateInvoicePdf(entity)).thenReturn(pdfBytes);
+        when(invoiceService.getInvoiceForPdf(id)).thenReturn(source);
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(pdfBytes);
+            return null;
+        }).when(invoicePdfCache).writeTo(eq(source), any(OutputStream.class));
+
+        ResponseEntity<StreamingResponseBody> response = controller.pdf(id);
 
-        ResponseEntity<byte[]> response = controller.pdf(id);
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        response.getBody().writeTo(written);
 
         assertAll(
                 () -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK),
-                () -> assertThat(response.getBody()).isEqualTo(pdfBytes),
+                () -> assertThat(written.toByteArray()).isEqualTo(pdfBytes),
                 () -> assertThat(response.getHeaders().getContentType())
                         .isEqualTo(MediaType.APPLICATION_PDF),
                 () -> assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
@@ -237,9 +335,9 @@ class InvoiceControllerTest {
                         .contains("invoice-FV_2024/01/05_001.pdf")
         );
 
-        verify(invoiceService).getInvoiceEntityForPdf(id);
-        verify(invoicePdfService).generateInvoicePdf(entity);
-        verifyNoMoreInteractions(invoiceService, invoicePdfService);
+        verify(invoiceService).getInvoiceForPdf(id);
+        verify(invoicePdfCache).writeTo(eq(source), any(OutputStream.class));
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
     }
 
     @Test
@@ -252,6 +350,6 @@ class InvoiceControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 
         verify(invoiceService).deleteInvoice(id);
-        verifyNoMoreInteractions(invoiceService, invoicePdfService);
+        verifyNoMoreInteractions(invoiceService, invoicePdfCache);
     }
 }
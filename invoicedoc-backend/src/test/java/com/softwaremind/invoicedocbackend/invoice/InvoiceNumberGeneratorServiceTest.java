@@ -2,20 +2,33 @@ package com.softwaremind.invoicedocbackend.invoice;
 
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,7 +36,10 @@ import static org.mockito.Mockito.when;
 class InvoiceNumberGeneratorServiceTest {
 
     @Mock
-    private InvoiceRepository invoiceRepository;
+    private InvoiceNumberCounterRepository counterRepository;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private InvoiceNumberGeneratorService service;
@@ -46,40 +62,36 @@ class InvoiceNumberGeneratorServiceTest {
     }
 
     @Test
-    @DisplayName("generateNumberFor should build number FV/YYYY/MM/DD/001 when no invoices for that day")
-    void generateNumberForShouldReturnSequence001WhenNoInvoices() {
+    @DisplayName("generateNumberFor should build number FV/YYYY/MM/DD/001 for the first invoice of the day")
+    void generateNumberForShouldReturnSequence001ForFirstInvoice() {
         LocalDate date = LocalDate.of(2024, 3, 15);
         SellerProfileEntity sellerProfile = sellerProfileWithOrg(1L);
 
-        when(invoiceRepository.countByOrganizationIdAndIssueDateBetween(
-                1L, date, date
-        )).thenReturn(0L);
+        when(counterRepository.allocate(1L, date, 1)).thenReturn(1L);
 
         String number = service.generateNumberFor(sellerProfile, date);
 
         assertAll(
                 () -> assertThat(number).isEqualTo("FV/2024/03/15/001"),
-                () -> verify(invoiceRepository)
-                        .countByOrganizationIdAndIssueDateBetween(1L, date, date)
+                () -> verify(counterRepository).allocate(1L, date, 1)
         );
     }
 
     @Test
-    @DisplayName("generateNumberFor should increment sequence based on existing invoices (NNN = count + 1)")
-    void generateNumberForShouldIncrementSequence() {
+    @DisplayName("generateNumberFor should use the value returned by the per-org counter")
+    void generateNumberForShouldUseCounterValue() {
         LocalDate date = LocalDate.of(2024, 3, 15);
         SellerProfileEntity sellerProfile = sellerProfileWithOrg(5L);
 
-        when(invoiceRepository.countByOrganizationIdAndIssueDateBetween(
-                5L, date, date
-        )).thenReturn(2L);
+        when(counterRepository.allocate(5L, date, 1)).thenReturn(3L);
 
         String number = service.generateNumberFor(sellerProfile, date);
 
         assertAll(
                 () -> assertThat(number).isEqualTo("FV/2024/03/15/003"),
-                () -> verify(invoiceRepository)
-                        .countByOrganizationIdAndIssueDateBetween(5L, date, date)
+                () -> verify(counterRepository, never()).reserve(anyLong(), any(), anyLong()),
+                () -> assertThat(meterRegistry.get("invoice.number.allocate")
+                        .tags("mode", "GAP_FREE", "call", "single").timer().count()).isEqualTo(1)
         );
     }
 
@@ -89,9 +101,7 @@ class InvoiceNumberGeneratorServiceTest {
         LocalDate date = LocalDate.of(2024, 1, 5);
         SellerProfileEntity sellerProfile = sellerProfileWithOrg(7L);
 
-        when(invoiceRepository.countByOrganizationIdAndIssueDateBetween(
-                7L, date, date
-        )).thenReturn(0L);
+        when(counterRepository.allocate(7L, date, 1)).thenReturn(1L);
 
         String number = service.generateNumberFor(sellerProfile, date);
 
@@ -99,12 +109,10 @@ class InvoiceNumberGeneratorServiceTest {
     }
 
     @Test
-    @DisplayName("generateNumberFor should use current date when issueDate is null and still query with same from/to")
+    @DisplayName("generateNumberFor should use current date when issueDate is null")
     void generateNumberForShouldUseCurrentDateWhenIssueDateIsNull() {
         SellerProfileEntity sellerProfile = sellerProfileWithOrg(10L);
-        when(invoiceRepository.countByOrganizationIdAndIssueDateBetween(
-                anyLong(), any(), any()
-        )).thenReturn(0L);
+        when(counterRepository.allocate(anyLong(), any(), anyLong())).thenReturn(1L);
 
         String number = service.generateNumberFor(sellerProfile, null);
 
@@ -118,10 +126,80 @@ class InvoiceNumberGeneratorServiceTest {
                 () -> assertThat(parts[4]).isEqualTo("001")
         );
 
-        verify(invoiceRepository).countByOrganizationIdAndIssueDateBetween(
-                anyLong(),
-                any(LocalDate.class),
-                any(LocalDate.class)
+        verify(counterRepository).allocate(eq(10L), any(LocalDate.class), eq(1L));
+    }
+
+    @Test
+    @DisplayName("generateNumberFor in GAP_TOLERANT mode should reserve one block and serve following numbers from memory")
+    void generateNumberForGapTolerantShouldServeNumbersFromReservedBlock() {
+        ReflectionTestUtils.setField(service, "mode", InvoiceNumberingMode.GAP_TOLERANT);
+        ReflectionTestUtils.setField(service, "blockSize", 5);
+
+        LocalDate date = LocalDate.of(2024, 3, 15);
+        SellerProfileEntity sellerProfile = sellerProfileWithOrg(3L);
+
+        when(counterRepository.reserve(3L, date, 5)).thenReturn(5L, 10L);
+
+        List<String> numbers = java.util.stream.IntStream.range(0, 6)
+                .mapToObj(i -> service.generateNumberFor(sellerProfile, date))
+                .toList();
+
+        assertAll(
+                () -> assertThat(numbers).containsExactly(
+                        "FV/2024/03/15/001",
+                        "FV/2024/03/15/002",
+                        "FV/2024/03/15/003",
+                        "FV/2024/03/15/004",
+                        "FV/2024/03/15/005",
+                        "FV/2024/03/15/006"
+                ),
+                () -> verify(counterRepository, times(2)).reserve(3L, date, 5),
+                () -> verify(counterRepository, never()).allocate(anyLong(), any(), anyLong())
+        );
+    }
+
+    @Test
+    @DisplayName("generateNumberFor in GAP_TOLERANT mode should never hand out the same number to parallel callers")
+    void generateNumberForGapTolerantShouldBeUniqueUnderConcurrency() throws Exception {
+        ReflectionTestUtils.setField(service, "mode", InvoiceNumberingMode.GAP_TOLERANT);
+        ReflectionTestUtils.setField(service, "blockSize", 7);
+
+        LocalDate date = LocalDate.of(2024, 3, 15);
+        SellerProfileEntity sellerProfile = sellerProfileWithOrg(4L);
+
+        AtomicLong counter = new AtomicLong();
+        when(counterRepository.reserve(4L, date, 7))
+                .thenAnswer(inv -> counter.addAndGet(7));
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = java.util.stream.IntStream.range(0, 200)
+                    .<Future<?>>mapToObj(i -> pool.submit(
+                            () -> numbers.add(service.generateNumberFor(sellerProfile, date))))
+                    .toList();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(numbers).hasSize(200);
+    }
+
+    @Test
+    @DisplayName("parse should read date and sequence of generated numbers and ignore anything else")
+    void parseShouldRecognizeGeneratedNumbers() {
+        assertAll(
+                () -> assertThat(InvoiceNumberGeneratorService.parse("FV/2024/03/15/042"))
+                        .contains(new InvoiceNumberGeneratorService.GeneratedNumber(LocalDate.of(2024, 3, 15), 42)),
+                () -> assertThat(InvoiceNumberGeneratorService.parse("FV/2024/03/15/1200"))
+                        .map(InvoiceNumberGeneratorService.GeneratedNumber::sequence).contains(1200L),
+                () -> assertThat(InvoiceNumberGeneratorService.parse("FV/2024/02/30/001")).isEmpty(),
+                () -> assertThat(InvoiceNumberGeneratorService.parse("FV/2024/03/15/42")).isEmpty(),
+                () -> assertThat(InvoiceNumberGeneratorService.parse("HIST/2024/1")).isEmpty(),
+                () -> assertThat(InvoiceNumberGeneratorService.parse(null)).isEmpty()
         );
     }
 }
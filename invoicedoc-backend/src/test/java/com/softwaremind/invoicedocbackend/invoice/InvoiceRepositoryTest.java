@@ -8,6 +8,7 @@ import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileRepository;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
@@ -312,4 +313,21 @@ class InvoiceRepositoryTest {
         assertThat(countOrg1).isEqualTo(2);
         assertThat(countOrg2).isEqualTo(1);
     }
+
+    @Test
+    @DisplayName("findSummaries should project org invoices in range, newest first, with total count")
+    void findSummariesShouldProjectSummaryColumns() {
+        var page = invoiceRepository.findSummaries(
+                org1.getId(),
+                LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 12, 31),
+                org.springframework.data.domain.PageRequest.of(0, 2)
+        );
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent())
+                .extracting(InvoiceSummaryResponse::number)
+                .containsExactly("INV-ORG1-003", "INV-ORG1-002");
+        assertThat(page.getContent().getFirst().buyerName()).isEqualTo(contractor1.getName());
+    }
 }
@@ -2,27 +2,39 @@ package com.softwaremind.invoicedocbackend.invoice;
 
 import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
 import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchItemResult;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceBatchResponse;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCursorPage;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceItemCreateRequest;
 import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse;
 import com.softwaremind.invoicedocbackend.invoice.mapper.InvoiceMapper;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfSource;
 import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.security.UserRole;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileRepository;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
@@ -46,6 +58,9 @@ class InvoiceServiceTest {
     @Mock
     private SellerProfileRepository sellerProfileRepository;
 
+    @Mock
+    private TenantCache tenantCache;
+
     @Mock
     private ContractorRepository contractorRepository;
 
@@ -58,6 +73,18 @@ class InvoiceServiceTest {
     @Mock
     private CurrentUserProvider currentUserProvider;
 
+    @Mock
+    private Session session;
+
+    @Mock
+    private InvoicePdfCache invoicePdfCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private InvoiceService invoiceService;
 
@@ -122,7 +149,7 @@ class InvoiceServiceTest {
         when(currentUserProvider.getCurrentUser()).thenReturn(cu);
 
         SellerProfileEntity sellerProfile = sellerProfile(ORG_ID);
-        when(sellerProfileRepository.findById(SELLER_PROFILE_ID))
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID))
                 .thenReturn(Optional.of(sellerProfile));
 
         ContractorEntity contractor = contractor(ORG_ID);
@@ -186,7 +213,9 @@ class InvoiceServiceTest {
                 () -> assertThat(captured.getItems()).hasSize(2),
                 () -> assertThat(captured.getTotalNet()).isEqualByComparingTo("250.00"),
                 () -> assertThat(captured.getTotalVat()).isEqualByComparingTo("46.00"),
-                () -> assertThat(captured.getTotalGross()).isEqualByComparingTo("296.00")
+                () -> assertThat(captured.getTotalGross()).isEqualByComparingTo("296.00"),
+                () -> assertThat(meterRegistry.get("invoice.create")
+                        .tags("org", ORG_ID.toString(), "outcome", "success").timer().count()).isEqualTo(1)
         );
     }
 
@@ -197,7 +226,7 @@ class InvoiceServiceTest {
         when(currentUserProvider.getCurrentUser()).thenReturn(cu);
 
         SellerProfileEntity sellerProfile = sellerProfile(ORG_ID);
-        when(sellerProfileRepository.findById(SELLER_PROFILE_ID))
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID))
                 .thenReturn(Optional.of(sellerProfile));
 
         ContractorEntity contractor = contractor(ORG_ID);
@@ -252,7 +281,7 @@ class InvoiceServiceTest {
         when(currentUserProvider.getCurrentUser()).thenReturn(cu);
 
         SellerProfileEntity sellerFromOtherOrg = sellerProfile(99L);
-        when(sellerProfileRepository.findById(SELLER_PROFILE_ID))
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID))
                 .thenReturn(Optional.of(sellerFromOtherOrg));
 
         InvoiceCreateRequest req = createRequest(List.of());
@@ -263,6 +292,7 @@ class InvoiceServiceTest {
         );
 
         assertThat(ex).hasMessage("Seller profile does not belong to your organization");
+        assertThat(meterRegistry.get("invoice.create").tag("outcome", "error").timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -272,7 +302,7 @@ class InvoiceServiceTest {
         when(currentUserProvider.getCurrentUser()).thenReturn(cu);
 
         SellerProfileEntity seller = sellerProfile(ORG_ID);
-        when(sellerProfileRepository.findById(SELLER_PROFILE_ID))
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID))
                 .thenReturn(Optional.of(seller));
 
         ContractorEntity contractorOtherOrg = contractor(99L);
@@ -289,6 +319,193 @@ class InvoiceServiceTest {
         assertThat(ex).hasMessage("Contractor does not belong to your organization");
     }
 
+    @Test
+    @DisplayName("createInvoices should load profiles and contractors once, allocate numbers per date and report failures per item")
+    void createInvoicesShouldCreateValidItemsAndReportFailures() {
+        CurrentUser cu = new CurrentUser(100L, ORG_ID, UserRole.OWNER);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+        when(session.unwrap(Session.class)).thenReturn(session);
+
+        SellerProfileEntity sellerProfile = sellerProfile(ORG_ID);
+        when(sellerProfileRepository.findAllById(List.of(SELLER_PROFILE_ID)))
+                .thenReturn(List.of(sellerProfile));
+
+        ContractorEntity contractor = contractor(ORG_ID);
+        ContractorEntity foreignContractor = ContractorEntity.builder()
+                .id(3L)
+                .organization(org(99L))
+                .name("Foreign")
+                .favorite(false)
+                .build();
+        when(contractorRepository.findAllById(List.of(CONTRACTOR_ID, 3L)))
+                .thenReturn(List.of(contractor, foreignContractor));
+
+        InvoiceItemCreateRequest item = new InvoiceItemCreateRequest(
+                "Item", new BigDecimal("1.00"), "pcs", new BigDecimal("10.00"), "23");
+
+        InvoiceCreateRequest ok1 = createRequest(List.of(item));
+        InvoiceCreateRequest foreign = new InvoiceCreateRequest(
+                SELLER_PROFILE_ID, 3L, null, null, null, ISSUE_DATE, SALE_DATE, DUE_DATE,
+                BANK_TRANSFER, "PLN", null, false, false, List.of(item));
+        InvoiceCreateRequest noItems = createRequest(List.of());
+        InvoiceCreateRequest ok2 = createRequest(List.of(item, item));
+
+        when(numberGenerator.generateNumbersFor(sellerProfile, ISSUE_DATE, 2))
+                .thenReturn(List.of("FV/2024/01/10/001", "FV/2024/01/10/002"));
+        when(invoiceMapper.createEmptyInvoiceEntity(any(), any(), any(), anyString()))
+                .thenAnswer(invocation -> {
+                    InvoiceEntity invoice = new InvoiceEntity();
+                    invoice.setNumber(invocation.getArgument(3));
+                    invoice.setItems(new ArrayList<>());
+                    return invoice;
+                });
+        when(invoiceMapper.toItemEntity(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> new InvoiceItemEntity());
+        when(invoiceRepository.save(any(InvoiceEntity.class)))
+                .thenAnswer(invocation -> {
+                    InvoiceEntity invoice = invocation.getArgument(0);
+                    invoice.setId(invoice.getNumber().endsWith("001") ? 501L : 502L);
+                    return invoice;
+                });
+
+        InvoiceBatchResponse result = invoiceService.createInvoices(List.of(ok1, foreign, noItems, ok2));
+
+        assertAll(
+                () -> assertThat(result.total()).isEqualTo(4),
+                () -> assertThat(result.created()).isEqualTo(2),
+                () -> assertThat(result.failed()).isEqualTo(2),
+                () -> assertThat(result.results()).containsExactly(
+                        new InvoiceBatchItemResult(0, true, 501L, "FV/2024/01/10/001", null),
+                        new InvoiceBatchItemResult(1, false, null, null, "CONTRACTOR_NOT_IN_ORG"),
+                        new InvoiceBatchItemResult(2, false, null, null, "ITEMS_REQUIRED"),
+                        new InvoiceBatchItemResult(3, true, 502L, "FV/2024/01/10/002", null)
+                )
+        );
+
+        verify(session).setJdbcBatchSize(50);
+        verify(numberGenerator, never()).generateNumberFor(any(), any());
+        verify(sellerProfileRepository, never()).findById(any());
+        verify(contractorRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("createInvoices should flush and clear the persistence context after every chunk")
+    void createInvoicesShouldFlushEveryChunk() {
+        ReflectionTestUtils.setField(invoiceService, "batchChunkSize", 2);
+
+        CurrentUser cu = new CurrentUser(100L, ORG_ID, UserRole.OWNER);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+        when(session.unwrap(Session.class)).thenReturn(session);
+
+        SellerProfileEntity sellerProfile = sellerProfile(ORG_ID);
+        when(sellerProfileRepository.findAllById(any())).thenReturn(List.of(sellerProfile));
+        when(contractorRepository.findAllById(any())).thenReturn(List.of(contractor(ORG_ID)));
+
+        InvoiceItemCreateRequest item = new InvoiceItemCreateRequest(
+                "Item", new BigDecimal("1.00"), "pcs", new BigDecimal("10.00"), "23");
+        List<InvoiceCreateRequest> requests = java.util.Collections.nCopies(5, createRequest(List.of(item)));
+
+        when(numberGenerator.generateNumbersFor(sellerProfile, ISSUE_DATE, 2))
+                .thenReturn(List.of("N1", "N2"))
+                .thenReturn(List.of("N3", "N4"));
+        when(numberGenerator.generateNumbersFor(sellerProfile, ISSUE_DATE, 1))
+                .thenReturn(List.of("N5"));
+        when(invoiceMapper.createEmptyInvoiceEntity(any(), any(), any(), anyString()))
+                .thenAnswer(invocation -> new InvoiceEntity());
+        when(invoiceMapper.toItemEntity(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> new InvoiceItemEntity());
+        when(invoiceRepository.save(any(InvoiceEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        InvoiceBatchResponse result = invoiceService.createInvoices(requests);
+
+        assertThat(result.created()).isEqualTo(5);
+        verify(session, times(3)).setJdbcBatchSize(2);
+        verify(session, times(3)).flush();
+        verify(session, times(3)).clear();
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("createInvoices should retry a failed chunk invoice by invoice and report only the bad one as failed")
+    void createInvoicesShouldIsolateChunkFailures() {
+        ReflectionTestUtils.setField(invoiceService, "batchChunkSize", 2);
+
+        CurrentUser cu = new CurrentUser(100L, ORG_ID, UserRole.OWNER);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+        when(session.unwrap(Session.class)).thenReturn(session);
+
+        SellerProfileEntity sellerProfile = sellerProfile(ORG_ID);
+        when(sellerProfileRepository.findAllById(any())).thenReturn(List.of(sellerProfile));
+        when(contractorRepository.findAllById(any())).thenReturn(List.of(contractor(ORG_ID)));
+
+        InvoiceItemCreateRequest item = new InvoiceItemCreateRequest(
+                "Item", new BigDecimal("1.00"), "pcs", new BigDecimal("10.00"), "23");
+        List<InvoiceCreateRequest> requests = java.util.Collections.nCopies(3, createRequest(List.of(item)));
+
+        when(numberGenerator.generateNumbersFor(sellerProfile, ISSUE_DATE, 2))
+                .thenReturn(List.of("N1", "N2"));
+        when(numberGenerator.generateNumbersFor(sellerProfile, ISSUE_DATE, 1))
+                .thenReturn(List.of("N1"))
+                .thenReturn(List.of("N2"))
+                .thenReturn(List.of("N3"));
+        when(invoiceMapper.createEmptyInvoiceEntity(any(), any(), any(), anyString()))
+                .thenAnswer(invocation -> {
+                    InvoiceEntity invoice = new InvoiceEntity();
+                    invoice.setNumber(invocation.getArgument(3));
+                    invoice.setItems(new ArrayList<>());
+                    return invoice;
+                });
+        when(invoiceMapper.toItemEntity(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> new InvoiceItemEntity());
+        when(invoiceRepository.save(any(InvoiceEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // chunk [0, 1] fails, the retry of 0 succeeds, the retry of 1 fails again, chunk [2] succeeds
+        doThrow(new IllegalStateException("constraint violated"))
+                .doNothing()
+                .doThrow(new IllegalStateException("constraint violated"))
+                .doNothing()
+                .when(session).flush();
+
+        InvoiceBatchResponse result = invoiceService.createInvoices(requests);
+
+        assertAll(
+                () -> assertThat(result.created()).isEqualTo(2),
+                () -> assertThat(result.failed()).isEqualTo(1),
+                () -> assertThat(result.results()).containsExactly(
+                        new InvoiceBatchItemResult(0, true, null, "N1", null),
+                        new InvoiceBatchItemResult(1, false, null, null, "SAVE_FAILED"),
+                        new InvoiceBatchItemResult(2, true, null, "N3", null)
+                )
+        );
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("createInvoices should reject empty and oversized batches with BAD_REQUEST")
+    void createInvoicesShouldRejectEmptyAndOversizedBatches() {
+        ReflectionTestUtils.setField(invoiceService, "batchMaxSize", 1);
+
+        CurrentUser cu = new CurrentUser(100L, ORG_ID, UserRole.OWNER);
+        when(currentUserProvider.getCurrentUser()).thenReturn(cu);
+
+        ResponseStatusException empty = assertThrows(
+                ResponseStatusException.class,
+                () -> invoiceService.createInvoices(List.of())
+        );
+        ResponseStatusException tooLarge = assertThrows(
+                ResponseStatusException.class,
+                () -> invoiceService.createInvoices(List.of(createRequest(List.of()), createRequest(List.of())))
+        );
+
+        assertAll(
+                () -> assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST),
+                () -> assertThat(empty.getReason()).isEqualTo("BATCH_EMPTY"),
+                () -> assertThat(tooLarge.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST),
+                () -> assertThat(tooLarge.getReason()).isEqualTo("BATCH_TOO_LARGE")
+        );
+        verifyNoInteractions(invoiceRepository, numberGenerator);
+    }
+
     @Test
     @DisplayName("listInvoices should call findByOrganizationIdAndIssueDateBetween when from & to provided")
     void listInvoicesShouldUseDateRangeWhenFromAndToProvided() {
@@ -321,6 +538,102 @@ class InvoiceServiceTest {
         verifyNoMoreInteractions(invoiceRepository);
     }
 
+    @Test
+    @DisplayName("listInvoiceSummaries should return projection rows without mapping entities")
+    void listInvoiceSummariesShouldUseProjection() {
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(100L, ORG_ID, UserRole.OWNER));
+
+        InvoiceSummaryResponse row = new InvoiceSummaryResponse(
+                1L, "FV/2024/01/10/001", InvoiceStatus.ISSUED, ISSUE_DATE, DUE_DATE, "Buyer", "PLN",
+                new BigDecimal("100.00"), new BigDecimal("23.00"), new BigDecimal("123.00"));
+        when(invoiceRepository.findSummaries(eq(ORG_ID), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(row)));
+
+        Page<InvoiceSummaryResponse> result = invoiceService.listInvoiceSummaries(null, ISSUE_DATE, 0, 20);
+
+        assertThat(result.getContent()).containsExactly(row);
+        verify(invoiceRepository).findSummaries(
+                eq(ORG_ID), eq(LocalDate.of(1, 1, 1)), eq(ISSUE_DATE), any(Pageable.class));
+        verifyNoInteractions(invoiceMapper);
+        verifyNoMoreInteractions(invoiceRepository);
+    }
+
+    @Test
+    @DisplayName("listInvoicesAfter should fetch one extra row and return cursor of last returned invoice")
+    void listInvoicesAfterShouldReturnNextCursorWhenMoreRowsExist() {
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(100L, ORG_ID, UserRole.OWNER));
+
+        List<InvoiceEntity> rows = new ArrayList<>();
+        for (long id = 5; id >= 3; id--) {
+            InvoiceEntity e = new InvoiceEntity();
+            e.setId(id);
+            e.setIssueDate(ISSUE_DATE);
+            rows.add(e);
+        }
+        when(invoiceRepository.findFirstKeysetPage(eq(ORG_ID), any(), any(), any(Pageable.class)))
+                .thenReturn(rows);
+        when(invoiceMapper.toResponse(any(InvoiceEntity.class))).thenReturn(mock(InvoiceResponse.class));
+
+        InvoiceCursorPage<InvoiceResponse> result = invoiceService.listInvoicesAfter(null, null, null, 2);
+
+        ArgumentCaptor<Pageable> limitCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(invoiceRepository).findFirstKeysetPage(
+                eq(ORG_ID), eq(LocalDate.of(1, 1, 1)), eq(LocalDate.of(9999, 12, 31)), limitCaptor.capture());
+
+        assertAll(
+                () -> assertThat(limitCaptor.getValue().getPageSize()).isEqualTo(3),
+                () -> assertThat(result.content()).hasSize(2),
+                () -> assertThat(result.hasNext()).isTrue(),
+                () -> assertThat(InvoiceCursor.decode(result.nextCursor()))
+                        .isEqualTo(new InvoiceCursor(ISSUE_DATE, 4L))
+        );
+        verifyNoMoreInteractions(invoiceRepository);
+    }
+
+    @Test
+    @DisplayName("listInvoicesAfter should seek after decoded cursor and report last page without cursor")
+    void listInvoicesAfterShouldSeekAfterCursor() {
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(100L, ORG_ID, UserRole.OWNER));
+
+        InvoiceEntity last = new InvoiceEntity();
+        last.setId(1L);
+        last.setIssueDate(ISSUE_DATE.minusDays(1));
+        when(invoiceRepository.findKeysetPageAfter(
+                eq(ORG_ID), any(), any(), eq(ISSUE_DATE), eq(4L), any(Pageable.class)))
+                .thenReturn(List.of(last));
+        when(invoiceMapper.toResponse(last)).thenReturn(mock(InvoiceResponse.class));
+
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        String cursor = new InvoiceCursor(ISSUE_DATE, 4L).encode();
+
+        InvoiceCursorPage<InvoiceResponse> result = invoiceService.listInvoicesAfter(from, to, cursor, 20);
+
+        assertAll(
+                () -> assertThat(result.content()).hasSize(1),
+                () -> assertThat(result.hasNext()).isFalse(),
+                () -> assertThat(result.nextCursor()).isNull()
+        );
+        verify(invoiceRepository).findKeysetPageAfter(
+                eq(ORG_ID), eq(from), eq(to), eq(ISSUE_DATE), eq(4L), any(Pageable.class));
+        verifyNoMoreInteractions(invoiceRepository);
+    }
+
+    @Test
+    @DisplayName("listInvoicesAfter should reject malformed cursor with 400")
+    void listInvoicesAfterShouldRejectInvalidCursor() {
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(100L, ORG_ID, UserRole.OWNER));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> invoiceService.listInvoicesAfter(null, null, "not-a-cursor", 20));
+
+        assertAll(
+                () -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST),
+                () -> assertThat(ex.getReason()).isEqualTo("INVALID_CURSOR")
+        );
+        verifyNoInteractions(invoiceRepository);
+    }
+
     @Test
     @DisplayName("listInvoices should call findByOrganizationId when from or to is null")
     void listInvoicesShouldUseSimpleQueryWhenDatesMissing() {
@@ -405,8 +718,8 @@ class InvoiceServiceTest {
     }
 
     @Test
-    @DisplayName("getInvoiceEntityForPdf should return entity when access is allowed")
-    void getInvoiceEntityForPdfShouldReturnEntityWhenAccessAllowed() {
+    @DisplayName("getInvoiceForPdf should return entity when access is allowed")
+    void getInvoiceForPdfShouldReturnEntityWhenAccessAllowed() {
         CurrentUser cu = new CurrentUser(100L, ORG_ID, UserRole.OWNER);
         when(currentUserProvider.getCurrentUser()).thenReturn(cu);
 
@@ -417,14 +730,39 @@ class InvoiceServiceTest {
 
         when(invoiceRepository.findById(7L)).thenReturn(Optional.of(entity));
 
-        InvoiceEntity result = invoiceService.getInvoiceEntityForPdf(7L);
+        InvoicePdfSource result = invoiceService.getInvoiceForPdf(7L);
+
+        assertAll(
+                () -> assertThat(result.invoice()).isSameAs(entity),
+                () -> assertThat(result.sellerProfile()).isNull()
+        );
+    }
+
+    @Test
+    @DisplayName("getInvoiceForPdf should take the seller profile from the tenant cache without setting it on the entity")
+    void getInvoiceForPdfShouldUseCachedSellerProfile() {
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(100L, ORG_ID, UserRole.OWNER));
+        SellerProfileEntity cached = SellerProfileEntity.builder().id(SELLER_PROFILE_ID).regon("123").build();
+        SellerProfileEntity managed = SellerProfileEntity.builder().id(SELLER_PROFILE_ID).build();
+        InvoiceEntity entity = new InvoiceEntity();
+        entity.setId(7L);
+        entity.setOrganization(org(ORG_ID));
+        entity.setSellerProfile(managed);
+        entity.setItems(new ArrayList<>());
+        when(invoiceRepository.findById(7L)).thenReturn(Optional.of(entity));
+        when(tenantCache.sellerProfile(SELLER_PROFILE_ID)).thenReturn(Optional.of(cached));
+
+        InvoicePdfSource result = invoiceService.getInvoiceForPdf(7L);
 
-        assertThat(result).isSameAs(entity);
+        assertAll(
+                () -> assertThat(result.sellerProfile()).isSameAs(cached),
+                () -> assertThat(entity.getSellerProfile()).isSameAs(managed)
+        );
     }
 
     @Test
-    @DisplayName("getInvoiceEntityForPdf should throw when user has no access")
-    void getInvoiceEntityForPdfShouldThrowWhenNoAccess() {
+    @DisplayName("getInvoiceForPdf should throw when user has no access")
+    void getInvoiceForPdfShouldThrowWhenNoAccess() {
         CurrentUser cu = new CurrentUser(100L, ORG_ID, UserRole.ACCOUNTANT);
         when(currentUserProvider.getCurrentUser()).thenReturn(cu);
 
@@ -437,12 +775,61 @@ class InvoiceServiceTest {
 
         IllegalStateException ex = assertThrows(
                 IllegalStateException.class,
-                () -> invoiceService.getInvoiceEntityForPdf(7L)
+                () -> invoiceService.getInvoiceForPdf(7L)
         );
 
         assertThat(ex).hasMessage("No access to this invoice");
     }
 
+    @Test
+    @DisplayName("listInvoiceIdsForArchive should page org invoice ids by keyset as they are read")
+    void listInvoiceIdsForArchiveShouldPageIds() {
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(100L, ORG_ID, UserRole.ACCOUNTANT));
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        List<InvoiceCursor> firstPage = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            firstPage.add(new InvoiceCursor(from, id));
+        }
+        when(invoiceRepository.findArchiveKeysAfter(eq(ORG_ID), eq(from), eq(to), eq(from), eq(0L),
+                any(Pageable.class)))
+                .thenReturn(firstPage);
+        when(invoiceRepository.findArchiveKeysAfter(eq(ORG_ID), eq(from), eq(to), eq(from), eq(500L),
+                any(Pageable.class)))
+                .thenReturn(List.of(new InvoiceCursor(to, 7L)));
+
+        Iterable<Long> ids = invoiceService.listInvoiceIdsForArchive(from, to);
+        verify(invoiceRepository, never()).findArchiveKeysAfter(any(), any(), any(), any(), any(), any());
+        List<Long> read = new ArrayList<>();
+        ids.forEach(read::add);
+
+        assertAll(
+                () -> assertThat(read).hasSize(501).startsWith(1L, 2L).endsWith(500L, 7L),
+                () -> verify(invoiceRepository, times(2))
+                        .findArchiveKeysAfter(any(), any(), any(), any(), any(), any()),
+                () -> verify(invoiceRepository, never()).countByOrganizationIdAndIssueDateBetween(any(), any(), any())
+        );
+    }
+
+    @Test
+    @DisplayName("listInvoiceIdsForArchive should reject inverted ranges and, when the guard is set, large ranges")
+    void listInvoiceIdsForArchiveShouldRejectInvalidRequests() {
+        ReflectionTestUtils.setField(invoiceService, "archiveMaxInvoices", 2);
+        when(currentUserProvider.getCurrentUser()).thenReturn(new CurrentUser(100L, ORG_ID, UserRole.OWNER));
+        when(invoiceRepository.countByOrganizationIdAndIssueDateBetween(ORG_ID, ISSUE_DATE, ISSUE_DATE))
+                .thenReturn(3L);
+
+        ResponseStatusException inverted = assertThrows(ResponseStatusException.class,
+                () -> invoiceService.listInvoiceIdsForArchive(ISSUE_DATE, ISSUE_DATE.minusDays(1)));
+        ResponseStatusException tooLarge = assertThrows(ResponseStatusException.class,
+                () -> invoiceService.listInvoiceIdsForArchive(ISSUE_DATE, ISSUE_DATE));
+
+        assertAll(
+                () -> assertThat(inverted.getReason()).isEqualTo("INVALID_DATE_RANGE"),
+                () -> assertThat(tooLarge.getReason()).isEqualTo("ARCHIVE_TOO_LARGE")
+        );
+    }
+
     @Test
     @DisplayName("deleteInvoice should delete invoice when user has access")
     void deleteInvoiceShouldDeleteWhenUserHasAccess() {
@@ -458,6 +845,7 @@ class InvoiceServiceTest {
         invoiceService.deleteInvoice(8L);
 
         verify(invoiceRepository).delete(entity);
+        verify(invoicePdfCache).evict(8L);
     }
 
     @Test
@@ -0,0 +1,197 @@
+package com.softwaremind.invoicedocbackend.invoice.pdf;
+
+import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class InvoicePdfArchiveServiceTest {
+
+    private static final int WINDOW = 3;
+
+    private InvoiceService invoiceService;
+    private InvoicePdfCache invoicePdfCache;
+    private InvoicePdfArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        invoiceService = mock(InvoiceService.class);
+        invoicePdfCache = mock(InvoicePdfCache.class);
+
+        when(invoiceService.getInvoiceForPdf(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            InvoiceEntity invoice = new InvoiceEntity();
+            invoice.setId(id);
+            invoice.setNumber("FV/2024/01/" + id);
+            return new InvoicePdfSource(invoice, null);
+        });
+        doAnswer(inv -> {
+            InvoiceEntity invoice = inv.<InvoicePdfSource>getArgument(0).invoice();
+            inv.<OutputStream>getArgument(1).write(("PDF-" + invoice.getId()).getBytes());
+            return null;
+        }).when(invoicePdfCache).writeTo(any(InvoicePdfSource.class), any(OutputStream.class));
+
+        archiveService = new InvoicePdfArchiveService(invoiceService, invoicePdfCache);
+        ReflectionTestUtils.setField(archiveService, "threads", 2);
+        ReflectionTestUtils.setField(archiveService, "window", WINDOW);
+        archiveService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiveService.shutdown();
+    }
+
+    private SecurityContext context(String user) {
+        Authentication auth = new UsernamePasswordAuthenticationToken(user, null, List.of());
+        return new SecurityContextImpl(auth);
+    }
+
+    private List<String> entryNames(byte[] zipBytes) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(zipBytes))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName() + "=" + new String(zip.readAllBytes()));
+            }
+        }
+        return names;
+    }
+
+    @Test
+    @DisplayName("writeArchive should write one sanitized entry per invoice in the given order")
+    void writeArchiveShouldWriteEntriesInOrder() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 20).boxed().toList();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        archiveService.writeArchive(ids, context("owner"), out);
+
+        List<String> entries = entryNames(out.toByteArray());
+        assertAll(
+                () -> assertThat(entries).hasSize(20),
+                () -> assertThat(entries.getFirst()).isEqualTo("invoice-FV_2024_01_1.pdf=PDF-1"),
+                () -> assertThat(entries.getLast()).isEqualTo("invoice-FV_2024_01_20.pdf=PDF-20")
+        );
+    }
+
+    @Test
+    @DisplayName("workers should run with caller's security context so org checks apply")
+    void workersShouldUseCallerSecurityContext() throws Exception {
+        List<String> principals = new CopyOnWriteArrayList<>();
+        when(invoiceService.getInvoiceForPdf(anyLong())).thenAnswer(inv -> {
+            principals.add(String.valueOf(SecurityContextHolder.getContext().getAuthentication().getPrincipal()));
+            InvoiceEntity invoice = new InvoiceEntity();
+            invoice.setId(inv.getArgument(0));
+            invoice.setNumber("N" + inv.getArgument(0));
+            return new InvoicePdfSource(invoice, null);
+        });
+
+        archiveService.writeArchive(List.of(1L, 2L, 3L, 4L), context("accountant"), new ByteArrayOutputStream());
+
+        assertThat(principals).hasSize(4).containsOnly("accountant");
+    }
+
+    @Test
+    @DisplayName("a blocked client should stop rendering once the window is full")
+    void renderingShouldBeBoundedByWindow() throws Exception {
+        AtomicInteger rendered = new AtomicInteger();
+        when(invoiceService.getInvoiceForPdf(anyLong())).thenAnswer(inv -> {
+            rendered.incrementAndGet();
+            InvoiceEntity invoice = new InvoiceEntity();
+            invoice.setId(inv.getArgument(0));
+            invoice.setNumber("N" + inv.getArgument(0));
+            return new InvoicePdfSource(invoice, null);
+        });
+        CountDownLatch clientBlocked = new CountDownLatch(1);
+        CountDownLatch releaseClient = new CountDownLatch(1);
+        OutputStream blockingClient = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                clientBlocked.countDown();
+                try {
+                    releaseClient.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        List<Long> ids = LongStream.rangeClosed(1, 30).boxed().toList();
+
+        Thread writer = new Thread(() -> {
+            try {
+                archiveService.writeArchive(ids, context("owner"), blockingClient);
+            } catch (Exception ignored) {
+            }
+        });
+        writer.start();
+
+        assertThat(clientBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        int renderedWhileBlocked = rendered.get();
+        releaseClient.countDown();
+        writer.join(5000);
+
+        assertAll(
+                () -> assertThat(renderedWhileBlocked).isLessThanOrEqualTo(WINDOW + 1),
+                () -> assertThat(rendered.get()).isEqualTo(30)
+        );
+    }
+
+    @Test
+    @DisplayName("failure of a single invoice should abort the archive with the original exception")
+    void failureShouldAbortArchive() throws Exception {
+        when(invoiceService.getInvoiceForPdf(2L)).thenThrow(new IllegalStateException("No access to this invoice"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> archiveService.writeArchive(List.of(1L, 2L, 3L), context("owner"), new ByteArrayOutputStream()));
+
+        assertThat(ex.getMessage()).isEqualTo("No access to this invoice");
+    }
+
+    @Test
+    @DisplayName("duplicate invoice numbers should get the id appended to keep entry names unique")
+    void duplicateNumbersShouldGetUniqueNames() throws Exception {
+        when(invoiceService.getInvoiceForPdf(anyLong())).thenAnswer(inv -> {
+            InvoiceEntity invoice = new InvoiceEntity();
+            invoice.setId(inv.getArgument(0));
+            invoice.setNumber("SAME");
+            return new InvoicePdfSource(invoice, null);
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        archiveService.writeArchive(List.of(1L, 2L), context("owner"), out);
+
+        assertThat(entryNames(out.toByteArray()))
+                .containsExactly("invoice-SAME.pdf=PDF-1", "invoice-SAME-2.pdf=PDF-2");
+    }
+}
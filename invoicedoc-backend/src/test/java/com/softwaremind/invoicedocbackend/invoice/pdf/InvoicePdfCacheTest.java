@@ -0,0 +1,238 @@
+package com.softwaremind.invoicedocbackend.invoice.pdf;
+
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceRepository;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InvoicePdfCacheTest {
+
+    private static final byte[] PDF = "%PDF-rendered".getBytes();
+
+    @TempDir
+    Path cacheDir;
+
+    private InvoicePdfService pdfService;
+    private InvoiceRepository invoiceRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private InvoicePdfCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pdfService = mock(InvoicePdfService.class);
+        invoiceRepository = mock(InvoiceRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(2).write(PDF);
+            return null;
+        }).when(pdfService).writeInvoicePdf(any(InvoiceEntity.class), any(), any(OutputStream.class));
+
+        cache = new InvoicePdfCache(pdfService, invoiceRepository, meterRegistry);
+        ReflectionTestUtils.setField(cache, "directory", cacheDir);
+        cache.init();
+    }
+
+    private InvoiceEntity invoice(Long id) {
+        InvoiceEntity invoice = new InvoiceEntity();
+        invoice.setId(id);
+        invoice.setNumber("FV/2024/01/05/00" + id);
+        invoice.setIssueDate(LocalDate.of(2024, 1, 5));
+        invoice.setBuyerName("Buyer");
+        invoice.setTotalGross(new BigDecimal("123.00"));
+        invoice.setContractor(ContractorEntity.builder().id(7L).email("a@example.com").build());
+        invoice.setItems(new ArrayList<>());
+        return invoice;
+    }
+
+    private byte[] download(InvoiceEntity invoice) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.writeTo(new InvoicePdfSource(invoice, invoice.getSellerProfile()), out);
+        return out.toByteArray();
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("invoice.pdf.cache.requests", "result", result).count();
+    }
+
+    @Test
+    @DisplayName("first download renders to disk, second is served from memory without rendering")
+    void secondDownloadShouldHitMemory() throws Exception {
+        InvoiceEntity invoice = invoice(1L);
+
+        byte[] first = download(invoice);
+        byte[] second = download(invoice);
+
+        assertAll(
+                () -> assertThat(first).isEqualTo(PDF),
+                () -> assertThat(second).isEqualTo(PDF),
+                () -> assertThat(count("miss")).isEqualTo(1.0),
+                () -> assertThat(count("memory_hit")).isEqualTo(1.0),
+                () -> assertThat(Files.list(cacheDir).map(p -> p.getFileName().toString()))
+                        .singleElement().asString().startsWith("1-").endsWith(".pdf")
+        );
+        verify(pdfService, times(1)).writeInvoicePdf(eq(invoice), any(), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("entries too big for memory tier are streamed from disk on later downloads")
+    void largeEntryShouldBeServedFromDisk() throws Exception {
+        ReflectionTestUtils.setField(cache, "memoryMaxEntryBytes", 1L);
+        InvoiceEntity invoice = invoice(2L);
+
+        download(invoice);
+        byte[] second = download(invoice);
+
+        assertAll(
+                () -> assertThat(second).isEqualTo(PDF),
+                () -> assertThat(count("miss")).isEqualTo(1.0),
+                () -> assertThat(count("disk_hit")).isEqualTo(1.0)
+        );
+        verify(pdfService, times(1)).writeInvoicePdf(any(InvoiceEntity.class), any(), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("changing contractor data produces a new version and replaces the old file")
+    void contentChangeShouldRenderAgain() throws Exception {
+        InvoiceEntity invoice = invoice(3L);
+        download(invoice);
+
+        invoice.getContractor().setEmail("changed@example.com");
+        download(invoice);
+
+        assertAll(
+                () -> assertThat(count("miss")).isEqualTo(2.0),
+                () -> assertThat(count("memory_hit")).isZero(),
+                () -> assertThat(Files.list(cacheDir)).hasSize(1)
+        );
+        verify(pdfService, times(2)).writeInvoicePdf(any(InvoiceEntity.class), any(), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("version should come from the seller profile passed next to the invoice, not the entity's own")
+    void versionShouldUsePassedSellerProfile() {
+        InvoiceEntity invoice = invoice(8L);
+        invoice.setSellerProfile(SellerProfileEntity.builder().id(3L).regon("111").build());
+        SellerProfileEntity cached = SellerProfileEntity.builder().id(3L).regon("222").build();
+
+        assertThat(cache.contentVersion(new InvoicePdfSource(invoice, cached)))
+                .isNotEqualTo(cache.contentVersion(new InvoicePdfSource(invoice, invoice.getSellerProfile())));
+    }
+
+    @Test
+    @DisplayName("evictForContractor should drop memory and disk entries of all its invoices")
+    void evictForContractorShouldRemoveEntries() throws Exception {
+        download(invoice(4L));
+        download(invoice(5L));
+        when(invoiceRepository.findIdsByContractorId(7L)).thenReturn(List.of(4L));
+
+        cache.evictForContractor(7L);
+        download(invoice(4L));
+
+        assertAll(
+                () -> assertThat(count("miss")).isEqualTo(3.0),
+                () -> assertThat(Files.list(cacheDir)).hasSize(2)
+        );
+    }
+
+    @Test
+    @DisplayName("evictForSellerProfile inside a transaction should keep entries until the commit")
+    void evictForSellerProfileShouldWaitForCommit() throws Exception {
+        download(invoice(4L));
+        when(invoiceRepository.findIdsBySellerProfileId(3L)).thenReturn(List.of(4L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictForSellerProfile(3L);
+            assertThat(Files.list(cacheDir)).hasSize(1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(Files.list(cacheDir)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("disk tier over its byte limit should delete evicted files and still serve the current download")
+    void diskTierShouldStayWithinByteLimit() throws Exception {
+        ReflectionTestUtils.setField(cache, "diskMaxBytes", 2L * PDF.length);
+        ReflectionTestUtils.setField(cache, "memoryMaxEntryBytes", 1L);
+        cache.init();
+
+        List<byte[]> downloads = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            downloads.add(download(invoice(id)));
+        }
+
+        assertAll(
+                () -> assertThat(downloads).allSatisfy(bytes -> assertThat(bytes).isEqualTo(PDF)),
+                () -> assertThat(Files.list(cacheDir)).hasSizeLessThanOrEqualTo(2)
+        );
+    }
+
+    @Test
+    @DisplayName("cache directory should be readable by the owner only")
+    void directoryShouldBeOwnerOnly() throws Exception {
+        assumeTrue(cacheDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(cacheDir))).isEqualTo("rwx------");
+    }
+
+    @Test
+    @DisplayName("files of a previous run should be indexed again and served from disk")
+    void restartShouldReuseFiles() throws Exception {
+        ReflectionTestUtils.setField(cache, "memoryMaxEntryBytes", 1L);
+        InvoiceEntity invoice = invoice(4L);
+        download(invoice);
+        Files.writeString(cacheDir.resolve("4-leftover.tmp"), "partial");
+
+        cache.init();
+        byte[] again = download(invoice);
+
+        assertAll(
+                () -> assertThat(again).isEqualTo(PDF),
+                () -> assertThat(count("disk_hit")).isEqualTo(1.0),
+                () -> assertThat(Files.list(cacheDir)).hasSize(1)
+        );
+    }
+
+    @Test
+    @DisplayName("disabled cache should render straight into the response stream")
+    void disabledCacheShouldDelegate() throws Exception {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        InvoiceEntity invoice = invoice(6L);
+
+        assertThat(download(invoice)).isEqualTo(PDF);
+        assertThat(download(invoice)).isEqualTo(PDF);
+
+        verify(pdfService, times(2)).writeInvoicePdf(eq(invoice), any(), any(OutputStream.class));
+        assertThat(Files.list(cacheDir)).isEmpty();
+    }
+}
@@ -7,13 +7,19 @@ import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
 import com.softwaremind.invoicedocbackend.invoice.InvoiceItemEntity;
 import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
 import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -22,6 +28,7 @@ import java.util.List;
 import static com.softwaremind.invoicedocbackend.invoice.InvoiceStatus.DRAFT;
 import static com.softwaremind.invoicedocbackend.invoice.PaymentMethod.BANK_TRANSFER;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +37,9 @@ class InvoicePdfServiceTest {
     @Mock
     private CryptoService cryptoService;
 
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private InvoicePdfService pdfService;
 
@@ -157,6 +167,25 @@ class InvoicePdfServiceTest {
         verifyNoMoreInteractions(cryptoService);
     }
 
+    @Test
+    @DisplayName("generateInvoicePdf should record render time and output bytes under the item count bucket")
+    void generateInvoicePdfShouldRecordMetrics() {
+        InvoiceEntity invoice = sampleInvoice();
+        invoice.setSellerNipEncrypted(null);
+        invoice.setBuyerNipEncrypted(null);
+
+        byte[] pdfBytes = pdfService.generateInvoicePdf(invoice);
+
+        DistributionSummary size = meterRegistry.get("invoice.pdf.size").tag("items", "0-10").summary();
+        assertAll(
+                () -> assertThat(meterRegistry.get("invoice.pdf.render").tag("items", "0-10").timer().count())
+                        .isEqualTo(1),
+                () -> assertThat(size.totalAmount()).isEqualTo(pdfBytes.length),
+                () -> assertThat(InvoicePdfService.itemCountBucket(1000)).isEqualTo("101-1000"),
+                () -> assertThat(InvoicePdfService.itemCountBucket(1001)).isEqualTo("1000+")
+        );
+    }
+
     @Test
     @DisplayName("generateInvoicePdf should not call decrypt when encrypted NIPs are null")
     void generateInvoicePdfShouldNotDecryptWhenNipsAreNull() {
@@ -213,4 +242,38 @@ class InvoicePdfServiceTest {
 
         verifyNoInteractions(cryptoService);
     }
+
+    @Test
+    @DisplayName("writeInvoicePdf should stream long item tables into caller's stream and leave it open")
+    void writeInvoicePdfShouldStreamAllItemsWithoutClosingStream() throws Exception {
+        InvoiceEntity invoice = sampleInvoice();
+        invoice.getItems().clear();
+        for (int i = 0; i < 1000; i++) {
+            InvoiceItemEntity item = sampleItem(invoice);
+            item.setDescription("Line " + i);
+            invoice.getItems().add(item);
+        }
+        when(cryptoService.decrypt(anyString())).thenReturn("1234567890");
+
+        boolean[] closed = {false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        pdfService.writeInvoicePdf(invoice, invoice.getSellerProfile(), out);
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        int pages = reader.getNumberOfPages();
+
+        assertThat(closed[0]).isFalse();
+        assertThat(pages).isGreaterThan(1);
+        assertThat(extractor.getTextFromPage(1)).contains("Line 0");
+        assertThat(extractor.getTextFromPage(pages)).contains("Line 999");
+        assertThat(extractor.getTextFromPage(2)).contains("Description");
+        reader.close();
+    }
 }
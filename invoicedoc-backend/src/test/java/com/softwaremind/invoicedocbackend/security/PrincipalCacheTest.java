@@ -0,0 +1,116 @@
+package com.softwaremind.invoicedocbackend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private static final Long USER_ID = 7L;
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private PrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PrincipalCache(userRepository, meterRegistry);
+        cache.init();
+    }
+
+    private UserEntity user(boolean approved) {
+        return UserEntity.builder()
+                .id(USER_ID)
+                .username("anna")
+                .passwordHash("hash")
+                .role(UserRole.ACCOUNTANT)
+                .approvedByOwner(approved)
+                .build();
+    }
+
+    @Test
+    @DisplayName("repeated lookups should load the user once and record hits")
+    void repeatedLookupsShouldHitCache() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user(true)));
+
+        Optional<CustomUserDetails> first = cache.get(USER_ID);
+        Optional<CustomUserDetails> second = cache.get(USER_ID);
+
+        assertAll(
+                () -> assertThat(first).map(CustomUserDetails::getUsername).contains("anna"),
+                () -> assertThat(second).containsSame(first.orElseThrow()),
+                () -> assertThat(meterRegistry.get("cache.gets").tags("cache", "principal", "result", "hit")
+                        .functionCounter().count()).isEqualTo(1.0)
+        );
+        verify(userRepository, times(1)).findById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("evict inside a transaction should reload fresh user state only after the commit")
+    void evictShouldReloadAfterCommit() {
+        when(userRepository.findById(USER_ID))
+                .thenReturn(Optional.of(user(true)))
+                .thenReturn(Optional.of(user(false)));
+        cache.get(USER_ID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(USER_ID);
+            assertThat(cache.get(USER_ID)).map(CustomUserDetails::isEnabled).contains(true);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.get(USER_ID)).map(CustomUserDetails::isEnabled).contains(false);
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("evict without a transaction should drop the entry right away")
+    void evictWithoutTransactionShouldDropImmediately() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user(true)));
+        cache.get(USER_ID);
+
+        cache.evict(USER_ID);
+        cache.get(USER_ID);
+
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("unknown user should not be cached")
+    void unknownUserShouldNotBeCached() {
+        when(userRepository.findById(USER_ID))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user(true)));
+
+        assertThat(cache.get(USER_ID)).isEmpty();
+        assertThat(cache.get(USER_ID)).isPresent();
+    }
+
+    @Test
+    @DisplayName("disabled cache should query repository on every lookup")
+    void disabledCacheShouldAlwaysLoad() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user(true)));
+
+        cache.get(USER_ID);
+        cache.get(USER_ID);
+
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+}
@@ -0,0 +1,37 @@
+package com.softwaremind.invoicedocbackend.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class PrometheusScrapeRequestMatcherTest {
+
+    @Test
+    @DisplayName("should permit the scrape only on a separate management port")
+    void shouldMatchOnlyOnManagementPort() {
+        PrometheusScrapeRequestMatcher matcher = new PrometheusScrapeRequestMatcher(8080, 8081);
+
+        assertAll(
+                () -> assertThat(matcher.matches(request(8081, "/actuator/prometheus"))).isTrue(),
+                () -> assertThat(matcher.matches(request(8080, "/actuator/prometheus"))).isFalse(),
+                () -> assertThat(matcher.matches(request(8081, "/actuator/env"))).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("should never permit the scrape when actuator shares the API port")
+    void shouldNotMatchWhenPortsAreShared() {
+        PrometheusScrapeRequestMatcher matcher = new PrometheusScrapeRequestMatcher(8080, 8080);
+
+        assertThat(matcher.matches(request(8080, "/actuator/prometheus"))).isFalse();
+    }
+
+    private static MockHttpServletRequest request(int localPort, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setLocalPort(localPort);
+        return request;
+    }
+}
@@ -27,6 +27,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private UserService service;
 
@@ -139,6 +142,7 @@ class UserServiceTest {
 
         ArgumentCaptor<UserEntity> captor = ArgumentCaptor.forClass(UserEntity.class);
         verify(userRepository).save(captor.capture());
+        verify(principalCache).evict(targetUserId);
 
         UserEntity saved = captor.getValue();
         assertAll(
@@ -203,6 +207,7 @@ class UserServiceTest {
 
         ArgumentCaptor<UserEntity> captor = ArgumentCaptor.forClass(UserEntity.class);
         verify(userRepository).save(captor.capture());
+        verify(principalCache).evict(targetUserId);
 
         UserEntity saved = captor.getValue();
         assertAll(
@@ -227,6 +232,7 @@ class UserServiceTest {
         assertThat(ex.getStatusCode().value()).isEqualTo(404);
         verify(userRepository).findById(targetUserId);
         verify(userRepository, never()).save(any());
+        verifyNoInteractions(principalCache);
     }
 
     @Test
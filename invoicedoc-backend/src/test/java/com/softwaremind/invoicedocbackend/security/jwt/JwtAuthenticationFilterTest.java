@@ -1,20 +1,23 @@
 package com.softwaremind.invoicedocbackend.security.jwt;
 
 import com.softwaremind.invoicedocbackend.security.CustomUserDetails;
+import com.softwaremind.invoicedocbackend.security.PrincipalCache;
 import com.softwaremind.invoicedocbackend.security.UserEntity;
-import com.softwaremind.invoicedocbackend.security.UserRepository;
 import com.softwaremind.invoicedocbackend.security.UserRole;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -33,7 +36,10 @@ class JwtAuthenticationFilterTest {
     private JwtService jwtService;
 
     @Mock
-    private UserRepository userRepository;
+    private PrincipalCache principalCache;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private JwtAuthenticationFilter filter;
@@ -53,6 +59,15 @@ class JwtAuthenticationFilterTest {
     @Mock
     private Claims claims;
 
+    @BeforeEach
+    void setUp() {
+        filter.init();
+    }
+
+    private long authentications(String result) {
+        return meterRegistry.timer("security.jwt.authentication", "result", result).count();
+    }
+
     @AfterEach
     void clearSecurityContext() {
         SecurityContextHolder.clearContext();
@@ -68,7 +83,7 @@ class JwtAuthenticationFilterTest {
         filter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verifyNoInteractions(jwtService, userRepository);
+        verifyNoInteractions(jwtService, principalCache);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
 
@@ -80,7 +95,7 @@ class JwtAuthenticationFilterTest {
         filter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verifyNoInteractions(jwtService, userRepository);
+        verifyNoInteractions(jwtService, principalCache);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
 
@@ -95,7 +110,7 @@ class JwtAuthenticationFilterTest {
         filter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verifyNoInteractions(jwtService, userRepository);
+        verifyNoInteractions(jwtService, principalCache);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
 
@@ -108,7 +123,7 @@ class JwtAuthenticationFilterTest {
         filter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verifyNoInteractions(jwtService, userRepository);
+        verifyNoInteractions(jwtService, principalCache);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
 
@@ -142,7 +157,7 @@ class JwtAuthenticationFilterTest {
                 .approvedByOwner(true)
                 .build();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(principalCache.get(userId)).thenReturn(Optional.of(new CustomUserDetails(user)));
 
         // when
         filter.doFilterInternal(request, response, filterChain);
@@ -160,8 +175,10 @@ class JwtAuthenticationFilterTest {
         );
 
         verify(jwtService).parseToken(token);
-        verify(userRepository).findById(userId);
+        verify(principalCache).get(userId);
+        verify(request).setAttribute(JwtAuthenticationFilter.ORGANIZATION_ATTRIBUTE, null);
         verify(filterChain).doFilter(request, response);
+        assertThat(authentications("authenticated")).isEqualTo(1);
     }
 
     // ----------------- exceptions: token parsing / user loading -----------------
@@ -186,8 +203,9 @@ class JwtAuthenticationFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
 
         verify(jwtService).parseToken(token);
-        verify(userRepository, never()).findById(anyLong());
+        verify(principalCache, never()).get(anyLong());
         verify(filterChain).doFilter(request, response);
+        assertThat(authentications("rejected")).isEqualTo(1);
     }
 
     @Test
@@ -205,7 +223,7 @@ class JwtAuthenticationFilterTest {
         when(claims.getSubject()).thenReturn("unknown");
 
         // repo zwraca empty -> orElseThrow -> wpada w catch(Exception)
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(principalCache.get(userId)).thenReturn(Optional.empty());
 
         // ustawiamy auth, żeby sprawdzić, że zostanie wyczyszczony
         SecurityContextHolder.getContext().setAuthentication(mock(Authentication.class));
@@ -217,7 +235,7 @@ class JwtAuthenticationFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
 
         verify(jwtService).parseToken(token);
-        verify(userRepository).findById(userId);
+        verify(principalCache).get(userId);
         verify(filterChain).doFilter(request, response);
     }
 }
@@ -1,6 +1,7 @@
 package com.softwaremind.invoicedocbackend.security.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.DisplayName;
@@ -137,4 +138,56 @@ class JwtServiceTest {
                 () -> assertThat(claims.get("role", String.class)).isEqualTo(role)
         );
     }
+
+    @Test
+    @DisplayName("parseToken should return the verified result from cache for a repeated token")
+    void parseTokenShouldReuseVerifiedToken() {
+        JwtService service = createServiceWithSecret(SECRET_1, EXPIRATION_SECONDS);
+        String token = service.generateToken("user", 1L, 2L, "OWNER");
+
+        Jws<Claims> first = service.parseToken(token);
+        Jws<Claims> second = service.parseToken(token);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("a cached valid token should not make a tampered variant pass verification")
+    void tamperedTokenShouldFailEvenWhenOriginalIsCached() {
+        JwtService service = createServiceWithSecret(SECRET_1, EXPIRATION_SECONDS);
+        String token = service.generateToken("user", 1L, 2L, "OWNER");
+        service.parseToken(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> service.parseToken(tampered));
+    }
+
+    @Test
+    @DisplayName("cached token should stop being accepted once it expires")
+    void cachedTokenShouldExpireWithToken() throws Exception {
+        JwtService service = createServiceWithSecret(SECRET_1, 2L);
+        String token = service.generateToken("user", 1L, 2L, "OWNER");
+        service.parseToken(token);
+
+        Thread.sleep(2100);
+
+        assertThrows(ExpiredJwtException.class, () -> service.parseToken(token));
+    }
+
+    @Test
+    @DisplayName("parseToken should verify every call when verified-token cache is disabled")
+    void parseTokenShouldWorkWithCacheDisabled() {
+        JwtService service = new JwtService(SECRET_1, EXPIRATION_SECONDS, 0);
+        String token = service.generateToken("user", 1L, 2L, "OWNER");
+
+        Jws<Claims> first = service.parseToken(token);
+        Jws<Claims> second = service.parseToken(token);
+
+        assertAll(
+                () -> assertThat(second).isNotSameAs(first),
+                () -> assertThat(second.getBody().get("uid", Long.class)).isEqualTo(1L)
+        );
+    }
 }
@@ -1,6 +1,7 @@
 package com.softwaremind.invoicedocbackend.tenant;
 
 import com.softwaremind.invoicedocbackend.invoice.InvoiceRepository;
+import com.softwaremind.invoicedocbackend.invoice.pdf.InvoicePdfCache;
 import com.softwaremind.invoicedocbackend.security.CurrentUser;
 import com.softwaremind.invoicedocbackend.security.CurrentUserProvider;
 import com.softwaremind.invoicedocbackend.security.UserRole;
@@ -32,7 +33,7 @@ class SellerProfileServiceTest {
     private SellerProfileRepository sellerProfileRepository;
 
     @Mock
-    private OrganizationRepository organizationRepository;
+    private TenantCache tenantCache;
 
     @Mock
     private SellerProfileMapper mapper;
@@ -43,6 +44,9 @@ class SellerProfileServiceTest {
     @Mock
     private InvoiceRepository invoiceRepository;
 
+    @Mock
+    private InvoicePdfCache invoicePdfCache;
+
     @InjectMocks
     private SellerProfileService service;
 
@@ -147,7 +151,7 @@ class SellerProfileServiceTest {
                 null
         );
 
-        when(organizationRepository.findById(ORG_ID))
+        when(tenantCache.organization(ORG_ID))
                 .thenReturn(Optional.of(org));
         when(mapper.fromCreateRequest(req, org)).thenReturn(entity);
         when(sellerProfileRepository.save(entity)).thenReturn(saved);
@@ -158,7 +162,7 @@ class SellerProfileServiceTest {
         assertThat(result).isSameAs(response);
 
         verify(currentUserProvider, times(2)).getCurrentUser(); // assertCanModify + method body
-        verify(organizationRepository).findById(ORG_ID);
+        verify(tenantCache).organization(ORG_ID);
         verify(mapper).fromCreateRequest(req, org);
         verify(sellerProfileRepository).save(entity);
         verify(mapper).toResponse(saved);
@@ -182,7 +186,7 @@ class SellerProfileServiceTest {
                 () -> assertThat(ex.getReason()).isEqualTo("ONLY_OWNER_OR_ADMIN")
         );
 
-        verify(organizationRepository, never()).findById(anyLong());
+        verify(tenantCache, never()).organization(anyLong());
         verify(sellerProfileRepository, never()).save(any());
         verify(mapper, never()).fromCreateRequest(any(), any());
     }
@@ -195,7 +199,7 @@ class SellerProfileServiceTest {
 
         SellerProfileCreateRequest req = mock(SellerProfileCreateRequest.class);
 
-        when(organizationRepository.findById(ORG_ID))
+        when(tenantCache.organization(ORG_ID))
                 .thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(
@@ -208,7 +212,7 @@ class SellerProfileServiceTest {
                 () -> assertThat(ex.getReason()).isEqualTo("ORG_NOT_FOUND")
         );
 
-        verify(organizationRepository).findById(ORG_ID);
+        verify(tenantCache).organization(ORG_ID);
         verify(mapper, never()).fromCreateRequest(any(), any());
         verify(sellerProfileRepository, never()).save(any());
     }
@@ -271,6 +275,8 @@ class SellerProfileServiceTest {
         verify(sellerProfileRepository).findByOrganizationIdAndId(ORG_ID, PROFILE_ID);
         verify(mapper).updateEntity(entity, req);
         verify(sellerProfileRepository).save(entity);
+        verify(tenantCache).evictSellerProfile(PROFILE_ID);
+        verify(invoicePdfCache).evictForSellerProfile(PROFILE_ID);
         verify(mapper).toResponse(saved);
     }
 
@@ -341,6 +347,8 @@ class SellerProfileServiceTest {
 
         verify(currentUserProvider, times(2)).getCurrentUser();
         verify(sellerProfileRepository).findByOrganizationIdAndId(ORG_ID, PROFILE_ID);
+        verify(tenantCache).evictSellerProfile(PROFILE_ID);
+        verify(invoicePdfCache).evictForSellerProfile(PROFILE_ID);
         verify(invoiceRepository).clearSellerProfileForInvoices(PROFILE_ID);
         verify(sellerProfileRepository).delete(profile);
     }
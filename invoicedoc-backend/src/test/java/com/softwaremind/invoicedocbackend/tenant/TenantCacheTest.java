@@ -0,0 +1,109 @@
+package com.softwaremind.invoicedocbackend.tenant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.Mockito.*;
+
+class TenantCacheTest {
+
+    private static final Long ORG_ID = 10L;
+    private static final Long PROFILE_ID = 20L;
+
+    private SellerProfileRepository sellerProfileRepository;
+    private OrganizationRepository organizationRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private TenantCache cache;
+
+    @BeforeEach
+    void setUp() {
+        sellerProfileRepository = mock(SellerProfileRepository.class);
+        organizationRepository = mock(OrganizationRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TenantCache(sellerProfileRepository, organizationRepository, meterRegistry);
+        cache.init();
+    }
+
+    private SellerProfileEntity profile(String name) {
+        return SellerProfileEntity.builder()
+                .id(PROFILE_ID)
+                .organization(OrganizationEntity.builder().id(ORG_ID).name("Org").build())
+                .name(name)
+                .build();
+    }
+
+    @Test
+    @DisplayName("repeated lookups should query seller profile and organization once and record hits")
+    void repeatedLookupsShouldHitCache() {
+        when(sellerProfileRepository.findWithOrganizationById(PROFILE_ID)).thenReturn(Optional.of(profile("Seller")));
+        when(organizationRepository.findById(ORG_ID))
+                .thenReturn(Optional.of(OrganizationEntity.builder().id(ORG_ID).name("Org").build()));
+
+        Optional<SellerProfileEntity> first = cache.sellerProfile(PROFILE_ID);
+        Optional<SellerProfileEntity> second = cache.sellerProfile(PROFILE_ID);
+        cache.organization(ORG_ID);
+        cache.organization(ORG_ID);
+
+        assertAll(
+                () -> assertThat(second).containsSame(first.orElseThrow()),
+                () -> assertThat(meterRegistry.get("cache.gets").tags("cache", "sellerProfile", "result", "hit")
+                        .functionCounter().count()).isEqualTo(1.0),
+                () -> assertThat(meterRegistry.get("cache.gets").tags("cache", "organization", "result", "hit")
+                        .functionCounter().count()).isEqualTo(1.0)
+        );
+        verify(sellerProfileRepository, times(1)).findWithOrganizationById(PROFILE_ID);
+        verify(organizationRepository, times(1)).findById(ORG_ID);
+    }
+
+    @Test
+    @DisplayName("evictSellerProfile inside a transaction should reload the profile only after the commit")
+    void evictShouldReloadAfterCommit() {
+        when(sellerProfileRepository.findWithOrganizationById(PROFILE_ID))
+                .thenReturn(Optional.of(profile("Old")))
+                .thenReturn(Optional.of(profile("New")));
+        cache.sellerProfile(PROFILE_ID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictSellerProfile(PROFILE_ID);
+            assertThat(cache.sellerProfile(PROFILE_ID)).map(SellerProfileEntity::getName).contains("Old");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.sellerProfile(PROFILE_ID)).map(SellerProfileEntity::getName).contains("New");
+    }
+
+    @Test
+    @DisplayName("missing rows should not be cached and entries should expire after the TTL")
+    void missingRowsAreNotCachedAndEntriesExpire() throws Exception {
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMillis(50));
+        cache.init();
+        when(sellerProfileRepository.findWithOrganizationById(PROFILE_ID))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(profile("Seller")));
+
+        Optional<SellerProfileEntity> missing = cache.sellerProfile(PROFILE_ID);
+        Optional<SellerProfileEntity> created = cache.sellerProfile(PROFILE_ID);
+        Thread.sleep(100);
+        cache.sellerProfile(PROFILE_ID);
+
+        assertAll(
+                () -> assertThat(missing).isEmpty(),
+                () -> assertThat(created).isPresent()
+        );
+        verify(sellerProfileRepository, times(3)).findWithOrganizationById(PROFILE_ID);
+    }
+}
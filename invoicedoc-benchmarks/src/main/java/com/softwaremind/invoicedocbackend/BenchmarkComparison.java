@@ -0,0 +1,87 @@
+package com.softwaremind.invoicedocbackend;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compares two JMH result files written with -rf json, e.g. from the previous release and the current commit.
+// Prints every benchmark with its change and exits with 1 when any of them is slower than the threshold (percent).
+//
+//   java -cp invoicedoc-benchmarks/target/benchmarks.jar com.softwaremind.invoicedocbackend.BenchmarkComparison \
+//        base.json head.json [thresholdPercent]
+public final class BenchmarkComparison {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private record Score(String mode, double score, String unit) {}
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <base.json> <head.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, Score> base = read(new File(args[0]));
+        Map<String, Score> head = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-72s %14s %14s %9s%n", "benchmark", "base", "head", "change");
+        for (Map.Entry<String, Score> e : head.entrySet()) {
+            Score now = e.getValue();
+            Score before = base.get(e.getKey());
+            if (before == null) {
+                System.out.printf("%-72s %14s %14.3f %9s%n", e.getKey(), "-", now.score(), "new");
+                continue;
+            }
+            double change = (now.score() - before.score()) / before.score() * 100;
+            // throughput should go up, every other JMH mode reports time per operation
+            double slowdown = "thrpt".equals(now.mode()) ? -change : change;
+            boolean regression = slowdown > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-72s %14.3f %14.3f %+8.1f%% %s%s%n", e.getKey(), before.score(), now.score(), change,
+                    now.unit(), regression ? "  REGRESSION" : "");
+        }
+        for (String removed : base.keySet()) {
+            if (!head.containsKey(removed)) {
+                System.out.printf("%-72s %14.3f %14s %9s%n", removed, base.get(removed).score(), "-", "removed");
+            }
+        }
+
+        System.out.printf("%d regression(s) over %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, Score> read(File file) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : JsonMapper.shared().readTree(file)) {
+            JsonNode metric = run.get("primaryMetric");
+            scores.put(key(run), new Score(
+                    run.get("mode").asString(),
+                    metric.get("score").asDouble(),
+                    metric.get("scoreUnit").asString()));
+        }
+        return scores;
+    }
+
+    // benchmark name plus its @Param values, so items=1 and items=1000 are compared separately
+    private static String key(JsonNode run) {
+        String name = run.get("benchmark").asString().replace("com.softwaremind.invoicedocbackend.", "");
+        JsonNode params = run.get("params");
+        if (params == null || params.isEmpty()) {
+            return name;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        params.properties().forEach(p -> sorted.put(p.getKey(), p.getValue().asString()));
+        return name + sorted;
+    }
+}
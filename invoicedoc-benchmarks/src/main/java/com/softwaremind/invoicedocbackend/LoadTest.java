@@ -0,0 +1,185 @@
+package com.softwaremind.invoicedocbackend;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.softwaremind.invoicedocbackend.security.dto.AuthRequest;
+import com.softwaremind.invoicedocbackend.security.dto.AuthResponse;
+
+// Closed-loop HTTP load against a running instance: `concurrency` clients each send the next request as soon as
+// the previous one answers, cycling through `paths` with one bearer token. Used to compare
+// spring.threads.virtual.enabled=false and =true on the same database and data:
+//
+//   java -Dusername=owner -Dpassword=... -Dlabel=platform -Dout=platform.json \
+//        -cp invoicedoc-benchmarks/target/benchmarks.jar com.softwaremind.invoicedocbackend.LoadTest
+//   (restart the app with SPRING_THREADS_VIRTUAL_ENABLED=true)
+//   java -Dusername=owner -Dpassword=... -Dlabel=virtual -Dout=virtual.json -Dbaseline=platform.json \
+//        -cp invoicedoc-benchmarks/target/benchmarks.jar com.softwaremind.invoicedocbackend.LoadTest
+//
+// Settings (system properties): username and password (required), url, concurrency, warmup and duration
+// (seconds), paths (comma separated), label, out (JSON result file), baseline (earlier result file to compare with).
+public final class LoadTest {
+
+    private static final String DEFAULT_PATHS =
+            "/v1/api/invoices/summary?size=20,/v1/api/invoices/cursor?size=20,/v1/api/contractors/page?size=20";
+
+    private record Result(String label, int concurrency, long requests, long errors, double seconds,
+                          double throughput, double p50, double p90, double p99, double max) {}
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String username = System.getProperty("username");
+        String password = System.getProperty("password");
+        if (username == null || password == null) {
+            System.err.println("usage: java -Dusername=<user> -Dpassword=<password> [-Durl=...] ... LoadTest");
+            System.exit(2);
+        }
+        String url = System.getProperty("url", "http://localhost:8080");
+        int concurrency = Integer.getInteger("concurrency", 200);
+        Duration warmup = Duration.ofSeconds(Long.getLong("warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("duration", 60));
+        List<URI> paths = Arrays.stream(System.getProperty("paths", DEFAULT_PATHS).split(","))
+                .map(p -> URI.create(url + p.trim()))
+                .toList();
+        String label = System.getProperty("label", "run");
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(client, url, username, password);
+
+        System.out.printf("%s: %d clients, warmup %ds, measuring %ds%n", label, concurrency,
+                warmup.toSeconds(), duration.toSeconds());
+        run(client, token, paths, concurrency, warmup, "warmup");
+        Result result = run(client, token, paths, concurrency, duration, label);
+        print(result);
+
+        String out = System.getProperty("out");
+        if (out != null) {
+            JsonMapper.shared().writeValue(new File(out), result);
+        }
+        String baseline = System.getProperty("baseline");
+        if (baseline != null) {
+            compare(JsonMapper.shared().readValue(new File(baseline), Result.class), result);
+        }
+    }
+
+    private static String login(HttpClient client, String url, String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/v1/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(
+                        JsonMapper.shared().writeValueAsBytes(new AuthRequest(username, password))))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + username + " failed with HTTP " + response.statusCode());
+        }
+        return JsonMapper.shared().readValue(response.body(), AuthResponse.class).token();
+    }
+
+    private static Result run(HttpClient client, String token, List<URI> paths, int concurrency, Duration duration,
+                              String label) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        Queue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        List<Thread> clients = new ArrayList<>();
+
+        long started = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            int offset = c;
+            LatencyLog log = new LatencyLog();
+            clients.add(Thread.ofVirtual().start(() -> {
+                for (int i = offset; System.nanoTime() < end; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(paths.get(i % paths.size()))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build();
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    log.add(System.nanoTime() - t0);
+                }
+                latencies.add(log.toArray());
+            }));
+        }
+        for (Thread t : clients) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(label, concurrency, all.length, errors.get(), seconds, all.length / seconds,
+                percentileMillis(all, 0.50), percentileMillis(all, 0.90), percentileMillis(all, 0.99),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static void print(Result r) {
+        System.out.printf("%s: %d requests (%d errors) in %.1fs = %.1f req/s; latency ms p50 %.2f p90 %.2f "
+                        + "p99 %.2f max %.2f%n", r.label(), r.requests(), r.errors(), r.seconds(), r.throughput(),
+                r.p50(), r.p90(), r.p99(), r.max());
+    }
+
+    private static void compare(Result base, Result head) {
+        System.out.printf("%-18s %12s %12s %9s%n", "", base.label(), head.label(), "change");
+        compareRow("throughput req/s", base.throughput(), head.throughput());
+        compareRow("p99 ms", base.p99(), head.p99());
+        if (base.concurrency() != head.concurrency()) {
+            System.out.printf("note: concurrency differs (%d vs %d)%n", base.concurrency(), head.concurrency());
+        }
+    }
+
+    private static void compareRow(String name, double base, double head) {
+        System.out.printf("%-18s %12.2f %12.2f %+8.1f%%%n", name, base, head, (head - base) / base * 100);
+    }
+
+    // grows like ArrayList but without boxing every sample
+    private static final class LatencyLog {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
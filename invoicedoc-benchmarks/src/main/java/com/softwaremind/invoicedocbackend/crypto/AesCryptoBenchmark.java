@@ -0,0 +1,82 @@
+package com.softwaremind.invoicedocbackend.crypto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the NIP/PESEL encryption used by the mappers and the PDF renderer.
+// "legacy*" runs the pre-change implementation on the same inputs for comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AesCryptoBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyForAesGcm";
+    private static final int BATCH = 32;
+
+    // 10 = NIP, 120 = typical address / notes field
+    @Param({"10", "120"})
+    int length;
+
+    private AesCryptoService service;
+    private LegacyAesCryptoService legacy;
+    private String plain;
+    private String cipherText;
+    private List<String> batchCipherTexts;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new AesCryptoService(new SimpleMeterRegistry());
+        Field secretField = AesCryptoService.class.getDeclaredField("secret");
+        secretField.setAccessible(true);
+        secretField.set(service, SECRET);
+        service.init();
+        legacy = new LegacyAesCryptoService(SECRET);
+
+        plain = "7".repeat(length);
+        cipherText = service.encrypt(plain);
+        batchCipherTexts = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batchCipherTexts.add(service.encrypt(plain));
+        }
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return service.encrypt(plain);
+    }
+
+    @Benchmark
+    public String legacyEncrypt() {
+        return legacy.encrypt(plain);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return service.decrypt(cipherText);
+    }
+
+    @Benchmark
+    public String legacyDecrypt() {
+        return legacy.decrypt(cipherText);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<String> decryptAll() {
+        return service.decryptAll(batchCipherTexts);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<String> legacyDecryptAll() {
+        return legacy.decryptAll(batchCipherTexts);
+    }
+}
@@ -0,0 +1,112 @@
+package com.softwaremind.invoicedocbackend.crypto;
+
+import com.softwaremind.invoicedocbackend.common.InstancePool;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// How the AES-GCM Cipher is obtained per request, on a platform thread pool (Tomcat's default) and with one
+// virtual thread per request (spring.threads.virtual.enabled=true). Each request is a task that encrypts one NIP.
+// "threadLocal" is the previous AesCryptoService strategy, "pool" the current InstancePool, "perCall" a
+// Cipher.getInstance per request. Run with -prof gc to see the per-request Cipher allocation under virtual threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CipherReuseBenchmark {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int REQUESTS = 256;
+    private static final byte[] NIP = "1234563218".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    @Param({"threadLocal", "pool", "perCall"})
+    String reuse;
+
+    private final AtomicLong ivCounter = new AtomicLong();
+    private ExecutorService executor;
+    private SecretKeySpec key;
+    private Supplier<Cipher> take;
+    private Consumer<Cipher> release;
+
+    @Setup
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        key = new SecretKeySpec(Arrays.copyOf("BenchmarkSecretKeyForAesGcm".getBytes(StandardCharsets.UTF_8), 16), "AES");
+        switch (reuse) {
+            case "threadLocal" -> {
+                ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(CipherReuseBenchmark::newCipher);
+                take = ciphers::get;
+                release = c -> { };
+            }
+            case "pool" -> {
+                InstancePool<Cipher> ciphers = new InstancePool<>(CipherReuseBenchmark::newCipher);
+                take = ciphers::take;
+                release = ciphers::release;
+            }
+            default -> {
+                take = CipherReuseBenchmark::newCipher;
+                release = c -> { };
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int requests() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(this::encryptNip));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    private int encryptNip() throws Exception {
+        Cipher cipher = take.get();
+        try {
+            // GCM refuses an IV the Cipher used last time, so every request gets the next counter value
+            byte[] iv = ByteBuffer.allocate(12).putLong(4, ivCounter.incrementAndGet()).array();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+            return cipher.doFinal(NIP).length;
+        } finally {
+            release.accept(cipher);
+        }
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (Exception e) {
+            throw new IllegalStateException(TRANSFORMATION + " not available", e);
+        }
+    }
+}
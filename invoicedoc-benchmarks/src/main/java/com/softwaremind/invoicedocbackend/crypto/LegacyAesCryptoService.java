@@ -0,0 +1,59 @@
+package com.softwaremind.invoicedocbackend.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Baseline: AesCryptoService before per-thread Cipher reuse (Cipher.getInstance and extra copies per call).
+class LegacyAesCryptoService implements CryptoService {
+
+    private final SecretKeySpec secretKeySpec;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    LegacyAesCryptoService(String secret) {
+        this.secretKeySpec = new SecretKeySpec(Arrays.copyOf(secret.getBytes(StandardCharsets.UTF_8), 16), "AES");
+    }
+
+    @Override
+    public String encrypt(String plain) {
+        if (plain == null) return null;
+        try {
+            byte[] iv = new byte[12];
+            secureRandom.nextBytes(iv);
+
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, new GCMParameterSpec(128, iv));
+            byte[] cipherBytes = cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8));
+
+            ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + cipherBytes.length);
+            byteBuffer.put(iv);
+            byteBuffer.put(cipherBytes);
+            return Base64.getEncoder().encodeToString(byteBuffer.array());
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot encrypt", e);
+        }
+    }
+
+    @Override
+    public String decrypt(String cipherText) {
+        if (cipherText == null) return null;
+        try {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(Base64.getDecoder().decode(cipherText));
+            byte[] iv = new byte[12];
+            byteBuffer.get(iv);
+            byte[] cipherBytes = new byte[byteBuffer.remaining()];
+            byteBuffer.get(cipherBytes);
+
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, new GCMParameterSpec(128, iv));
+            return new String(cipher.doFinal(cipherBytes), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot decrypt", e);
+        }
+    }
+}
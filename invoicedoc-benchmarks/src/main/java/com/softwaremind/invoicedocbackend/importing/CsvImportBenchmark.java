@@ -0,0 +1,66 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+// Invoices per second through the CSV parsing step of ImportService.importBatchFromCsv (CsvInvoiceReader),
+// without the database writes that follow it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvImportBenchmark {
+
+    private static final int INVOICES = 2_000;
+
+    private static final String HEADER =
+            "sellerName,sellerNip,sellerStreet,sellerBuildingNumber,sellerPostalCode,sellerCity," +
+                    "buyerName,buyerNip,buyerStreet,buyerBuildingNumber,buyerPostalCode,buyerCity," +
+                    "invoiceNumber,issueDate,saleDate,dueDate,paymentMethod,currency,itemDescription," +
+                    "itemQuantity,itemUnit,itemNetUnitPrice,itemVatRate,notes";
+
+    @Param({"1", "10"})
+    int itemsPerInvoice;
+
+    private String csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder sb = new StringBuilder(HEADER).append('\n');
+        for (int i = 0; i < INVOICES; i++) {
+            for (int item = 0; item < itemsPerInvoice; item++) {
+                sb.append("Seller Sp. z o.o.,5260250274,ul. Prosta,1,00-001,Warszawa,")
+                        .append("Buyer ").append(i % 300).append(" S.A.,7791011327,ul. Długa,2,30-001,Kraków,")
+                        .append("FV/2024/03/").append(i).append(",2024-03-15,2024-03-15,2024-03-29,BANK_TRANSFER,PLN,")
+                        .append("\"Consulting, position ").append(item + 1).append("\",")
+                        .append(1 + item % 5).append(",h,149.99,23,Imported from ERP\n");
+            }
+        }
+        csv = sb.toString();
+
+        // a row error would make parse() measure the failure path instead
+        if (parse() != (long) INVOICES * itemsPerInvoice) {
+            throw new IllegalStateException("Benchmark CSV does not parse cleanly");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INVOICES)
+    public long parse() throws IOException {
+        long items = 0;
+        try (CsvInvoiceReader reader = new CsvInvoiceReader(new StringReader(csv))) {
+            while (reader.hasNext()) {
+                ImportRecord record = reader.next();
+                if (record.error() == null) {
+                    items += record.invoice().items().size();
+                }
+            }
+        }
+        return items;
+    }
+}
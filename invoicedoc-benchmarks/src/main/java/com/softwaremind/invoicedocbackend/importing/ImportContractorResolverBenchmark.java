@@ -0,0 +1,240 @@
+package com.softwaremind.invoicedocbackend.importing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.contractor.ContractorRepository;
+import com.softwaremind.invoicedocbackend.contractor.ContractorType;
+import com.softwaremind.invoicedocbackend.contractor.dto.ContractorLookupKey;
+import com.softwaremind.invoicedocbackend.crypto.BlindIndexService;
+import com.softwaremind.invoicedocbackend.importing.dto.ImportPartyDto;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationRepository;
+import com.softwaremind.invoicedocbackend.tenant.TenantCache;
+
+// Invoices per second through the buyer -> contractor step of a bulk import.
+// Repositories are in-memory stubs that spin for roundTripMicros per query to stand in for the database;
+// "legacy" runs the previous per-invoice lookup (blind index or name LIKE, then save) on the same input.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportContractorResolverBenchmark {
+
+    private static final long ORG_ID = 1L;
+    private static final int EXISTING_CONTRACTORS = 2_000;
+    private static final int DISTINCT_BUYERS = 300;
+    private static final int INVOICES = 5_000;
+    private static final int CHUNK = 100;
+    private static final int JDBC_BATCH = 50;
+
+    @Param({"0", "200"})
+    long roundTripMicros;
+
+    private BlindIndexService blindIndexService;
+    private OrganizationEntity organization;
+    private List<ImportPartyDto> buyers;
+    private Store store;
+    private TenantCache tenantCache;
+
+    @Setup
+    public void setUp() throws Exception {
+        blindIndexService = new BlindIndexService();
+        Field secret = BlindIndexService.class.getDeclaredField("secret");
+        secret.setAccessible(true);
+        secret.set(blindIndexService, "BenchmarkBlindIndexSecret");
+        Method init = BlindIndexService.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(blindIndexService);
+
+        organization = OrganizationEntity.builder().id(ORG_ID).name("Org").build();
+
+        // two thirds of the buyers are known (half by NIP, half by name), the rest get created during the import
+        List<ImportPartyDto> distinct = new ArrayList<>(DISTINCT_BUYERS);
+        for (int i = 0; i < DISTINCT_BUYERS; i++) {
+            String nip = i % 2 == 0 ? String.valueOf(5_000_000_000L + i) : null;
+            distinct.add(new ImportPartyDto("COMPANY", "Buyer " + i + " Sp. z o.o.", nip, null, null, null));
+        }
+        buyers = new ArrayList<>(INVOICES);
+        for (int i = 0; i < INVOICES; i++) {
+            buyers.add(distinct.get((i * 7919) % DISTINCT_BUYERS));
+        }
+    }
+
+    // each invocation is a fresh import against the same starting set of contractors
+    @Setup(Level.Invocation)
+    public void resetStore() {
+        store = new Store(roundTripMicros);
+        for (int i = 0; i < EXISTING_CONTRACTORS; i++) {
+            boolean buyer = i < DISTINCT_BUYERS * 2 / 3;
+            String nip = buyer && i % 2 == 0 ? String.valueOf(5_000_000_000L + i) : null;
+            store.insert(contractor(buyer ? "Buyer " + i + " Sp. z o.o." : "Other contractor " + i, nip, null));
+        }
+        // a cold cache, so the organization costs one round trip per import as on the first import after a restart
+        tenantCache = new TenantCache(null, store.organizationRepository(), new SimpleMeterRegistry());
+        try {
+            Method init = TenantCache.class.getDeclaredMethod("init");
+            init.setAccessible(true);
+            init.invoke(tenantCache);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ContractorEntity contractor(String name, String nip, String pesel) {
+        return ContractorEntity.builder()
+                .organization(organization)
+                .type(ContractorType.COMPANY)
+                .name(name)
+                .nipBlindIndex(blindIndexService.index(nip))
+                .peselBlindIndex(blindIndexService.index(pesel))
+                .favorite(false)
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INVOICES)
+    public long resolver() {
+        ImportContractorResolver resolver = new ImportContractorResolver(ORG_ID,
+                store.contractorRepository(), tenantCache, blindIndexService,
+                (buyer, org) -> contractor(buyer.name(), buyer.nip(), buyer.pesel()));
+        long sum = 0;
+        for (int from = 0; from < INVOICES; from += CHUNK) {
+            List<ImportPartyDto> chunk = buyers.subList(from, Math.min(from + CHUNK, INVOICES));
+            List<ImportPartyDto> missing = new ArrayList<>();
+            for (ImportPartyDto buyer : chunk) {
+                Long id = resolver.find(buyer);
+                if (id == null) {
+                    missing.add(buyer);
+                } else {
+                    sum += id;
+                }
+            }
+            if (!missing.isEmpty()) {
+                for (Long id : resolver.createAll(missing)) {
+                    sum += id;
+                }
+            }
+        }
+        return sum;
+    }
+
+    // what ImportService.ensureContractor did for every invoice before the resolver
+    @Benchmark
+    @OperationsPerInvocation(INVOICES)
+    public long legacy() {
+        ContractorRepository contractors = store.contractorRepository();
+        OrganizationRepository organizations = store.organizationRepository();
+        long sum = 0;
+        for (ImportPartyDto buyer : buyers) {
+            String nipIndex = blindIndexService.index(buyer.nip());
+            Optional<ContractorEntity> existing = nipIndex != null
+                    ? contractors.findFirstByOrganizationIdAndNipBlindIndexOrderByIdAsc(ORG_ID, nipIndex)
+                    : contractors.findByOrganizationIdAndNameContainingIgnoreCase(ORG_ID, buyer.name())
+                    .stream().findFirst();
+            ContractorEntity contractor = existing.orElseGet(() -> {
+                OrganizationEntity org = organizations.findById(ORG_ID).orElseThrow();
+                ContractorEntity created = contractor(buyer.name(), buyer.nip(), buyer.pesel());
+                created.setOrganization(org);
+                return contractors.save(created);
+            });
+            sum += contractor.getId();
+        }
+        return sum;
+    }
+
+    // in-memory contractors table; every repository call pays one simulated round trip
+    static final class Store {
+
+        private final long roundTripNanos;
+        private final List<ContractorEntity> rows = new ArrayList<>();
+        private final Map<String, ContractorEntity> byNipIndex = new HashMap<>();
+        private long nextId = 1;
+
+        Store(long roundTripMicros) {
+            this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        }
+
+        void insert(ContractorEntity c) {
+            c.setId(nextId++);
+            rows.add(c);
+            if (c.getNipBlindIndex() != null) {
+                byNipIndex.putIfAbsent(c.getNipBlindIndex(), c);
+            }
+        }
+
+        private void roundTrip() {
+            long until = System.nanoTime() + roundTripNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+
+        ContractorRepository contractorRepository() {
+            return (ContractorRepository) Proxy.newProxyInstance(
+                    ContractorRepository.class.getClassLoader(),
+                    new Class<?>[]{ContractorRepository.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "findFirstByOrganizationIdAndNipBlindIndexOrderByIdAsc" -> {
+                            roundTrip();
+                            yield Optional.ofNullable(byNipIndex.get((String) args[1]));
+                        }
+                        case "findByOrganizationIdAndNameContainingIgnoreCase" -> {
+                            roundTrip();
+                            String part = ((String) args[1]).toLowerCase();
+                            yield rows.stream().filter(c -> c.getName().toLowerCase().contains(part)).toList();
+                        }
+                        case "findLookupKeysByOrganizationId" -> {
+                            roundTrip();
+                            yield rows.stream()
+                                    .map(c -> new ContractorLookupKey(c.getId(), c.getName(),
+                                            c.getNipBlindIndex(), c.getPeselBlindIndex()))
+                                    .toList();
+                        }
+                        case "save" -> {
+                            roundTrip();
+                            insert((ContractorEntity) args[0]);
+                            yield args[0];
+                        }
+                        case "saveAll" -> {
+                            List<ContractorEntity> saved = new ArrayList<>();
+                            for (Object c : (Iterable<?>) args[0]) {
+                                if (saved.size() % JDBC_BATCH == 0) {
+                                    roundTrip();
+                                }
+                                insert((ContractorEntity) c);
+                                saved.add((ContractorEntity) c);
+                            }
+                            yield saved;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        OrganizationRepository organizationRepository() {
+            return (OrganizationRepository) Proxy.newProxyInstance(
+                    OrganizationRepository.class.getClassLoader(),
+                    new Class<?>[]{OrganizationRepository.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("findById")) {
+                            roundTrip();
+                            return Optional.of(OrganizationEntity.builder().id(ORG_ID).name("Org").build());
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
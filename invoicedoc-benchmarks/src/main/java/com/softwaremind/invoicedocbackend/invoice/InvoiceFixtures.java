@@ -0,0 +1,153 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.softwaremind.invoicedocbackend.common.AddressEmbeddable;
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.contractor.ContractorType;
+import com.softwaremind.invoicedocbackend.crypto.AesCryptoService;
+import com.softwaremind.invoicedocbackend.crypto.CryptoService;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceItemCreateRequest;
+import com.softwaremind.invoicedocbackend.tenant.OrganizationEntity;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+
+// Invoices shaped like production data, shared by the invoice, mapper and PDF benchmarks.
+// Items cycle through all VAT rates so rounding and the "zw" path are exercised.
+public final class InvoiceFixtures {
+
+    private static final String[] VAT_RATES = {"23", "8", "5", "0", "zw"};
+
+    private InvoiceFixtures() {
+    }
+
+    public static AesCryptoService cryptoService() throws Exception {
+        AesCryptoService service = new AesCryptoService(new SimpleMeterRegistry());
+        Field secret = AesCryptoService.class.getDeclaredField("secret");
+        secret.setAccessible(true);
+        secret.set(service, "BenchmarkCryptoSecret");
+        Method init = AesCryptoService.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(service);
+        return service;
+    }
+
+    public static AddressEmbeddable address(String city) {
+        return AddressEmbeddable.builder()
+                .street("ul. Marszałkowska")
+                .buildingNumber("10")
+                .apartmentNumber("5")
+                .postalCode("00-001")
+                .city(city)
+                .country("PL")
+                .build();
+    }
+
+    public static SellerProfileEntity sellerProfile(CryptoService crypto) {
+        OrganizationEntity organization = OrganizationEntity.builder().id(1L).name("Org").build();
+        return SellerProfileEntity.builder()
+                .id(100L)
+                .organization(organization)
+                .name("Seller Sp. z o.o.")
+                .nipEncrypted(crypto.encrypt("5260250274"))
+                .regon("012345678")
+                .krs("0000123456")
+                .bankName("Bank Polska")
+                .bankAccount("PL61109010140000071219812874")
+                .address(address("Warszawa"))
+                .defaultCurrency("PLN")
+                .defaultPaymentTermDays(14)
+                .build();
+    }
+
+    public static ContractorEntity contractor(SellerProfileEntity sellerProfile, CryptoService crypto) {
+        return ContractorEntity.builder()
+                .id(200L)
+                .organization(sellerProfile.getOrganization())
+                .type(ContractorType.COMPANY)
+                .name("Buyer S.A.")
+                .nipEncrypted(crypto.encrypt("7791011327"))
+                .address(address("Kraków"))
+                .email("buyer@example.com")
+                .phone("+48 123 456 789")
+                .favorite(false)
+                .build();
+    }
+
+    public static InvoiceCreateRequest createRequest(int items) {
+        List<InvoiceItemCreateRequest> itemRequests = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            itemRequests.add(new InvoiceItemCreateRequest(
+                    "Consulting services, position " + (i + 1),
+                    new BigDecimal(1 + i % 7).add(new BigDecimal("0.25")),
+                    "h",
+                    new BigDecimal("149.99").add(BigDecimal.valueOf(i % 13)),
+                    VAT_RATES[i % VAT_RATES.length]));
+        }
+        return new InvoiceCreateRequest(100L, 200L, null, null, null,
+                LocalDate.of(2024, 3, 15), LocalDate.of(2024, 3, 15), LocalDate.of(2024, 3, 29),
+                PaymentMethod.BANK_TRANSFER, "PLN", "Payment within 14 days.", false, false, itemRequests);
+    }
+
+    // what InvoiceService.createInvoice persists for createRequest(items), with ids assigned
+    public static InvoiceEntity invoice(int items, CryptoService crypto) {
+        SellerProfileEntity sellerProfile = sellerProfile(crypto);
+        ContractorEntity contractor = contractor(sellerProfile, crypto);
+
+        InvoiceEntity invoice = new InvoiceEntity();
+        invoice.setId(500L);
+        invoice.setOrganization(sellerProfile.getOrganization());
+        invoice.setSellerProfile(sellerProfile);
+        invoice.setContractor(contractor);
+        invoice.setNumber("FV/2024/03/15/001");
+        invoice.setIssueDate(LocalDate.of(2024, 3, 15));
+        invoice.setSaleDate(LocalDate.of(2024, 3, 15));
+        invoice.setDueDate(LocalDate.of(2024, 3, 29));
+        invoice.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+        invoice.setCurrency("PLN");
+        invoice.setStatus(InvoiceStatus.DRAFT);
+        invoice.setSellerName(sellerProfile.getName());
+        invoice.setSellerNipEncrypted(sellerProfile.getNipEncrypted());
+        invoice.setSellerAddress(sellerProfile.getAddress());
+        invoice.setSellerBankAccount(sellerProfile.getBankAccount());
+        invoice.setBuyerName(contractor.getName());
+        invoice.setBuyerNipEncrypted(contractor.getNipEncrypted());
+        invoice.setBuyerAddress(contractor.getAddress());
+        invoice.setNotes("Payment within 14 days.");
+        invoice.setReverseCharge(false);
+        invoice.setSplitPayment(false);
+
+        BigDecimal totalNet = BigDecimal.ZERO;
+        BigDecimal totalVat = BigDecimal.ZERO;
+        long itemId = 1;
+        for (InvoiceItemCreateRequest req : createRequest(items).items()) {
+            BigDecimal net = InvoiceAmounts.netTotal(req.netUnitPrice(), req.quantity());
+            BigDecimal vat = InvoiceAmounts.vat(net, req.vatRate());
+            invoice.getItems().add(InvoiceItemEntity.builder()
+                    .id(itemId++)
+                    .invoice(invoice)
+                    .description(req.description())
+                    .quantity(req.quantity())
+                    .unit(req.unit())
+                    .netUnitPrice(req.netUnitPrice())
+                    .vatRate(req.vatRate())
+                    .netTotal(net)
+                    .vatAmount(vat)
+                    .grossTotal(net.add(vat))
+                    .build());
+            totalNet = totalNet.add(net);
+            totalVat = totalVat.add(vat);
+        }
+        invoice.setTotalNet(totalNet);
+        invoice.setTotalVat(totalVat);
+        invoice.setTotalGross(totalNet.add(totalVat));
+        return invoice;
+    }
+}
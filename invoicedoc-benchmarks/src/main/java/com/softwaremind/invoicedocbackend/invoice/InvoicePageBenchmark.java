@@ -0,0 +1,77 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.softwaremind.invoicedocbackend.common.mapper.AddressMapper;
+import com.softwaremind.invoicedocbackend.crypto.AesCryptoService;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceSummaryResponse;
+import com.softwaremind.invoicedocbackend.invoice.mapper.InvoiceMapper;
+
+// One list page built the two ways InvoiceService offers: listInvoices maps loaded entities (items, NIP decrypts,
+// addresses) through InvoiceMapper, listInvoiceSummaries gets the findSummaries constructor projection, which
+// Hibernate fills from the selected columns. Only the JVM side is measured; the per-row items query that the
+// mapper page also costs against a database is not. Run with -prof gc for allocation per page.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePageBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"5", "50"})
+    int itemsPerInvoice;
+
+    private InvoiceMapper mapper;
+    private Pageable pageable;
+    private List<InvoiceEntity> entities;
+    private List<Object[]> summaryRows;
+
+    @Setup
+    public void setUp() throws Exception {
+        AesCryptoService crypto = InvoiceFixtures.cryptoService();
+        mapper = new InvoiceMapper(new AddressMapper(), crypto);
+        pageable = PageRequest.of(0, PAGE_SIZE);
+
+        entities = new ArrayList<>(PAGE_SIZE);
+        summaryRows = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            InvoiceEntity invoice = InvoiceFixtures.invoice(itemsPerInvoice, crypto);
+            invoice.setId(500L + i);
+            entities.add(invoice);
+            // the columns findSummaries selects, in constructor order
+            summaryRows.add(new Object[]{invoice.getId(), invoice.getNumber(), invoice.getStatus(),
+                    invoice.getIssueDate(), invoice.getDueDate(), invoice.getBuyerName(), invoice.getCurrency(),
+                    invoice.getTotalNet(), invoice.getTotalVat(), invoice.getTotalGross()});
+        }
+    }
+
+    @Benchmark
+    public Page<InvoiceResponse> mapperPage() {
+        return new PageImpl<>(entities, pageable, 1_000).map(mapper::toResponse);
+    }
+
+    @Benchmark
+    public Page<InvoiceSummaryResponse> projectionPage() {
+        List<InvoiceSummaryResponse> content = new ArrayList<>(summaryRows.size());
+        for (Object[] r : summaryRows) {
+            content.add(new InvoiceSummaryResponse((Long) r[0], (String) r[1], (InvoiceStatus) r[2],
+                    (LocalDate) r[3], (LocalDate) r[4], (String) r[5], (String) r[6],
+                    (BigDecimal) r[7], (BigDecimal) r[8], (BigDecimal) r[9]));
+        }
+        return new PageImpl<>(content, pageable, 1_000);
+    }
+}
@@ -0,0 +1,47 @@
+package com.softwaremind.invoicedocbackend.invoice;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import com.softwaremind.invoicedocbackend.common.mapper.AddressMapper;
+import com.softwaremind.invoicedocbackend.contractor.ContractorEntity;
+import com.softwaremind.invoicedocbackend.crypto.AesCryptoService;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceCreateRequest;
+import com.softwaremind.invoicedocbackend.invoice.mapper.InvoiceMapper;
+import com.softwaremind.invoicedocbackend.tenant.SellerProfileEntity;
+
+// The in-memory part of InvoiceService.createInvoice: item amounts, VAT rounding and totals.
+// The contractor has no NIP, so no encryption happens here and the numbers are the BigDecimal math and mapping only.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceTotalsBenchmark {
+
+    @Param({"1", "50", "1000"})
+    int items;
+
+    private InvoiceMapper mapper;
+    private InvoiceCreateRequest request;
+    private SellerProfileEntity sellerProfile;
+    private ContractorEntity contractor;
+
+    @Setup
+    public void setUp() throws Exception {
+        AesCryptoService crypto = InvoiceFixtures.cryptoService();
+        mapper = new InvoiceMapper(new AddressMapper(), crypto);
+
+        request = InvoiceFixtures.createRequest(items);
+        sellerProfile = InvoiceFixtures.sellerProfile(crypto);
+        contractor = InvoiceFixtures.contractor(sellerProfile, crypto);
+        contractor.setNipEncrypted(null);
+    }
+
+    @Benchmark
+    public InvoiceEntity buildInvoice() {
+        return InvoiceService.buildInvoice(mapper, request, sellerProfile, contractor, "FV/2024/03/15/001");
+    }
+}
@@ -0,0 +1,39 @@
+package com.softwaremind.invoicedocbackend.invoice.mapper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import com.softwaremind.invoicedocbackend.common.mapper.AddressMapper;
+import com.softwaremind.invoicedocbackend.crypto.AesCryptoService;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceFixtures;
+import com.softwaremind.invoicedocbackend.invoice.dto.InvoiceResponse;
+
+// Entity -> response mapping used by every invoice read; dominated by the two NIP decryptions for small invoices.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceMapperBenchmark {
+
+    @Param({"1", "50", "1000"})
+    int items;
+
+    private InvoiceMapper mapper;
+    private InvoiceEntity invoice;
+
+    @Setup
+    public void setUp() throws Exception {
+        AesCryptoService crypto = InvoiceFixtures.cryptoService();
+        mapper = new InvoiceMapper(new AddressMapper(), crypto);
+        invoice = InvoiceFixtures.invoice(items, crypto);
+    }
+
+    @Benchmark
+    public InvoiceResponse toResponse() {
+        return mapper.toResponse(invoice);
+    }
+}
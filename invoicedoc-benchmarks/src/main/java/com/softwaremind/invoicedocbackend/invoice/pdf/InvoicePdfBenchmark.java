@@ -0,0 +1,38 @@
+package com.softwaremind.invoicedocbackend.invoice.pdf;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import com.softwaremind.invoicedocbackend.crypto.AesCryptoService;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceEntity;
+import com.softwaremind.invoicedocbackend.invoice.InvoiceFixtures;
+
+// Time to render one invoice PDF, including NIP decryption; the PDF cache in front of it is not involved.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePdfBenchmark {
+
+    @Param({"1", "50", "1000"})
+    int items;
+
+    private InvoicePdfService pdfService;
+    private InvoiceEntity invoice;
+
+    @Setup
+    public void setUp() throws Exception {
+        AesCryptoService crypto = InvoiceFixtures.cryptoService();
+        pdfService = new InvoicePdfService(crypto, new SimpleMeterRegistry());
+        invoice = InvoiceFixtures.invoice(items, crypto);
+    }
+
+    @Benchmark
+    public byte[] generateInvoicePdf() {
+        return pdfService.generateInvoicePdf(invoice);
+    }
+}
@@ -0,0 +1,126 @@
+package com.softwaremind.invoicedocbackend.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.softwaremind.invoicedocbackend.security.CustomUserDetails;
+import com.softwaremind.invoicedocbackend.security.PrincipalCache;
+import com.softwaremind.invoicedocbackend.security.UserEntity;
+import com.softwaremind.invoicedocbackend.security.UserRepository;
+import com.softwaremind.invoicedocbackend.security.UserRole;
+
+// Per-request CPU cost of JwtAuthenticationFilter for a repeated bearer token.
+// The user lookup is an in-memory stub, so the database round trip the legacy path also paid is not included.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "BenchmarkJwtSecretThatIsLongEnoughForHs256";
+    private static final FilterChain NOOP_CHAIN = (req, res) -> {};
+
+    private UserRepository userRepository;
+    private Key key;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private JwtAuthenticationFilter filter;
+    private JwtAuthenticationFilter filterWithoutTokenCache;
+
+    @Setup
+    public void setUp() throws Exception {
+        UserEntity user = UserEntity.builder()
+                .id(42L)
+                .username("owner")
+                .email("owner@example.com")
+                .passwordHash("hash")
+                .fullName("Owner")
+                .role(UserRole.OWNER)
+                .approvedByOwner(true)
+                .build();
+        userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Optional.of(user);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        JwtService jwtService = new JwtService(SECRET, 3600);
+        token = jwtService.generateToken("owner", 42L, 7L, "OWNER");
+
+        request = new MockHttpServletRequest("GET", "/v1/api/invoices");
+        request.setServletPath("/v1/api/invoices");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+
+        filter = new JwtAuthenticationFilter(jwtService, newPrincipalCache(), new SimpleMeterRegistry());
+        filter.init();
+        filterWithoutTokenCache = new JwtAuthenticationFilter(
+                new JwtService(SECRET, 3600, 0), newPrincipalCache(), new SimpleMeterRegistry());
+        filterWithoutTokenCache.init();
+    }
+
+    private PrincipalCache newPrincipalCache() throws Exception {
+        PrincipalCache cache = new PrincipalCache(userRepository, new SimpleMeterRegistry());
+        Method init = PrincipalCache.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(cache);
+        return cache;
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // what the filter did before: new parser, signature check and a user lookup on every request
+    @Benchmark
+    public Object legacyFilterPath() {
+        String header = request.getHeader("Authorization");
+        Jws<Claims> jws = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(header.substring(7));
+        Long userId = jws.getBody().get("uid", Long.class);
+        CustomUserDetails principal = new CustomUserDetails(userRepository.findById(userId).orElseThrow());
+        UsernamePasswordAuthenticationToken auth =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        return auth;
+    }
+
+    @Benchmark
+    public Object filterPathWithoutTokenCache() throws Exception {
+        filterWithoutTokenCache.doFilterInternal(request, response, NOOP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object filterPath() throws Exception {
+        filter.doFilterInternal(request, response, NOOP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
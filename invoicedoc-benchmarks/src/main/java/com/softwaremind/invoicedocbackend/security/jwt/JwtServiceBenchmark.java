@@ -0,0 +1,41 @@
+package com.softwaremind.invoicedocbackend.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// JwtService.parseToken alone, without the filter around it.
+// "withoutCache" verifies the signature on every call, which is what a token seen for the first time costs.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "BenchmarkJwtSecretThatIsLongEnoughForHs256";
+
+    private JwtService jwtService;
+    private JwtService jwtServiceWithoutCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 3600);
+        jwtServiceWithoutCache = new JwtService(SECRET, 3600, 0);
+        token = jwtService.generateToken("owner", 42L, 7L, "OWNER");
+    }
+
+    @Benchmark
+    public Jws<Claims> parseToken() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public Jws<Claims> parseTokenWithoutCache() {
+        return jwtServiceWithoutCache.parseToken(token);
+    }
+}